@@ -0,0 +1,105 @@
+package org.jlab.clas.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleUnaryOperator;
+
+import org.jlab.rec.ahdc.Cluster.Cluster;
+import org.jlab.rec.ahdc.Hit.Hit;
+import org.jlab.rec.ahdc.HoughTransform.HoughTransform;
+import org.jlab.rec.ahdc.HoughTransform.SparseHoughTransform;
+import org.jlab.rec.ahdc.PreCluster.PreCluster;
+import org.jlab.rec.ahdc.Track.Track;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * AHDC Hough transform track finding, rebuilding the accumulator for every
+ * track versus updating it, on simulated events with tracks from the
+ * beamline and as many random background clusters.  Each track gives one
+ * cluster per pair of stereo superlayers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AHDCHoughBenchmark {
+
+    // superlayer and layer of the two preclusters of each cluster:
+    static final int[][] PAIRS = {{0,0,1,0}, {1,1,2,0}, {2,1,3,0}, {3,1,4,0}};
+    static final int[]   WIRES = {47, 56, 72, 87, 99};
+    static final double[] RADII = {32, 38, 48, 58, 68};
+
+    @Param({"2", "5", "10", "20"})
+    public int ntracks;
+
+    private final List<Cluster> clusters = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+        Random random = new Random(12345);
+        for (int t = 0; t < ntracks; t++) {
+            double phi0 = 2*Math.PI*random.nextDouble();
+            double radius = (random.nextBoolean() ? 1 : -1)*(40 + 360*random.nextDouble());
+            double z = 200*(random.nextDouble() - 0.5);
+            for (int[] pair : PAIRS) {
+                clusters.add(cluster(pair, z, r -> phi0 + Math.asin(r/(2*radius))));
+            }
+        }
+        for (int n = 0; n < ntracks*PAIRS.length; n++) {
+            double phi = 2*Math.PI*random.nextDouble();
+            double z = 200*(random.nextDouble() - 0.5);
+            clusters.add(cluster(PAIRS[random.nextInt(PAIRS.length)], z, r -> phi));
+        }
+    }
+
+    /**
+     * Cluster of the nearest wires to the trajectory, with the stereo
+     * angles of the superlayers shifting the wires with z.
+     */
+    private static Cluster cluster(int[] pair, double z, DoubleUnaryOperator trajectory) {
+        PreCluster[] pre = new PreCluster[2];
+        for (int k = 0; k < 2; k++) {
+            int superlayer = pair[2*k];
+            int layer = pair[2*k+1];
+            double r = RADII[superlayer] + 4*layer;
+            double stereo = -Math.pow(-1, superlayer)*Math.toRadians(20)*(z + 150)/300;
+            double phi = trajectory.applyAsDouble(r) + stereo;
+            double alpha = 2*Math.PI/WIRES[superlayer];
+            int wire = (int) Math.round(Math.atan2(-Math.cos(phi), -Math.sin(phi))/alpha);
+            wire = ((wire % WIRES[superlayer]) + WIRES[superlayer]) % WIRES[superlayer];
+            ArrayList<Hit> hits = new ArrayList<>();
+            hits.add(new Hit(0, superlayer, layer, wire, 0));
+            pre[k] = new PreCluster(hits);
+        }
+        return new Cluster(pre[0], pre[1]);
+    }
+
+    @Benchmark
+    public List<Track> houghTransform() {
+        HoughTransform hough = new HoughTransform();
+        hough.find_tracks(new ArrayList<>(clusters));
+        return hough.get_AHDCTracks();
+    }
+
+    @Benchmark
+    public List<Track> sparseHoughTransform() {
+        HoughTransform hough = new SparseHoughTransform();
+        hough.find_tracks(new ArrayList<>(clusters));
+        return hough.get_AHDCTracks();
+    }
+}
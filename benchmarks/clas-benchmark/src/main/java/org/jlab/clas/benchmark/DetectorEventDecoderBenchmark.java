@@ -0,0 +1,127 @@
+package org.jlab.clas.benchmark;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.jlab.detector.calib.utils.ConstantsManager;
+import org.jlab.detector.calib.utils.ConstantsSnapshot;
+import org.jlab.detector.calib.utils.RCDBConstants;
+import org.jlab.detector.decode.DetectorDataDgtz;
+import org.jlab.detector.decode.DetectorEventDecoder;
+import org.jlab.utils.groups.IndexedTable;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Crate/slot/channel translation of one event's worth of digitized data.
+ * The translation and fitter tables are synthetic and served from a
+ * {@link ConstantsSnapshot}, so no database connection is needed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DetectorEventDecoderBenchmark {
+
+    static final int RUN      = 999999;
+    static final int NSLOTS   = 16;
+    static final int NCHANNELS = 16;
+    static final int NHITS    = 3000;
+
+    // same tables as DetectorEventDecoder.initDecoder():
+    static final List<String> TRANSLATION_TABLES = Arrays.asList(
+            "/daq/tt/ftcal","/daq/tt/fthodo","/daq/tt/fttrk","/daq/tt/ltcc",
+            "/daq/tt/ec","/daq/tt/ftof","/daq/tt/htcc","/daq/tt/dc","/daq/tt/ctof","/daq/tt/cnd","/daq/tt/svt",
+            "/daq/tt/rf","/daq/tt/bmt","/daq/tt/fmt","/daq/tt/rich2","/daq/tt/hel","/daq/tt/band","/daq/tt/rtpc",
+            "/daq/tt/raster","/daq/tt/atof","/daq/tt/ahdc");
+    static final List<String> FITTER_TABLES = Arrays.asList(
+            "/daq/fadc/ftcal","/daq/fadc/fthodo","/daq/config/fttrk","/daq/fadc/ftof","/daq/fadc/ltcc",
+            "/daq/fadc/ec", "/daq/fadc/htcc","/daq/fadc/ctof","/daq/fadc/cnd","/daq/config/bmt",
+            "/daq/config/fmt","/daq/fadc/hel","/daq/fadc/rf","/daq/fadc/band","/daq/fadc/raster",
+            "/daq/config/ahdc");
+
+    private final List<DetectorDataDgtz> hits = new ArrayList<>();
+    private ConstantsSnapshot previous;
+    private File file;
+    private DetectorEventDecoder decoder;
+
+    @Setup
+    public void setup() throws Exception {
+        // each translation table gets its own crate, 16 slots x 16 channels:
+        ConstantsSnapshot.Writer writer = new ConstantsSnapshot.Writer("default", "");
+        for (int t = 0; t < TRANSLATION_TABLES.size(); t++) {
+            IndexedTable table = new IndexedTable(3, "sector/I:layer/I:component/I:order/I");
+            for (int slot = 1; slot <= NSLOTS; slot++) {
+                for (int channel = 0; channel < NCHANNELS; channel++) {
+                    table.addEntry(t+1, slot, channel);
+                    table.setIntValue(1 + slot%6, "sector", t+1, slot, channel);
+                    table.setIntValue(1 + slot/6, "layer", t+1, slot, channel);
+                    table.setIntValue(1 + channel, "component", t+1, slot, channel);
+                    table.setIntValue(channel%2, "order", t+1, slot, channel);
+                }
+            }
+            writer.addTable(RUN, TRANSLATION_TABLES.get(t), table);
+        }
+        for (int t = 0; t < FITTER_TABLES.size(); t++) {
+            IndexedTable table = new IndexedTable(3,
+                    "nsa/I:nsb/I:tet/I:pedestal/I:adc_offset/D:dream_clock/D:sampling_time/D:sparse/I");
+            table.addEntry(0, 0, 0);
+            for (int slot = 1; slot <= NSLOTS; slot++) {
+                for (int channel = 0; channel < NCHANNELS; channel++) {
+                    table.addEntry(t+1, slot, channel);
+                    table.setIntValue(20, "nsa", t+1, slot, channel);
+                    table.setIntValue(4, "nsb", t+1, slot, channel);
+                    table.setIntValue(10, "tet", t+1, slot, channel);
+                    table.setIntValue(200, "pedestal", t+1, slot, channel);
+                }
+            }
+            writer.addTable(RUN, FITTER_TABLES.get(t), table);
+        }
+        writer.addRcdbConstants(RUN, new RCDBConstants());
+        file = File.createTempFile("clas-benchmark-", ".snapshot");
+        file.deleteOnExit();
+        writer.write(file.getPath());
+
+        previous = ConstantsManager.getSnapshot();
+        ConstantsManager.setSnapshot(ConstantsSnapshot.open(file.getPath()));
+        decoder = new DetectorEventDecoder();
+        decoder.setRunNumber(RUN);
+
+        // mostly known channels, some not in any table:
+        Random random = new Random(12345);
+        for (int i = 0; i < NHITS; i++) {
+            int crate = 1 + random.nextInt(TRANSLATION_TABLES.size() + 2);
+            hits.add(new DetectorDataDgtz(crate, 1 + random.nextInt(NSLOTS), random.nextInt(NCHANNELS)));
+        }
+        decoder.translate(hits);
+    }
+
+    @TearDown
+    public void tearDown() {
+        ConstantsManager.setSnapshot(previous);
+        file.delete();
+    }
+
+    @Benchmark
+    public void translate(Blackhole bh) {
+        decoder.translate(hits);
+        bh.consume(hits);
+    }
+}
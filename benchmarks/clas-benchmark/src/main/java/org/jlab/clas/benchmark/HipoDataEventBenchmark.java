@@ -0,0 +1,84 @@
+package org.jlab.clas.benchmark;
+
+import java.io.File;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.jlab.io.base.DataBank;
+import org.jlab.io.hipo.HipoDataEvent;
+import org.jlab.jnp.hipo4.data.Event;
+import org.jlab.jnp.hipo4.data.SchemaFactory;
+import org.jlab.utils.system.ClasUtilsFile;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Reading a DC::tdc bank of typical size from an event, as every engine
+ * in the chain does, with and without the decoded bank cache.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HipoDataEventBenchmark {
+
+    static final int NHITS = 2000;
+
+    @Param({"false", "true"})
+    public boolean bankCache;
+
+    private HipoDataEvent event;
+
+    /**
+     * Locate the bank definitions from CLAS12DIR, or else from the first
+     * parent of the working directory that contains them.
+     * @return the schema factory
+     */
+    static SchemaFactory getSchemaFactory() {
+        if (System.getenv("CLAS12DIR") == null && System.getProperty("CLAS12DIR") == null) {
+            File dir = new File(System.getProperty("user.dir")).getAbsoluteFile();
+            while (dir != null && !new File(dir, "etc/bankdefs/hipo4").isDirectory()) dir = dir.getParentFile();
+            if (dir != null) System.setProperty("CLAS12DIR", dir.getPath());
+        }
+        SchemaFactory factory = new SchemaFactory();
+        factory.initFromDirectory(ClasUtilsFile.getResourceDir("CLAS12DIR", "etc/bankdefs/hipo4"));
+        return factory;
+    }
+
+    @Setup
+    public void setup() {
+        HipoDataEvent.setBankCache(bankCache);
+        event = new HipoDataEvent(new Event(), getSchemaFactory());
+        DataBank bank = event.createBank("DC::tdc", NHITS);
+        Random random = new Random(12345);
+        for (int i = 0; i < NHITS; i++) {
+            bank.setByte("sector", i, (byte) (1 + random.nextInt(6)));
+            bank.setByte("layer", i, (byte) (1 + random.nextInt(36)));
+            bank.setShort("component", i, (short) (1 + random.nextInt(112)));
+            bank.setByte("order", i, (byte) 2);
+            bank.setInt("TDC", i, random.nextInt(2000));
+        }
+        event.appendBank(bank);
+    }
+
+    @Benchmark
+    public void getBank(Blackhole bh) {
+        DataBank bank = event.getBank("DC::tdc");
+        int sum = 0;
+        for (int i = 0; i < bank.rows(); i++) sum += bank.getInt("TDC", i);
+        bh.consume(sum);
+    }
+}
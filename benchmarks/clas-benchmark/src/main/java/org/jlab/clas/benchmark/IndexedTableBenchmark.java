@@ -0,0 +1,89 @@
+package org.jlab.clas.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.jlab.utils.groups.CompactIndexedTable;
+import org.jlab.utils.groups.IndexedTable;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Calibration constant lookups by sector/layer/component, as done per hit
+ * in the reconstruction engines, with {@link IndexedTable} and with its
+ * {@link CompactIndexedTable} snapshot.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IndexedTableBenchmark {
+
+    static final int NLOOKUPS = 1024;
+
+    private final int[] sector    = new int[NLOOKUPS];
+    private final int[] layer     = new int[NLOOKUPS];
+    private final int[] component = new int[NLOOKUPS];
+
+    private IndexedTable table;
+    private CompactIndexedTable compact;
+    private int gain;
+    private int offset;
+
+    @Setup
+    public void setup() {
+        // an ECAL-sized table of 6 sectors x 9 views x 68 strips:
+        table = new IndexedTable(3, "gain/D:offset/D:status/I");
+        Random random = new Random(12345);
+        for (int s = 1; s <= 6; s++) {
+            for (int l = 1; l <= 9; l++) {
+                for (int c = 1; c <= 68; c++) {
+                    table.addEntry(s, l, c);
+                    table.setDoubleValue(0.9 + 0.2*random.nextDouble(), "gain", s, l, c);
+                    table.setDoubleValue(random.nextGaussian(), "offset", s, l, c);
+                    table.setIntValue(random.nextInt(4), "status", s, l, c);
+                }
+            }
+        }
+        compact = table.compact();
+        gain = compact.column("gain");
+        offset = compact.column("offset");
+
+        for (int i = 0; i < NLOOKUPS; i++) {
+            sector[i]    = 1 + random.nextInt(6);
+            layer[i]     = 1 + random.nextInt(9);
+            component[i] = 1 + random.nextInt(68);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NLOOKUPS)
+    public void indexedTable(Blackhole bh) {
+        for (int i = 0; i < NLOOKUPS; i++) {
+            bh.consume(table.getDoubleValue("gain", sector[i], layer[i], component[i])
+                     + table.getDoubleValue("offset", sector[i], layer[i], component[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NLOOKUPS)
+    public void compactIndexedTable(Blackhole bh) {
+        for (int i = 0; i < NLOOKUPS; i++) {
+            long key = CompactIndexedTable.key(sector[i], layer[i], component[i]);
+            bh.consume(compact.getDouble(gain, key) + compact.getDouble(offset, key));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package org.jlab.clas.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.jlab.clas.tracking.kalmanfilter.zReference.KFitter;
+import org.jlab.clas.tracking.utilities.MatrixOps.Libr;
+import org.jlab.jnp.matrix.Matrix;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Covariance update of the zReference Kalman filter step, on a fixed set of
+ * positive definite covariance matrices and DC-like measurement projections.
+ * JNP does two 5x5 inversions per measurement, KF5 a rank one update of the
+ * packed matrix.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KFitterBenchmark {
+
+    static final int NSTATES = 256;
+
+    @Param({"JNP", "KF5"})
+    public Libr library;
+
+    private final Matrix[]   covariance = new Matrix[NSTATES];
+    private final double[][] projection = new double[NSTATES][];
+    private final double[]   variance   = new double[NSTATES];
+
+    private KFitter fitter;
+
+    @Setup
+    public void setup() {
+        fitter = new KFitter(true, 1, 1, null, new double[]{0}, library);
+
+        // C = A*A^T + diag, with state errors of the size seen in DC tracking:
+        Random random = new Random(12345);
+        double[] scale = {0.5, 0.5, 0.01, 0.01, 0.05};
+        for (int s = 0; s < NSTATES; s++) {
+            double[][] a = new double[5][5];
+            for (int i = 0; i < 5; i++) {
+                for (int j = 0; j < 5; j++) a[i][j] = scale[i]*random.nextGaussian();
+            }
+            double[] c = new double[25];
+            for (int i = 0; i < 5; i++) {
+                for (int j = 0; j < 5; j++) {
+                    for (int k = 0; k < 5; k++) c[5*i+j] += a[i][k]*a[j][k];
+                }
+                c[5*i+i] += scale[i]*scale[i];
+            }
+            covariance[s] = new Matrix();
+            covariance[s].set(c[0],  c[1],  c[2],  c[3],  c[4],
+                              c[5],  c[6],  c[7],  c[8],  c[9],
+                              c[10], c[11], c[12], c[13], c[14],
+                              c[15], c[16], c[17], c[18], c[19],
+                              c[20], c[21], c[22], c[23], c[24]);
+            double angle = Math.toRadians(random.nextBoolean() ? 6 : -6);
+            projection[s] = new double[]{-Math.sin(angle), Math.cos(angle), 0, 0, 0};
+            variance[s] = Math.pow(0.02 + 0.03*random.nextDouble(), 2);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NSTATES)
+    public void filterCovMat(Blackhole bh) {
+        for (int s = 0; s < NSTATES; s++) {
+            bh.consume(fitter.filterCovMat(projection[s], covariance[s], variance[s]));
+        }
+    }
+}
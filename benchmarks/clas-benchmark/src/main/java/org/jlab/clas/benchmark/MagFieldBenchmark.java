@@ -0,0 +1,93 @@
+package org.jlab.clas.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import cnuphys.magfield.CompositeField;
+import cnuphys.magfield.CompositeProbe;
+import cnuphys.magfield.MagneticFields;
+import cnuphys.magfield.TorusProbe;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Field lookups with the probes used by the swimmers, on a fixed set of
+ * points in the forward detector and around the target.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MagFieldBenchmark {
+
+    static final int NPOINTS = 1024;
+
+    private final float[] x = new float[NPOINTS];
+    private final float[] y = new float[NPOINTS];
+    private final float[] z = new float[NPOINTS];
+    private final float[] result = new float[3];
+    private final float[] bx = new float[NPOINTS];
+    private final float[] by = new float[NPOINTS];
+    private final float[] bz = new float[NPOINTS];
+
+    private TorusProbe torusProbe;
+    private CompositeProbe compositeProbe;
+
+    @Setup
+    public void setup() throws Exception {
+        SyntheticFieldMaps.initialize();
+        MagneticFields fields = MagneticFields.getInstance();
+        torusProbe = new TorusProbe(fields.getTorus());
+        compositeProbe = new CompositeProbe((CompositeField) fields.getIField(MagneticFields.FieldType.COMPOSITE));
+
+        // half of the points in the torus, half near the solenoid (cm):
+        Random random = new Random(12345);
+        for (int i = 0; i < NPOINTS; i++) {
+            double phi = 2*Math.PI*random.nextDouble();
+            double rho = i%2==0 ? 20 + 400*random.nextDouble() : 80*random.nextDouble();
+            x[i] = (float) (rho*Math.cos(phi));
+            y[i] = (float) (rho*Math.sin(phi));
+            z[i] = (float) (i%2==0 ? 150 + 400*random.nextDouble() : -100 + 200*random.nextDouble());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NPOINTS)
+    public void torusProbe(Blackhole bh) {
+        for (int i = 0; i < NPOINTS; i++) {
+            torusProbe.field(x[i], y[i], z[i], result);
+            bh.consume(result[0] + result[1] + result[2]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NPOINTS)
+    public void compositeProbe(Blackhole bh) {
+        for (int i = 0; i < NPOINTS; i++) {
+            compositeProbe.field(x[i], y[i], z[i], result);
+            bh.consume(result[0] + result[1] + result[2]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NPOINTS)
+    public void compositeProbeBatch(Blackhole bh) {
+        compositeProbe.field(x, y, z, bx, by, bz, NPOINTS);
+        bh.consume(bx);
+        bh.consume(by);
+        bh.consume(bz);
+    }
+}
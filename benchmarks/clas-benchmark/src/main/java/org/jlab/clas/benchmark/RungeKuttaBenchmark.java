@@ -0,0 +1,86 @@
+package org.jlab.clas.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import cnuphys.magfield.FieldProbe;
+import cnuphys.magfield.MagneticFields;
+import cnuphys.rk4.RungeKutta;
+import cnuphys.rk4.RungeKuttaException;
+import cnuphys.swim.DefaultDerivative;
+import cnuphys.swim.DefaultZStopper;
+import cnuphys.swim.Swimmer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Integration of the equations of motion to a fixed z with the RungeKutta
+ * drivers, without storing a trajectory.  Run with {@code -prof gc} to see
+ * the allocation rate, which should be close to zero per step.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RungeKuttaBenchmark {
+
+    static final int NTRACKS = 64;
+
+    // meters:
+    static final double TARGET_Z  = 5.0;
+    static final double ACCURACY  = 1e-5;
+    static final double MAX_PATH  = 8.0;
+    static final double STEP_SIZE = 5e-4;
+
+    private final int[]      charge = new int[NTRACKS];
+    private final double[]   p      = new double[NTRACKS];
+    private final double[][] uo     = new double[NTRACKS][6];
+
+    private final double[] uf    = new double[6];
+    private final double[] hdata = new double[3];
+
+    private FieldProbe probe;
+    private int track = 0;
+
+    @Setup
+    public void setup() throws Exception {
+        SyntheticFieldMaps.initialize();
+        probe = FieldProbe.factory(MagneticFields.getInstance().getIField(MagneticFields.FieldType.COMPOSITE));
+
+        Random random = new Random(12345);
+        for (int i = 0; i < NTRACKS; i++) {
+            charge[i] = random.nextBoolean() ? 1 : -1;
+            p[i] = 1.0 + 7.0*random.nextDouble();
+            double theta = Math.toRadians(7.0 + 28.0*random.nextDouble());
+            double phi = Math.toRadians(-180.0 + 360.0*random.nextDouble());
+            uo[i][2] = -0.05 + 0.1*random.nextDouble();
+            uo[i][3] = Math.sin(theta)*Math.cos(phi);
+            uo[i][4] = Math.sin(theta)*Math.sin(phi);
+            uo[i][5] = Math.cos(theta);
+        }
+    }
+
+    @Benchmark
+    public void adaptiveStep(Blackhole bh) throws RungeKuttaException {
+        track = (track+1) % NTRACKS;
+        DefaultDerivative deriv = new DefaultDerivative(charge[track], p[track], probe);
+        DefaultZStopper stopper = new DefaultZStopper(0, MAX_PATH, TARGET_Z, ACCURACY, true);
+        RungeKutta rk = new RungeKutta();
+        int nstep = rk.adaptiveStep(uo[track], uf, 0, MAX_PATH, STEP_SIZE, RungeKutta.DEFMAXSTEPSIZE,
+                deriv, stopper, null, Swimmer.CLAS_Tolerance, hdata);
+        bh.consume(nstep);
+        bh.consume(uf[2]);
+    }
+}
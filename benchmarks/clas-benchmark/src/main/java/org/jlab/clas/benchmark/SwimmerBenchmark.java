@@ -0,0 +1,99 @@
+package org.jlab.clas.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import cnuphys.adaptiveSwim.AdaptiveSwimException;
+import cnuphys.adaptiveSwim.AdaptiveSwimResult;
+import cnuphys.adaptiveSwim.AdaptiveSwimmer;
+import cnuphys.magfield.CompositeField;
+import cnuphys.magfield.MagneticFields;
+import cnuphys.rk4.RungeKuttaException;
+import cnuphys.swim.SwimTrajectory;
+import cnuphys.swim.Swimmer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Swims from the target to a fixed z in the forward detector, with the
+ * adaptive step Swimmer used by tracking and with the AdaptiveSwimmer,
+ * cycling through a fixed set of forward-going tracks.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SwimmerBenchmark {
+
+    static final int NTRACKS = 64;
+
+    // all lengths in meters, angles in degrees:
+    static final double TARGET_Z   = 5.0;
+    static final double ACCURACY   = 1e-5;
+    static final double MAX_RADIUS = 8.0;
+    static final double MAX_PATH   = 8.0;
+    static final double STEP_SIZE  = 5e-4;
+    static final double EPS        = 1e-6;
+
+    private final int[]    charge = new int[NTRACKS];
+    private final double[] p      = new double[NTRACKS];
+    private final double[] theta  = new double[NTRACKS];
+    private final double[] phi    = new double[NTRACKS];
+    private final double[] vz     = new double[NTRACKS];
+
+    private Swimmer swimmer;
+    private AdaptiveSwimmer adaptiveSwimmer;
+    private final double[] hdata = new double[3];
+    private int track = 0;
+
+    @Setup
+    public void setup() throws Exception {
+        SyntheticFieldMaps.initialize();
+        CompositeField field = (CompositeField) MagneticFields.getInstance().getIField(MagneticFields.FieldType.COMPOSITE);
+        swimmer = new Swimmer(field);
+        adaptiveSwimmer = new AdaptiveSwimmer(field);
+
+        Random random = new Random(12345);
+        for (int i = 0; i < NTRACKS; i++) {
+            charge[i] = random.nextBoolean() ? 1 : -1;
+            p[i]      = 1.0 + 7.0*random.nextDouble();
+            theta[i]  = 7.0 + 28.0*random.nextDouble();
+            phi[i]    = -180.0 + 360.0*random.nextDouble();
+            vz[i]     = -0.05 + 0.1*random.nextDouble();
+        }
+    }
+
+    private int next() {
+        track = (track+1) % NTRACKS;
+        return track;
+    }
+
+    @Benchmark
+    public void swimmerFixedZ(Blackhole bh) throws RungeKuttaException {
+        int i = next();
+        SwimTrajectory traj = swimmer.swim(charge[i], 0, 0, vz[i], p[i], theta[i], phi[i],
+                TARGET_Z, ACCURACY, MAX_RADIUS, MAX_PATH, STEP_SIZE, Swimmer.CLAS_Tolerance, hdata);
+        bh.consume(traj);
+    }
+
+    @Benchmark
+    public void adaptiveSwimZ(Blackhole bh) throws AdaptiveSwimException {
+        int i = next();
+        AdaptiveSwimResult result = new AdaptiveSwimResult(false);
+        adaptiveSwimmer.swimZ(charge[i], 0, 0, vz[i], p[i], theta[i], phi[i],
+                TARGET_Z, ACCURACY, MAX_PATH, STEP_SIZE, EPS, result);
+        bh.consume(result.getUf());
+    }
+}
@@ -0,0 +1,107 @@
+package org.jlab.clas.benchmark;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import cnuphys.magfield.MagneticField;
+import cnuphys.magfield.MagneticFields;
+
+/**
+ * Writes small, smooth torus and solenoid field maps in the binary format of
+ * the real maps, so the field and swimming benchmarks don't depend on the
+ * installed maps.  The grids have the real map extents, the same
+ * interpolation code paths, and a fixed analytic content.
+ */
+public class SyntheticFieldMaps {
+
+    private static File directory = null;
+
+    /**
+     * Write the maps, once per JVM, and make them the active fields.
+     * @return the directory holding the maps
+     * @throws Exception if the maps can't be written or read
+     */
+    public static synchronized File initialize() throws Exception {
+        if (directory == null) {
+            File dir = new File(System.getProperty("java.io.tmpdir"), "clas-benchmark-fields");
+            dir.mkdirs();
+            File torus = new File(dir, "synthetic-torus.dat");
+            File solenoid = new File(dir, "synthetic-solenoid.dat");
+            writeTorus(torus);
+            writeSolenoid(solenoid);
+            MagneticFields.getInstance().initializeMagneticFieldsFromPath(torus.getPath(), solenoid.getPath());
+            directory = dir;
+        }
+        return directory;
+    }
+
+    private static DataOutputStream header(File file, int fieldCS, float[] q1, float[] q2, float[] q3) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1<<16));
+        out.writeInt(MagneticField.MAGICNUMBER);
+        out.writeInt(0);       // grid: cylindrical
+        out.writeInt(fieldCS); // field: 0 cylindrical, 1 Cartesian
+        out.writeInt(0);       // cm
+        out.writeInt(0);       // degrees
+        out.writeInt(0);       // kG
+        for (float[] q : new float[][]{q1, q2, q3}) {
+            out.writeFloat(q[0]);
+            out.writeFloat(q[1]);
+            out.writeInt((int) q[2]);
+        }
+        for (int i = 0; i < 5; i++) out.writeInt(0); // time and reserved words
+        return out;
+    }
+
+    private static double value(float[] q, int i) {
+        return q[2] > 1 ? q[0] + i*(q[1]-q[0])/(q[2]-1) : q[0];
+    }
+
+    /**
+     * One 30 degree sector with 12-fold symmetry, azimuthal field
+     * concentrated between the coils.
+     */
+    static void writeTorus(File file) throws IOException {
+        float[] phi = {0f, 30f, 61};
+        float[] rho = {0f, 500f, 126};
+        float[] z   = {100f, 600f, 126};
+        try (DataOutputStream out = header(file, 1, phi, rho, z)) {
+            for (int i = 0; i < (int) phi[2]; i++) {
+                double p = Math.toRadians(value(phi, i));
+                for (int j = 0; j < (int) rho[2]; j++) {
+                    double r = value(rho, j);
+                    for (int k = 0; k < (int) z[2]; k++) {
+                        double zz = value(z, k);
+                        double b = -25.0 * r/(r*r/200.0 + 50.0) * Math.exp(-Math.pow((zz-380.0)/120.0, 2)) * Math.cos(3*p);
+                        out.writeFloat((float) (-b*Math.sin(p)));
+                        out.writeFloat((float) (b*Math.cos(p)));
+                        out.writeFloat((float) (0.05*b));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Axially symmetric solenoid, field components (phi, rho, z).
+     */
+    static void writeSolenoid(File file) throws IOException {
+        float[] phi = {0f, 0f, 1};
+        float[] rho = {0f, 300f, 151};
+        float[] z   = {-300f, 300f, 301};
+        try (DataOutputStream out = header(file, 0, phi, rho, z)) {
+            for (int j = 0; j < (int) rho[2]; j++) {
+                double r = value(rho, j);
+                for (int k = 0; k < (int) z[2]; k++) {
+                    double zz = value(z, k);
+                    double g = Math.exp(-(r*r)/(2*60.0*60.0) - (zz*zz)/(2*80.0*80.0));
+                    out.writeFloat(0f);
+                    out.writeFloat((float) (50.0*g*r*zz/(2*80.0*80.0)));
+                    out.writeFloat((float) (50.0*g));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package org.jlab.clas.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.jlab.detector.base.DetectorType;
+import org.jlab.geom.prim.Point3D;
+import org.jlab.rec.cvt.bmt.BMTType;
+import org.jlab.rec.cvt.cross.Cross;
+import org.jlab.rec.cvt.track.MakerCA;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cell building and neighbour search of the CVT cellular automaton seeder
+ * in the XY plane, versus the number of SVT crosses.  Half of the crosses
+ * are on tracks from the beamline and half are random background.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MakerCABenchmark {
+
+    static final double[] RADII = {6.5, 9.3, 12.2}; // SVT regions
+
+    @Param({"30", "60", "120", "240", "480"})
+    public int ncrosses;
+
+    private final List<Cross> crosses = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+        Random random = new Random(12345);
+        int id = 1;
+        while (crosses.size() < ncrosses) {
+            boolean background = crosses.size() >= ncrosses/2;
+            double phi0 = Math.PI*(2*random.nextDouble()-1);
+            double curvature = 0.02*(random.nextDouble()-0.5);
+            double tanL = 2*(random.nextDouble()-0.5);
+            for (int region = 1; region <= 3 && crosses.size() < ncrosses; region++) {
+                double r = RADII[region-1] + 0.1*random.nextGaussian();
+                double phi = background ? Math.PI*(2*random.nextDouble()-1) : phi0 + curvature*r;
+                Cross cross = new Cross(DetectorType.BST, BMTType.UNDEFINED, 1, region, id++);
+                cross.setOrderedRegion(region);
+                cross.setPoint0(new Point3D(r*Math.cos(phi), r*Math.sin(phi), tanL*r));
+                cross.setPoint(cross.getPoint0());
+                crosses.add(cross);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<?> createCells() {
+        MakerCA maker = new MakerCA(false);
+        maker.setPlane("XY");
+        maker.setcosBtwCells(0.95);
+        maker.setabCrs(20);
+        maker.setaCvsR(45);
+        maker.createCells(new ArrayList<>(crosses));
+        maker.findNeigbors();
+        return maker.getNodes();
+    }
+}
@@ -3,7 +3,9 @@ package org.jlab.analysis.eventmerger;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.jlab.detector.banks.RawBank;
 import org.jlab.detector.banks.RawBank.OrderType;
 import org.jlab.detector.base.DetectorDescriptor;
@@ -32,6 +34,9 @@ public class ADCTDCMerger {
     private List<DataEvent> bgEvents;
     private int run;
     
+    // background hits read ahead, by bank name and background event
+    private final Map<String, List<List<DGTZ>>> bgHits = new HashMap<>();
+    
     /**
      * ADC-TDC merger tool: merges raw hits from physics and background events, 
      * accounting for pile-ups
@@ -48,6 +53,53 @@ public class ADCTDCMerger {
             run = bgEvents.get(0).getBank("RUN::config").getInt("run", 0);                
     }
 
+    /**
+     * Set the physics event the background hits are merged with
+     * @param signal physics event
+     */
+    public void setEvent(DataEvent signal) {
+        this.event = signal;
+    }
+
+    /**
+     * Read the background hits of the selected detectors ahead of merging,
+     * for example on a different thread than the merging itself;
+     * the hits read are merged only once
+     * @param detectors
+     */
+    public void readBackground(List<DetectorType> detectors) {
+        for(DetectorType detector : detectors) {
+            if(EventMergerConstants.ADCs.contains(detector)) {
+                this.readBackground(detector, detector.getName()+"::adc", false);
+            }
+            if(EventMergerConstants.TDCs.contains(detector)) {
+                this.readBackground(detector, detector+"::tdc", true);
+            }
+        }
+    }
+    
+    private void readBackground(DetectorType detector, String name, boolean tdc) {
+        List<List<DGTZ>> hits = new ArrayList<>();
+        for(DataEvent bg : bgEvents) {
+            if(!bg.hasBank(name)) 
+                hits.add(null);
+            else if(tdc)
+                hits.add(readTDCs(detector, bg.getBank(name)));
+            else
+                hits.add(readADCs(detector, bg.getBank(name)));
+        }
+        bgHits.put(name, hits);
+    }
+    
+    private List<DGTZ> getBackground(DetectorType detector, String name, int i, boolean tdc) {
+        if(bgHits.containsKey(name) && bgHits.get(name).get(i)!=null)
+            return bgHits.get(name).get(i);
+        else if(tdc)
+            return readTDCs(detector, bgEvents.get(i).getBank(name));
+        else
+            return readADCs(detector, bgEvents.get(i).getBank(name));
+    }
+
     /**
      * Set pile-up operation mode:
      * keep first hit in time if true or both if false
@@ -138,7 +190,7 @@ public class ADCTDCMerger {
             return event.getBank(ADCString);
         }
         else {
-            List<DGTZ> bgADCs  = readADCs(detector,bg.getBank(ADCString));
+            List<DGTZ> bgADCs  = getBackground(detector, ADCString, 0, false);
             List<DGTZ> ADCs    = readADCs(detector,event.getBank(ADCString));
 
             DataBank bank = this.writeToBank(event, ADCString, this.merge(ADCs, bgADCs));
@@ -175,7 +227,7 @@ public class ADCTDCMerger {
                 if(bg.hasBank(TDCString)) {
                     // get TDCs, correct them for jitter and shift them in time
                     int jitter = this.getTDCJitter(detector, bg);
-                    for(DGTZ dgtz : readTDCs(detector, bg.getBank(TDCString))) {
+                    for(DGTZ dgtz : getBackground(detector, TDCString, i, true)) {
                         TDC tdc = (TDC) dgtz;
                         int layer  = tdc.getLayer();
                         int comp   = tdc.getComponent();
@@ -107,17 +107,49 @@ public class EventMerger {
      * @param bg2
      */
     public void mergeEvents(DataEvent event, DataEvent bg1, DataEvent bg2) {
+        this.mergeEvents(event, this.createMerger(bg1, bg2));
+    }
+    
+    /**
+     * Read the hits of two background events ahead of merging, this is 
+     * thread safe and does not need the physics event
+     * 
+     * @param bg1
+     * @param bg2
+     * @return the background hits to be passed to {@link #mergeEvents(DataEvent, ADCTDCMerger)}
+     */
+    public ADCTDCMerger readBackground(DataEvent bg1, DataEvent bg2) {
+        ADCTDCMerger merger = this.createMerger(bg1, bg2);
+        if(merger!=null) merger.readBackground(detectors);
+        return merger;
+    }
+    
+    private ADCTDCMerger createMerger(DataEvent bg1, DataEvent bg2) {
+        if(!bg1.hasBank("RUN::config") || !bg2.hasBank("RUN::config")) {
+            return null;
+        }
+        ADCTDCMerger merger = new ADCTDCMerger(constants, null, bg1, bg2);
+        merger.setSuppressDoubleHits(suppressDoubleHits);
+        merger.setPreserveHitOrder(preserveHitOrder);
+        merger.setSelectedOrders(orders);
+        return merger;
+    }
+    
+    /**
+     * Append merged banks to hipo event
+     * 
+     * @param event
+     * @param merger background hits from {@link #readBackground(DataEvent, DataEvent)}
+     */
+    public void mergeEvents(DataEvent event, ADCTDCMerger merger) {
         
-        if(!event.hasBank("RUN::config") || !bg1.hasBank("RUN::config") || !bg2.hasBank("RUN::config")) {
+        if(!event.hasBank("RUN::config") || merger==null) {
             return;
         }
         
         if(event.hasBank("DC::doca")) event.removeBank("DC::doca");
         
-        ADCTDCMerger merger = new ADCTDCMerger(constants, event, bg1, bg2);
-        merger.setSuppressDoubleHits(suppressDoubleHits);
-        merger.setPreserveHitOrder(preserveHitOrder);
-        merger.setSelectedOrders(orders);
+        merger.setEvent(event);
         
         for(DetectorType det : detectors) {
             
@@ -8,6 +8,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Logger;
 import org.jlab.logging.DefaultLogger;
 
@@ -62,9 +63,12 @@ public class Processor {
             conman = new ConstantsManager();
             conman.init(CCDB_TABLES);
             schemaFactory = r.getSchemaFactory();
-            helicitySequence = Util.getHelicity(preloadFiles, schemaFactory, restream, conman);
+            // the helicity and charge pre-scans read the same files independently:
+            CompletableFuture<HelicitySequenceDelayed> helicity = CompletableFuture.supplyAsync(
+                    () -> Util.getHelicity(preloadFiles, schemaFactory, restream, conman));
             if (rebuild) chargeSequence = DaqScalersSequence.rebuildSequence(1, conman, preloadFiles);
             else chargeSequence = DaqScalersSequence.readSequence(preloadFiles);
+            helicitySequence = helicity.join();
             r.close();
         }
     }
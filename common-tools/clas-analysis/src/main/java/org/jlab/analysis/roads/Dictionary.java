@@ -10,6 +10,8 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.IntSupplier;
+import java.util.function.Predicate;
 import org.jlab.clas.physics.Particle;
 import org.jlab.utils.benchmark.ProgressPrintout;
 
@@ -43,6 +45,27 @@ public class Dictionary extends HashMap<ArrayList<Byte>, Particle> {
     }
         
     public void readDictionary(String fileName, TestMode mode, int wireBinning, int stripBinning, int sectorDependence, int maxRoads) {
+        readRoads(fileName, wireBinning, stripBinning, sectorDependence, maxRoads, road -> {
+            ArrayList<Byte> key = road.getKey(mode);
+            if(this.containsKey(key)) return false;
+            this.put(key, road.getParticle());
+            return true;
+        }, this::size);
+    }
+
+    /**
+     * Reads the roads of a dictionary file, with the given binning, and
+     * passes them to add, which returns false if the road is a duplicate.
+     * @param fileName the dictionary file
+     * @param wireBinning the DC wire binning
+     * @param stripBinning the FTOF paddle and PCAL strip binning
+     * @param sectorDependence 0 to ignore the sector
+     * @param maxRoads the maximum number of roads read, negative for all
+     * @param add stores a road, returns false if it was already stored
+     * @param size the number of roads stored
+     */
+    static void readRoads(String fileName, int wireBinning, int stripBinning, int sectorDependence, int maxRoads, 
+                          Predicate<Road> add, IntSupplier size) {
         
         System.out.println("\nReading dictionary from file " + fileName);
         System.out.println("\nMaximum number of roads set to: " + maxRoads);
@@ -64,17 +87,14 @@ public class Dictionary extends HashMap<ArrayList<Byte>, Particle> {
                 Road road = new Road(line);
                 road.setBinning(wireBinning, stripBinning, sectorDependence);
                 nFull++;
-                if(this.containsKey(road.getKey(mode))) {
+                if(!add.test(road)) {
                     nDupli++;
                     if(nDupli<10) System.out.println("WARNING: found duplicate road");
                     else if(nDupli==10) System.out.println("WARNING: reached maximum number of warnings, switching to silent mode");
                 }
-                else {
-                    this.put(road.getKey(mode), road.getParticle());
-                }
                 progress.setAsInteger("roads",      nFull);
                 progress.setAsInteger("duplicates", nDupli);
-                progress.setAsInteger("good",       this.size());
+                progress.setAsInteger("good",       size.getAsInt());
                 progress.updateStatus();
             }
             txtreader.close();
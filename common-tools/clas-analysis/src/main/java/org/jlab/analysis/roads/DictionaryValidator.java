@@ -23,7 +23,7 @@ import org.jlab.utils.options.OptionParser;
 
 public class DictionaryValidator {
 
-    private Dictionary             dictionary = null;
+    private PackedDictionary       dictionary = null;
     private Map<String, DataGroup> dataGroups = new LinkedHashMap<>();
     private EmbeddedCanvasTabbed   canvas     = null;
             
@@ -184,7 +184,7 @@ public class DictionaryValidator {
     }
 
     public void init(String filename, TestMode mode, int wireBin, int stripBin, int sectorDependence, int maxRoads) {
-        this.dictionary = new Dictionary();
+        this.dictionary = new PackedDictionary();
         this.dictionary.readDictionary(filename, mode, wireBin, stripBin, sectorDependence, maxRoads);
         this.createHistos(mode, wireBin, stripBin, sectorDependence);
         this.plotRoads();
@@ -230,8 +230,8 @@ public class DictionaryValidator {
     }
     
     public void plotRoads() {
-        for(ArrayList<Byte> key : this.dictionary.keySet()) {
-            Road road = this.dictionary.getRoad(key);
+        for(int i=0; i<this.dictionary.size(); i++) {
+            Road road = this.dictionary.getRoad(i);
             int icharge = 0;
             if(road.getParticle().charge()>0) icharge = 1;
             this.fillHistos("Dictionary", charges[icharge], road);
@@ -277,13 +277,7 @@ public class DictionaryValidator {
                 part.setBinning(wireBin, pcalBin, sectorDependence);
                 if(!part.isValid(mode)) continue;
                 int ichPart   = (part.getParticle().charge()+1)/2;
-                Road road = null;
-                for(ArrayList<Byte> key : part.getKeys(mode, smearing)) {
-                    if(this.dictionary.containsKey(key)) {
-                        road = this.dictionary.getRoad(key);
-                        break;
-                    }
-                }
+                Road road = this.dictionary.findRoad(part, mode, smearing);
                 if(road != null) {
                     int ichRoad = (road.getParticle().charge()+1)/2;
                     this.fillHistos("Matched Roads", charges[ichRoad], road);
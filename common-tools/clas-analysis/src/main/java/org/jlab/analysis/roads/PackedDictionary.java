@@ -0,0 +1,234 @@
+package org.jlab.analysis.roads;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.jlab.analysis.roads.Dictionary.TestMode;
+import org.jlab.clas.physics.Particle;
+
+/**
+ * Read-only dictionary of roads, with the keys stored as fixed-width rows
+ * of a single byte array instead of lists of boxed bytes.
+ *
+ * Rows are sorted by sector, htcc mask and then by the other key elements
+ * in key order, so that the roads matching a smeared key are found by
+ * narrowing the range of rows one element at a time, and the first match
+ * is the one {@link Road#getKeys(TestMode, int)} would find first.
+ */
+public class PackedDictionary {
+
+    public static final int KEY_SIZE = 13;
+
+    // key elements in row order
+    private static final int[] ORDER = {12, 11, 0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+
+    private byte[]     keys      = new byte[1024*KEY_SIZE];
+    private Particle[] particles = new Particle[1024];
+    private int        size      = 0;
+
+    // open addressing table of row + 1, used while adding roads
+    private int[]   table  = null;
+    private boolean sorted = true;
+
+    public PackedDictionary() {
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds a road, unless its key is already present.
+     * @param key the road key
+     * @param particle the road particle
+     * @return false if the key was already present
+     */
+    public boolean put(List<Byte> key, Particle particle) {
+        byte[] row = this.toRow(key);
+        if(row == null) return false;
+        if(table == null) this.buildTable();
+        int mask = table.length - 1;
+        int slot = hash(row, 0) & mask;
+        for(; table[slot] != 0; slot = (slot + 1) & mask) {
+            if(this.equals(table[slot] - 1, row)) return false;
+        }
+        if(size == particles.length) {
+            keys      = Arrays.copyOf(keys, 2*keys.length);
+            particles = Arrays.copyOf(particles, 2*particles.length);
+        }
+        System.arraycopy(row, 0, keys, size*KEY_SIZE, KEY_SIZE);
+        particles[size] = particle;
+        table[slot] = ++size;
+        if(2*size > table.length) this.buildTable();
+        sorted = false;
+        return true;
+    }
+
+    public boolean containsKey(List<Byte> key) {
+        return this.find(this.toRow(key)) >= 0;
+    }
+
+    public Particle get(List<Byte> key) {
+        int i = this.find(this.toRow(key));
+        return i < 0 ? null : particles[i];
+    }
+
+    public Road getRoad(ArrayList<Byte> key) {
+        int i = this.find(this.toRow(key));
+        return i < 0 ? null : new Road(key, particles[i]);
+    }
+
+    /**
+     * @param i the road index, from 0 to size() excluded
+     * @return the road
+     */
+    public Road getRoad(int i) {
+        return new Road(this.getKey(i), this.getParticle(i));
+    }
+
+    public ArrayList<Byte> getKey(int i) {
+        this.sort();
+        ArrayList<Byte> key = new ArrayList<>();
+        for(int j=0; j<KEY_SIZE; j++) key.add((byte) 0);
+        for(int j=0; j<KEY_SIZE; j++) key.set(ORDER[j], keys[i*KEY_SIZE + j]);
+        return key;
+    }
+
+    public Particle getParticle(int i) {
+        this.sort();
+        return particles[i];
+    }
+
+    /**
+     * Finds the dictionary road matching the track within the smearing,
+     * with the same key order and same result as probing each key of
+     * {@link Road#getKeys(TestMode, int)} in turn.
+     * @param track the track
+     * @param mode the test mode
+     * @param width the smearing width
+     * @return the matching road or null
+     */
+    public Road findRoad(Road track, TestMode mode, int width) {
+        ArrayList<Byte> key = track.getKey(mode);
+        byte[] values  = new byte[KEY_SIZE];
+        int[]  smear   = new int[KEY_SIZE];
+        int[]  binning = new int[KEY_SIZE];
+        for(int j=0; j<KEY_SIZE; j++) {
+            int i = ORDER[j];
+            values[j] = key.get(i);
+            // sector and htcc mask are never smeared
+            if(i<11 && values[j]!=0) smear[j] = (byte) (track.getSmearing(i)*width);
+            binning[j] = track.getBinning(i);
+        }
+        this.sort();
+        int i = this.find(values, smear, binning, 0, 0, size);
+        return i < 0 ? null : new Road(this.getKey(i), particles[i]);
+    }
+
+    public void readDictionary(String fileName, TestMode mode, int wireBinning, int stripBinning, int sectorDependence) {
+        this.readDictionary(fileName, mode, wireBinning, stripBinning, sectorDependence, -1);
+    }
+
+    public void readDictionary(String fileName, TestMode mode, int wireBinning, int stripBinning, int sectorDependence, int maxRoads) {
+        Dictionary.readRoads(fileName, wireBinning, stripBinning, sectorDependence, maxRoads, 
+                             road -> this.put(road.getKey(mode), road.getParticle()), this::size);
+        table = null;
+        this.sort();
+    }
+
+    private int find(byte[] row) {
+        if(row == null) return -1;
+        this.sort();
+        return this.find(row, new int[KEY_SIZE], new int[KEY_SIZE], 0, 0, size);
+    }
+
+    /**
+     * Depth-first search of the rows from..to, which share the first
+     * level elements, trying the smeared values of each element in
+     * increasing order.
+     */
+    private int find(byte[] row, int[] smear, int[] binning, int level, int from, int to) {
+        if(level == KEY_SIZE) return from;
+        for(int k=-smear[level]; k<=smear[level]; k++) {
+            byte value = (byte) (row[level] + k*binning[level]);
+            int first = this.lowerBound(level, value, from, to);
+            int last  = value == Byte.MAX_VALUE ? to : this.lowerBound(level, (byte) (value+1), first, to);
+            if(first < last) {
+                int i = this.find(row, smear, binning, level+1, first, last);
+                if(i >= 0) return i;
+            }
+        }
+        return -1;
+    }
+
+    // first row in from..to with element level not lower than value
+    private int lowerBound(int level, byte value, int from, int to) {
+        while(from < to) {
+            int mid = (from + to) >>> 1;
+            if(keys[mid*KEY_SIZE + level] < value) from = mid + 1;
+            else                                   to   = mid;
+        }
+        return from;
+    }
+
+    // least significant element first radix sort of the rows
+    private void sort() {
+        if(sorted) return;
+        int[] order = new int[size];
+        int[] next  = new int[size];
+        for(int i=0; i<size; i++) order[i] = i;
+        int[] counts = new int[257];
+        for(int level=KEY_SIZE-1; level>=0; level--) {
+            Arrays.fill(counts, 0);
+            for(int i=0; i<size; i++) counts[((keys[i*KEY_SIZE + level] & 0xFF) ^ 0x80) + 1]++;
+            for(int b=0; b<256; b++) counts[b+1] += counts[b];
+            for(int i=0; i<size; i++) next[counts[(keys[order[i]*KEY_SIZE + level] & 0xFF) ^ 0x80]++] = order[i];
+            int[] tmp = order;
+            order = next;
+            next  = tmp;
+        }
+        byte[]     sortedKeys      = new byte[size*KEY_SIZE];
+        Particle[] sortedParticles = new Particle[size];
+        for(int i=0; i<size; i++) {
+            System.arraycopy(keys, order[i]*KEY_SIZE, sortedKeys, i*KEY_SIZE, KEY_SIZE);
+            sortedParticles[i] = particles[order[i]];
+        }
+        keys      = sortedKeys;
+        particles = sortedParticles;
+        if(table != null) this.buildTable();
+        sorted = true;
+    }
+
+    private void buildTable() {
+        int capacity = 1024;
+        while(capacity < 2*size + 2) capacity *= 2;
+        table = new int[capacity];
+        int mask = capacity - 1;
+        for(int i=0; i<size; i++) {
+            int slot = hash(keys, i*KEY_SIZE) & mask;
+            while(table[slot] != 0) slot = (slot + 1) & mask;
+            table[slot] = i + 1;
+        }
+    }
+
+    private boolean equals(int i, byte[] row) {
+        for(int j=0; j<KEY_SIZE; j++) {
+            if(keys[i*KEY_SIZE + j] != row[j]) return false;
+        }
+        return true;
+    }
+
+    private static int hash(byte[] bytes, int offset) {
+        int h = 0;
+        for(int j=0; j<KEY_SIZE; j++) h = 31*h + bytes[offset + j];
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private byte[] toRow(List<Byte> key) {
+        if(key.size() != KEY_SIZE) return null;
+        byte[] row = new byte[KEY_SIZE];
+        for(int j=0; j<KEY_SIZE; j++) row[j] = key.get(ORDER[j]);
+        return row;
+    }
+}
@@ -505,6 +505,14 @@ public class Road {
         else System.out.println("ROAD: error in setting the DC wire number for layer " + layer);
     }
     
+    byte getBinning(int i) {
+        return binning[i];
+    }
+
+    byte getSmearing(int i) {
+        return smearing[i];
+    }
+
     public void setDCbinning(int r1, int r2, int r3) {
         binning[0] = (byte) r1;
         binning[1] = (byte) r1;
@@ -0,0 +1,80 @@
+package org.jlab.analysis.roads;
+
+import java.util.ArrayList;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import org.jlab.analysis.roads.Dictionary.TestMode;
+import org.jlab.clas.physics.Particle;
+
+/**
+ * Checks that PackedDictionary.findRoad returns the road found by probing
+ * the keys of Road.getKeys in turn, on small random dictionaries.
+ */
+public class PackedDictionaryTest {
+
+    static final int NROADS  = 400;
+    static final int NTRACKS = 40;
+
+    // roads from narrow ranges of values, so that smeared keys match often
+    private static Road road(Random rnd, int binning) {
+        Road road = new Road();
+        road.setParticle(new Particle(211, rnd.nextDouble(), rnd.nextDouble(), 1, 0, 0, 0));
+        for(int layer=1; layer<=36; layer++) road.setWire(layer, (byte) (1 + 2*((layer-1)/6) + rnd.nextInt(4)));
+        for(int layer=1; layer<=3; layer++) road.setPaddle(layer, (byte) (1 + rnd.nextInt(3)));
+        for(int layer=1; layer<=3; layer++) road.setStrip(layer, (byte) (1 + rnd.nextInt(3)));
+        road.setHtccMask((byte) (1 + rnd.nextInt(2)));
+        road.setSector((byte) (1 + rnd.nextInt(2)));
+        road.setBinning(binning, binning, 1);
+        return road;
+    }
+
+    private static void compare(TestMode mode, int binning, Random rnd) {
+        Dictionary       dictionary = new Dictionary();
+        PackedDictionary packed     = new PackedDictionary();
+        for(int i=0; i<NROADS; i++) {
+            Road road = road(rnd, binning);
+            ArrayList<Byte> key = road.getKey(mode);
+            assertEquals(!dictionary.containsKey(key), packed.put(key, road.getParticle()));
+            if(!dictionary.containsKey(key)) dictionary.put(key, road.getParticle());
+        }
+        assertEquals(dictionary.size(), packed.size());
+
+        int[] found = new int[2];
+        for(int i=0; i<NTRACKS; i++) {
+            Road track = road(rnd, binning);
+            for(int width=0; width<=1; width++) {
+                ArrayList<Byte> expected = null;
+                for(ArrayList<Byte> key : track.getKeys(mode, width)) {
+                    if(dictionary.containsKey(key)) {
+                        expected = key;
+                        break;
+                    }
+                }
+                Road road = packed.findRoad(track, mode, width);
+                if(expected == null) {
+                    assertNull(road);
+                }
+                else {
+                    assertNotNull(road);
+                    assertEquals(expected, road.getKey(mode));
+                    assertSame(dictionary.get(expected), road.getParticle());
+                    found[width]++;
+                }
+            }
+        }
+        // the smeared lookups find roads the exact ones miss:
+        assertTrue(found[1] > found[0]);
+    }
+
+    @Test
+    public void testFindRoad() {
+        Random rnd = new Random(20240601);
+        for(int binning=1; binning<=2; binning++) {
+            compare(TestMode.DC, binning, rnd);
+            compare(TestMode.DCFTOFPCALUVWHTCC, binning, rnd);
+        }
+    }
+
+}
@@ -1,5 +1,10 @@
 package org.jlab.detector.calib.utils;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -8,12 +13,21 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.jlab.utils.groups.IndexedTable;
 
 /**
+ * Loads and caches the constants of the initialized tables for each run.
+ * <p>
+ * The per-run constants are kept in a concurrent cache, unbounded by default.
+ * A limit can be set with {@link #setMaxRuns(int)} or -Dconstants.maxruns, in
+ * which case the least recently used runs are evicted first and reloaded on
+ * their next request.  Each run gets its own tables, which callers may modify.
  *
  * @author gavalian
  */
@@ -21,10 +35,15 @@ public class ConstantsManager {
 
     private static Logger LOGGER = Logger.getLogger(ConstantsManager.class.getName());
 
+    public static final int DEFAULT_MAX_RUNS = 0;
+
     private DatabaseConstantsDescriptor defaultDescriptor = new DatabaseConstantsDescriptor();
-    private volatile Map<Integer, DatabaseConstantsDescriptor> runConstants = new LinkedHashMap<Integer, DatabaseConstantsDescriptor>();
+    private final RunCache<DatabaseConstantsDescriptor> runConstants = new RunCache<>(Integer.getInteger("constants.maxruns", DEFAULT_MAX_RUNS));
     private volatile Map<Integer, Integer> runConstantRequestHistory = new LinkedHashMap<Integer, Integer>();
-    private static volatile Map<Integer, RCDBConstants> rcdbConstants = new LinkedHashMap<Integer, RCDBConstants>();
+    private static final RunCache<RCDBConstants> rcdbConstants = new RunCache<>(Integer.getInteger("constants.maxruns", DEFAULT_MAX_RUNS));
+    private static final Map<String, Integer> requiredTables = new LinkedHashMap<>();
+    private static volatile ConstantsSnapshot snapshot = null;
+    private static volatile boolean snapshotChecked = false;
 
     private String databaseVariation = "default";
     private String timeStamp = "";
@@ -51,12 +70,36 @@ public class ConstantsManager {
         this.timeStamp = timestamp;
     }
 
+    /**
+     * Set the maximum number of runs whose constants are kept in memory, the
+     * least recently used runs are evicted first.
+     * @param maxRuns maximum number of runs, 0 for no limit
+     */
+    public void setMaxRuns(int maxRuns) {
+        this.runConstants.setCapacity(maxRuns);
+    }
+
+    public int getMaxRuns() {
+        return this.runConstants.getCapacity();
+    }
+
+    /**
+     * Set the maximum number of runs whose RCDB constants are kept in memory,
+     * shared by all the ConstantsManager instances.
+     * @param maxRuns maximum number of runs, 0 for no limit
+     */
+    public static void setMaxRcdbRuns(int maxRuns) {
+        rcdbConstants.setCapacity(maxRuns);
+    }
+
     public synchronized void init(String... tables) {
         this.defaultDescriptor.addTables(tables);
+        register(this.defaultDescriptor);
     }
     
     public synchronized void init(List<String> tables) {
         this.defaultDescriptor.addTables(tables);
+        register(this.defaultDescriptor);
     }
     
     /**
@@ -65,8 +108,59 @@ public class ConstantsManager {
      */
     public synchronized void init(Map<String,Integer>  tables){
         this.defaultDescriptor.addTables(tables);
+        register(this.defaultDescriptor);
     }
     
+    private static void register(DatabaseConstantsDescriptor desc) {
+        synchronized (requiredTables) {
+            List<String> names = new ArrayList<>(desc.getTableNames());
+            for (int i = 0; i < names.size() && i < desc.getTableIndices().size(); i++) {
+                requiredTables.put(names.get(i), desc.getTableIndices().get(i));
+            }
+        }
+    }
+
+    /**
+     * @return the tables initialized in all the ConstantsManager instances so
+     * far, with their number of indices, e.g. for exporting a {@link ConstantsSnapshot}
+     */
+    public static Map<String, Integer> getRequiredTables() {
+        synchronized (requiredTables) {
+            return new LinkedHashMap<>(requiredTables);
+        }
+    }
+
+    /**
+     * Use the given snapshot, instead of the database, for the runs, variation
+     * and timestamp it contains.  By default the snapshot is opened from the
+     * CCDB_SNAPSHOT environment variable or system property, if defined.
+     * @param snap the snapshot, or null to always use the database
+     */
+    public static void setSnapshot(ConstantsSnapshot snap) {
+        snapshot = snap;
+        snapshotChecked = true;
+    }
+
+    public static ConstantsSnapshot getSnapshot() {
+        if (!snapshotChecked) {
+            synchronized (ConstantsSnapshot.class) {
+                if (!snapshotChecked) {
+                    String file = System.getenv("CCDB_SNAPSHOT");
+                    if (file == null) file = System.getProperty("CCDB_SNAPSHOT");
+                    if (file != null) {
+                        try {
+                            snapshot = ConstantsSnapshot.open(file);
+                        } catch (IOException e) {
+                            LOGGER.log(Level.SEVERE, "[ConstantsManager] ---> error opening snapshot " + file + " : " + e.getMessage());
+                        }
+                    }
+                    snapshotChecked = true;
+                }
+            }
+        }
+        return snapshot;
+    }
+
     public int getRequestStatus(){
         return requestStatus;
     }
@@ -75,14 +169,15 @@ public class ConstantsManager {
         Set<String> keysSet = new LinkedHashSet<String>(keys);
         Set<String> tablesSet = new LinkedHashSet<String>(tables);
         this.defaultDescriptor.addTables(keysSet, tablesSet);
+        register(this.defaultDescriptor);
 
     }
 
     public IndexedTable getConstants(int run, String table) {
-        if (this.runConstants.containsKey(run) == false) {
-            this.loadConstantsForRun(run);
-        }
         DatabaseConstantsDescriptor descriptor = this.runConstants.get(run);
+        if (descriptor == null) {
+            descriptor = this.loadConstantsForRun(run);
+        }
         if (descriptor.getMap().containsKey(table) == false) {
             LOGGER.log(Level.SEVERE,
                     "[getConstants] error ( run = " + run + " ) " + " table not found with name : " + table);
@@ -91,20 +186,25 @@ public class ConstantsManager {
     }
 
     public RCDBConstants getRcdbConstants(int run) {
-        if (this.rcdbConstants.containsKey(run) == false) {
+        RCDBConstants constants = rcdbConstants.get(run);
+        if (constants == null) {
             this.loadConstantsForRun(run);
+            constants = rcdbConstants.peek(run);
         }
-        return this.rcdbConstants.get(run);
+        return constants;
     }
 
     public RCDBConstants.RCDBConstant getRcdbConstant(int run, String name) {
         return getRcdbConstants(run).get(name);
     }
 
-    private synchronized void loadConstantsForRun(int run) {
+    private synchronized DatabaseConstantsDescriptor loadConstantsForRun(int run) {
 
-        if (this.runConstants.containsKey(run) == true)
-            return;
+        DatabaseConstantsDescriptor cached = this.runConstants.peek(run);
+        if (cached != null) {
+            if (rcdbConstants.peek(run) == null) this.loadRcdbConstants(run);
+            return cached;
+        }
 
         if (this.runConstantRequestHistory.containsKey(run) == false) {
             runConstantRequestHistory.put(run, 1);
@@ -120,14 +220,28 @@ public class ConstantsManager {
 
         LOGGER.log(Level.INFO, "[ConstantsManager] --->  loading table for run = " + run);
         DatabaseConstantsDescriptor desc = defaultDescriptor.getCopy(run);
-        DatabaseConstantProvider provider = new DatabaseConstantProvider(run, this.databaseVariation, this.timeStamp);
+        DatabaseConstantProvider provider = null;
+
+        ConstantsSnapshot snap = getSnapshot();
+        if (snap != null && (!snap.hasRun(run) || !snap.matches(this.databaseVariation, this.timeStamp))) {
+            LOGGER.log(Level.WARNING, String.format("[ConstantsManager] ---> snapshot %s has no run %d for variation %s, using the database",
+                    snap.getFileName(), run, this.databaseVariation));
+            snap = null;
+        }
 
         List<String> tn = new ArrayList<String>(desc.getTableNames());
         List<String> tk = new ArrayList<String>(desc.getTableKeys());
 
         for (int i = 0; i < desc.getTableNames().size(); i++) {
             String tableName = tn.get(i);
+            IndexedTable snapTable = snap == null ? null : snap.getTable(run, tableName, desc.getTableIndices().get(i));
+            if (snapTable != null) {
+                desc.getMap().put(tk.get(i), snapTable);
+                LOGGER.log(Level.INFO, String.format("***** >>> adding : %14s / table = %s (snapshot)", tk.get(i), tableName));
+                continue;
+            }
             try {
+                if (provider == null) provider = new DatabaseConstantProvider(run, this.databaseVariation, this.timeStamp);
                 IndexedTable  table = provider.readTable(tableName, desc.getTableIndices().get(i));
                 desc.getMap().put(tk.get(i), table);
                 LOGGER.log(Level.INFO, String.format("***** >>> adding : %14s / table = %s", tk.get(i), tableName));
@@ -139,13 +253,60 @@ public class ConstantsManager {
                 requestStatus = -1;
             }
         }
-        provider.disconnect();
-        this.runConstants.put(run, desc);
+        if (provider != null) provider.disconnect();
+        desc.setRunNumber(run);
+        for (int evicted : this.runConstants.put(run, desc)) {
+            // a run reloaded after eviction is not a failed request:
+            this.runConstantRequestHistory.remove(evicted);
+            LOGGER.log(Level.INFO, "[ConstantsManager] --->  evicted tables for run = " + evicted);
+        }
+
+        if (rcdbConstants.peek(run) == null) this.loadRcdbConstants(run);
+        return desc;
+    }
 
-        if (this.rcdbConstants.containsKey(run) == false) {
-            RCDBProvider rcdbpro = new RCDBProvider();
-            this.rcdbConstants.put(run, rcdbpro.getConstants(run));
-            rcdbpro.disconnect();
+    private void loadRcdbConstants(int run) {
+        synchronized (rcdbConstants) {
+            if (rcdbConstants.peek(run) == null) {
+                ConstantsSnapshot snap = getSnapshot();
+                RCDBConstants constants = snap == null ? null : snap.getRcdbConstants(run);
+                if (constants != null) {
+                    rcdbConstants.put(run, constants);
+                    return;
+                }
+                RCDBProvider rcdbpro = new RCDBProvider();
+                rcdbConstants.put(run, rcdbpro.getConstants(run));
+                rcdbpro.disconnect();
+            }
+        }
+    }
+
+    static String fingerprint(String tableName, IndexedTable table) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            int nindex = table.getList().getIndexSize();
+            int ncolumns = table.getColumnCount() - nindex;
+            StringBuilder str = new StringBuilder();
+            str.append(tableName).append('/').append(nindex);
+            for (int c = 0; c < ncolumns; c++) {
+                String name = table.getEntryName(c);
+                str.append(':').append(name).append('/').append(table.getEntryType(name));
+            }
+            digest.update(str.toString().getBytes(StandardCharsets.UTF_8));
+            Map<Long, IndexedTable.IndexedEntry> rows = table.getList().getMap();
+            for (Map.Entry<Long, IndexedTable.IndexedEntry> entry : rows.entrySet()) {
+                str.setLength(0);
+                str.append('\n').append(entry.getKey());
+                for (int c = 0; c < entry.getValue().getSize(); c++) {
+                    str.append(' ').append(entry.getValue().getValue(c));
+                }
+                digest.update(str.toString().getBytes(StandardCharsets.UTF_8));
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) hex.append(String.format("%02x", b));
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return null;
         }
     }
 
@@ -153,10 +314,29 @@ public class ConstantsManager {
         this.runConstants.clear();
     }
 
+    public long getCacheHits() {
+        return this.runConstants.hits.sum();
+    }
+
+    public long getCacheMisses() {
+        return this.runConstants.misses.sum();
+    }
+
+    public long getCacheEvictions() {
+        return this.runConstants.evictions.sum();
+    }
+
+    public String getCacheStatistics() {
+        return String.format("[ConstantsManager] runs cached %d/%d, hits %d, misses %d, evictions %d, rcdb hits %d, misses %d, evictions %d",
+                this.runConstants.size(), this.runConstants.getCapacity(), this.getCacheHits(), this.getCacheMisses(),
+                this.getCacheEvictions(), rcdbConstants.hits.sum(), rcdbConstants.misses.sum(),
+                rcdbConstants.evictions.sum());
+    }
+
     @Override
     public String toString() {
         StringBuilder str = new StringBuilder();
-        for (Map.Entry<Integer, DatabaseConstantsDescriptor> entry : runConstants.entrySet()) {
+        for (Map.Entry<Integer, DatabaseConstantsDescriptor> entry : runConstants.entries()) {
             str.append("CONSTANTS SET FOR RUN = ");
             str.append(entry.getKey());
             str.append("\n");
@@ -168,6 +348,108 @@ public class ConstantsManager {
         return str.toString();
     }
 
+    /**
+     * Concurrent least-recently-used cache of per-run objects.  Lookups are
+     * lock free, insertions and evictions are serialized by the caller.
+     */
+    static class RunCache<V> {
+
+        private final Map<Integer, Entry<V>> map = new ConcurrentHashMap<>();
+        private final AtomicLong clock = new AtomicLong();
+        private volatile int capacity;
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+        final LongAdder evictions = new LongAdder();
+
+        private static class Entry<V> {
+            final V value;
+            volatile long lastAccess;
+            Entry(V value, long time) {
+                this.value = value;
+                this.lastAccess = time;
+            }
+        }
+
+        RunCache(int capacity) {
+            this.capacity = Math.max(0, capacity);
+        }
+
+        int getCapacity() {
+            return this.capacity;
+        }
+
+        synchronized void setCapacity(int capacity) {
+            this.capacity = Math.max(0, capacity);
+            this.evict(-1);
+        }
+
+        int size() {
+            return this.map.size();
+        }
+
+        /**
+         * @return the value for this run, or null, counting the access
+         */
+        V get(int run) {
+            Entry<V> entry = this.map.get(run);
+            if (entry == null) {
+                this.misses.increment();
+                return null;
+            }
+            this.hits.increment();
+            entry.lastAccess = this.clock.incrementAndGet();
+            return entry.value;
+        }
+
+        /**
+         * @return the value for this run, or null, without counting the access
+         */
+        V peek(int run) {
+            Entry<V> entry = this.map.get(run);
+            return entry == null ? null : entry.value;
+        }
+
+        /**
+         * @return the runs evicted to make room for this one
+         */
+        synchronized List<Integer> put(int run, V value) {
+            this.map.put(run, new Entry<>(value, this.clock.incrementAndGet()));
+            return this.evict(run);
+        }
+
+        private List<Integer> evict(int keep) {
+            List<Integer> evicted = new ArrayList<>();
+            while (this.capacity > 0 && this.map.size() > this.capacity) {
+                int oldest = keep;
+                long oldestTime = Long.MAX_VALUE;
+                for (Map.Entry<Integer, Entry<V>> entry : this.map.entrySet()) {
+                    if (entry.getKey() != keep && entry.getValue().lastAccess < oldestTime) {
+                        oldest = entry.getKey();
+                        oldestTime = entry.getValue().lastAccess;
+                    }
+                }
+                if (oldest == keep) break;
+                this.map.remove(oldest);
+                this.evictions.increment();
+                evicted.add(oldest);
+            }
+            return evicted;
+        }
+
+        void clear() {
+            this.map.clear();
+        }
+
+        List<Map.Entry<Integer, V>> entries() {
+            List<Map.Entry<Integer, V>> entries = new ArrayList<>();
+            for (Map.Entry<Integer, Entry<V>> entry : this.map.entrySet()) {
+                entries.add(new AbstractMap.SimpleEntry<>(entry.getKey(), entry.getValue().value));
+            }
+            entries.sort(Map.Entry.comparingByKey());
+            return entries;
+        }
+    }
+
     /**
      * Helper class to hold all constants for particular run.
      */
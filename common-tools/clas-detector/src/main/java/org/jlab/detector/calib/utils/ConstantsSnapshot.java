@@ -0,0 +1,492 @@
+package org.jlab.detector.calib.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.sql.Time;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.jlab.utils.groups.IndexedTable;
+import org.jlab.utils.options.OptionParser;
+
+/**
+ * Read-only snapshot of CCDB tables (and RCDB conditions) for a set of runs,
+ * stored in a single binary file that is memory-mapped and decoded without
+ * any text parsing, for starting jobs without a database connection.
+ * <p>
+ * Tables with identical content for different runs are stored once.  The
+ * file layout (big endian) is:
+ * <pre>
+ *   long   magic, int version
+ *   tables : int nindex, int[nindex] index name, int ncolumns,
+ *            {int name, byte type}[ncolumns], int nrows, long[nrows] keys,
+ *            then each column as double[nrows] or int[nrows]
+ *   directory : strings, variation, timestamp, table offsets, and for
+ *            each run the table ids and the RCDB conditions
+ *   long   directory offset
+ * </pre>
+ * where names are indices in the string list.  A snapshot is used by
+ * {@link ConstantsManager} when set with {@link ConstantsManager#setSnapshot}
+ * or with the CCDB_SNAPSHOT environment variable or system property.
+ */
+public class ConstantsSnapshot {
+
+    static final Logger LOGGER = Logger.getLogger(ConstantsSnapshot.class.getName());
+
+    public static final long MAGIC   = 0x434C415343434442L; // "CLASCCDB"
+    public static final int  VERSION = 1;
+
+    private static final byte TYPE_DOUBLE = 'D';
+    private static final byte TYPE_INT    = 'I';
+    private static final byte TYPE_LONG   = 'L';
+    private static final byte TYPE_STRING = 'S';
+    private static final byte TYPE_TIME   = 'T';
+
+    private final String fileName;
+    private final ByteBuffer buffer;
+    private final String[] strings;
+    private final String variation;
+    private final String timeStamp;
+    private final long[] tableOffsets;
+    private final Map<Integer, Map<String,Integer>> runTables = new HashMap<>();
+    private final Map<Integer, RCDBConstants> runConditions = new HashMap<>();
+
+    private ConstantsSnapshot(String fileName, ByteBuffer buffer) throws IOException {
+        this.fileName = fileName;
+        this.buffer = buffer;
+        if (buffer.getLong(0) != MAGIC) throw new IOException("not a constants snapshot : " + fileName);
+        if (buffer.getInt(8) != VERSION) throw new IOException("unsupported snapshot version " + buffer.getInt(8) + " : " + fileName);
+
+        ByteBuffer dir = buffer.duplicate();
+        dir.position((int) buffer.getLong(buffer.capacity()-8));
+
+        this.strings = new String[dir.getInt()];
+        for (int i = 0; i < this.strings.length; i++) {
+            byte[] bytes = new byte[dir.getInt()];
+            dir.get(bytes);
+            this.strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        this.variation = this.strings[dir.getInt()];
+        this.timeStamp = this.strings[dir.getInt()];
+
+        this.tableOffsets = new long[dir.getInt()];
+        for (int i = 0; i < this.tableOffsets.length; i++) this.tableOffsets[i] = dir.getLong();
+
+        int nruns = dir.getInt();
+        for (int r = 0; r < nruns; r++) {
+            int run = dir.getInt();
+            Map<String,Integer> tables = new HashMap<>();
+            int ntables = dir.getInt();
+            for (int t = 0; t < ntables; t++) {
+                int name = dir.getInt();
+                int id = dir.getInt();
+                tables.put(this.strings[name], id);
+            }
+            this.runTables.put(run, tables);
+            int nconditions = dir.getInt();
+            if (nconditions < 0) continue;
+            RCDBConstants conditions = new RCDBConstants();
+            for (int c = 0; c < nconditions; c++) {
+                String name = this.strings[dir.getInt()];
+                byte type = dir.get();
+                switch (type) {
+                    case TYPE_DOUBLE:
+                        conditions.add(name, dir.getDouble());
+                        break;
+                    case TYPE_LONG:
+                        conditions.add(name, dir.getLong());
+                        break;
+                    case TYPE_TIME:
+                        conditions.add(name, new Time(dir.getLong()));
+                        break;
+                    default:
+                        conditions.add(name, this.strings[dir.getInt()]);
+                        break;
+                }
+            }
+            this.runConditions.put(run, conditions);
+        }
+    }
+
+    /**
+     * Open a snapshot file, the file is memory-mapped and tables are decoded
+     * when requested.
+     * @param fileName name of the snapshot file
+     * @return the snapshot
+     * @throws IOException if the file can't be read or is not a snapshot
+     */
+    public static ConstantsSnapshot open(String fileName) throws IOException {
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(new File(fileName).toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) throw new IOException("snapshot larger than 2 GB : " + fileName);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            ConstantsSnapshot snapshot = new ConstantsSnapshot(fileName, buffer);
+            LOGGER.log(Level.INFO, String.format("[ConstantsSnapshot] ---> opened %s : %d runs, %d tables, variation = %s (%.1f ms)",
+                    fileName, snapshot.runTables.size(), snapshot.tableOffsets.length, snapshot.variation, (System.nanoTime()-start)/1e6));
+            return snapshot;
+        }
+    }
+
+    public String getFileName() { return this.fileName; }
+
+    public String getVariation() { return this.variation; }
+
+    public String getTimeStamp() { return this.timeStamp; }
+
+    public boolean hasRun(int run) {
+        return this.runTables.containsKey(run);
+    }
+
+    public List<Integer> getRuns() {
+        List<Integer> runs = new ArrayList<>(this.runTables.keySet());
+        runs.sort(null);
+        return runs;
+    }
+
+    /**
+     * @param variation CCDB variation
+     * @param timestamp CCDB timestamp
+     * @return true if this snapshot was exported with the same variation and timestamp
+     */
+    public boolean matches(String variation, String timestamp) {
+        return this.variation.equals(variation) && this.timeStamp.equals(timestamp == null ? "" : timestamp);
+    }
+
+    /**
+     * Get a table for a run, decoded from the file on each call so that
+     * callers get their own instance, which they may modify.
+     * @param run run number
+     * @param table table name
+     * @param nindex number of index columns requested
+     * @return the table, or null if it is not in the snapshot for this run
+     * or was exported with a different number of indices
+     */
+    public IndexedTable getTable(int run, String table, int nindex) {
+        Map<String,Integer> tables = this.runTables.get(run);
+        if (tables == null) return null;
+        Integer id = tables.get(table);
+        if (id == null) return null;
+        if (this.buffer.getInt((int) this.tableOffsets[id]) != nindex) return null;
+        return this.decode(id);
+    }
+
+    /**
+     * @param run run number
+     * @return RCDB conditions for the run, or null if they were not exported
+     */
+    public RCDBConstants getRcdbConstants(int run) {
+        return this.runConditions.get(run);
+    }
+
+    private IndexedTable decode(int id) {
+        ByteBuffer b = this.buffer.duplicate();
+        b.position((int) this.tableOffsets[id]);
+        int nindex = b.getInt();
+        String[] indexNames = new String[nindex];
+        for (int i = 0; i < nindex; i++) indexNames[i] = this.strings[b.getInt()];
+        int ncolumns = b.getInt();
+        String[] format = new String[ncolumns];
+        boolean[] isDouble = new boolean[ncolumns];
+        for (int c = 0; c < ncolumns; c++) {
+            String name = this.strings[b.getInt()];
+            isDouble[c] = b.get() == TYPE_DOUBLE;
+            format[c] = name + (isDouble[c] ? "/D" : "/I");
+        }
+        IndexedTable table = new IndexedTable(nindex, format);
+        for (int i = 0; i < nindex; i++) table.setIndexName(i, indexNames[i]);
+
+        int nrows = b.getInt();
+        long[] keys = new long[nrows];
+        b.asLongBuffer().get(keys);
+        b.position(b.position() + 8*nrows);
+        IndexedTable.IndexedEntry[] entries = new IndexedTable.IndexedEntry[nrows];
+        for (int r = 0; r < nrows; r++) entries[r] = new IndexedTable.IndexedEntry(ncolumns);
+        for (int c = 0; c < ncolumns; c++) {
+            if (isDouble[c]) {
+                double[] values = new double[nrows];
+                b.asDoubleBuffer().get(values);
+                for (int r = 0; r < nrows; r++) entries[r].setValue(c, values[r]);
+            } else {
+                int[] values = new int[nrows];
+                b.asIntBuffer().get(values);
+                for (int r = 0; r < nrows; r++) entries[r].setValue(c, values[r]);
+            }
+            b.position(b.position() + (isDouble[c] ? 8 : 4)*nrows);
+        }
+        Map<Long,IndexedTable.IndexedEntry> rows = table.getList().getMap();
+        for (int r = 0; r < nrows; r++) rows.put(keys[r], entries[r]);
+        return table;
+    }
+
+    /**
+     * Writer for snapshot files, collecting tables and conditions run by run.
+     */
+    public static class Writer {
+
+        private final String variation;
+        private final String timeStamp;
+        private final Map<String,Integer> stringIds = new LinkedHashMap<>();
+        private final Map<String,Integer> tableIds = new HashMap<>();
+        private final List<IndexedTable> tables = new ArrayList<>();
+        private final Map<Integer, Map<String,Integer>> runTables = new LinkedHashMap<>();
+        private final Map<Integer, RCDBConstants> runConditions = new HashMap<>();
+
+        public Writer(String variation, String timestamp) {
+            this.variation = variation;
+            this.timeStamp = timestamp == null ? "" : timestamp;
+        }
+
+        private int string(String s) {
+            return this.stringIds.computeIfAbsent(s, k -> this.stringIds.size());
+        }
+
+        /**
+         * Add a table for a run, identical tables are stored once.
+         * @param run run number
+         * @param name table name
+         * @param table the table
+         */
+        public void addTable(int run, String name, IndexedTable table) {
+            String key = ConstantsManager.fingerprint(name, table);
+            Integer id = key == null ? null : this.tableIds.get(key);
+            if (id == null) {
+                id = this.tables.size();
+                this.tables.add(table);
+                if (key != null) this.tableIds.put(key, id);
+            }
+            this.runTables.computeIfAbsent(run, k -> new LinkedHashMap<>()).put(name, id);
+        }
+
+        public void addRcdbConstants(int run, RCDBConstants constants) {
+            this.runTables.computeIfAbsent(run, k -> new LinkedHashMap<>());
+            this.runConditions.put(run, constants);
+        }
+
+        public int getTableCount() {
+            return this.tables.size();
+        }
+
+        public int getRunCount() {
+            return this.runTables.size();
+        }
+
+        public void write(String fileName) throws IOException {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fileName), 1<<16))) {
+                out.writeLong(MAGIC);
+                out.writeInt(VERSION);
+
+                long[] offsets = new long[this.tables.size()];
+                for (int t = 0; t < this.tables.size(); t++) {
+                    offsets[t] = out.size();
+                    this.writeTable(out, this.tables.get(t));
+                }
+
+                // build the directory first, to collect all the strings:
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                DataOutputStream dir = new DataOutputStream(bytes);
+                dir.writeInt(this.string(this.variation));
+                dir.writeInt(this.string(this.timeStamp));
+                dir.writeInt(offsets.length);
+                for (long offset : offsets) dir.writeLong(offset);
+                dir.writeInt(this.runTables.size());
+                for (Map.Entry<Integer, Map<String,Integer>> run : this.runTables.entrySet()) {
+                    dir.writeInt(run.getKey());
+                    dir.writeInt(run.getValue().size());
+                    for (Map.Entry<String,Integer> table : run.getValue().entrySet()) {
+                        dir.writeInt(this.string(table.getKey()));
+                        dir.writeInt(table.getValue());
+                    }
+                    RCDBConstants conditions = this.runConditions.get(run.getKey());
+                    if (conditions == null) {
+                        dir.writeInt(-1);
+                        continue;
+                    }
+                    dir.writeInt(conditions.getKeys().size());
+                    for (String name : conditions.getKeys()) {
+                        dir.writeInt(this.string(name));
+                        Object value = conditions.get(name).getValue();
+                        if (value instanceof Double) {
+                            dir.writeByte(TYPE_DOUBLE);
+                            dir.writeDouble((Double) value);
+                        } else if (value instanceof Long) {
+                            dir.writeByte(TYPE_LONG);
+                            dir.writeLong((Long) value);
+                        } else if (value instanceof Time) {
+                            dir.writeByte(TYPE_TIME);
+                            dir.writeLong(((Time) value).getTime());
+                        } else {
+                            dir.writeByte(TYPE_STRING);
+                            dir.writeInt(this.string(String.valueOf(value)));
+                        }
+                    }
+                }
+                dir.flush();
+
+                long directory = out.size();
+                out.writeInt(this.stringIds.size());
+                for (String str : this.stringIds.keySet()) {
+                    byte[] utf = str.getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(utf.length);
+                    out.write(utf);
+                }
+                bytes.writeTo(out);
+                out.writeLong(directory);
+                // DataOutputStream.size() saturates at 2 GB:
+                if (out.size() == Integer.MAX_VALUE) throw new IOException("snapshot larger than 2 GB : " + fileName);
+            }
+        }
+
+        private void writeTable(DataOutputStream out, IndexedTable table) throws IOException {
+            int nindex = table.getList().getIndexSize();
+            int ncolumns = table.getColumnCount() - nindex;
+            out.writeInt(nindex);
+            for (int i = 0; i < nindex; i++) out.writeInt(this.string(table.getIndexName(i)));
+            out.writeInt(ncolumns);
+            boolean[] isDouble = new boolean[ncolumns];
+            for (int c = 0; c < ncolumns; c++) {
+                String name = table.getEntryName(c);
+                isDouble[c] = "D".equals(table.getEntryType(name));
+                out.writeInt(this.string(name));
+                out.writeByte(isDouble[c] ? TYPE_DOUBLE : TYPE_INT);
+            }
+            Map<Long,IndexedTable.IndexedEntry> rows = table.getList().getMap();
+            out.writeInt(rows.size());
+            for (long key : rows.keySet()) out.writeLong(key);
+            for (int c = 0; c < ncolumns; c++) {
+                for (IndexedTable.IndexedEntry entry : rows.values()) {
+                    Number value = c < entry.getSize() ? entry.getValue(c) : null;
+                    if (isDouble[c]) out.writeDouble(value == null ? 0 : value.doubleValue());
+                    else             out.writeInt(value == null ? 0 : value.intValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Read a list of tables, one per line with the table name optionally
+     * followed by the number of index columns.  Empty lines and lines
+     * starting with # are ignored.
+     * @param fileName name of the file
+     * @return map of table name to number of indices
+     * @throws IOException if the file can't be read
+     */
+    public static Map<String,Integer> readTableList(String fileName) throws IOException {
+        Map<String,Integer> tables = new LinkedHashMap<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(fileName))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] tokens = line.split("\\s+");
+                int nindex = tokens.length > 1 ? Integer.parseInt(tokens[1]) : DatabaseConstantProvider.DEFAULT_INDICES;
+                tables.put(tokens[0], nindex);
+            }
+        }
+        return tables;
+    }
+
+    /**
+     * Write a list of tables in the format read by {@link #readTableList}.
+     * @param fileName name of the file
+     * @param tables map of table name to number of indices
+     * @throws IOException if the file can't be written
+     */
+    public static void writeTableList(String fileName, Map<String,Integer> tables) throws IOException {
+        try (PrintWriter writer = new PrintWriter(fileName)) {
+            for (Map.Entry<String,Integer> table : tables.entrySet()) {
+                writer.println(table.getKey() + " " + table.getValue());
+            }
+        }
+    }
+
+    /**
+     * @param runs comma-separated list of runs and run ranges, e.g. "5038,5040-5050"
+     * @return list of runs
+     */
+    public static List<Integer> parseRuns(String runs) {
+        List<Integer> list = new ArrayList<>();
+        for (String token : runs.split(",")) {
+            token = token.trim();
+            if (token.isEmpty()) continue;
+            int dash = token.indexOf('-', 1);
+            if (dash < 0) {
+                list.add(Integer.parseInt(token));
+            } else {
+                int first = Integer.parseInt(token.substring(0, dash));
+                int last  = Integer.parseInt(token.substring(dash+1));
+                for (int run = first; run <= last; run++) list.add(run);
+            }
+        }
+        return list;
+    }
+
+    public static void main(String[] args) {
+
+        OptionParser parser = new OptionParser("constants-snapshot");
+        parser.setDescription("Export CCDB tables and RCDB conditions for a list of runs into a snapshot file");
+        parser.setRequiresInputList(false);
+        parser.addRequired("-o", "output snapshot file");
+        parser.addRequired("-t", "file with the list of tables (name and number of indices per line)");
+        parser.addRequired("-r", "runs, e.g. 5038,5040-5050");
+        parser.addOption("-v", "default", "CCDB variation");
+        parser.addOption("-x", null, "CCDB timestamp (MM/DD/YYYY-HH:MM:SS)");
+        parser.addOption("-R", "1", "export RCDB conditions [0 - no, 1 - yes]");
+        parser.parse(args);
+
+        String variation = parser.getOption("-v").stringValue();
+        String timestamp = parser.getOption("-x").stringValue();
+        if (timestamp == null) timestamp = "";
+        boolean rcdb = parser.getOption("-R").intValue() != 0;
+
+        try {
+            Map<String,Integer> tables = readTableList(parser.getOption("-t").stringValue());
+            List<Integer> runs = parseRuns(parser.getOption("-r").stringValue());
+
+            Writer writer = new Writer(variation, timestamp);
+            RCDBProvider rcdbProvider = rcdb ? new RCDBProvider() : null;
+            int errors = 0;
+            for (int run : runs) {
+                DatabaseConstantProvider provider = new DatabaseConstantProvider(run, variation, timestamp);
+                for (Map.Entry<String,Integer> table : tables.entrySet()) {
+                    try {
+                        writer.addTable(run, table.getKey(), provider.readTable(table.getKey(), table.getValue()));
+                    } catch (Exception e) {
+                        LOGGER.log(Level.SEVERE, String.format("[ConstantsSnapshot] ---> error reading table %s for run %d : %s",
+                                table.getKey(), run, e.getMessage()));
+                        errors++;
+                    }
+                }
+                provider.disconnect();
+                if (rcdbProvider != null) writer.addRcdbConstants(run, rcdbProvider.getConstants(run));
+                LOGGER.log(Level.INFO, String.format("[ConstantsSnapshot] ---> run %d : %d unique tables so far", run, writer.getTableCount()));
+            }
+            if (rcdbProvider != null) rcdbProvider.disconnect();
+
+            String output = parser.getOption("-o").stringValue();
+            writer.write(output);
+            LOGGER.log(Level.INFO, String.format("[ConstantsSnapshot] ---> wrote %s : %d runs, %d unique tables, %d errors",
+                    output, writer.getRunCount(), writer.getTableCount(), errors));
+            if (errors > 0) System.exit(1);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, e.getMessage());
+            System.exit(1);
+        }
+    }
+}
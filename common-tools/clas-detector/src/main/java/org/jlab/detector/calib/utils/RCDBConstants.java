@@ -1,5 +1,6 @@
 package org.jlab.detector.calib.utils;
 import java.util.HashMap;
+import java.util.Set;
 import java.sql.Time;
 
 /**
@@ -40,6 +41,10 @@ public class RCDBConstants {
         });
     }
 
+    public Set<String> getKeys() {
+        return data.keySet();
+    }
+
     public RCDBConstant get(String key) {
         if (data.containsKey(key)) return data.get(key);
         return null;
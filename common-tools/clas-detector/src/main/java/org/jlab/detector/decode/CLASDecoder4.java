@@ -7,6 +7,16 @@ import java.util.List;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import org.jlab.detector.base.DetectorDescriptor;
 
 import org.jlab.detector.base.DetectorType;
@@ -720,6 +730,228 @@ public class CLASDecoder4 {
     }
     
     
+    /**
+     * Output of decoding one EVIO event, as passed to the writer.
+     */
+    public static class DecodedEvent {
+        public final Event event;
+        public final Event scalerEvent;
+        public final HelicityState helicity;
+        // decoder state after this event, for the events that inherit it
+        private EventState state = null;
+        DecodedEvent(Event event, Event scalerEvent, HelicityState helicity) {
+            this.event = event;
+            this.scalerEvent = scalerEvent;
+            this.helicity = helicity;
+        }
+    }
+
+    /**
+     * Decoded data and header information of the last event with an EVIO
+     * structure, which events without structure inherit, since they are
+     * not decoded.
+     */
+    public static class EventState {
+        private final List<DetectorDataDgtz> dataList;
+        private final CodaEventDecoder.HeaderState header;
+        private final int runNumber;
+        private EventState(CLASDecoder4 decoder) {
+            // replaced, never modified, by the next decoded event:
+            this.dataList  = decoder.dataList;
+            this.header    = decoder.codaDecoder.getHeaderState();
+            this.runNumber = decoder.detectorDecoder.getRunNumber();
+        }
+    }
+
+    /**
+     * @return the state inherited by the next event, if it has no EVIO structure
+     */
+    public EventState getEventState() {
+        return new EventState(this);
+    }
+
+    /**
+     * Set the state inherited by the next event, e.g. to decode an event
+     * without EVIO structure with the same result as in the serial mode.
+     * @param state
+     */
+    public void setEventState(EventState state) {
+        this.dataList = state.dataList;
+        this.codaDecoder.setHeaderState(state.header);
+        this.detectorDecoder.setRunNumber(state.runNumber);
+    }
+
+    /**
+     * Decode one EVIO event into the HIPO event with all header, trigger,
+     * helicity, epics and scaler banks, plus the tag-1 scaler event (if any)
+     * and the helicity reading, as written by the decoder command line.
+     * @param event the EVIO event
+     * @param counter event counter, used as the event number if nrun>0
+     * @param nrun run number for the header bank, or &lt;=0 to use CODA's
+     * @param torus torus scale
+     * @param solenoid solenoid scale
+     * @return the decoded event
+     */
+    public DecodedEvent decodeEvent(EvioDataEvent event, int counter, int nrun, float torus, float solenoid) {
+
+        Event  decodedEvent = this.getDataEvent(event);
+
+        Bank   header = this.createHeaderBank( nrun, counter, torus, solenoid);
+        if(header!=null) decodedEvent.write(header);
+        Bank   trigger = this.createTriggerBank();
+        if(trigger!=null) decodedEvent.write(trigger);
+        Bank onlineHelicity = this.createOnlineHelicityBank();
+        if(onlineHelicity!=null) decodedEvent.write(onlineHelicity);
+        Bank decodedHelicity = this.createHelicityDecoderBank(event);
+        if (decodedHelicity!=null) decodedEvent.write(decodedHelicity);
+
+        Bank epics = this.createEpicsBank();
+
+        Bank  rawScaler   = new Bank(schemaFactory.getSchema("RAW::scaler"));
+        Bank  rawRunConf  = new Bank(schemaFactory.getSchema("RUN::config"));
+        Bank  helicityAdc = new Bank(schemaFactory.getSchema("HEL::adc"));
+        decodedEvent.read(rawScaler);
+        decodedEvent.read(rawRunConf);
+        decodedEvent.read(helicityAdc);
+
+        HelicityState helicity = HelicityState.createFromFadcBank(helicityAdc, rawRunConf,
+                this.detectorDecoder.scalerManager);
+
+        Event scalerEvent = null;
+        if(rawScaler.getRows()>0 || epics!=null) {
+            scalerEvent = new Event();
+
+            if(rawScaler.getRows()>0) scalerEvent.write(rawScaler);
+            if(rawRunConf.getRows()>0) scalerEvent.write(rawRunConf);
+
+            for (Bank b : this.createReconScalerBanks(decodedEvent)) {
+                decodedEvent.write(b);
+                scalerEvent.write(b);
+            }
+
+            if (epics!=null) {
+                decodedEvent.write(epics);
+                scalerEvent.write(epics);
+            }
+        }
+
+        return new DecodedEvent(decodedEvent, scalerEvent, helicity);
+    }
+
+    /**
+     * Decode the input files with one reader thread, nthreads decoding threads
+     * each with their own CLASDecoder4, and the calling thread writing the
+     * results in input order.  The header information that CODA events inherit
+     * from previous events is tracked by the reader, events without EVIO
+     * structure get the state of the last event with structure, and helicity
+     * readings are collected in order, so the output is identical to the
+     * serial mode.
+     */
+    private static void decodeParallel(List<String> inputList, HipoWriterSorted writer,
+            TreeSet<HelicityState> helicityReadings, int nthreads, int nevents,
+            Supplier<CLASDecoder4> factory, int nrun, float torus, float solenoid) {
+
+        // the state of a new decoder, for events without structure before
+        // the first event with structure:
+        final AtomicReference<EventState> initialState = new AtomicReference<>();
+        final ThreadLocal<CLASDecoder4> decoders = ThreadLocal.withInitial(() -> {
+            CLASDecoder4 decoder = factory.get();
+            initialState.compareAndSet(null, decoder.getEventState());
+            return decoder;
+        });
+        final ExecutorService workers = Executors.newFixedThreadPool(nthreads);
+        final BlockingQueue<CompletableFuture<DecodedEvent>> pipeline = new ArrayBlockingQueue<>(8*nthreads);
+        final CompletableFuture<DecodedEvent> endOfInput = CompletableFuture.completedFuture(null);
+
+        Thread readerThread = new Thread(() -> {
+            CompletableFuture<DecodedEvent> end = endOfInput;
+            CodaEventDecoder headers = new CodaEventDecoder();
+            CompletableFuture<EventState> previous = null;
+            int counter = 0;
+            try {
+                for(String inputFile : inputList){
+                    EvioSource reader = new EvioSource();
+                    reader.open(inputFile);
+                    while(reader.hasEvent()==true){
+                        final EvioDataEvent event = (EvioDataEvent) reader.getNextEvent();
+                        final int eventCounter = counter;
+                        CompletableFuture<DecodedEvent> decoded;
+                        if(event.getHandler().getStructure()!=null) {
+                            final CodaEventDecoder.HeaderState state = headers.getHeaderState();
+                            headers.readHeader(event);
+                            decoded = CompletableFuture.supplyAsync(() -> {
+                                CLASDecoder4 decoder = decoders.get();
+                                decoder.getCodaEventDecoder().setHeaderState(state);
+                                DecodedEvent result = decoder.decodeEvent(event, eventCounter, nrun, torus, solenoid);
+                                result.state = decoder.getEventState();
+                                return result;
+                            }, workers);
+                            previous = decoded.thenApply(result -> result.state);
+                        }
+                        else {
+                            Function<EventState,DecodedEvent> task = state -> {
+                                CLASDecoder4 decoder = decoders.get();
+                                decoder.setEventState(state!=null ? state : initialState.get());
+                                return decoder.decodeEvent(event, eventCounter, nrun, torus, solenoid);
+                            };
+                            if(previous==null)
+                                decoded = CompletableFuture.supplyAsync(() -> task.apply(null), workers);
+                            else
+                                decoded = previous.thenApplyAsync(task, workers);
+                        }
+                        pipeline.put(decoded);
+                        counter++;
+                        if(nevents>0){
+                            if(counter>=nevents) break;
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                // the writer stopped and is not waiting for the end
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException | Error e) {
+                end = new CompletableFuture<>();
+                end.completeExceptionally(e);
+            }
+            try {
+                pipeline.put(end);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "CLASDecoder4-reader");
+        readerThread.start();
+
+        ProgressPrintout progress = new ProgressPrintout();
+        Throwable failure = null;
+        try {
+            while(true) {
+                CompletableFuture<DecodedEvent> next = pipeline.take();
+                if(next==endOfInput) break;
+                DecodedEvent decoded = next.get();
+                helicityReadings.add(decoded.helicity);
+                if(decoded.scalerEvent!=null) writer.addEvent(decoded.scalerEvent, 1);
+                writer.addEvent(decoded.event, 0);
+                progress.updateStatus();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            failure = e.getCause();
+        }
+        readerThread.interrupt();
+        workers.shutdownNow();
+        try {
+            readerThread.join();
+            workers.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if(failure instanceof RuntimeException) throw (RuntimeException) failure;
+        if(failure instanceof Error) throw (Error) failure;
+        if(failure != null) throw new RuntimeException(failure);
+    }
+
     public static void main(String[] args){
 
         OptionParser parser = new OptionParser("decoder");
@@ -738,6 +970,7 @@ public class CLASDecoder4 {
         parser.addOption("-s", "0.5","solenoid current in the header bank");
         parser.addOption("-x", null,"CCDB timestamp (MM/DD/YYYY-HH:MM:SS)");
         parser.addOption("-v","default","CCDB variation");
+        parser.addOption("-j", "1","number of decoding threads");
 
         parser.parse(args);
 
@@ -767,99 +1000,72 @@ public class CLASDecoder4 {
         int  recordsize = parser.getOption("-b").intValue();
         int debug = parser.getOption("-d").intValue();
 
-        CLASDecoder4 decoder = new CLASDecoder4(developmentMode);
-
-        decoder.setDebugMode(debug);
+        int nrun = parser.getOption("-r").intValue();
+        double torus = parser.getOption("-t").doubleValue();
+        double solenoid = parser.getOption("-s").doubleValue();
+        int nthreads = parser.getOption("-j").intValue();
+        String timestamp = parser.getOption("-x").stringValue();
+        String variation = parser.getOption("-v").stringValue();
+        final boolean development = developmentMode;
+
+        Supplier<CLASDecoder4> factory = () -> {
+            CLASDecoder4 decoder = new CLASDecoder4(development);
+            decoder.setDebugMode(debug);
+            if(nrun>0){
+                decoder.setRunNumber(nrun,true);
+            }
+            if (timestamp != null)
+                decoder.detectorDecoder.setTimestamp(timestamp);
+            if (variation != null)
+                decoder.detectorDecoder.setVariation(variation);
+            return decoder;
+        };
 
         HipoWriterSorted writer = new HipoWriterSorted();
         writer.setCompressionType(compression);
         writer.getSchemaFactory().initFromDirectory(ClasUtilsFile.getResourceDir("CLAS12DIR", "etc/bankdefs/hipo4"));
 
-        Bank  rawScaler   = new Bank(writer.getSchemaFactory().getSchema("RAW::scaler"));
-        Bank  rawRunConf  = new Bank(writer.getSchemaFactory().getSchema("RUN::config"));
-        Bank  helicityAdc = new Bank(writer.getSchemaFactory().getSchema("HEL::adc"));
-        Event scalerEvent = new Event();
-
-        int nrun = parser.getOption("-r").intValue();
-        double torus = parser.getOption("-t").doubleValue();
-        double solenoid = parser.getOption("-s").doubleValue();
-
         writer.open(outputFile);
-        ProgressPrintout progress = new ProgressPrintout();
         System.out.println("INPUT LIST SIZE = " + inputList.size());
         int nevents = parser.getOption("-n").intValue();
-        int counter = 0;
 
-        if(nrun>0){
-            decoder.setRunNumber(nrun,true);
+        // Store all helicity readings, ordered by timestamp:
+        TreeSet<HelicityState> helicityReadings = new TreeSet<>();
+
+        if(nthreads>1){
+            decodeParallel(inputList, writer, helicityReadings, nthreads, nevents,
+                    factory, nrun, (float) torus, (float) solenoid);
         }
+        else {
+            CLASDecoder4 decoder = factory.get();
+            ProgressPrintout progress = new ProgressPrintout();
+            int counter = 0;
 
-        if (parser.getOption("-x").getValue() != null)
-            decoder.detectorDecoder.setTimestamp(parser.getOption("-x").stringValue());
-        if (parser.getOption("-v").getValue() != null)
-            decoder.detectorDecoder.setVariation(parser.getOption("-v").stringValue());
+            for(String inputFile : inputList){
+                EvioSource reader = new EvioSource();
+                reader.open(inputFile);
 
-        // Store all helicity readings, ordered by timestamp:
-        TreeSet<HelicityState> helicityReadings = new TreeSet<>();
+                while(reader.hasEvent()==true){
+                    EvioDataEvent event = (EvioDataEvent) reader.getNextEvent();
 
-        for(String inputFile : inputList){
-            EvioSource reader = new EvioSource();
-            reader.open(inputFile);
-           
-            while(reader.hasEvent()==true){
-                EvioDataEvent event = (EvioDataEvent) reader.getNextEvent();
-                
-                Event  decodedEvent = decoder.getDataEvent(event);
-                
-                Bank   header = decoder.createHeaderBank( nrun, counter, (float) torus, (float) solenoid);
-                if(header!=null) decodedEvent.write(header);
-                Bank   trigger = decoder.createTriggerBank();
-                if(trigger!=null) decodedEvent.write(trigger);
-                Bank onlineHelicity = decoder.createOnlineHelicityBank();
-                if(onlineHelicity!=null) decodedEvent.write(onlineHelicity);
-                Bank decodedHelicity = decoder.createHelicityDecoderBank(event);
-                if (decodedHelicity!=null) decodedEvent.write(decodedHelicity);
-                
-                Bank epics = decoder.createEpicsBank();
-                
-                decodedEvent.read(rawScaler);
-                decodedEvent.read(rawRunConf);
-                decodedEvent.read(helicityAdc);
-               
-                helicityReadings.add(HelicityState.createFromFadcBank(helicityAdc, rawRunConf,
-                    decoder.detectorDecoder.scalerManager));
-
-                if(rawScaler.getRows()>0 || epics!=null) {
-                    scalerEvent.reset();
-                    
-                    if(rawScaler.getRows()>0) scalerEvent.write(rawScaler);
-                    if(rawRunConf.getRows()>0) scalerEvent.write(rawRunConf);
+                    DecodedEvent decoded = decoder.decodeEvent(event, counter, nrun, (float) torus, (float) solenoid);
 
-                    for (Bank b : decoder.createReconScalerBanks(decodedEvent)) {
-                        decodedEvent.write(b);
-                        scalerEvent.write(b);
-                    }
+                    helicityReadings.add(decoded.helicity);
 
-                    if (epics!=null) {
-                        decodedEvent.write(epics);
-                        scalerEvent.write(epics);
-                    }
+                    if(decoded.scalerEvent!=null) writer.addEvent(decoded.scalerEvent, 1);
 
-                    writer.addEvent(scalerEvent, 1);
-                }
-                
-                writer.addEvent(decodedEvent,0);
-                
-                counter++;
-                progress.updateStatus();
-                if(counter%25000==0){
-                    System.gc();
-                }
-                if(nevents>0){
-                    if(counter>=nevents) break;
+                    writer.addEvent(decoded.event,0);
+
+                    counter++;
+                    progress.updateStatus();
+                    if(counter%25000==0){
+                        System.gc();
+                    }
+                    if(nevents>0){
+                        if(counter>=nevents) break;
+                    }
                 }
             }
-
         }
 
         // add the helicity flips into new tag-1 events:
@@ -112,6 +112,83 @@ public class CodaEventDecoder {
         return this.runNumber;
     }
 
+    /**
+     * Header information that is inherited from the previous event when
+     * an event has no HEAD bank (run/event number, unix time, helicity and
+     * trigger words, TI master crate), and the time stamp, trigger bits and
+     * epics data, that an event without EVIO structure inherits as well.
+     */
+    public static class HeaderState {
+        private final int   runNumber;
+        private final int   eventNumber;
+        private final int   unixTime;
+        private final long  timeStamp;
+        private final long  triggerBits;
+        private final byte  helicityLevel3;
+        private final int   tiMaster;
+        private final List<Integer> triggerWords;
+        private final JsonObject epicsData;
+
+        private HeaderState(CodaEventDecoder decoder) {
+            this.runNumber      = decoder.runNumber;
+            this.eventNumber    = decoder.eventNumber;
+            this.unixTime       = decoder.unixTime;
+            this.timeStamp      = decoder.timeStamp;
+            this.triggerBits    = decoder.triggerBits;
+            this.helicityLevel3 = decoder.helicityLevel3;
+            this.tiMaster       = decoder.tiMaster;
+            this.triggerWords   = new ArrayList<>(decoder.triggerWords);
+            // replaced, never modified, by the next decoded event:
+            this.epicsData      = decoder.epicsData;
+        }
+    }
+
+    /**
+     * @return copy of the header information currently inherited by the next event
+     */
+    public HeaderState getHeaderState() {
+        return new HeaderState(this);
+    }
+
+    /**
+     * Set the header information inherited by the next event, e.g. to decode
+     * events out of order with the same result as decoding them in order.
+     * @param state
+     */
+    public void setHeaderState(HeaderState state) {
+        this.runNumber      = state.runNumber;
+        this.eventNumber    = state.eventNumber;
+        this.unixTime       = state.unixTime;
+        this.timeStamp      = state.timeStamp;
+        this.triggerBits    = state.triggerBits;
+        this.helicityLevel3 = state.helicityLevel3;
+        this.tiMaster       = state.tiMaster;
+        this.triggerWords.clear();
+        this.triggerWords.addAll(state.triggerWords);
+        this.epicsData      = state.epicsData;
+    }
+
+    /**
+     * Read only the HEAD and TI banks, updating the header information
+     * exactly as {@link #getDataEntries(EvioDataEvent)} would, but without
+     * decoding any detector data.
+     * @param event
+     */
+    public void readHeader(EvioDataEvent event) {
+        this.setTriggerBits(0);
+        this.getDataEntries_TI(event);
+        List<EvioTreeBranch> branches = this.getEventBranches(event);
+        for(EvioTreeBranch branch : branches){
+            EvioTreeBranch cbranch = this.getEventBranch(branches, branch.getTag());
+            for (EvioNode node : cbranch.getNodes()) {
+                if (node.getTag() == 57615) {
+                    this.tiMaster = branch.getTag();
+                    this.readHeaderBank(branch.getTag(), node, event);
+                }
+            }
+        }
+    }
+
     public int getEventNumber(){
         return this.eventNumber;
     }
@@ -1,10 +1,14 @@
 package org.jlab.detector.decode;
 
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.jlab.detector.base.DetectorType;
 import org.jlab.detector.calib.utils.ConstantsManager;
 import org.jlab.detector.decode.DetectorDataDgtz.ADCData;
+import org.jlab.utils.groups.CompactIndexedTable;
+import org.jlab.utils.groups.IndexedList;
 import org.jlab.utils.groups.IndexedTable;
 
 /**
@@ -27,6 +31,23 @@ public class DetectorEventDecoder {
     private ExtendedFADCFitter extendedFitter = new ExtendedFADCFitter();
     private MVTFitter mvtFitter = new MVTFitter();
 
+    // per-run lookups compiled from all translation and fitter tables,
+    // rebuilt by compile() whenever the run number changes:
+    private int compiledRun = -1;
+
+    private CompactIndexedTable translation = null;
+    private DetectorType[] translationTypes = null;
+    private int ttType, ttSector, ttLayer, ttComponent, ttOrder;
+
+    private CompactIndexedTable fitterHeads = null;
+    private int   fitHead;
+    private int[] fitTable, fitNsa, fitNsb, fitTet, fitPed, fitNext;
+    private boolean[] fitIsMVT;
+    private String[]  fitTypeNames;
+    private short[]   mvtAdcOffset;
+    private double[]  mvtClock, mvtSampling;
+    private int[]     mvtSparse;
+
     public DetectorEventDecoder(boolean development){
         if(development==true){
             this.initDecoderDev();
@@ -39,12 +60,14 @@ public class DetectorEventDecoder {
         translationManager.setTimeStamp(timestamp);
         fitterManager.setTimeStamp(timestamp);
         scalerManager.setTimeStamp(timestamp);
+        this.compiledRun = -1;
     }
 
     public void setVariation(String variation) {
         translationManager.setVariation(variation);
         fitterManager.setVariation(variation);
         scalerManager.setVariation(variation);
+        this.compiledRun = -1;
     }
 
     public void setRunNumber(int run){
@@ -113,6 +136,104 @@ public class DetectorEventDecoder {
                                                       "/runcontrol/helicity","/daq/config/scalers/dsc1"}));
     }
 
+    /**
+     * Merge all translation and fitter tables for the current run into
+     * single crate/slot/channel lookups, so that each hit needs only one
+     * hash lookup instead of one per detector table.  For translation, if
+     * more than one table contains the same crate/slot/channel, the last
+     * one wins, as when looping over the tables.  For the fitter, all
+     * matching tables are kept, in table order, as a linked list of rows.
+     */
+    private void compile() {
+
+        if (this.compiledRun == this.runNumber) return;
+
+        IndexedTable merged = new IndexedTable(3, "type/I:sector/I:layer/I:component/I:order/I");
+        this.translationTypes = new DetectorType[keysTrans.size()];
+        for (int t=0; t<keysTrans.size(); t++) {
+            this.translationTypes[t] = DetectorType.getType(keysTrans.get(t));
+            IndexedTable tt = translationManager.getConstants(runNumber, keysTrans.get(t));
+            for (Object key : tt.getList().getMap().keySet()) {
+                int crate   = IndexedList.IndexGenerator.getIndex((Long)key, 0);
+                int slot    = IndexedList.IndexGenerator.getIndex((Long)key, 1);
+                int channel = IndexedList.IndexGenerator.getIndex((Long)key, 2);
+                merged.addEntry(crate, slot, channel);
+                merged.setIntValue(t, "type", crate, slot, channel);
+                merged.setIntValue(tt.getIntValue("sector", crate,slot,channel), "sector", crate, slot, channel);
+                merged.setIntValue(tt.getIntValue("layer", crate,slot,channel), "layer", crate, slot, channel);
+                merged.setIntValue(tt.getIntValue("component", crate,slot,channel), "component", crate, slot, channel);
+                merged.setIntValue(tt.getIntValue("order", crate,slot,channel), "order", crate, slot, channel);
+            }
+        }
+        this.translation = merged.compact();
+        this.ttType      = translation.column("type");
+        this.ttSector    = translation.column("sector");
+        this.ttLayer     = translation.column("layer");
+        this.ttComponent = translation.column("component");
+        this.ttOrder     = translation.column("order");
+
+        int ntables = keysFitter.size();
+        this.fitIsMVT     = new boolean[ntables];
+        this.fitTypeNames = new String[ntables];
+        this.mvtAdcOffset = new short[ntables];
+        this.mvtClock     = new double[ntables];
+        this.mvtSampling  = new double[ntables];
+        this.mvtSparse    = new int[ntables];
+        int nrows = 0;
+        for (int t=0; t<ntables; t++) {
+            String table = keysFitter.get(t);
+            IndexedTable daq = fitterManager.getConstants(runNumber, table);
+            this.fitTypeNames[t] = table;
+            this.fitIsMVT[t] = table.equals("BMT") || table.equals("FMT") || table.equals("AHDC") || table.equals("FTTRK");
+            if (this.fitIsMVT[t]) {
+                this.mvtAdcOffset[t] = (short) daq.getDoubleValue("adc_offset", 0, 0, 0);
+                this.mvtClock[t]     = (byte) daq.getDoubleValue("dream_clock", 0, 0, 0);
+                this.mvtSampling[t]  = (byte) daq.getDoubleValue("sampling_time", 0, 0, 0);
+                this.mvtSparse[t]    = daq.getIntValue("sparse", 0, 0 ,0);
+            }
+            nrows += daq.getList().getMap().size();
+        }
+        this.fitTable = new int[nrows];
+        this.fitNsa   = new int[nrows];
+        this.fitNsb   = new int[nrows];
+        this.fitTet   = new int[nrows];
+        this.fitPed   = new int[nrows];
+        this.fitNext  = new int[nrows];
+        Map<Long,Integer> heads = new HashMap<>();
+        Map<Long,Integer> tails = new HashMap<>();
+        int row = 0;
+        for (int t=0; t<ntables; t++) {
+            IndexedTable daq = fitterManager.getConstants(runNumber, keysFitter.get(t));
+            for (Object key : daq.getList().getMap().keySet()) {
+                int crate   = IndexedList.IndexGenerator.getIndex((Long)key, 0);
+                int slot    = IndexedList.IndexGenerator.getIndex((Long)key, 1);
+                int channel = IndexedList.IndexGenerator.getIndex((Long)key, 2);
+                this.fitTable[row] = t;
+                this.fitNsa[row]   = daq.getIntValue("nsa", crate,slot,channel);
+                this.fitNsb[row]   = daq.getIntValue("nsb", crate,slot,channel);
+                this.fitTet[row]   = daq.getIntValue("tet", crate,slot,channel);
+                this.fitPed[row]   = daq.getIntValue("pedestal", crate,slot,channel);
+                this.fitNext[row]  = -1;
+                if (tails.containsKey((Long)key)) this.fitNext[tails.get((Long)key)] = row;
+                else heads.put((Long)key, row);
+                tails.put((Long)key, row);
+                row++;
+            }
+        }
+        IndexedTable headTable = new IndexedTable(3, "head/I");
+        for (Map.Entry<Long,Integer> entry : heads.entrySet()) {
+            int crate   = IndexedList.IndexGenerator.getIndex(entry.getKey(), 0);
+            int slot    = IndexedList.IndexGenerator.getIndex(entry.getKey(), 1);
+            int channel = IndexedList.IndexGenerator.getIndex(entry.getKey(), 2);
+            headTable.addEntry(crate, slot, channel);
+            headTable.setIntValue(entry.getValue(), "head", crate, slot, channel);
+        }
+        this.fitterHeads = headTable.compact();
+        this.fitHead = fitterHeads.column("head");
+
+        this.compiledRun = this.runNumber;
+    }
+
     /**
      * applies translation table to the digitized data to translate
      * crate,slot channel to sector layer component.
@@ -120,69 +241,73 @@ public class DetectorEventDecoder {
      */
     public void translate(List<DetectorDataDgtz>  detectorData){
 
+        this.compile();
+
         for(DetectorDataDgtz data : detectorData){
 
             int crate    = data.getDescriptor().getCrate();
             int slot     = data.getDescriptor().getSlot();
             int channel  = data.getDescriptor().getChannel();
 
-            for(String table : keysTrans){
-                IndexedTable  tt = translationManager.getConstants(runNumber, table);
-                DetectorType  type = DetectorType.getType(table);
-                if(tt.hasEntry(crate,slot,channel)==true){
-                    int sector    = tt.getIntValue("sector", crate,slot,channel);
-                    int layer     = tt.getIntValue("layer", crate,slot,channel);
-                    int component = tt.getIntValue("component", crate,slot,channel);
-                    int order     = tt.getIntValue("order", crate,slot,channel);
-
-                    data.getDescriptor().setSectorLayerComponent(sector, layer, component);
-                    data.getDescriptor().setOrder(order);
-                    data.getDescriptor().setType(type);
-
-                    for(int i = 0; i < data.getADCSize(); i++) {
-                        data.getADCData(i).setOrder(order);
-                    }
-                    for(int i = 0; i < data.getTDCSize(); i++) {
-                        data.getTDCData(i).setOrder(order);
-                    }
+            int row = translation.row(CompactIndexedTable.key(crate,slot,channel));
+            if(row>=0){
+                int sector    = translation.getIntAt(ttSector, row);
+                int layer     = translation.getIntAt(ttLayer, row);
+                int component = translation.getIntAt(ttComponent, row);
+                int order     = translation.getIntAt(ttOrder, row);
+
+                data.getDescriptor().setSectorLayerComponent(sector, layer, component);
+                data.getDescriptor().setOrder(order);
+                data.getDescriptor().setType(translationTypes[translation.getIntAt(ttType, row)]);
+
+                for(int i = 0; i < data.getADCSize(); i++) {
+                    data.getADCData(i).setOrder(order);
+                }
+                for(int i = 0; i < data.getTDCSize(); i++) {
+                    data.getTDCData(i).setOrder(order);
                 }
             }
         }
     }
 
     public void fitPulses(List<DetectorDataDgtz>  detectorData){
+
+        this.compile();
+
         for(DetectorDataDgtz data : detectorData){
             int crate    = data.getDescriptor().getCrate();
             int slot     = data.getDescriptor().getSlot();
             int channel  = data.getDescriptor().getChannel();
-            for(String table : keysFitter){
+            String typeName = data.getDescriptor().getType().getName();
+
+            // rows for this channel, linked in table order:
+            int next = -1;
+            long key = CompactIndexedTable.key(crate,slot,channel);
+            if(fitterHeads.hasEntry(key)) next = fitterHeads.getInt(fitHead, key);
+
+            for(int t = 0; t < fitTypeNames.length; t++){
+                int row = -1;
+                if(next>=0 && fitTable[next]==t){
+                    row  = next;
+                    next = fitNext[next];
+                }
                 //custom MM fitter
-            	if( ( (table.equals("BMT"))&&(data.getDescriptor().getType().getName().equals("BMT")) )
-                 || ( (table.equals("FMT"))&&(data.getDescriptor().getType().getName().equals("FMT")) )
-                 || ( (table.equals("AHDC"))&&(data.getDescriptor().getType().getName().equals("AHDC")) )
-                 || ( (table.equals("FTTRK"))&&(data.getDescriptor().getType().getName().equals("FTTRK")) ) ){
-                    IndexedTable daq = fitterManager.getConstants(runNumber, table);
-                    short adcOffset = (short) daq.getDoubleValue("adc_offset", 0, 0, 0);
-                    double fineTimeStampResolution = (byte) daq.getDoubleValue("dream_clock", 0, 0, 0);
-                    double samplingTime = (byte) daq.getDoubleValue("sampling_time", 0, 0, 0);
-                    int sparseSample = daq.getIntValue("sparse", 0, 0 ,0);
+            	if( fitIsMVT[t] && fitTypeNames[t].equals(typeName) ){
                     if (data.getADCSize() > 0) {
                         ADCData adc = data.getADCData(0);
-                        mvtFitter.fit(adcOffset, fineTimeStampResolution, samplingTime, adc.getPulseArray(), adc.getTimeStamp(), sparseSample);
+                        mvtFitter.fit(mvtAdcOffset[t], mvtClock[t], mvtSampling[t], adc.getPulseArray(), adc.getTimeStamp(), mvtSparse[t]);
                         adc.setHeight((short) (mvtFitter.adcMax));
                         adc.setTime((int) (mvtFitter.timeMax));
                         adc.setIntegral((int) (mvtFitter.integral));
                         adc.setTimeStamp(mvtFitter.timestamp);
                     }
                 } else {
-                    IndexedTable  daq = fitterManager.getConstants(runNumber, table);
-                    DetectorType  type = DetectorType.getType(table);
-                    if(daq.hasEntry(crate,slot,channel)==true){
-                        int nsa = daq.getIntValue("nsa", crate,slot,channel);
-                        int nsb = daq.getIntValue("nsb", crate,slot,channel);
-                        int tet = daq.getIntValue("tet", crate,slot,channel);
+                    if(row>=0){
+                        int nsa = fitNsa[row];
+                        int nsb = fitNsb[row];
+                        int tet = fitTet[row];
                         int ped = 0;
-                        if(table.equals("RF")&&data.getDescriptor().getType().getName().equals("RF")) ped = daq.getIntValue("pedestal", crate,slot,channel);
+                        if(fitTypeNames[t].equals("RF")&&typeName.equals("RF")) ped = fitPed[row];
                         if(data.getADCSize()>0){
                             for(int i = 0; i < data.getADCSize(); i++){
                                 ADCData adc = data.getADCData(i);
@@ -9,6 +9,7 @@ import java.util.Map;
 import java.util.TreeSet;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 import org.jlab.detector.calib.utils.ConstantsManager;
 
 import org.jlab.jnp.hipo4.data.Bank;
@@ -468,27 +469,47 @@ public class HelicitySequence {
     }
 
     public void initialize(HipoReader reader) {
-        SchemaFactory schema = reader.getSchemaFactory();
-        while (reader.hasNext()) {
-            Event event=new Event();
-            Bank flipBank=new Bank(schema.getSchema("HEL::flip"));
-            reader.nextEvent(event);
-            event.read(flipBank);
-            if (flipBank.getRows()<1) continue;
-            this.addState(HelicityState.createFromFlipBank(flipBank));
+        for (HelicityState state : readFlips(reader)) {
+            this.addState(state);
         }
     }
 
+    /**
+     * Reads the files in parallel, one task per file, and adds their states
+     * in file order, as reading them one after the other would.
+     * @param filenames 
+     */
     public void initialize(List<String> filenames) {
         LOGGER.info("HelicitySequence:  Reading sequence from "+String.join(",",filenames));
-        for (String filename : filenames) {
-            HipoReader reader = new HipoReader();
-            reader.setTags(1);
-            reader.open(filename);
-            initialize(reader);
+        List<List<HelicityState>> files = filenames.parallelStream().map(filename -> {
+                HipoReader reader = new HipoReader();
+                reader.setTags(1);
+                reader.open(filename);
+                List<HelicityState> states = readFlips(reader);
+                reader.close();
+                return states;
+            }).collect(Collectors.toList());
+        for (List<HelicityState> states : files) {
+            for (HelicityState state : states) {
+                this.addState(state);
+            }
         }
     }
 
+    private static List<HelicityState> readFlips(HipoReader reader) {
+        List<HelicityState> states = new ArrayList<>();
+        SchemaFactory schema = reader.getSchemaFactory();
+        Event event=new Event();
+        Bank flipBank=new Bank(schema.getSchema("HEL::flip"));
+        while (reader.hasNext()) {
+            reader.nextEvent(event);
+            event.read(flipBank);
+            if (flipBank.getRows()<1) continue;
+            states.add(HelicityState.createFromFlipBank(flipBank));
+        }
+        return states;
+    }
+
     public void initialize(String... filenames) {
         initialize(Arrays.asList(filenames));
     }
@@ -528,29 +549,43 @@ public class HelicitySequence {
     }
 
     /**
-     * 
+     * Rebuilds the stream of states from the HEL::adc banks of all events.
+     * The files are read in parallel, one task per file, and their streams
+     * merged in file order, which gives the same stream as reading them one
+     * after the other.
      * @param schema
      * @param conman
      * @param filenames 
      */
     public void addStream(SchemaFactory schema, ConstantsManager conman, List<String> filenames) {
         LOGGER.info("HelicitySequence:  Restreaming sequence from "+String.join(",",filenames));
+        List<TreeSet<HelicityState>> files = filenames.parallelStream()
+                .map(filename -> readStream(schema, conman, filename))
+                .collect(Collectors.toList());
+        TreeSet<HelicityState> stream = new TreeSet<>();
+        for (TreeSet<HelicityState> s : files) {
+            // equal states are kept from the first file, as TreeSet.add does:
+            stream.addAll(s);
+        }
+        this.addStream(stream);
+    }
+
+    private static TreeSet<HelicityState> readStream(SchemaFactory schema, ConstantsManager conman, String filename) {
         Bank runConfigBank = new Bank(schema.getSchema("RUN::config"));
         Bank helAdcBank = new Bank(schema.getSchema("HEL::adc"));
         TreeSet<HelicityState> stream = new TreeSet<>();
         Event e = new Event();
-        for (String filename : filenames) {
-            HipoReader r = new HipoReader();
-            r.open(filename);
-            while (r.hasNext()) {
-                r.nextEvent(e);
-                e.read(helAdcBank);
-                e.read(runConfigBank);
-                stream.add(HelicityState.createFromFadcBank(
-                        helAdcBank, runConfigBank,conman));
-            }
+        HipoReader r = new HipoReader();
+        r.open(filename);
+        while (r.hasNext()) {
+            r.nextEvent(e);
+            e.read(helAdcBank);
+            e.read(runConfigBank);
+            stream.add(HelicityState.createFromFadcBank(
+                    helAdcBank, runConfigBank,conman));
         }
-        this.addStream(stream);
+        r.close();
+        return stream;
     }
 
     /**
@@ -6,6 +6,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 import org.jlab.detector.calib.utils.ConstantsManager;
 
 import org.jlab.jnp.hipo4.io.HipoReader;
@@ -182,59 +183,83 @@ public class DaqScalersSequence implements Comparator<DaqScalers> {
         return this.getInterval(t1,t2);
     }
 
+    /**
+     * Scalers read from one file, in file order.
+     */
+    private static class FileScalers {
+        private Bank rcfgBank=null;
+        private final List<DaqScalers> scalers=new ArrayList<>();
+    }
+
+    /**
+     * Adds the scalers of each file, in file order, which gives the same
+     * sequence as reading the files one after the other.
+     */
+    private static DaqScalersSequence merge(List<FileScalers> files) {
+        DaqScalersSequence seq=new DaqScalersSequence();
+        for (FileScalers file : files) {
+            if (seq.rcfgBank==null) seq.rcfgBank=file.rcfgBank;
+            for (DaqScalers ds : file.scalers) seq.add(ds);
+        }
+        return seq;
+    }
+
     /**
      * This reads tag=1 events for RUN::scaler banks, and initializes and returns
      * a {@link DaqScalersSequence} that can be used to access the most recent scaler
-     * readout for any given event.
+     * readout for any given event.  The files are read in parallel, one task
+     * per file.
      * 
      * @param filenames list of names of HIPO files to read
      * @return  sequence
      */
     public static DaqScalersSequence readSequence(List<String> filenames) {
         logger.info("DaqScalersSequence::  Reading scaler sequence from "+String.join(",", filenames));
-       
-        DaqScalersSequence seq=new DaqScalersSequence();
+        return merge(filenames.parallelStream()
+                .map(DaqScalersSequence::readFile)
+                .collect(Collectors.toList()));
+    }
 
-        for (String filename : filenames) {
+    private static FileScalers readFile(String filename) {
 
-            HipoReader reader = new HipoReader();
-            reader.setTags(1);
-            reader.open(filename);
+        FileScalers file=new FileScalers();
 
-            if (seq.rcfgBank==null) {
-                seq.rcfgBank = new Bank(reader.getSchemaFactory().getSchema("RUN::config"));
-            }
-        
-            SchemaFactory schema = reader.getSchemaFactory();
-            Event event=new Event();
-            Bank scalerBank=new Bank(schema.getSchema("RUN::scaler"));
-            Bank configBank=new Bank(schema.getSchema("RUN::config"));
+        HipoReader reader = new HipoReader();
+        reader.setTags(1);
+        reader.open(filename);
 
-            while (reader.hasNext()) {
-            
-                reader.nextEvent(event);
-                event.read(scalerBank);
-                event.read(configBank);
-         
-                long timestamp=0;
-                
-                if (scalerBank.getRows()<1) continue;
-                if (configBank.getRows()>0) {
-                    timestamp=configBank.getLong("timestamp",0);
-                }
-        
-                DaqScalers ds=DaqScalers.create(scalerBank);
-                ds.setTimestamp(timestamp);
-                seq.add(ds);
+        SchemaFactory schema = reader.getSchemaFactory();
+        Event event=new Event();
+        Bank scalerBank=new Bank(schema.getSchema("RUN::scaler"));
+        Bank configBank=new Bank(schema.getSchema("RUN::config"));
+        file.rcfgBank = new Bank(schema.getSchema("RUN::config"));
+
+        while (reader.hasNext()) {
+
+            reader.nextEvent(event);
+            event.read(scalerBank);
+            event.read(configBank);
+
+            long timestamp=0;
+
+            if (scalerBank.getRows()<1) continue;
+            if (configBank.getRows()>0) {
+                timestamp=configBank.getLong("timestamp",0);
             }
 
-            reader.close();
+            DaqScalers ds=DaqScalers.create(scalerBank);
+            ds.setTimestamp(timestamp);
+            file.scalers.add(ds);
         }
-        
-        return seq;
+
+        reader.close();
+
+        return file;
     }
    
     /**
+     * Rebuilds the sequence from RAW::scaler banks, reading the files in
+     * parallel, one task per file.
      * 
      * @param tags
      * @param conman
@@ -243,27 +268,30 @@ public class DaqScalersSequence implements Comparator<DaqScalers> {
      */
     public static DaqScalersSequence rebuildSequence(int tags, ConstantsManager conman, List<String> filenames) {
         logger.info("DaqScalersSequence::  Rebuilding scaler sequence from "+String.join(",", filenames));
-        DaqScalersSequence seq=new DaqScalersSequence();
-        for (String filename : filenames) {
-            HipoReader reader = new HipoReader();
-            reader.setTags(tags);
-            reader.open(filename);
-            SchemaFactory schema = reader.getSchemaFactory();
-            if (seq.rcfgBank==null)
-                seq.rcfgBank = new Bank(schema.getSchema("RUN::config"));
-            while (reader.hasNext()) {
-                Event event=new Event();
-                Bank scaler=new Bank(schema.getSchema("RAW::scaler"));
-                Bank config=new Bank(schema.getSchema("RUN::config"));
-                reader.nextEvent(event);
-                event.read(scaler);
-                event.read(config);
-                if (scaler.getRows()<1 || config.getRows()<1) continue;
-                seq.add(DaqScalers.create(conman, config, scaler));
-            }
-            reader.close();
+        return merge(filenames.parallelStream()
+                .map(filename -> rebuildFile(tags, conman, filename))
+                .collect(Collectors.toList()));
+    }
+
+    private static FileScalers rebuildFile(int tags, ConstantsManager conman, String filename) {
+        FileScalers file=new FileScalers();
+        HipoReader reader = new HipoReader();
+        reader.setTags(tags);
+        reader.open(filename);
+        SchemaFactory schema = reader.getSchemaFactory();
+        file.rcfgBank = new Bank(schema.getSchema("RUN::config"));
+        Event event=new Event();
+        Bank scaler=new Bank(schema.getSchema("RAW::scaler"));
+        Bank config=new Bank(schema.getSchema("RUN::config"));
+        while (reader.hasNext()) {
+            reader.nextEvent(event);
+            event.read(scaler);
+            event.read(config);
+            if (scaler.getRows()<1 || config.getRows()<1) continue;
+            file.scalers.add(DaqScalers.create(conman, config, scaler));
         }
-        return seq;
+        reader.close();
+        return file;
     }
     
     public static void main(String[] args) {
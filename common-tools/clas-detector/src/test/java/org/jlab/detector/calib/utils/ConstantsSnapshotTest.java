@@ -0,0 +1,163 @@
+package org.jlab.detector.calib.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Time;
+import java.util.Arrays;
+import java.util.Map;
+import org.jlab.utils.groups.IndexedTable;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+/**
+ * Checks that a snapshot written and read back restores the same tables
+ * and RCDB conditions.
+ */
+public class ConstantsSnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static IndexedTable createTable(double offset) {
+        IndexedTable table = new IndexedTable(3, "gain/D:pedestal/I:status/I");
+        table.setIndexName(0, "sector");
+        table.setIndexName(1, "layer");
+        table.setIndexName(2, "component");
+        for (int sector=1; sector<=6; sector++) {
+            for (int layer=1; layer<=3; layer++) {
+                for (int component=1; component<=10; component+=sector) {
+                    table.addEntry(sector, layer, component);
+                    table.setDoubleValue(offset + sector + 0.1*layer + 0.001*component, "gain", sector, layer, component);
+                    table.setIntValue(100*sector + 10*layer + component, "pedestal", sector, layer, component);
+                    table.setIntValue(component%2, "status", sector, layer, component);
+                }
+            }
+        }
+        return table;
+    }
+
+    private static IndexedTable createTable2() {
+        IndexedTable table = new IndexedTable(1, "t0/D");
+        table.setIndexName(0, "layer");
+        for (int layer=1; layer<=4; layer++) {
+            table.addEntry(layer);
+            table.setDoubleValue(-1.5*layer, "t0", layer);
+        }
+        return table;
+    }
+
+    private static RCDBConstants createConditions(int run) {
+        RCDBConstants constants = new RCDBConstants();
+        constants.add("beam_energy", 10.6 + 0.001*run);
+        constants.add("events_rate", 1000L*run);
+        constants.add("target", "LH2");
+        constants.add("run_start_time", new Time(3600000L*run));
+        return constants;
+    }
+
+    private static void assertTableEquals(IndexedTable expected, IndexedTable actual) {
+        assertNotNull(actual);
+        int nindex = expected.getList().getIndexSize();
+        assertEquals(nindex, actual.getList().getIndexSize());
+        assertEquals(expected.getColumnCount(), actual.getColumnCount());
+        for (int i = 0; i < nindex; i++) {
+            assertEquals(expected.getIndexName(i), actual.getIndexName(i));
+        }
+        for (int c = 0; c < expected.getColumnCount() - nindex; c++) {
+            String name = expected.getEntryName(c);
+            assertEquals(name, actual.getEntryName(c));
+            assertEquals(expected.getEntryType(name), actual.getEntryType(name));
+        }
+        Map<Long, IndexedTable.IndexedEntry> rows = expected.getList().getMap();
+        Map<Long, IndexedTable.IndexedEntry> actualRows = actual.getList().getMap();
+        assertEquals(rows.size(), actualRows.size());
+        for (Map.Entry<Long, IndexedTable.IndexedEntry> row : rows.entrySet()) {
+            IndexedTable.IndexedEntry entry = actualRows.get(row.getKey());
+            assertNotNull(entry);
+            for (int c = 0; c < row.getValue().getSize(); c++) {
+                assertEquals(row.getValue().getValue(c).doubleValue(), entry.getValue(c).doubleValue(), 0);
+            }
+        }
+    }
+
+    private static void assertConditionsEquals(RCDBConstants expected, RCDBConstants actual) {
+        assertNotNull(actual);
+        assertEquals(expected.getKeys(), actual.getKeys());
+        assertEquals(expected.getDouble("beam_energy"), actual.getDouble("beam_energy"));
+        assertEquals(expected.getLong("events_rate"), actual.getLong("events_rate"));
+        assertEquals(expected.getString("target"), actual.getString("target"));
+        assertEquals(expected.getTime("run_start_time"), actual.getTime("run_start_time"));
+    }
+
+    private ConstantsSnapshot writeAndOpen(ConstantsSnapshot.Writer writer) throws IOException {
+        File file = folder.newFile("snapshot.bin");
+        writer.write(file.getPath());
+        return ConstantsSnapshot.open(file.getPath());
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        IndexedTable gains11 = createTable(0);
+        IndexedTable gains12 = createTable(0.5);
+        IndexedTable t0s = createTable2();
+        RCDBConstants conditions11 = createConditions(11);
+        RCDBConstants conditions12 = createConditions(12);
+
+        ConstantsSnapshot.Writer writer = new ConstantsSnapshot.Writer("rga_fall2018", "10/17/2026");
+        writer.addTable(11, "/calibration/gains", gains11);
+        writer.addTable(11, "/calibration/t0", t0s);
+        writer.addRcdbConstants(11, conditions11);
+        writer.addTable(12, "/calibration/gains", gains12);
+        writer.addTable(12, "/calibration/t0", createTable2());
+        writer.addRcdbConstants(12, conditions12);
+        writer.addTable(13, "/calibration/t0", createTable2());
+        // the t0 table is the same for all runs:
+        assertEquals(3, writer.getTableCount());
+        assertEquals(3, writer.getRunCount());
+
+        ConstantsSnapshot snapshot = this.writeAndOpen(writer);
+        assertEquals("rga_fall2018", snapshot.getVariation());
+        assertEquals("10/17/2026", snapshot.getTimeStamp());
+        assertTrue(snapshot.matches("rga_fall2018", "10/17/2026"));
+        assertFalse(snapshot.matches("default", "10/17/2026"));
+        assertEquals(Arrays.asList(11, 12, 13), snapshot.getRuns());
+        assertFalse(snapshot.hasRun(14));
+
+        assertTableEquals(gains11, snapshot.getTable(11, "/calibration/gains", 3));
+        assertTableEquals(gains12, snapshot.getTable(12, "/calibration/gains", 3));
+        for (int run = 11; run <= 13; run++) {
+            assertTableEquals(t0s, snapshot.getTable(run, "/calibration/t0", 1));
+        }
+        assertConditionsEquals(conditions11, snapshot.getRcdbConstants(11));
+        assertConditionsEquals(conditions12, snapshot.getRcdbConstants(12));
+        assertNull(snapshot.getRcdbConstants(13));
+    }
+
+    @Test
+    public void testMissing() throws IOException {
+        ConstantsSnapshot.Writer writer = new ConstantsSnapshot.Writer("default", null);
+        writer.addTable(11, "/calibration/t0", createTable2());
+        ConstantsSnapshot snapshot = this.writeAndOpen(writer);
+        assertTrue(snapshot.matches("default", null));
+        assertNull(snapshot.getTable(12, "/calibration/t0", 1));
+        assertNull(snapshot.getTable(11, "/calibration/gains", 3));
+        // exported with a different number of indices:
+        assertNull(snapshot.getTable(11, "/calibration/t0", 3));
+    }
+
+    @Test
+    public void testTablesNotShared() throws IOException {
+        ConstantsSnapshot.Writer writer = new ConstantsSnapshot.Writer("default", "");
+        writer.addTable(11, "/calibration/t0", createTable2());
+        writer.addTable(12, "/calibration/t0", createTable2());
+        ConstantsSnapshot snapshot = this.writeAndOpen(writer);
+        IndexedTable t11 = snapshot.getTable(11, "/calibration/t0", 1);
+        IndexedTable t12 = snapshot.getTable(12, "/calibration/t0", 1);
+        assertNotSame(t11, t12);
+        t11.setDoubleValue(42.0, "t0", 1);
+        assertEquals(-1.5, t12.getDoubleValue("t0", 1), 0);
+        assertEquals(-1.5, snapshot.getTable(11, "/calibration/t0", 1).getDoubleValue("t0", 1), 0);
+    }
+}
@@ -0,0 +1,166 @@
+package org.jlab.geom.prim;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A bounding volume hierarchy of axis-aligned boxes over the faces of a
+ * {@link Shape3D}, used to find the faces that an infinite line can
+ * intersect without testing every face.
+ * <p>
+ * The boxes are computed from the face points when the hierarchy is built,
+ * so it must be rebuilt if the faces are subsequently moved.  Only faces
+ * with a finite number of points, such as {@link Triangle3D}, are supported.
+ */
+public class FaceBVH {
+
+    private static final int LEAF_SIZE = 4;
+
+    // bounding box of each face, padded by a small tolerance:
+    private final double[] faceMin;
+    private final double[] faceMax;
+
+    // face indices, permuted so that each node covers a contiguous range:
+    private final int[] order;
+
+    // nodes, in depth-first order:
+    private double[] nodeMin;
+    private double[] nodeMax;
+    private int[] nodeStart;    // first index in order
+    private int[] nodeCount;    // number of faces, for leaves only
+    private int[] nodeRight;    // index of the right child (left child is next)
+    private int nnodes = 0;
+
+    /**
+     * Build the hierarchy over the given faces.
+     * @param faces the faces
+     * @param npoints number of points of each face
+     */
+    public FaceBVH(List<Face3D> faces, int npoints) {
+        int n = faces.size();
+        faceMin = new double[3*n];
+        faceMax = new double[3*n];
+        order = new int[n];
+        for (int f=0; f<n; f++) {
+            order[f] = f;
+            Arrays.fill(faceMin, 3*f, 3*f+3, Double.POSITIVE_INFINITY);
+            Arrays.fill(faceMax, 3*f, 3*f+3, Double.NEGATIVE_INFINITY);
+            for (int p=0; p<npoints; p++) {
+                Point3D point = faces.get(f).point(p);
+                double[] xyz = {point.x(), point.y(), point.z()};
+                for (int a=0; a<3; a++) {
+                    faceMin[3*f+a] = Math.min(faceMin[3*f+a], xyz[a]);
+                    faceMax[3*f+a] = Math.max(faceMax[3*f+a], xyz[a]);
+                }
+            }
+            // pad so rounding in the face intersection can't fall outside the box:
+            for (int a=0; a<3; a++) {
+                double tol = 1e-9 + 1e-7*(Math.abs(faceMin[3*f+a]) + Math.abs(faceMax[3*f+a]));
+                faceMin[3*f+a] -= tol;
+                faceMax[3*f+a] += tol;
+            }
+        }
+        int capacity = Math.max(1, 2*n);
+        nodeMin   = new double[3*capacity];
+        nodeMax   = new double[3*capacity];
+        nodeStart = new int[capacity];
+        nodeCount = new int[capacity];
+        nodeRight = new int[capacity];
+        if (n > 0) build(0, n);
+    }
+
+    private int build(int start, int end) {
+        int node = nnodes++;
+        for (int a=0; a<3; a++) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i=start; i<end; i++) {
+                min = Math.min(min, faceMin[3*order[i]+a]);
+                max = Math.max(max, faceMax[3*order[i]+a]);
+            }
+            nodeMin[3*node+a] = min;
+            nodeMax[3*node+a] = max;
+        }
+        nodeStart[node] = start;
+        if (end - start <= LEAF_SIZE) {
+            nodeCount[node] = end - start;
+            return node;
+        }
+        // split at the median face center along the longest axis:
+        int axis = 0;
+        double extent = -1;
+        for (int a=0; a<3; a++) {
+            if (nodeMax[3*node+a] - nodeMin[3*node+a] > extent) {
+                extent = nodeMax[3*node+a] - nodeMin[3*node+a];
+                axis = a;
+            }
+        }
+        final int ax = axis;
+        Integer[] sorted = new Integer[end-start];
+        for (int i=start; i<end; i++) sorted[i-start] = order[i];
+        Arrays.sort(sorted, (f1, f2) -> Double.compare(faceMin[3*f1+ax]+faceMax[3*f1+ax], faceMin[3*f2+ax]+faceMax[3*f2+ax]));
+        for (int i=start; i<end; i++) order[i] = sorted[i-start];
+        int mid = (start + end) / 2;
+        nodeCount[node] = 0;
+        build(start, mid);
+        nodeRight[node] = build(mid, end);
+        return node;
+    }
+
+    private static boolean hits(double[] min, double[] max, int i, double[] o, double[] d) {
+        double tmin = Double.NEGATIVE_INFINITY;
+        double tmax = Double.POSITIVE_INFINITY;
+        for (int a=0; a<3; a++) {
+            if (d[a] == 0) {
+                if (o[a] < min[3*i+a] || o[a] > max[3*i+a]) return false;
+            }
+            else {
+                double t1 = (min[3*i+a] - o[a]) / d[a];
+                double t2 = (max[3*i+a] - o[a]) / d[a];
+                tmin = Math.max(tmin, Math.min(t1, t2));
+                tmax = Math.min(tmax, Math.max(t1, t2));
+                if (tmin > tmax) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Find the faces whose bounding box is crossed by the given infinite line.
+     * @param line the infinite line
+     * @return the indices of the candidate faces, in increasing order
+     */
+    public int[] candidates(Line3D line) {
+        double[] o = {line.origin().x(), line.origin().y(), line.origin().z()};
+        double[] d = {line.end().x()-o[0], line.end().y()-o[1], line.end().z()-o[2]};
+        int[] result = new int[order.length];
+        int nresult = 0;
+        if (nnodes == 0) return result;
+        int[] stack = new int[nnodes];
+        int nstack = 0;
+        stack[nstack++] = 0;
+        while (nstack > 0) {
+            int node = stack[--nstack];
+            if (!hits(nodeMin, nodeMax, node, o, d)) continue;
+            if (nodeCount[node] > 0) {
+                for (int i=nodeStart[node]; i<nodeStart[node]+nodeCount[node]; i++) {
+                    if (hits(faceMin, faceMax, order[i], o, d)) result[nresult++] = order[i];
+                }
+            }
+            else {
+                stack[nstack++] = nodeRight[node];
+                stack[nstack++] = node + 1;
+            }
+        }
+        result = Arrays.copyOf(result, nresult);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * @return the number of faces in the hierarchy
+     */
+    public int size() {
+        return order.length;
+    }
+}
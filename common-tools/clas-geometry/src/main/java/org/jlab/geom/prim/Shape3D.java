@@ -21,6 +21,7 @@ import org.jlab.geom.Showable;
  */
 public class Shape3D implements Transformable, Showable {
     private final ArrayList<Face3D> faces = new ArrayList(); // the faces
+    private FaceBVH faceIndex = null; // optional index of the faces
     
     /**
      * Constructs a new empty {@code Shape3D}.
@@ -47,6 +48,7 @@ public class Shape3D implements Transformable, Showable {
      */
     public void addFace(Face3D face) {
         faces.add(face);
+        faceIndex = null;
     }
     
     /**
@@ -71,6 +73,43 @@ public class Shape3D implements Transformable, Showable {
         return faces.size();
     }
     
+    /**
+     * Builds a bounding volume hierarchy over the faces of this shape, used
+     * by {@link #intersection(org.jlab.geom.prim.Line3D, java.util.List)} and
+     * {@link #intersection_with_faces(org.jlab.geom.prim.Line3D, java.util.List, java.util.List)}
+     * to skip the faces that the line cannot cross. The index is discarded
+     * when the shape is transformed or a face is added; faces modified 
+     * directly require the index to be rebuilt or cleared.
+     * @return true if the index was built, false if the shape contains faces
+     * other than triangles
+     */
+    public boolean buildFaceIndex() {
+        for (Face3D face : faces) {
+            if (!(face instanceof Triangle3D)) {
+                faceIndex = null;
+                return false;
+            }
+        }
+        faceIndex = new FaceBVH(faces, 3);
+        return true;
+    }
+    
+    /**
+     * Discards the face index, if any.
+     */
+    public void clearFaceIndex() {
+        faceIndex = null;
+    }
+    
+    /**
+     * Returns true if this shape has a face index.
+     * @return true if {@link #buildFaceIndex()} was called since the last
+     * modification of the shape
+     */
+    public boolean hasFaceIndex() {
+        return faceIndex != null;
+    }
+    
     /**
      * Constructs a point center of the shape. This point is at the geometric
      * mean of every point in every face of the shape.
@@ -98,24 +137,28 @@ public class Shape3D implements Transformable, Showable {
     
     @Override
     public void translateXYZ(double x, double y, double z) {
+        faceIndex = null;
         for (Face3D face : faces) {
             face.translateXYZ(x, y, z);
         }
     }
     @Override
     public void rotateX(double angle) {
+        faceIndex = null;
         for (Face3D face : faces) {
             face.rotateX(angle);
         }
     }
     @Override
     public void rotateY(double angle) {
+        faceIndex = null;
         for (Face3D face : faces) {
             face.rotateY(angle);
         }
     }
     @Override
     public void rotateZ(double angle) {
+        faceIndex = null;
         for (Face3D face : faces) {
             face.rotateZ(angle);
         }
@@ -152,6 +195,12 @@ public class Shape3D implements Transformable, Showable {
      */
     public int intersection(final Line3D line, List<Point3D> intersections) {
         int count = 0;
+        FaceBVH index = faceIndex;
+        if (index != null) {
+            for (int ifa : index.candidates(line))
+                count += faces.get(ifa).intersection(line, intersections);
+            return count;
+        }
         for (Face3D face : faces)
             count += face.intersection(line, intersections);
         return count;
@@ -169,6 +218,15 @@ public class Shape3D implements Transformable, Showable {
         int count = 0;
         int ifa = 0;
         int nint = 0;
+        FaceBVH index = faceIndex;
+        if (index != null) {
+            for (int ic : index.candidates(line)) {
+                nint = faces.get(ic).intersection(line, intersections);
+                count += nint;
+                for(int ii=0; ii<nint; ii++)ifaces.add(ic);
+            }
+            return count;
+        }
         for (Face3D face : faces){
             nint = face.intersection(line, intersections);
             count += nint;
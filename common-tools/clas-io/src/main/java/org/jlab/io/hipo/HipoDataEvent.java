@@ -9,8 +9,12 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import org.jlab.io.base.DataBank;
 import org.jlab.io.base.DataDictionary;
 import org.jlab.io.base.DataEvent;
@@ -30,6 +34,14 @@ public class HipoDataEvent implements DataEvent {
     private SchemaFactory schemaFactory = null;
     
     private DataEventType eventType = DataEventType.EVENT_ACCUMULATE;
+
+    /**
+     * Decoded banks are cached per event when enabled, see {@link #setBankCache(boolean)}.
+     * The default can be set with the system property "hipo.bankcache".
+     */
+    private static volatile boolean bankCacheEnabled = Boolean.getBoolean("hipo.bankcache");
+    private static final Map<String,LongAdder[]> bankCacheStats = new ConcurrentHashMap<>();
+    private Map<String,HipoDataBank> bankCache = null;
     
     public HipoDataEvent(byte[] array, SchemaFactory factory){
         hipoEvent = new Event(array.length);
@@ -105,6 +117,7 @@ public class HipoDataEvent implements DataEvent {
         if(bank instanceof HipoDataBank){
             Bank group =  ((HipoDataBank) bank).getBank();
             hipoEvent.write(group);
+            invalidateBank(group.getSchema().getName());
         }
     }
 
@@ -124,18 +137,92 @@ public class HipoDataEvent implements DataEvent {
     @Override
     public DataBank getBank(String bank_name) {
         
+        if(bankCacheEnabled && bankCache!=null){
+            HipoDataBank cached = bankCache.get(bank_name);
+            if(cached!=null){
+                countBankCache(bank_name, true);
+                return cached;
+            }
+        }
+
         Schema schema = schemaFactory.getSchema(bank_name);
         
         if(schema!=null){            
             Bank bank = new Bank(schema);            
             hipoEvent.read(bank);
             HipoDataBank dataBank = new HipoDataBank(bank);
+            if(bankCacheEnabled){
+                if(bankCache==null) bankCache = new HashMap<>();
+                bankCache.put(bank_name, dataBank);
+                countBankCache(bank_name, false);
+            }
             return dataBank;
         }        
         //HipoDataBank bank = new HipoDataBank();
         return null;
     }
 
+    /**
+     * Enable or disable caching of decoded banks.  With the cache enabled,
+     * repeated {@link #getBank(String)} calls on the same event return the same
+     * {@link HipoDataBank} instance until the bank is written with
+     * {@link #appendBank(DataBank)} or removed with {@link #removeBank(String)}.
+     * Callers must therefore not modify a bank returned by getBank unless
+     * they also write it back to the event.
+     * @param enable true to enable the cache
+     */
+    public static void setBankCache(boolean enable){
+        bankCacheEnabled = enable;
+    }
+
+    public static boolean getBankCache(){
+        return bankCacheEnabled;
+    }
+
+    /**
+     * Drop all cached banks of this event, e.g. after modifying the underlying
+     * hipo event directly through {@link #getHipoEvent()}.
+     */
+    public void clearBankCache(){
+        if(bankCache!=null) bankCache.clear();
+    }
+
+    private void invalidateBank(String bank_name){
+        if(bankCache!=null) bankCache.remove(bank_name);
+    }
+
+    private static void countBankCache(String bank_name, boolean hit){
+        LongAdder[] counters = bankCacheStats.computeIfAbsent(bank_name,
+                k -> new LongAdder[]{new LongAdder(),new LongAdder()});
+        counters[hit ? 0 : 1].increment();
+    }
+
+    /**
+     * @return number of cache hits and misses (decodes) per bank name,
+     * accumulated over all events since the last reset
+     */
+    public static Map<String,long[]> getBankCacheStatistics(){
+        Map<String,long[]> stats = new TreeMap<>();
+        for(Map.Entry<String,LongAdder[]> entry : bankCacheStats.entrySet()){
+            stats.put(entry.getKey(), new long[]{entry.getValue()[0].sum(),entry.getValue()[1].sum()});
+        }
+        return stats;
+    }
+
+    public static void resetBankCacheStatistics(){
+        bankCacheStats.clear();
+    }
+
+    public static void showBankCacheStatistics(){
+        System.out.println(String.format("%-24s %12s %12s %8s", "bank", "hits", "decodes", "hit rate"));
+        for(Map.Entry<String,long[]> entry : getBankCacheStatistics().entrySet()){
+            long hits    = entry.getValue()[0];
+            long decodes = entry.getValue()[1];
+            System.out.println(String.format("%-24s %12d %12d %7.1f%%", entry.getKey(),
+                    hits, decodes, 100.0*hits/Math.max(1,hits+decodes)));
+        }
+    }
+
     public void getBank(String bank_name, DataBank bank) {
         throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
     }
@@ -321,6 +408,7 @@ public class HipoDataEvent implements DataEvent {
         if(schemaFactory.hasSchema(bankName)==true){
             hipoEvent.remove(schemaFactory.getSchema(bankName));
         }
+        invalidateBank(bankName);
         //this.hipoEvent.removeGroup(bankName);
     }
 
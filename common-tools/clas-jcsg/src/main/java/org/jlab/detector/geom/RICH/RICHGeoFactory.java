@@ -358,6 +358,7 @@ public class RICHGeoFactory{
                     }
 
                     store_TrackingPlane(layer);
+                    layer.build_FaceIndex();
 
                     if(FactoryMode>0 && layer.is_mapmt()){
                         /*
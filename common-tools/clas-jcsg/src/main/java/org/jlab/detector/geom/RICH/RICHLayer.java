@@ -234,6 +234,17 @@ public class RICHLayer extends ArrayList<RICHComponent> {
     public Shape3D get_GlobalSurf() { return global_surf; }
     // ----------------
 
+    // ----------------
+    public void build_FaceIndex() {
+    // ----------------
+        /*
+        * Index the faces of the global and tracking planes used in find_Intersection,
+        * to be called once the planes are aligned
+        */
+        if(global_surf!=null) global_surf.buildFaceIndex();
+        if(tracking_surf!=null) tracking_surf.buildFaceIndex();
+    }
+
     // ----------------
     public void set_TrackingSphere(Sphere3D sphere) { tracking_sphere = sphere; }
     // ----------------
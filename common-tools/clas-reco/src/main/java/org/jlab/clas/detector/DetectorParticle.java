@@ -14,6 +14,7 @@ import org.jlab.geom.prim.Line3D;
 import org.jlab.geom.prim.Point3D;
 import org.jlab.geom.prim.Vector3D;
 
+import org.jlab.clas.detector.matching.ResponseIndex;
 import org.jlab.clas.pdg.PDGDatabase;
 import org.jlab.clas.pdg.PhysicsConstants;
 
@@ -416,6 +417,30 @@ public class DetectorParticle implements Comparable {
     public int getDetectorHit(List<DetectorResponse>  hitList, DetectorType type,
             int detectorLayer,
             double distanceThreshold){
+        return this.getDetectorHit(hitList, null, type, detectorLayer, distanceThreshold);
+    }
+
+    /**
+     * Same as {@link #getDetectorHit(List, DetectorType, int, double)}, but
+     * only considering the indexed responses of the requested type and layer
+     * in the track's sector.
+     * @param index the indexed responses
+     * @param type the requested detector type
+     * @param detectorLayer the requested detector layer, or non-positive for all
+     * @param distanceThreshold the maximum distance between the track and the hit
+     * @return the index of the closest hit in the indexed list, else negative
+     */
+    public int getDetectorHit(ResponseIndex index, DetectorType type,
+            int detectorLayer,
+            double distanceThreshold){
+        int[] candidates = index.candidates(type, detectorLayer<=0 ? -1 : detectorLayer,
+                this.detectorTrack.getSector());
+        return this.getDetectorHit(index.getResponses(), candidates, type, detectorLayer, distanceThreshold);
+    }
+
+    private int getDetectorHit(List<DetectorResponse>  hitList, int[] candidates, DetectorType type,
+            int detectorLayer,
+            double distanceThreshold){
          
         Line3D   trajectory = this.detectorTrack.getLastCross();
         Point3D  hitPoint = new Point3D();
@@ -430,8 +455,10 @@ public class DetectorParticle implements Comparable {
             }
         }
 
-        for(int loop = 0; loop < hitList.size(); loop++){
+        final int n = candidates==null ? hitList.size() : candidates.length;
+        for(int ii = 0; ii < n; ii++){
            
+            final int loop = candidates==null ? ii : candidates[ii];
             DetectorResponse response = hitList.get(loop);
  
             // same-sector requirement between hit and track:
@@ -4,6 +4,7 @@ import java.util.Arrays;
 import java.util.List;
 import org.jlab.clas.detector.DetectorTrack.TrajectoryPoint;
 import org.jlab.clas.detector.matching.MatchTrajDistance;
+import org.jlab.clas.detector.matching.ResponseIndex;
 import org.jlab.geom.prim.Line3D;
 import org.jlab.detector.base.DetectorType;
 import org.jlab.clas.pdg.PhysicsConstants;
@@ -26,6 +27,14 @@ public class DetectorParticleTraj extends DetectorParticle {
         return matcher.bestMatch(this, hitList, type, layer);
     }
 
+    @Override
+    public int getDetectorHit(ResponseIndex index, DetectorType type,
+            int layer, double distanceThreshold){
+        MatchTrajDistance matcher = new MatchTrajDistance(distanceThreshold);
+        matcher.setSharing(Arrays.asList(sharedDetectors).contains(type));
+        return matcher.bestMatch(this, index, type, layer);
+    }
+
     @Override
     public double getPathLength(DetectorType type,int layId) {
         return this.detectorTrack.getPathLength(type,layId);
@@ -41,9 +41,25 @@ public abstract class AMatch implements IMatch {
      * @return the index of the resulting match, else negative
      */
     private int findMatch(DetectorParticle p, List<DetectorResponse> r, DetectorType t, final int l, final boolean first) {
+        return this.findMatch(p, r, null, t, l, first);
+    }
+
+    /**
+     * Find a matching response among the given candidates for the given particle.
+     * @param p the particle
+     * @param r the list of responses
+     * @param candidates the indices of the responses to consider, in increasing order, or null for all
+     * @param t the requested detector type to consider
+     * @param l the requested detector layer to consider
+     * @param first whether to accept the first match, else look for the best one
+     * @return the index of the resulting match, else negative
+     */
+    private int findMatch(DetectorParticle p, List<DetectorResponse> r, int[] candidates, DetectorType t, final int l, final boolean first) {
         int bestIndex = -1;
         double bestQuality = Double.POSITIVE_INFINITY;
-        for (int i=0; i<r.size(); i++) {
+        final int n = candidates == null ? r.size() : candidates.length;
+        for (int j=0; j<n; j++) {
+            final int i = candidates == null ? j : candidates[j];
             if (r.get(i).getAssociation()>=0 && !sharing) {
                 continue;
             }
@@ -66,6 +82,21 @@ public abstract class AMatch implements IMatch {
         return bestIndex;
     }
 
+    /**
+     * Get the candidates for matching the given particle, a superset of the
+     * matching responses.  This selects on detector type and layer only, and
+     * is narrowed down by the matchers that can bound their cuts in sector
+     * or azimuth.
+     * @param p the particle
+     * @param index the indexed responses
+     * @param t the requested detector type to consider
+     * @param l the requested detector layer to consider
+     * @return the indices of the candidate responses, in increasing order
+     */
+    protected int[] candidates(DetectorParticle p, ResponseIndex index, DetectorType t, final int l) {
+        return index.candidates(t, l);
+    }
+
     /**
      * Find the first matching response in the given list for the given particle.
      * @param p the particle
@@ -116,6 +147,32 @@ public abstract class AMatch implements IMatch {
         return this.bestMatch(p, r, t, -1);
     }
 
+    /**
+     * Find the first matching response in the given index for the given particle.
+     * @param p the particle
+     * @param r the indexed responses
+     * @param t the requested detector type to consider
+     * @param l the requested detector layer to consider
+     * @return the index of the resulting match in the indexed list, else negative
+     */
+    @Override
+    public final int firstMatch(DetectorParticle p, ResponseIndex r, DetectorType t, final int l) {
+        return this.findMatch(p, r.getResponses(), this.candidates(p, r, t, l), t, l, true);
+    }
+
+    /**
+     * Find the best matching response in the given index for the given particle.
+     * @param p the particle
+     * @param r the indexed responses
+     * @param t the requested detector type to consider
+     * @param l the requested detector layer to consider
+     * @return the index of the resulting match in the indexed list, else negative
+     */
+    @Override
+    public final int bestMatch(DetectorParticle p, ResponseIndex r, DetectorType t, final int l) {
+        return this.findMatch(p, r.getResponses(), this.candidates(p, r, t, l), t, l, false);
+    }
+
     /**
      * Compare the quality of two particle-response pairs.
      * @param a
@@ -29,4 +29,10 @@ public interface IMatch extends Comparator<Pair<DetectorParticle,DetectorRespons
     public abstract int bestMatch(DetectorParticle p, List<DetectorResponse> r,
             DetectorType type);
 
+    public abstract int firstMatch(DetectorParticle p, ResponseIndex r,
+            DetectorType type, final int layer);
+
+    public abstract int bestMatch(DetectorParticle p, ResponseIndex r,
+            DetectorType type, final int layer);
+
 }
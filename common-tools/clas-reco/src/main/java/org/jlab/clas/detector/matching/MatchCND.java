@@ -3,6 +3,8 @@ package org.jlab.clas.detector.matching;
 import org.jlab.clas.detector.DetectorParticle;
 import org.jlab.clas.detector.DetectorResponse;
 import org.jlab.clas.detector.DetectorTrack.TrajectoryPoint;
+import org.jlab.detector.base.DetectorType;
+import org.jlab.geom.prim.Point3D;
 
 /**
  * 
@@ -82,4 +84,16 @@ public class MatchCND extends AMatch {
         return Math.pow(dz,2)+Math.pow(dphi,2);
     }
 
+    @Override
+    protected int[] candidates(DetectorParticle p, ResponseIndex index, DetectorType t, final int l) {
+        if (p.getCharge() == 0) {
+            return index.candidates(t, l, p.getTrack().getVector().phi(), this.limit_dphi);
+        }
+        if (t == null || l < 0) return super.candidates(p, index, t, l);
+        TrajectoryPoint tp = p.getTrack().getTrajectoryPoint(t.getDetectorId(), l);
+        if (tp == null) return super.candidates(p, index, t, l);
+        final Point3D cross = tp.getCross().origin();
+        return index.candidates(t, l, Math.atan2(cross.y(),cross.x()), this.limit_dphi);
+    }
+
 }
@@ -2,6 +2,7 @@ package org.jlab.clas.detector.matching;
 
 import org.jlab.clas.detector.DetectorParticle;
 import org.jlab.clas.detector.DetectorResponse;
+import org.jlab.clas.detector.DetectorTrack.TrajectoryPoint;
 import org.jlab.detector.base.DetectorType;
 import org.jlab.geom.prim.Point3D;
 
@@ -36,4 +37,20 @@ public class MatchTrajDistance extends AMatch {
         return Double.POSITIVE_INFINITY;
     }
  
+    /**
+     * Responses within the distance limit of the trajectory point are within
+     * asin(limit/rho) in azimuth, where rho is the point's distance to the
+     * beamline.
+     */
+    @Override
+    protected int[] candidates(DetectorParticle p, ResponseIndex index, DetectorType t, final int l) {
+        if (t == null || l < 0) return super.candidates(p, index, t, l);
+        TrajectoryPoint tp = p.getTrack().getTrajectoryPoint(t.getDetectorId(), l);
+        if (tp == null) return super.candidates(p, index, t, l);
+        final Point3D traj = tp.getCross().origin();
+        final double rho = Math.sqrt(traj.x()*traj.x()+traj.y()*traj.y());
+        if (this.distanceLimit >= rho) return index.candidates(t, l);
+        return index.candidates(t, l, Math.atan2(traj.y(),traj.x()), Math.asin(this.distanceLimit/rho));
+    }
+
 }
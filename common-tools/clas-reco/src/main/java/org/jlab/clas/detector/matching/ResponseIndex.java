@@ -0,0 +1,154 @@
+package org.jlab.clas.detector.matching;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.jlab.clas.detector.DetectorResponse;
+import org.jlab.detector.base.DetectorType;
+
+/**
+ * Index of an event's detector responses by detector type, layer, sector
+ * and azimuthal angle, to find the candidates for matching a particle
+ * without looping over all responses of the event.
+ *
+ * Candidates are indices into the indexed list, in increasing order, and
+ * are a superset of the matching responses, so the matchers still have to
+ * apply all their cuts.  Responses appended to the list after the index was
+ * built, e.g. copies of shared responses, are always candidates.
+ */
+public class ResponseIndex {
+
+    public static final int NPHI = 90;
+    private static final double PHIBIN = 2*Math.PI/NPHI;
+
+    private static final int[] EMPTY = new int[0];
+
+    private static class Bucket {
+        private final List<Integer> all = new ArrayList<>();
+        private final Map<Integer,List<Integer>> sectors = new HashMap<>();
+        private final List<List<Integer>> phis = new ArrayList<>();
+        private Bucket() {
+            for (int i=0; i<NPHI; i++) phis.add(new ArrayList<>());
+        }
+        private void add(int index, int sector, int phiBin) {
+            all.add(index);
+            sectors.computeIfAbsent(sector>0 ? sector : 0, k -> new ArrayList<>()).add(index);
+            phis.get(phiBin).add(index);
+        }
+    }
+
+    private final List<DetectorResponse> responses;
+    private final int size;
+    private final Map<DetectorType,Map<Integer,Bucket>> buckets = new EnumMap<>(DetectorType.class);
+
+    /**
+     * Index the given responses.  The list may grow afterwards, but the
+     * existing responses must not be removed or reordered.
+     * @param responses the responses
+     */
+    public ResponseIndex(List<DetectorResponse> responses) {
+        this.responses = responses;
+        this.size = responses.size();
+        for (int i=0; i<size; i++) {
+            DetectorResponse r = responses.get(i);
+            buckets.computeIfAbsent(r.getDescriptor().getType(), k -> new HashMap<>())
+                   .computeIfAbsent(r.getDescriptor().getLayer(), k -> new Bucket())
+                   .add(i, r.getSector(), getPhiBin(r.getPosition().phi()));
+        }
+    }
+
+    public List<DetectorResponse> getResponses() {
+        return this.responses;
+    }
+
+    public static int getPhiBin(double phi) {
+        final int bin = (int)Math.floor((phi+Math.PI)/PHIBIN);
+        return ((bin%NPHI)+NPHI)%NPHI;
+    }
+
+    /**
+     * @param t the detector type, or null for all types
+     * @param l the detector layer, or negative for all layers
+     * @return the candidates of the given type and layer
+     */
+    public int[] candidates(DetectorType t, int l) {
+        if (t == null) return all();
+        List<List<Integer>> parts = new ArrayList<>();
+        for (Bucket b : getBuckets(t, l)) parts.add(b.all);
+        return merge(parts);
+    }
+
+    /**
+     * @param t the detector type, or null for all types
+     * @param l the detector layer, or negative for all layers
+     * @param sector the sector, or non-positive for all sectors
+     * @return the candidates of the given type and layer, in the given sector
+     * or without a sector
+     */
+    public int[] candidates(DetectorType t, int l, int sector) {
+        if (t == null || sector <= 0) return candidates(t, l);
+        List<List<Integer>> parts = new ArrayList<>();
+        for (Bucket b : getBuckets(t, l)) {
+            if (b.sectors.containsKey(sector)) parts.add(b.sectors.get(sector));
+            if (b.sectors.containsKey(0)) parts.add(b.sectors.get(0));
+        }
+        return merge(parts);
+    }
+
+    /**
+     * @param t the detector type, or null for all types
+     * @param l the detector layer, or negative for all layers
+     * @param phi the azimuthal angle (radians)
+     * @param dphi the half width of the azimuthal window (radians)
+     * @return the candidates of the given type and layer, in the given
+     * azimuthal window
+     */
+    public int[] candidates(DetectorType t, int l, double phi, double dphi) {
+        final int bin0 = (int)Math.floor((phi-dphi+Math.PI)/PHIBIN) - 1;
+        final int bin1 = (int)Math.floor((phi+dphi+Math.PI)/PHIBIN) + 1;
+        if (t == null || Double.isNaN(phi) || !(bin1-bin0+1 < NPHI)) return candidates(t, l);
+        List<List<Integer>> parts = new ArrayList<>();
+        for (Bucket b : getBuckets(t, l)) {
+            for (int bin=bin0; bin<=bin1; bin++) {
+                parts.add(b.phis.get(((bin%NPHI)+NPHI)%NPHI));
+            }
+        }
+        return merge(parts);
+    }
+
+    private List<Bucket> getBuckets(DetectorType t, int l) {
+        if (!buckets.containsKey(t)) return new ArrayList<>();
+        if (l < 0) return new ArrayList<>(buckets.get(t).values());
+        List<Bucket> ret = new ArrayList<>();
+        if (buckets.get(t).containsKey(l)) ret.add(buckets.get(t).get(l));
+        return ret;
+    }
+
+    private int[] all() {
+        int[] ret = new int[responses.size()];
+        for (int i=0; i<ret.length; i++) ret[i] = i;
+        return ret;
+    }
+
+    /**
+     * Join disjoint lists of candidates, sort them and add the responses
+     * appended after indexing.
+     */
+    private int[] merge(List<List<Integer>> parts) {
+        int n = 0;
+        for (List<Integer> part : parts) n += part.size();
+        if (n == 0 && responses.size() == size) return EMPTY;
+        int[] ret = new int[n + responses.size() - size];
+        int k = 0;
+        for (List<Integer> part : parts) {
+            for (int i : part) ret[k++] = i;
+        }
+        Arrays.sort(ret, 0, n);
+        for (int i=size; i<responses.size(); i++) ret[k++] = i;
+        return ret;
+    }
+
+}
@@ -118,9 +118,9 @@ public class ParticleSwimmer {
             
             for(int loop = 0; loop < traj.size(); loop++){
                 particlePath.addPoint(
-                        100.0*traj.get(loop)[0], 
-                        100.0*traj.get(loop)[1], 
-                        100.0*traj.get(loop)[2] 
+                        100.0*traj.get(loop, SwimTrajectory.X_IDX), 
+                        100.0*traj.get(loop, SwimTrajectory.Y_IDX), 
+                        100.0*traj.get(loop, SwimTrajectory.Z_IDX) 
                 );
             }
             return particlePath;
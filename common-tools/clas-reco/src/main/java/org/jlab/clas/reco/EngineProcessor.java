@@ -1,13 +1,25 @@
 package org.jlab.clas.reco;
 
 import java.io.File;
+import java.io.IOException;
 import java.nio.file.Files;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import org.jlab.detector.calib.utils.ConstantsManager;
+import org.jlab.detector.calib.utils.ConstantsSnapshot;
 import org.jlab.io.base.DataEvent;
+import org.jlab.io.hipo.HipoDataEvent;
 import org.jlab.io.hipo.HipoDataSource;
 import org.jlab.io.hipo.HipoDataSync;
 import org.jlab.utils.benchmark.ProgressPrintout;
@@ -332,6 +344,151 @@ public class EngineProcessor {
         
     }
 
+    /**
+     * process entire file through engine chain with a pipeline of one reader
+     * thread, nthreads worker threads and an ordered writer.  All workers
+     * share the same engine instances (and therefore constants, geometry and
+     * field maps), so the engines in the chain must be thread-safe, just as
+     * when running with multiple threads in CLARA.  The output event order
+     * is the same as the input order.
+     * @param file input file name to process
+     * @param output output filename
+     * @param nskip number of events to skip
+     * @param nevents number of events to process
+     * @param nthreads number of worker threads, 1 for the serial mode
+     */
+    public void processFile(String file, String output, int nskip, int nevents, int nthreads){
+        if(nthreads<=1) {
+            this.processFile(file, output, nskip, nevents);
+        }
+        else if(file.endsWith(".hipo")==true||file.endsWith(".h5")==true
+                ||file.endsWith(".h4")==true){
+            HipoDataSource reader = new HipoDataSource();
+            reader.open(file);
+
+            HipoDataSync   writer = new HipoDataSync();
+            writer.setCompressionType(2);
+            writer.open(output);
+
+            if(updateDictionary==true)
+                updateDictionary(reader, writer);
+
+            if(nskip>0 && nevents>0) nevents += nskip;
+
+            LOGGER.log(Level.INFO, "Processing with {0} worker threads", nthreads);
+
+            // futures are queued in input order, the queue size limits the
+            // number of events in flight:
+            final BlockingQueue<CompletableFuture<DataEvent>> pipeline =
+                    new ArrayBlockingQueue<>(4*nthreads);
+            final ExecutorService workers = Executors.newFixedThreadPool(nthreads);
+            final AtomicLong readTime    = new AtomicLong();
+            final AtomicLong processTime = new AtomicLong();
+            final CompletableFuture<DataEvent> endOfFile = CompletableFuture.completedFuture(null);
+            final int first = nskip;
+            final int last  = nevents;
+
+            // the reader ends the pipeline with endOfFile, or with a failed
+            // future carrying its exception, which the writer rethrows:
+            Thread readerThread = new Thread(() -> {
+                CompletableFuture<DataEvent> end = endOfFile;
+                try {
+                    int eventCounter = 0;
+                    while(reader.hasEvent()==true){
+                        long t0 = System.nanoTime();
+                        DataEvent event = reader.getNextEvent();
+                        readTime.addAndGet(System.nanoTime()-t0);
+                        if(first<=0 || eventCounter>first) {
+                            pipeline.put(CompletableFuture.supplyAsync(() -> {
+                                long t1 = System.nanoTime();
+                                processEvent(event);
+                                removeBanks(event);
+                                processTime.addAndGet(System.nanoTime()-t1);
+                                return event;
+                            }, workers));
+                        }
+                        eventCounter++;
+                        if(last>0){
+                            if(eventCounter>last) break;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    // the writer stopped and is not waiting for the end
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (RuntimeException | Error e) {
+                    end = new CompletableFuture<>();
+                    end.completeExceptionally(e);
+                }
+                try {
+                    pipeline.put(end);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "EngineProcessor-reader");
+
+            long start = System.nanoTime();
+            readerThread.start();
+
+            long writeTime = 0;
+            long nwritten  = 0;
+            ProgressPrintout  progress = new ProgressPrintout();
+            Throwable failure = null;
+            try {
+                while(true) {
+                    CompletableFuture<DataEvent> next = pipeline.take();
+                    if(next==endOfFile) break;
+                    DataEvent event = next.get();
+                    long t0 = System.nanoTime();
+                    writer.writeEvent(event);
+                    writeTime += System.nanoTime()-t0;
+                    nwritten++;
+                    progress.updateStatus();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                failure = e.getCause();
+            } catch (RuntimeException | Error e) {
+                failure = e;
+            }
+
+            // stop reading and processing before closing the output:
+            readerThread.interrupt();
+            workers.shutdownNow();
+            try {
+                readerThread.join();
+                if(!workers.awaitTermination(1, TimeUnit.MINUTES))
+                    LOGGER.warning("[EngineProcessor] worker threads did not terminate");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            progress.showStatus();
+            writer.close();
+
+            double elapsed = (System.nanoTime()-start)*1e-9;
+            LOGGER.info(String.format("[EngineProcessor] events: %d, threads: %d, wall time: %.2f s, throughput: %.1f Hz",
+                    nwritten, nthreads, elapsed, nwritten/elapsed));
+            LOGGER.info(stageSummary("reader", readTime.get(), nwritten));
+            LOGGER.info(stageSummary("workers", processTime.get(), nwritten));
+            LOGGER.info(stageSummary("writer", writeTime, nwritten));
+
+            // as in the serial mode, exceptions not handled by the engines
+            // end the processing:
+            if(failure instanceof RuntimeException) throw (RuntimeException) failure;
+            if(failure instanceof Error) throw (Error) failure;
+            if(failure != null) throw new RuntimeException(failure);
+        } else {
+            LOGGER.info("\n\n>>>> error in file extension (use .hipo,.h4 or .h5)\n>>>> how is this not simple ?\n");
+        }
+    }
+
+    private static String stageSummary(String stage, long nanos, long nevents) {
+        double seconds = nanos*1e-9;
+        return String.format("[EngineProcessor] %8s : busy time %9.2f s, %9.3f ms/event, %10.1f events/busy-second",
+                stage, seconds, nevents>0 ? 1e3*seconds/nevents : 0, seconds>0 ? nevents/seconds : 0);
+    }
+
     /**
      * display services registered with the processor.
      */
@@ -358,6 +515,9 @@ public class EngineProcessor {
         parser.addOption("-P",null,"preload file for post-processing");
         parser.addOption("-R","0","rebuild scalers");
         parser.addOption("-H","0","restream helicity");
+        parser.addOption("-t","1","number of worker threads");
+        parser.addOption("-b","0","cache decoded banks per event [0 - no, 1 - yes]");
+        parser.addOption("-T",null,"write the constants tables required by the engines to this file, for constants-snapshot");
 
         parser.parse(args);
 
@@ -374,6 +534,9 @@ public class EngineProcessor {
         int config  = parser.getOption("-c").intValue();
         int nskip   = parser.getOption("-s").intValue();
         int nevents = parser.getOption("-n").intValue();
+        int nthreads = parser.getOption("-t").intValue();
+        boolean bankCache = parser.getOption("-b").intValue()!=0;
+        if(bankCache) HipoDataEvent.setBankCache(true);
         String yamlFileName = parser.getOption("-y").stringValue();
 
         String update = parser.getOption("-u").stringValue();
@@ -424,7 +587,17 @@ public class EngineProcessor {
                 parser.getOption("-R").intValue()!=0);
         }
 
-        proc.processFile(inputFile,outputFile,nskip,nevents);
+        if (parser.getOption("-T").stringValue() != null) {
+            try {
+                ConstantsSnapshot.writeTableList(parser.getOption("-T").stringValue(), ConstantsManager.getRequiredTables());
+            } catch (IOException e) {
+                LOGGER.log(Level.SEVERE, e.getMessage());
+            }
+        }
+
+        proc.processFile(inputFile,outputFile,nskip,nevents,nthreads);
+
+        if(bankCache) HipoDataEvent.showBankCacheStatistics();
     }
 
 }
@@ -0,0 +1,125 @@
+package org.jlab.clas.detector.matching;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import org.jlab.clas.detector.DetectorParticle;
+import org.jlab.clas.detector.DetectorResponse;
+import org.jlab.clas.detector.DetectorTrack;
+import org.jlab.clas.detector.DetectorTrack.TrajectoryPoint;
+import org.jlab.detector.base.DetectorType;
+import org.jlab.geom.prim.Line3D;
+
+/**
+ * Checks that the matchers and DetectorParticle.getDetectorHit select the
+ * same responses through a {@link ResponseIndex} as by looping over the list
+ * of responses, on random events.
+ */
+public class ResponseIndexTest {
+
+    static final DetectorType[] TYPES  = {DetectorType.FTOF, DetectorType.ECAL, DetectorType.CTOF, DetectorType.CND};
+    static final int[][]        LAYERS = {{1,2,3}, {1,4,7}, {1}, {1,2,3}};
+    static final double[]       RADII  = {650, 750, 25, 30};
+
+    static final int NEVENTS = 200;
+
+    private static DetectorResponse response(Random rnd, DetectorType type, int layer, double radius) {
+        int sector = type == DetectorType.CTOF ? 0 : 1 + rnd.nextInt(6);
+        DetectorResponse r = new DetectorResponse(sector, layer, 1 + rnd.nextInt(20));
+        r.getDescriptor().setType(type);
+        double phi = type == DetectorType.CTOF ? Math.PI * (2 * rnd.nextDouble() - 1)
+                   : Math.toRadians(60 * (sector - 1) + 50 * (rnd.nextDouble() - 0.5));
+        double theta = Math.toRadians(5 + 120 * rnd.nextDouble());
+        r.setPosition(radius * Math.sin(theta) * Math.cos(phi),
+                      radius * Math.sin(theta) * Math.sin(phi),
+                      radius * Math.cos(theta));
+        r.setTime(20 * rnd.nextDouble());
+        if (rnd.nextInt(5) == 0) r.setAssociation(rnd.nextInt(3));
+        return r;
+    }
+
+    // a track pointing close to one of the responses of each type and layer
+    private static DetectorParticle particle(Random rnd, List<DetectorResponse> responses) {
+        DetectorResponse target = responses.get(rnd.nextInt(responses.size()));
+        double x = target.getPosition().x() + 20 * rnd.nextGaussian();
+        double y = target.getPosition().y() + 20 * rnd.nextGaussian();
+        double z = target.getPosition().z() + 20 * rnd.nextGaussian();
+        double mag = Math.sqrt(x * x + y * y + z * z);
+        int charge = rnd.nextInt(4) == 0 ? 0 : (rnd.nextBoolean() ? 1 : -1);
+        DetectorTrack track = new DetectorTrack(charge, x / mag, y / mag, z / mag);
+        track.setSector(target.getSector());
+        if (rnd.nextBoolean()) track.setDetectorID(DetectorType.DC.getDetectorId());
+        track.addCross(x, y, z, x / mag, y / mag, z / mag);
+        for (int it = 0; it < TYPES.length; it++) {
+            for (int layer : LAYERS[it]) {
+                double s = RADII[it] * (1 + 0.02 * rnd.nextGaussian()) / mag;
+                double px = x * s + 10 * rnd.nextGaussian();
+                double py = y * s + 10 * rnd.nextGaussian();
+                double pz = z * s + 10 * rnd.nextGaussian();
+                track.getTrajectory().add(new TrajectoryPoint(TYPES[it].getDetectorId(), layer,
+                        new Line3D(px, py, pz, px + x / mag, py + y / mag, pz + z / mag), (float) RADII[it], 1, 1));
+            }
+        }
+        DetectorParticle p = new DetectorParticle(track);
+        if (charge == 0) p.addResponse(target);
+        return p;
+    }
+
+    private static void compare(IMatch m, DetectorParticle p, List<DetectorResponse> list,
+            ResponseIndex index, DetectorType t, int l) {
+        assertEquals(m.firstMatch(p, list, t, l), m.firstMatch(p, index, t, l));
+        assertEquals(m.bestMatch(p, list, t, l), m.bestMatch(p, index, t, l));
+    }
+
+    @Test
+    public void testMatchEquivalence() {
+        Random rnd = new Random(20240501);
+        int matched = 0;
+        for (int event = 0; event < NEVENTS; event++) {
+            List<DetectorResponse> responses = new ArrayList<>();
+            for (int it = 0; it < TYPES.length; it++) {
+                for (int layer : LAYERS[it]) {
+                    int n = rnd.nextInt(8);
+                    for (int i = 0; i < n; i++) responses.add(response(rnd, TYPES[it], layer, RADII[it]));
+                }
+            }
+            if (responses.isEmpty()) continue;
+            ResponseIndex index = new ResponseIndex(responses);
+
+            // copies of shared responses are appended after indexing:
+            for (int i = 0; i < 2; i++) {
+                responses.add(new DetectorResponse(responses.get(rnd.nextInt(responses.size()))));
+            }
+
+            for (int ip = 0; ip < 5; ip++) {
+                DetectorParticle p = particle(rnd, responses);
+                for (boolean sharing : new boolean[]{false, true}) {
+                    AMatch[] matchers = {new MatchTrajDistance(30), new MatchThetaPhi(5, 5),
+                                         new MatchThetaPhi(5, 5, 5), new MatchCND(10, 10, -1)};
+                    for (AMatch m : matchers) {
+                        m.setSharing(sharing);
+                        for (int it = 0; it < TYPES.length; it++) {
+                            compare(m, p, responses, index, TYPES[it], -1);
+                            for (int layer : LAYERS[it]) {
+                                compare(m, p, responses, index, TYPES[it], layer);
+                                if (m.firstMatch(p, index, TYPES[it], layer) >= 0) matched++;
+                            }
+                        }
+                    }
+                }
+                for (int it = 0; it < TYPES.length; it++) {
+                    for (int layer : new int[]{0, LAYERS[it][0]}) {
+                        assertEquals(p.getDetectorHit(responses, TYPES[it], layer, 50),
+                                     p.getDetectorHit(index, TYPES[it], layer, 50));
+                    }
+                }
+            }
+        }
+        // the events are not so sparse that nothing matches:
+        assertTrue(matched > 100);
+    }
+
+}
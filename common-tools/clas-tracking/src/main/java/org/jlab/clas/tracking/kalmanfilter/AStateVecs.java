@@ -41,6 +41,8 @@ public abstract class AStateVecs {
 
     public boolean straight;
 
+    private final double[][] propagateWork = new double[5][5];
+
     public abstract void init(Helix trk, double[][] cov, double xref, double yref, double zref, double mass, Swim swimmer);
 
     public abstract void init(double x0, double z0, double tx, double tz, Units units, double[][] cov);
@@ -127,9 +129,29 @@ public abstract class AStateVecs {
     
     private double[][] propagateMatrix(StateVec ivec, StateVec fvec, double[][] matrix) {
         double[][] FMat  = this.F(ivec, fvec);
-        double[][] FMatT = this.transposeMatrix(FMat);
         ivec.F = FMat;
-        return multiplyMatrices(FMat, matrix, FMatT);
+        // F*(C*F^T), same operation order as multiplyMatrices(F, C, F^T)
+        // without allocating the transpose and the intermediate product
+        for (int i = 0; i < 5; i++) {
+            for (int j = 0; j < 5; j++) {
+                double s = 0;
+                for (int k = 0; k < 5; k++) {
+                    s += matrix[i][k] * FMat[j][k];
+                }
+                propagateWork[i][j] = s;
+            }
+        }
+        double[][] result = new double[5][5];
+        for (int i = 0; i < 5; i++) {
+            for (int j = 0; j < 5; j++) {
+                double s = 0;
+                for (int k = 0; k < 5; k++) {
+                    s += FMat[i][k] * propagateWork[k][j];
+                }
+                result[i][j] = s;
+            }
+        }
+        return result;
     }
     
     private double[][] multiplyMatrices(double[][] firstMatrix, double[][] secondMatrix) {
@@ -2,6 +2,8 @@ package org.jlab.clas.tracking.kalmanfilter;
 
 import org.jlab.clas.tracking.utilities.MatrixOps;
 import org.jlab.clas.tracking.utilities.MatrixOps.Libr;
+import org.jlab.clas.tracking.utilities.SymMatrix5;
+import org.jlab.jnp.matrix.Matrix;
 
 /**
  *
@@ -10,6 +12,13 @@ import org.jlab.clas.tracking.utilities.MatrixOps.Libr;
 public class KFCovMatOps{
     
     public MatrixOps mo;
+    
+    // scratch arrays of the KF5 kernels, one set per fitter
+    private final double[]   c1   = new double[SymMatrix5.SIZE];
+    private final double[]   c2   = new double[SymMatrix5.SIZE];
+    private final double[]   work = new double[SymMatrix5.N*SymMatrix5.N];
+    private final double[][] m1   = new double[SymMatrix5.N][SymMatrix5.N];
+    
     public KFCovMatOps(Libr l) {
         mo = new MatrixOps(l);
     }
@@ -18,7 +27,23 @@ public class KFCovMatOps{
         return mo.libr;
     }
     
+    private boolean useKF5() {
+        return mo.libr == Libr.KF5;
+    }
+    
+    private static double[][] unpack(double[] c) {
+        double[][] C = new double[SymMatrix5.N][SymMatrix5.N];
+        SymMatrix5.unpack(c, C);
+        return C;
+    }
+    
     public double[][] filterCovMat(double[] H, double[][] Carr, double V) {
+        if(this.useKF5()) {
+            SymMatrix5.pack(Carr, c1);
+            if(!SymMatrix5.update(c1, H, V, work))
+                return null;
+            return unpack(c1);
+        }
         double[][] HTGH = new double[][]{
                 {H[0] * H[0] / V, H[0] * H[1] / V, H[0] * H[2] / V, H[0] * H[3] / V, H[0] * H[4] / V},
                 {H[1] * H[0] / V, H[1] * H[1] / V, H[1] * H[2] / V, H[1] * H[3] / V, H[1] * H[4] / V},
@@ -47,8 +72,34 @@ public class KFCovMatOps{
         }
         return Cinv;
     }
+    
+    /**
+     * Filters a covariance matrix with a one-dimensional measurement using
+     * the KF5 kernels, (C^-1 + H^T*H/V)^-1.
+     * @param H the projection of the measurement
+     * @param C the covariance matrix
+     * @param V the variance of the measurement
+     * @param result the filtered covariance matrix, may be C
+     * @return false if the filtered matrix is undefined
+     */
+    public boolean filterCovMat(double[] H, Matrix C, double V, Matrix result) {
+        SymMatrix5.pack(C, c1);
+        if(!SymMatrix5.update(c1, H, V, work))
+            return false;
+        SymMatrix5.unpack(c1, result);
+        return true;
+    }
         
     public double[][] smoothCovMat(double[][] C_n_kp1, double[][] C_k, double[][] A , double[][] C_k_kp1) {
+        if(this.useKF5()) {
+            SymMatrix5.pack(C_n_kp1, c1);
+            SymMatrix5.pack(C_k_kp1, c2);
+            SymMatrix5.subtract(c1, c2, c1);
+            SymMatrix5.propagate(A, c1, c1, work);
+            SymMatrix5.pack(C_k, c2);
+            SymMatrix5.add(c2, c1, c1);
+            return unpack(c1);
+        }
         double[][] At = null;
         try {
             At = mo.MatrixTranspose(A);
@@ -84,6 +135,16 @@ public class KFCovMatOps{
     }
  
     public double[][] smoothingCorr(double[][] C_k, double[][] FMatT , double[][] C_k_kp1) {
+        if(this.useKF5()) {
+            SymMatrix5.pack(C_k_kp1, c1);
+            if(!SymMatrix5.invert(c1, c1, work))
+                return null;
+            SymMatrix5.pack(C_k, c2);
+            SymMatrix5.multiply(c2, FMatT, m1);
+            double[][] A = new double[SymMatrix5.N][SymMatrix5.N];
+            SymMatrix5.multiply(m1, c1, A);
+            return A;
+        }
         double[][] Ci = null;
         try {
             Ci = mo.MatrixInversion(C_k_kp1);
@@ -106,6 +167,14 @@ public class KFCovMatOps{
     }
     
     public double[][] inverse(double[][] C) {
+        if(this.useKF5()) {
+            if(C == null)
+                return null;
+            SymMatrix5.pack(C, c1);
+            if(!SymMatrix5.invert(c1, c1, work))
+                return null;
+            return unpack(c1);
+        }
         double[][] Ci = null;
         try {
             Ci = mo.MatrixInversion(C);
@@ -382,6 +382,9 @@ public class KFitterStraight extends AKFitter {
 	}	
 	
     public Matrix filterCovMat(double[] H, Matrix Ci, double V) {
+        if (this.getMatrixOps().getMatrixLibrary() == Libr.KF5) {
+            return this.getMatrixOps().filterCovMat(H, Ci, V, result_inv) ? result_inv : null;
+        }
         
         double det = Matrix5x5.inverse(Ci, first_inverse, adj);
         if(Math.abs(det)<1.e-60)
@@ -26,6 +26,7 @@ public class StateVecs extends AStateVecs {
     private RungeKuttaDoca rk = new RungeKuttaDoca();
     private final Matrix fMS = new Matrix();
     private final Matrix copyMatrix = new Matrix();
+    private final Matrix cMat = new Matrix();
 
     public double Z[];
 
@@ -93,7 +94,6 @@ public class StateVecs extends AStateVecs {
             double ty = fVec.ty;
             double Q = fVec.Q;
             double dPath = fVec.deltaPath;
-            Matrix cMat = new Matrix();
             Matrix5x5.copy(fVec.CM, cMat);
             s = Math.signum(Zf - zInit) * stepSize;
 
@@ -194,7 +194,6 @@ public class StateVecs extends AStateVecs {
             double ty = fVec.ty;
             double Q = fVec.Q;
             double dPath = fVec.deltaPath;
-            Matrix cMat = new Matrix();
             Matrix5x5.copy(fVec.CM, cMat);
             s = Math.signum(zFinal - zInit) * stepSize;
 
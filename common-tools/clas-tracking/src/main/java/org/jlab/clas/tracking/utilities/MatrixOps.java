@@ -146,6 +146,8 @@ public class MatrixOps {
             result = MatrixInversionAPA(C);
         if(this.libr == Libr.EJML) 
             result = MatrixInversionEJML(C);
+        if(this.libr == Libr.KF5) 
+            result = MatrixInversionKF5(C);
         return result;
     }
     
@@ -198,10 +200,25 @@ public class MatrixOps {
         
     }
     
+    public double[][] MatrixInversionKF5(double[][] C){
+        if(C==null || C.length!=SymMatrix5.N)
+            return null;
+        double[] c    = new double[SymMatrix5.SIZE];
+        double[] work = new double[SymMatrix5.SIZE];
+        SymMatrix5.pack(C, c);
+        if(!SymMatrix5.invert(c, c, work))
+            return null;
+        double[][] Ci = new double[SymMatrix5.N][SymMatrix5.N];
+        SymMatrix5.unpack(c, Ci);
+        
+        return Ci;
+        
+    }
+    
     public Libr libr;
     
     public enum Libr {
-        UDF(-1), JAMA(0), JNP(1), APA(2), EJML(3);
+        UDF(-1), JAMA(0), JNP(1), APA(2), EJML(3), KF5(4);
         private final int value;
 
         Libr(int value) {
@@ -0,0 +1,210 @@
+package org.jlab.clas.tracking.utilities;
+
+import org.jlab.jnp.matrix.Matrix;
+
+/**
+ * Allocation-free kernels for 5x5 track covariance matrices.
+ *
+ * Symmetric matrices are packed row by row into the upper triangle of a
+ * double[SIZE] array; Jacobians and other general matrices are double[5][5].
+ * The caller provides all outputs and scratch arrays, so that a fitter can
+ * allocate them once and reuse them for every step of every track.
+ */
+public class SymMatrix5 {
+
+    public static final int N = 5;
+    public static final int SIZE = N*(N+1)/2;
+
+    private static final int[][] IDX = new int[N][N];
+    static {
+        int k = 0;
+        for (int i = 0; i < N; i++) {
+            for (int j = i; j < N; j++) {
+                IDX[i][j] = k;
+                IDX[j][i] = k;
+                k++;
+            }
+        }
+    }
+
+    private SymMatrix5() {}
+
+    /**
+     * @param i row
+     * @param j column
+     * @return the position of element (i,j) in the packed array
+     */
+    public static int index(int i, int j) {
+        return IDX[i][j];
+    }
+
+    public static double get(double[] c, int i, int j) {
+        return c[IDX[i][j]];
+    }
+
+    public static void pack(double[][] a, double[] c) {
+        for (int i = 0; i < N; i++) {
+            for (int j = i; j < N; j++) {
+                c[IDX[i][j]] = a[i][j];
+            }
+        }
+    }
+
+    public static void pack(Matrix a, double[] c) {
+        for (int i = 0; i < N; i++) {
+            for (int j = i; j < N; j++) {
+                c[IDX[i][j]] = a.get(i, j);
+            }
+        }
+    }
+
+    public static void unpack(double[] c, double[][] a) {
+        for (int i = 0; i < N; i++) {
+            for (int j = 0; j < N; j++) {
+                a[i][j] = c[IDX[i][j]];
+            }
+        }
+    }
+
+    public static void unpack(double[] c, Matrix a) {
+        a.set(c[0],  c[1],  c[2],  c[3],  c[4],
+              c[1],  c[5],  c[6],  c[7],  c[8],
+              c[2],  c[6],  c[9],  c[10], c[11],
+              c[3],  c[7],  c[10], c[12], c[13],
+              c[4],  c[8],  c[11], c[13], c[14]);
+    }
+
+    public static void add(double[] a, double[] b, double[] out) {
+        for (int k = 0; k < SIZE; k++) out[k] = a[k] + b[k];
+    }
+
+    public static void subtract(double[] a, double[] b, double[] out) {
+        for (int k = 0; k < SIZE; k++) out[k] = a[k] - b[k];
+    }
+
+    /**
+     * Propagates a covariance matrix with a Jacobian, out = F*C*F^T.
+     * @param F the Jacobian
+     * @param c the packed covariance matrix
+     * @param out the packed result, may be the same array as c
+     * @param work scratch array of at least N*N elements
+     */
+    public static void propagate(double[][] F, double[] c, double[] out, double[] work) {
+        for (int i = 0; i < N; i++) {
+            for (int k = 0; k < N; k++) {
+                double s = 0;
+                for (int l = 0; l < N; l++) s += F[i][l]*c[IDX[l][k]];
+                work[i*N+k] = s;
+            }
+        }
+        for (int i = 0; i < N; i++) {
+            for (int j = i; j < N; j++) {
+                double s = 0;
+                for (int k = 0; k < N; k++) s += work[i*N+k]*F[j][k];
+                out[IDX[i][j]] = s;
+            }
+        }
+    }
+
+    /**
+     * Filters a covariance matrix with a one-dimensional measurement, in place.
+     * Computes (C^-1 + H^T*H/V)^-1 as C - C*H^T*H*C/(H*C*H^T + V), which
+     * needs no matrix inversion.
+     * @param c the packed covariance matrix, replaced by the filtered one
+     * @param h the projection of the measurement, missing trailing
+     * components are zero
+     * @param v the variance of the measurement
+     * @param work scratch array of at least N elements
+     * @return false if the updated matrix is undefined, c is then unchanged
+     */
+    public static boolean update(double[] c, double[] h, double v, double[] work) {
+        final int n = Math.min(h.length, N);
+        for (int i = 0; i < N; i++) {
+            double ch = 0;
+            for (int j = 0; j < n; j++) ch += c[IDX[i][j]]*h[j];
+            work[i] = ch;
+        }
+        double s = v;
+        for (int i = 0; i < n; i++) s += h[i]*work[i];
+        if (s == 0 || !Double.isFinite(s)) return false;
+        for (int i = 0; i < N; i++) {
+            for (int j = i; j < N; j++) {
+                c[IDX[i][j]] -= work[i]*work[j]/s;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Inverts a positive definite matrix by Cholesky decomposition.
+     * @param c the packed matrix
+     * @param out the packed inverse, may be the same array as c
+     * @param work scratch array of at least SIZE elements
+     * @return false if the matrix is not positive definite, out is then undefined
+     */
+    public static boolean invert(double[] c, double[] out, double[] work) {
+        // c = L*L^T, with L(i,j) stored at index(j,i)
+        for (int j = 0; j < N; j++) {
+            double d = c[IDX[j][j]];
+            for (int k = 0; k < j; k++) d -= work[IDX[k][j]]*work[IDX[k][j]];
+            if (!(d > 0) || !Double.isFinite(d)) return false;
+            d = Math.sqrt(d);
+            work[IDX[j][j]] = d;
+            for (int i = j+1; i < N; i++) {
+                double s = c[IDX[j][i]];
+                for (int k = 0; k < j; k++) s -= work[IDX[k][i]]*work[IDX[k][j]];
+                work[IDX[j][i]] = s/d;
+            }
+        }
+        // L^-1, column by column in place
+        for (int j = 0; j < N; j++) {
+            work[IDX[j][j]] = 1/work[IDX[j][j]];
+            for (int i = j+1; i < N; i++) {
+                double s = 0;
+                for (int k = j; k < i; k++) s += work[IDX[k][i]]*work[IDX[j][k]];
+                work[IDX[j][i]] = -s/work[IDX[i][i]];
+            }
+        }
+        // c^-1 = L^-T * L^-1
+        for (int i = 0; i < N; i++) {
+            for (int j = i; j < N; j++) {
+                double s = 0;
+                for (int k = j; k < N; k++) s += work[IDX[i][k]]*work[IDX[j][k]];
+                out[IDX[i][j]] = s;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * out = S*A, with S symmetric.
+     * @param s the packed symmetric matrix
+     * @param a the general matrix
+     * @param out the result, must not be a
+     */
+    public static void multiply(double[] s, double[][] a, double[][] out) {
+        for (int i = 0; i < N; i++) {
+            for (int j = 0; j < N; j++) {
+                double sum = 0;
+                for (int k = 0; k < N; k++) sum += s[IDX[i][k]]*a[k][j];
+                out[i][j] = sum;
+            }
+        }
+    }
+
+    /**
+     * out = A*S, with S symmetric.
+     * @param a the general matrix
+     * @param s the packed symmetric matrix
+     * @param out the result, must not be a
+     */
+    public static void multiply(double[][] a, double[] s, double[][] out) {
+        for (int i = 0; i < N; i++) {
+            for (int j = 0; j < N; j++) {
+                double sum = 0;
+                for (int k = 0; k < N; k++) sum += a[i][k]*s[IDX[k][j]];
+                out[i][j] = sum;
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.jlab.clas.tracking.kalmanfilter;
+
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import org.jlab.clas.tracking.utilities.MatrixOps.Libr;
+
+/**
+ * Compares the KF5 covariance operations with those of the JNP and EJML
+ * libraries used by default in DC and CVT tracking.  The results are not
+ * bit-identical, since KF5 filters without inverting and inverts by Cholesky
+ * decomposition, but agree to a relative precision far below the
+ * measurement uncertainties.
+ */
+public class KFCovMatOpsTest {
+
+    static final int N = 5;
+    static final int NTRIALS = 500;
+    static final double TOLERANCE = 1e-7;
+    static final Libr[] REFERENCES = {Libr.JNP, Libr.EJML};
+
+    // random positive definite matrix with track-like scales
+    static double[][] randomCovariance(Random rnd) {
+        double[] scale = {1, 1, 1e-2, 1e-2, 1e-1};
+        double[][] C = new double[N][N];
+        double[][] A = new double[N][N];
+        for (int i = 0; i < N; i++) {
+            for (int j = 0; j < N; j++) A[i][j] = rnd.nextGaussian() * scale[i];
+        }
+        for (int i = 0; i < N; i++) {
+            for (int j = 0; j < N; j++) {
+                for (int k = 0; k < N; k++) C[i][j] += A[i][k] * A[j][k];
+            }
+            C[i][i] += 1e-3 * scale[i] * scale[i];
+        }
+        return C;
+    }
+
+    static double[][] randomMatrix(Random rnd) {
+        double[][] F = new double[N][N];
+        for (int i = 0; i < N; i++) {
+            for (int j = 0; j < N; j++) F[i][j] = (i == j ? 1 : 0) + 0.1 * rnd.nextGaussian();
+        }
+        return F;
+    }
+
+    static void assertMatrixEquals(String message, double[][] expected, double[][] actual) {
+        assertNotNull(message, expected);
+        assertNotNull(message, actual);
+        double norm = 0;
+        for (double[] row : expected) for (double v : row) norm = Math.max(norm, Math.abs(v));
+        for (int i = 0; i < N; i++) {
+            for (int j = 0; j < N; j++) {
+                assertEquals(message + " element " + i + "," + j, expected[i][j], actual[i][j], TOLERANCE * norm);
+            }
+        }
+    }
+
+    @Test
+    public void testAgainstReferenceLibraries() {
+        KFCovMatOps kf5 = new KFCovMatOps(Libr.KF5);
+        assertEquals(Libr.KF5, kf5.getMatrixLibrary());
+        for (Libr libr : REFERENCES) {
+            KFCovMatOps ref = new KFCovMatOps(libr);
+            Random rnd = new Random(libr.value());
+            for (int t = 0; t < NTRIALS; t++) {
+                double[][] C1 = randomCovariance(rnd);
+                double[][] C2 = randomCovariance(rnd);
+                double[][] C3 = randomCovariance(rnd);
+                double[][] F = randomMatrix(rnd);
+                double[] H = new double[N];
+                for (int i = 0; i < N; i++) H[i] = rnd.nextGaussian();
+                double V = 0.01 + rnd.nextDouble();
+
+                assertMatrixEquals(libr + " filterCovMat", ref.filterCovMat(H, C1, V), kf5.filterCovMat(H, C1, V));
+                assertMatrixEquals(libr + " inverse", ref.inverse(C1), kf5.inverse(C1));
+                assertMatrixEquals(libr + " smoothingCorr", ref.smoothingCorr(C1, F, C2), kf5.smoothingCorr(C1, F, C2));
+                assertMatrixEquals(libr + " smoothCovMat", ref.smoothCovMat(C1, C2, F, C3), kf5.smoothCovMat(C1, C2, F, C3));
+            }
+        }
+    }
+
+    @Test
+    public void testSingular() {
+        KFCovMatOps kf5 = new KFCovMatOps(Libr.KF5);
+        double[][] C = new double[N][N];
+        C[0][0] = 1;
+        assertNull(kf5.inverse(C));
+        assertNull(kf5.smoothingCorr(C, C, C));
+    }
+}
@@ -0,0 +1,193 @@
+package org.jlab.clas.tracking.utilities;
+
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Compares the packed 5x5 kernels with plain matrix arithmetic on random
+ * covariance matrices.
+ */
+public class SymMatrix5Test {
+
+    static final int N = SymMatrix5.N;
+    static final int NTRIALS = 1000;
+
+    // random positive definite matrix with track-like scales
+    static double[][] randomCovariance(Random rnd) {
+        double[] scale = {1, 1, 1e-2, 1e-2, 1e-1};
+        double[][] A = new double[N][N];
+        for (int i = 0; i < N; i++) {
+            for (int j = 0; j < N; j++) A[i][j] = rnd.nextGaussian() * scale[i];
+        }
+        double[][] C = multiply(A, transpose(A));
+        for (int i = 0; i < N; i++) C[i][i] += 1e-3 * scale[i] * scale[i];
+        return C;
+    }
+
+    static double[][] randomMatrix(Random rnd) {
+        double[][] F = new double[N][N];
+        for (int i = 0; i < N; i++) {
+            for (int j = 0; j < N; j++) F[i][j] = (i == j ? 1 : 0) + 0.1 * rnd.nextGaussian();
+        }
+        return F;
+    }
+
+    static double[][] multiply(double[][] a, double[][] b) {
+        double[][] c = new double[N][N];
+        for (int i = 0; i < N; i++) {
+            for (int j = 0; j < N; j++) {
+                for (int k = 0; k < N; k++) c[i][j] += a[i][k] * b[k][j];
+            }
+        }
+        return c;
+    }
+
+    static double[][] transpose(double[][] a) {
+        double[][] t = new double[N][N];
+        for (int i = 0; i < N; i++) {
+            for (int j = 0; j < N; j++) t[i][j] = a[j][i];
+        }
+        return t;
+    }
+
+    // Gauss-Jordan elimination with partial pivoting
+    static double[][] invert(double[][] a) {
+        double[][] m = new double[N][2 * N];
+        for (int i = 0; i < N; i++) {
+            System.arraycopy(a[i], 0, m[i], 0, N);
+            m[i][N + i] = 1;
+        }
+        for (int c = 0; c < N; c++) {
+            int p = c;
+            for (int r = c + 1; r < N; r++) if (Math.abs(m[r][c]) > Math.abs(m[p][c])) p = r;
+            double[] tmp = m[c]; m[c] = m[p]; m[p] = tmp;
+            double d = m[c][c];
+            for (int j = 0; j < 2 * N; j++) m[c][j] /= d;
+            for (int r = 0; r < N; r++) {
+                if (r == c) continue;
+                double f = m[r][c];
+                for (int j = 0; j < 2 * N; j++) m[r][j] -= f * m[c][j];
+            }
+        }
+        double[][] inv = new double[N][N];
+        for (int i = 0; i < N; i++) System.arraycopy(m[i], N, inv[i], 0, N);
+        return inv;
+    }
+
+    static void assertMatrixEquals(double[][] expected, double[][] actual, double tolerance) {
+        double norm = 0;
+        for (double[] row : expected) for (double v : row) norm = Math.max(norm, Math.abs(v));
+        for (int i = 0; i < N; i++) {
+            for (int j = 0; j < N; j++) {
+                assertEquals("element " + i + "," + j, expected[i][j], actual[i][j], tolerance * norm);
+            }
+        }
+    }
+
+    @Test
+    public void testPackUnpack() {
+        double[][] C = randomCovariance(new Random(1));
+        double[] c = new double[SymMatrix5.SIZE];
+        double[][] D = new double[N][N];
+        SymMatrix5.pack(C, c);
+        SymMatrix5.unpack(c, D);
+        for (int i = 0; i < N; i++) {
+            for (int j = 0; j < N; j++) {
+                assertEquals(C[i][j], SymMatrix5.get(c, i, j), 0);
+                assertEquals(C[Math.min(i, j)][Math.max(i, j)], D[i][j], 0);
+            }
+        }
+    }
+
+    @Test
+    public void testPropagate() {
+        Random rnd = new Random(2);
+        double[] c = new double[SymMatrix5.SIZE];
+        double[] work = new double[N * N];
+        double[][] result = new double[N][N];
+        for (int t = 0; t < NTRIALS; t++) {
+            double[][] C = randomCovariance(rnd);
+            double[][] F = randomMatrix(rnd);
+            SymMatrix5.pack(C, c);
+            SymMatrix5.propagate(F, c, c, work);
+            SymMatrix5.unpack(c, result);
+            assertMatrixEquals(multiply(F, multiply(C, transpose(F))), result, 1e-12);
+        }
+    }
+
+    @Test
+    public void testUpdate() {
+        Random rnd = new Random(3);
+        double[] c = new double[SymMatrix5.SIZE];
+        double[] work = new double[N];
+        double[][] result = new double[N][N];
+        for (int t = 0; t < NTRIALS; t++) {
+            double[][] C = randomCovariance(rnd);
+            double[] H = new double[N];
+            for (int i = 0; i < N; i++) H[i] = rnd.nextGaussian();
+            double V = 0.01 + rnd.nextDouble();
+            double[][] Ci = invert(C);
+            for (int i = 0; i < N; i++) {
+                for (int j = 0; j < N; j++) Ci[i][j] += H[i] * H[j] / V;
+            }
+            SymMatrix5.pack(C, c);
+            assertTrue(SymMatrix5.update(c, H, V, work));
+            SymMatrix5.unpack(c, result);
+            assertMatrixEquals(invert(Ci), result, 1e-8);
+        }
+    }
+
+    @Test
+    public void testUpdateShortProjection() {
+        Random rnd = new Random(4);
+        double[][] C = randomCovariance(rnd);
+        double[] c1 = new double[SymMatrix5.SIZE];
+        double[] c2 = new double[SymMatrix5.SIZE];
+        double[] work = new double[N];
+        SymMatrix5.pack(C, c1);
+        SymMatrix5.pack(C, c2);
+        assertTrue(SymMatrix5.update(c1, new double[]{0.3, -1.2}, 0.5, work));
+        assertTrue(SymMatrix5.update(c2, new double[]{0.3, -1.2, 0, 0, 0}, 0.5, work));
+        assertArrayEquals(c2, c1, 0);
+    }
+
+    @Test
+    public void testInvert() {
+        Random rnd = new Random(5);
+        double[] c = new double[SymMatrix5.SIZE];
+        double[] work = new double[SymMatrix5.SIZE];
+        double[][] result = new double[N][N];
+        for (int t = 0; t < NTRIALS; t++) {
+            double[][] C = randomCovariance(rnd);
+            SymMatrix5.pack(C, c);
+            assertTrue(SymMatrix5.invert(c, c, work));
+            SymMatrix5.unpack(c, result);
+            assertMatrixEquals(invert(C), result, 1e-8);
+        }
+    }
+
+    @Test
+    public void testInvertNotPositiveDefinite() {
+        double[][] C = new double[N][N];
+        for (int i = 0; i < N; i++) C[i][i] = 1;
+        C[2][2] = -1;
+        double[] c = new double[SymMatrix5.SIZE];
+        SymMatrix5.pack(C, c);
+        assertFalse(SymMatrix5.invert(c, c, new double[SymMatrix5.SIZE]));
+    }
+
+    @Test
+    public void testMultiply() {
+        Random rnd = new Random(6);
+        double[][] S = randomCovariance(rnd);
+        double[][] A = randomMatrix(rnd);
+        double[] s = new double[SymMatrix5.SIZE];
+        double[][] result = new double[N][N];
+        SymMatrix5.pack(S, s);
+        SymMatrix5.multiply(s, A, result);
+        assertMatrixEquals(multiply(S, A), result, 1e-14);
+        SymMatrix5.multiply(A, s, result);
+        assertMatrixEquals(multiply(A, S), result, 1e-14);
+    }
+}
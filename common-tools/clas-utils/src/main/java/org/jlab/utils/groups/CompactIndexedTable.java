@@ -0,0 +1,193 @@
+package org.jlab.utils.groups;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only, array backed snapshot of an {@link IndexedTable} for fast lookups
+ * in the per-hit loops of decoders and reconstruction engines.
+ *
+ * Keys are the same packed longs as generated by {@link IndexedList.IndexGenerator}
+ * and are stored in an open-addressed primitive hash table, values are stored
+ * column-major in primitive arrays. Columns are resolved once by name:
+ * <pre>
+ *   CompactIndexedTable table = indexedTable.compact();
+ *   int gain = table.column("gain");
+ *   ...
+ *   double g = table.getDouble(gain, CompactIndexedTable.key(sector, layer, component));
+ * </pre>
+ * As for {@link IndexedTable}, lookups of missing entries or columns return 0.
+ */
+public class CompactIndexedTable {
+
+    private static final int EMPTY = -1;
+
+    private final int      indexCount;
+    private final String[] columnNames;
+    private final boolean[] columnIsDouble;
+    private final long[]   rowKeys;
+    private final double[][] doubleColumns;
+    private final int[][]    intColumns;
+
+    // open-addressed hash table, slotRows[i] is the row for slotKeys[i]:
+    private final long[] slotKeys;
+    private final int[]  slotRows;
+    private final int    slotMask;
+
+    /**
+     * Create a snapshot of the current content of an IndexedTable.
+     * Later changes to the IndexedTable are not reflected.
+     * @param table the table to copy
+     */
+    public CompactIndexedTable(IndexedTable table) {
+
+        this.indexCount = table.getList().getIndexSize();
+
+        int ncolumns = table.getColumnCount() - this.indexCount;
+        this.columnNames    = new String[ncolumns];
+        this.columnIsDouble = new boolean[ncolumns];
+        for (int c=0; c<ncolumns; c++) {
+            this.columnNames[c]    = table.getEntryName(c);
+            this.columnIsDouble[c] = "D".equals(table.getEntryType(this.columnNames[c]));
+        }
+
+        Map<Long,IndexedTable.IndexedEntry> map = table.getList().getMap();
+        int nrows = map.size();
+        this.rowKeys       = new long[nrows];
+        this.doubleColumns = new double[ncolumns][nrows];
+        this.intColumns    = new int[ncolumns][nrows];
+
+        int capacity = 16;
+        while (capacity < 2*nrows) capacity <<= 1;
+        this.slotKeys = new long[capacity];
+        this.slotRows = new int[capacity];
+        this.slotMask = capacity - 1;
+        Arrays.fill(this.slotRows, EMPTY);
+
+        int row = 0;
+        for (Map.Entry<Long,IndexedTable.IndexedEntry> entry : map.entrySet()) {
+            this.rowKeys[row] = entry.getKey();
+            IndexedTable.IndexedEntry values = entry.getValue();
+            for (int c=0; c<ncolumns && c<values.getSize(); c++) {
+                Number n = values.getValue(c);
+                this.doubleColumns[c][row] = n.doubleValue();
+                this.intColumns[c][row]    = n.intValue();
+            }
+            int slot = slot(entry.getKey());
+            while (this.slotRows[slot] != EMPTY) slot = (slot+1) & this.slotMask;
+            this.slotKeys[slot] = entry.getKey();
+            this.slotRows[slot] = row;
+            row++;
+        }
+    }
+
+    private int slot(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return (int) key & this.slotMask;
+    }
+
+    /**
+     * @param name column name
+     * @return column handle for use with the getters, or -1 if it doesn't exist
+     */
+    public int column(String name) {
+        for (int c=0; c<this.columnNames.length; c++) {
+            if (this.columnNames[c].equals(name)) return c;
+        }
+        return -1;
+    }
+
+    public int getColumnCount() { return this.columnNames.length; }
+
+    public String getColumnName(int column) { return this.columnNames[column]; }
+
+    public boolean isDoubleColumn(int column) { return this.columnIsDouble[column]; }
+
+    public int getIndexCount() { return this.indexCount; }
+
+    public int getRowCount() { return this.rowKeys.length; }
+
+    public static long key(int i0) {
+        return (((long) i0)&0xFFFF)<<48;
+    }
+
+    public static long key(int i0, int i1) {
+        return key(i0) | (((long) i1)&0xFFFF)<<32;
+    }
+
+    public static long key(int i0, int i1, int i2) {
+        return key(i0, i1) | (((long) i2)&0xFFFF)<<16;
+    }
+
+    public static long key(int i0, int i1, int i2, int i3) {
+        return key(i0, i1, i2) | (((long) i3)&0xFFFF);
+    }
+
+    /**
+     * @param key packed index
+     * @return row number for the key, or -1 if it doesn't exist
+     */
+    public int row(long key) {
+        int slot = slot(key);
+        int r;
+        while ((r = this.slotRows[slot]) != EMPTY) {
+            if (this.slotKeys[slot] == key) return r;
+            slot = (slot+1) & this.slotMask;
+        }
+        return EMPTY;
+    }
+
+    public boolean hasEntry(long key) {
+        return this.row(key) != EMPTY;
+    }
+
+    public long getKey(int row) {
+        return this.rowKeys[row];
+    }
+
+    public double getDoubleAt(int column, int row) {
+        return this.doubleColumns[column][row];
+    }
+
+    public int getIntAt(int column, int row) {
+        return this.intColumns[column][row];
+    }
+
+    public double getDouble(int column, long key) {
+        int r = this.row(key);
+        if (r == EMPTY || column < 0) return 0;
+        return this.doubleColumns[column][r];
+    }
+
+    public int getInt(int column, long key) {
+        int r = this.row(key);
+        if (r == EMPTY || column < 0) return 0;
+        return this.intColumns[column][r];
+    }
+
+    /**
+     * @param column column handle
+     * @return all values of the column, in row order (not a copy, do not modify)
+     */
+    public double[] getDoubleColumn(int column) {
+        return this.doubleColumns[column];
+    }
+
+    /**
+     * @param column column handle
+     * @return all values of the column, in row order (not a copy, do not modify)
+     */
+    public int[] getIntColumn(int column) {
+        return this.intColumns[column];
+    }
+
+    public List<String> getColumnNames() {
+        List<String> names = new ArrayList<>();
+        for (String name : this.columnNames) names.add(name);
+        return names;
+    }
+}
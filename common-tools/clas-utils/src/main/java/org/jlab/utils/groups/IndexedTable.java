@@ -29,6 +29,8 @@ public class IndexedTable extends DefaultTableModel {
     private Map<Integer,List<RowConstraint>>  constrains = new HashMap<>(); 
     
     private int DEBUG_MODE = 0;
+
+    private CompactIndexedTable compactTable = null;
     
     public IndexedTable(int indexCount){
         entries = new IndexedList<>(indexCount);
@@ -76,6 +78,7 @@ public class IndexedTable extends DefaultTableModel {
     
     public  void addEntry(int... index){
         this.entries.add(new IndexedEntry(entryMap.size()), index);       
+        this.compactTable = null;
     }
     
     public  void addConstraint(int column, double min, double max){
@@ -101,6 +104,7 @@ public class IndexedTable extends DefaultTableModel {
             } else {
                 Integer mapIndex = this.entryMap.get(item);
                 this.entries.getItem(index).setValue(mapIndex, value);
+                this.compactTable = null;
             }
         }
     }
@@ -114,6 +118,7 @@ public class IndexedTable extends DefaultTableModel {
             } else {
                 Integer mapIndex = this.entryMap.get(item);
                 this.entries.getItem(index).setValue(mapIndex, value);
+                this.compactTable = null;
             }
         }
     }
@@ -149,6 +154,45 @@ public class IndexedTable extends DefaultTableModel {
     public IndexedList getList(){
         return this.entries;
     }
+
+    /**
+     * @param index index column number
+     * @return name of the index column
+     */
+    public String getIndexName(int index){
+        return this.indexNames.get(index);
+    }
+
+    /**
+     * @param column column number, excluding the index columns
+     * @return name of the column
+     */
+    public String getEntryName(int column){
+        return this.entryNames.get(column);
+    }
+
+    /**
+     * @param item column name
+     * @return type of the column, "I" or "D"
+     */
+    public String getEntryType(String item){
+        return this.entryTypes.get(item);
+    }
+
+    /**
+     * Get a read-only, array-backed copy of this table for fast lookups with
+     * pre-resolved column handles.  The copy is created on the first call and
+     * reused until this table is modified through its setters.
+     * @return the compact table
+     */
+    public CompactIndexedTable compact(){
+        CompactIndexedTable table = this.compactTable;
+        if(table==null){
+            table = new CompactIndexedTable(this);
+            this.compactTable = table;
+        }
+        return table;
+    }
     
     private void parseFormat(String format){
         String[] tokens = format.split(":");
@@ -190,6 +234,7 @@ public class IndexedTable extends DefaultTableModel {
                 entries.getItem(index).setValue(i, Integer.valueOf(values[i+indexNames.size()]));
             }
         }
+        this.compactTable = null;
     }
     
     public void show(){        
@@ -0,0 +1,97 @@
+package org.jlab.utils.groups;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Checks that CompactIndexedTable lookups return the same values as the
+ * IndexedTable it was copied from.
+ */
+public class CompactIndexedTableTest {
+
+    private static IndexedTable createTable() {
+        IndexedTable table = new IndexedTable(3, "gain/D:pedestal/I:status/I");
+        for (int sector=1; sector<=6; sector++) {
+            for (int layer=1; layer<=3; layer++) {
+                for (int component=1; component<=10; component+=sector) {
+                    table.addEntry(sector, layer, component);
+                    table.setDoubleValue(sector + 0.1*layer + 0.001*component, "gain", sector, layer, component);
+                    table.setIntValue(100*sector + 10*layer + component, "pedestal", sector, layer, component);
+                    table.setIntValue(component%2, "status", sector, layer, component);
+                }
+            }
+        }
+        return table;
+    }
+
+    @Test
+    public void testColumns() {
+        IndexedTable table = createTable();
+        CompactIndexedTable compact = table.compact();
+        assertEquals(3, compact.getIndexCount());
+        assertEquals(3, compact.getColumnCount());
+        assertEquals(table.getList().getMap().size(), compact.getRowCount());
+        assertEquals(0, compact.column("gain"));
+        assertEquals(1, compact.column("pedestal"));
+        assertEquals(2, compact.column("status"));
+        assertEquals(-1, compact.column("missing"));
+        assertTrue(compact.isDoubleColumn(0));
+        assertFalse(compact.isDoubleColumn(1));
+    }
+
+    @Test
+    public void testLookups() {
+        IndexedTable table = createTable();
+        CompactIndexedTable compact = table.compact();
+        int gain     = compact.column("gain");
+        int pedestal = compact.column("pedestal");
+        int status   = compact.column("status");
+        int missing  = compact.column("missing");
+        // present, absent and out of range indices, the latter wrapping
+        // around the 16 bits of each index as in IndexedList
+        int[] components = {-1, 0, 1, 2, 5, 7, 10, 11, 65535, 65536, 65537};
+        for (int sector=-1; sector<=8; sector++) {
+            for (int layer=0; layer<=4; layer++) {
+                for (int component : components) {
+                    long key = CompactIndexedTable.key(sector, layer, component);
+                    assertEquals(table.hasEntry(sector, layer, component), compact.hasEntry(key));
+                    assertEquals(table.getDoubleValue("gain", sector, layer, component),
+                                 compact.getDouble(gain, key), 0);
+                    assertEquals(table.getIntValue("pedestal", sector, layer, component),
+                                 compact.getInt(pedestal, key));
+                    assertEquals(table.getIntValue("status", sector, layer, component),
+                                 compact.getInt(status, key));
+                    assertEquals(table.getDoubleValue("missing", sector, layer, component),
+                                 compact.getDouble(missing, key), 0);
+                    assertEquals(table.getIntValue("missing", sector, layer, component),
+                                 compact.getInt(missing, key));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testWrongIndexCount() {
+        IndexedTable table = createTable();
+        CompactIndexedTable compact = table.compact();
+        int gain = compact.column("gain");
+        assertFalse(table.hasEntry(1, 1));
+        assertFalse(compact.hasEntry(CompactIndexedTable.key(1, 1)));
+        assertEquals(0, compact.getDouble(gain, CompactIndexedTable.key(1, 1)), 0);
+        assertFalse(compact.hasEntry(CompactIndexedTable.key(1, 1, 1, 1)));
+        assertEquals(0, compact.getDouble(gain, CompactIndexedTable.key(1, 1, 1, 1)), 0);
+    }
+
+    @Test
+    public void testUpdates() {
+        IndexedTable table = createTable();
+        CompactIndexedTable before = table.compact();
+        assertSame(before, table.compact());
+        table.setDoubleValue(42.0, "gain", 1, 1, 1);
+        CompactIndexedTable after = table.compact();
+        assertNotSame(before, after);
+        long key = CompactIndexedTable.key(1, 1, 1);
+        assertEquals(1.101, before.getDouble(before.column("gain"), key), 1e-12);
+        assertEquals(42.0, after.getDouble(after.column("gain"), key), 0);
+    }
+}
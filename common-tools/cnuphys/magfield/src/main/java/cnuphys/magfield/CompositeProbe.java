@@ -1,11 +1,17 @@
 package cnuphys.magfield;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 public class CompositeProbe extends FieldProbe {
 
 	protected ArrayList<FieldProbe> probes = new ArrayList<FieldProbe>();
 
+	// scratch space for the batch field method, grown as needed
+	private float _pbx[] = new float[0];
+	private float _pby[] = new float[0];
+	private float _pbz[] = new float[0];
+
 	/**
 	 * Create a composite probe from a composite field.
 	 * 
@@ -43,8 +49,9 @@ public class CompositeProbe extends FieldProbe {
 		z = result[2];
 
 		float bx = 0, by = 0, bz = 0;
-		for (IField probe : probes) {
-			probe.field(x, y, z, result);
+		// indexed loops, since this is called for every integration step
+		for (int i = 0; i < probes.size(); i++) {
+			probes.get(i).field(x, y, z, result);
 			bx += result[0];
 			by += result[1];
 			bz += result[2];
@@ -61,8 +68,8 @@ public class CompositeProbe extends FieldProbe {
 		float by = 0;
 		float bz = 0;
 
-		for (IField probe : probes) {
-			probe.field(x, y, z, result);
+		for (int i = 0; i < probes.size(); i++) {
+			probes.get(i).field(x, y, z, result);
 			bx += result[0];
 			by += result[1];
 			bz += result[2];
@@ -73,6 +80,41 @@ public class CompositeProbe extends FieldProbe {
 		result[2] = bz;
 	}
 
+	/**
+	 * Obtain the magnetic field at many locations expressed in Cartesian
+	 * coordinates. Each component probe evaluates all the points in one call.
+	 * The output arrays must not be the same as the input arrays.
+	 *
+	 * @param x  the x coordinates in cm
+	 * @param y  the y coordinates in cm
+	 * @param z  the z coordinates in cm
+	 * @param bx filled with the x components of the field in kiloGauss
+	 * @param by filled with the y components of the field in kiloGauss
+	 * @param bz filled with the z components of the field in kiloGauss
+	 * @param n  the number of points
+	 */
+	@Override
+	public void field(float x[], float y[], float z[], float bx[], float by[], float bz[], int n) {
+		if (_pbx.length < n) {
+			_pbx = new float[n];
+			_pby = new float[n];
+			_pbz = new float[n];
+		}
+
+		Arrays.fill(bx, 0, n, 0f);
+		Arrays.fill(by, 0, n, 0f);
+		Arrays.fill(bz, 0, n, 0f);
+
+		for (int i = 0; i < probes.size(); i++) {
+			probes.get(i).field(x, y, z, _pbx, _pby, _pbz, n);
+			for (int j = 0; j < n; j++) {
+				bx[j] += _pbx[j];
+				by[j] += _pby[j];
+				bz[j] += _pbz[j];
+			}
+		}
+	}
+
 	/**
 	 * Checks whether the field has been set to always return zero.
 	 * 
@@ -1,5 +1,7 @@
 package cnuphys.magfield;
 
+import java.util.Arrays;
+
 public abstract class FieldProbe implements IField {
 
 	// indices of components
@@ -36,6 +38,14 @@ public abstract class FieldProbe implements IField {
 	 */
 	protected GridCoordinate q3Coordinate;
 
+	// scratch space for the batch field methods, grown as needed
+	private double _batchQ[] = new double[0];
+	private long _batchKeys[] = new long[0];
+	private float _batchX[] = new float[0];
+	private float _batchY[] = new float[0];
+	private float _batchZ[] = new float[0];
+	private final float _batchResult[] = new float[3];
+
 	/**
 	 * Create a probe, which is a thread safe way to use the field
 	 * 
@@ -150,6 +160,139 @@ public abstract class FieldProbe implements IField {
 
 	}
 
+	/**
+	 * Obtain the magnetic field at many locations expressed in Cartesian
+	 * coordinates. The points are evaluated grouped by grid cell, so that
+	 * consecutive lookups reuse the cached cell corners even when the points of
+	 * several tracks are interleaved. The results are the same as calling
+	 * {@link #field(float, float, float, float[])} for each point. The output
+	 * arrays must not be the same as the input arrays.
+	 *
+	 * @param x  the x coordinates in cm
+	 * @param y  the y coordinates in cm
+	 * @param z  the z coordinates in cm
+	 * @param bx filled with the x components of the field in kiloGauss
+	 * @param by filled with the y components of the field in kiloGauss
+	 * @param bz filled with the z components of the field in kiloGauss
+	 * @param n  the number of points
+	 */
+	public void field(float x[], float y[], float z[], float bx[], float by[], float bz[], int n) {
+
+		if (isZeroField()) {
+			Arrays.fill(bx, 0, n, 0f);
+			Arrays.fill(by, 0, n, 0f);
+			Arrays.fill(bz, 0, n, 0f);
+			return;
+		}
+
+		if (_batchKeys.length < n) {
+			_batchKeys = new long[n];
+			_batchQ = new double[3 * n];
+		}
+
+		// key each point by its cell, keeping the point index in the low bits
+		int m = 0;
+		for (int i = 0; i < n; i++) {
+			int cell = gridCell(x[i], y[i], z[i], _batchQ, 3 * i);
+			if (cell < 0) {
+				bx[i] = 0f;
+				by[i] = 0f;
+				bz[i] = 0f;
+			} else {
+				_batchKeys[m++] = ((long) cell << 32) | i;
+			}
+		}
+
+		Arrays.sort(_batchKeys, 0, m);
+
+		float result[] = _batchResult;
+		for (int k = 0; k < m; k++) {
+			int i = (int) _batchKeys[k];
+			gridField(_batchQ, 3 * i, result);
+			bx[i] = result[X];
+			by[i] = result[Y];
+			bz[i] = result[Z];
+		}
+	}
+
+	/**
+	 * Obtain the magnetic field at many locations expressed in Cartesian
+	 * coordinates in the sector (not lab or global) system. The results are the
+	 * same as calling {@link #field(int, float, float, float, float[])} for each
+	 * point. The output arrays must not be the same as the input arrays.
+	 *
+	 * @param sector the sector [1..6]
+	 * @param x      the x sector coordinates in cm
+	 * @param y      the y sector coordinates in cm
+	 * @param z      the z sector coordinates in cm
+	 * @param bx     filled with the x components of the field in kiloGauss
+	 * @param by     filled with the y components of the field in kiloGauss
+	 * @param bz     filled with the z components of the field in kiloGauss
+	 * @param n      the number of points
+	 */
+	public void field(int sector, float x[], float y[], float z[], float bx[], float by[], float bz[], int n) {
+		ensureBatchCoordinates(n);
+
+		float v[] = _batchResult;
+		for (int i = 0; i < n; i++) {
+			MagneticFields.sectorToLab(sector, v, x[i], y[i], z[i]);
+			_batchX[i] = v[0];
+			_batchY[i] = v[1];
+			_batchZ[i] = v[2];
+		}
+
+		field(_batchX, _batchY, _batchZ, bx, by, bz, n);
+
+		for (int i = 0; i < n; i++) {
+			MagneticFields.labToSector(sector, v, bx[i], by[i], bz[i]);
+			bx[i] = v[0];
+			by[i] = v[1];
+			bz[i] = v[2];
+		}
+	}
+
+	/**
+	 * Used by the batch field method to group points by grid cell. Stores
+	 * whatever the probe needs to evaluate the field at the point in q, starting
+	 * at offset, and returns the cell. The default stores the Cartesian
+	 * coordinates and puts every point in the same cell.
+	 *
+	 * @param x      the x coordinate in cm
+	 * @param y      the y coordinate in cm
+	 * @param z      the z coordinate in cm
+	 * @param q      holds three values per point
+	 * @param offset where to store the values for this point
+	 * @return the composite index of the cell containing the point, or -1 if the
+	 *         field is zero there
+	 */
+	protected int gridCell(float x, float y, float z, double q[], int offset) {
+		q[offset] = x;
+		q[offset + 1] = y;
+		q[offset + 2] = z;
+		return 0;
+	}
+
+	/**
+	 * Used by the batch field method to evaluate the field at a point whose
+	 * values were stored by {@link #gridCell(float, float, float, double[], int)}.
+	 *
+	 * @param q      holds three values per point
+	 * @param offset where the values for this point are stored
+	 * @param result the field in kiloGauss
+	 */
+	protected void gridField(double q[], int offset, float result[]) {
+		field((float) q[offset], (float) q[offset + 1], (float) q[offset + 2], result);
+	}
+
+	// make sure the coordinate scratch arrays can hold n points
+	private void ensureBatchCoordinates(int n) {
+		if (_batchX.length < n) {
+			_batchX = new float[n];
+			_batchY = new float[n];
+			_batchZ = new float[n];
+		}
+	}
+
 	/**
 	 * Obtain an approximation for the magnetic field gradient at a given location
 	 * expressed in Cartesian coordinates. The field is returned as a Cartesian
@@ -1,12 +1,17 @@
 package cnuphys.magfield;
 
-import java.io.DataInputStream;
+import java.io.BufferedReader;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FileReader;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -24,6 +29,12 @@ public abstract class MagneticField implements IMagField {
 	/** Magic number used to check if byteswapping is necessary. */
 	public static final int MAGICNUMBER = 0xced;
 
+	// size in bytes of the binary file header, 20 4-byte words
+	private static final int HEADER_SIZE = 80;
+
+	// whether to memory-map the field values rather than reading them into the heap
+	private static volatile boolean _memoryMapped = Boolean.getBoolean("magfield.mmap");
+
 	// used to reconfigure fields so solenoid and torus do not overlap
 	private double _fakeZMax = Float.POSITIVE_INFINITY;
 
@@ -92,6 +103,9 @@ public abstract class MagneticField implements IMagField {
 	/** the full path to the file */
 	private String _baseFileName;
 
+	/** CRC32 of the field values as stored in the file */
+	private long _checksum;
+
 	/** shift in x direction in cm (misalignment) */
 	protected double _shiftX; // cm
 
@@ -410,6 +424,16 @@ public abstract class MagneticField implements IMagField {
 		return _baseFileName;
 	}
 
+	/**
+	 * Get a checksum of the field values of the map, as stored in the file. It
+	 * does not depend on the scale factor or shifts.
+	 * 
+	 * @return the CRC32 of the field values, 0 if no map was read
+	 */
+	public long getChecksum() {
+		return _checksum;
+	}
+
 	/**
 	 * Read a magnetic field from a binary file. The file has the documented format.
 	 *
@@ -426,76 +450,149 @@ public abstract class MagneticField implements IMagField {
 
 		// N23 = -1;
 
-		try {
-			DataInputStream dos = new DataInputStream(new FileInputStream(binaryFile));
+		long startTime = System.nanoTime();
+
+		try (FileChannel channel = new FileInputStream(binaryFile).getChannel()) {
+
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			while (header.hasRemaining()) {
+				if (channel.read(header) < 0) {
+					throw new EOFException("truncated header in " + binaryFile.getPath());
+				}
+			}
+			header.flip();
 
-			boolean swap = false;
-			int magicnum = dos.readInt(); // magic number
+			int magicnum = header.getInt(); // magic number
 
-			LOGGER.log(Level.INFO, "Magic number: %04x", magicnum);
+			LOGGER.log(Level.INFO, String.format("Magic number: %04x", magicnum));
 
-			// TODO handle swapping if necessary
-			swap = (magicnum != MAGICNUMBER);
-			if (swap) {
-				LOGGER.log(Level.SEVERE, "byte swapping required but not yet implemented.");
-				dos.close();
-				return;
+			// the file was written big endian (DataOutputStream), but
+			// handle byte-swapped files too:
+			if (magicnum != MAGICNUMBER) {
+				if (Integer.reverseBytes(magicnum) != MAGICNUMBER) {
+					LOGGER.log(Level.SEVERE, String.format("bad magic number %04x in %s", magicnum, binaryFile.getPath()));
+					return;
+				}
+				LOGGER.log(Level.INFO, "byte swapping field map " + binaryFile.getPath());
+				header.order(ByteOrder.LITTLE_ENDIAN);
 			}
 
 			// grid cs
-			gridCoordinateSystem = CoordinateSystem.fromInt(dos.readInt());
+			gridCoordinateSystem = CoordinateSystem.fromInt(header.getInt());
 
 			// field cs
-			fieldCoordinateSystem = CoordinateSystem.fromInt(dos.readInt());
+			fieldCoordinateSystem = CoordinateSystem.fromInt(header.getInt());
 
-			lengthUnit = LengthUnit.fromInt(dos.readInt()); // length units
-			angularUnit = AngularUnit.fromInt(dos.readInt()); // angle units
-			fieldUnit = FieldUnit.fromInt(dos.readInt()); // field units
+			lengthUnit = LengthUnit.fromInt(header.getInt()); // length units
+			angularUnit = AngularUnit.fromInt(header.getInt()); // angle units
+			fieldUnit = FieldUnit.fromInt(header.getInt()); // field units
 
-			float q1Min = dos.readFloat();
-			float q1Max = dos.readFloat();
-			int nQ1 = dos.readInt();
+			float q1Min = header.getFloat();
+			float q1Max = header.getFloat();
+			int nQ1 = header.getInt();
 			q1Coordinate = new GridCoordinate(_q1Name, q1Min, q1Max, nQ1);
 
-			float q2Min = dos.readFloat();
-			float q2Max = dos.readFloat();
-			int nQ2 = dos.readInt();
+			float q2Min = header.getFloat();
+			float q2Max = header.getFloat();
+			int nQ2 = header.getInt();
 			q2Coordinate = new GridCoordinate(_q2Name, q2Min, q2Max, nQ2);
 
-			float q3Min = dos.readFloat();
-			float q3Max = dos.readFloat();
-			int nQ3 = dos.readInt();
+			float q3Min = header.getFloat();
+			float q3Max = header.getFloat();
+			int nQ3 = header.getInt();
 			q3Coordinate = new GridCoordinate(_q3Name, q3Min, q3Max, nQ3);
 
 			numFieldPoints = nQ1 * nQ2 * nQ3;
 
 			// last five reserved
-			highTime = dos.readInt();
-			lowTime = dos.readInt();
-			reserved3 = dos.readInt();
-			reserved4 = dos.readInt();
-			reserved5 = dos.readInt();
+			highTime = header.getInt();
+			lowTime = header.getInt();
+			reserved3 = header.getInt();
+			reserved4 = header.getInt();
+			reserved5 = header.getInt();
 
 			// now get the field values
 			int size = 3 * 4 * numFieldPoints;
 
-			byte bytes[] = new byte[size];
-
-			// read the bytes as a block
-			dos.read(bytes);
-			// ByteBuffer byteBuffer = ByteBuffer.wrap(bytes).asReadOnlyBuffer();
-			// field = byteBuffer.asFloatBuffer().asReadOnlyBuffer();
-			ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
+			ByteBuffer byteBuffer;
+			if (_memoryMapped) {
+				// copy-on-write mapping of the page cache, shared by all processes
+				// on the node that map the same file until a page is modified,
+				// e.g. by MagneticFields.removeMapOverlap:
+				byteBuffer = channel.map(FileChannel.MapMode.PRIVATE, HEADER_SIZE, size);
+			}
+			else {
+				byteBuffer = ByteBuffer.allocate(size);
+				while (byteBuffer.hasRemaining()) {
+					if (channel.read(byteBuffer) < 0) {
+						throw new EOFException("truncated field map " + binaryFile.getPath());
+					}
+				}
+				byteBuffer.flip();
+			}
+			byteBuffer.order(header.order());
 			field = byteBuffer.asFloatBuffer();
 
+			CRC32 crc = new CRC32();
+			crc.update(byteBuffer.duplicate());
+			_checksum = crc.getValue();
+
 			computeMaxField();
 
-			dos.close();
+			long rss = residentSetSize();
+			LOGGER.log(Level.INFO, String.format("Loaded field map %s: %d points, %.1f MB %s, process resident size %s, %d ms",
+					binaryFile.getName(), numFieldPoints, size / 1048576.,
+					_memoryMapped ? "memory-mapped (shared page cache)" : "on heap",
+					rss < 0 ? "unknown" : String.format("%.1f MB", rss / 1048576.),
+					(System.nanoTime() - startTime) / 1000000));
+
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
 	}
 
+	/**
+	 * Resident set size of this process, which unlike the mapped size counts
+	 * only the pages actually in memory, shared or not.
+	 *
+	 * @return the resident size in bytes, or -1 if /proc/self/status isn't available
+	 */
+	public static long residentSetSize() {
+		try (BufferedReader reader = new BufferedReader(new FileReader("/proc/self/status"))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.startsWith("VmRSS:")) {
+					String[] tokens = line.trim().split("\\s+");
+					return 1024 * Long.parseLong(tokens[1]);
+				}
+			}
+		} catch (IOException | RuntimeException e) {
+			// not linux
+		}
+		return -1;
+	}
+
+	/**
+	 * Choose whether field maps subsequently read by {@link #readBinaryMagneticField(File)}
+	 * are memory-mapped copy-on-write from the file instead of copied to the heap.
+	 * Mapped grids live in the operating system's page cache, shared by all
+	 * processes on the node reading the same file, except for the pages a
+	 * process modifies which become private to it.  The default is false,
+	 * or the value of the "magfield.mmap" system property.
+	 *
+	 * @param mapped true to memory-map field maps
+	 */
+	public static void setMemoryMapped(boolean mapped) {
+		_memoryMapped = mapped;
+	}
+
+	/**
+	 * @return true if field maps are memory-mapped, see {@link #setMemoryMapped(boolean)}
+	 */
+	public static boolean isMemoryMapped() {
+		return _memoryMapped;
+	}
+
 	/**
 	 * Get the magnitude for a given index.
 	 * 
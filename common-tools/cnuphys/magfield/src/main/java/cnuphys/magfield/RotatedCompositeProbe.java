@@ -33,6 +33,12 @@ public class RotatedCompositeProbe extends CompositeProbe {
 	private final double _angle = -25.0;
 	private final double _sin25 = Math.sin(Math.toRadians(_angle));
 	private final double _cos25 = Math.cos(Math.toRadians(_angle));
+
+	// scratch space for the batch field method, grown as needed
+	private float _labX[] = new float[0];
+	private float _labY[] = new float[0];
+	private float _labZ[] = new float[0];
+	private final float _v[] = new float[3];
 	
 
 	public RotatedCompositeProbe(RotatedCompositeField field) {
@@ -56,60 +62,114 @@ public class RotatedCompositeProbe extends CompositeProbe {
 	@Override
 	public void field(int sector, float xtilt, float ytilt, float ztilt, float[] result) {
 
-		float x, y, z;
+		//covert tilted coordinates to lab, using the result array
+		tiltedToLab(sector, xtilt, ytilt, ztilt, result);
+		float x = result[0];
+		float y = result[1];
+		float z = result[2];
 		float bxl = 0, byl = 0, bzl = 0;
 
-		//covert tilted coordinates to lab
-		//see the comments at the top of this file for more details
-		z = -m12 * xtilt + m11 * ztilt;
+		//get the field using the lab cordinates
+		for (int i = 0; i < probes.size(); i++) {
+			probes.get(i).field(x, y, z, result);
+			bxl += result[0];
+			byl += result[1];
+			bzl += result[2];
+		}
+
+		//reverse transform the B components back to tilted
+		labToTilted(sector, bxl, byl, bzl, result);
+	}
+
+	/**
+	 * Obtain the magnetic field at many locations expressed in Cartesian
+	 * coordinates of the tilted sector system. The results are the same as
+	 * calling {@link #field(int, float, float, float, float[])} for each point.
+	 * The output arrays must not be the same as the input arrays.
+	 *
+	 * @param sector the sector [1..6]
+	 * @param xtilt  the tilted x coordinates in cm
+	 * @param ytilt  the tilted y coordinates in cm
+	 * @param ztilt  the tilted z coordinates in cm
+	 * @param bx     filled with the tilted x components of the field in kiloGauss
+	 * @param by     filled with the tilted y components of the field in kiloGauss
+	 * @param bz     filled with the tilted z components of the field in kiloGauss
+	 * @param n      the number of points
+	 */
+	@Override
+	public void field(int sector, float xtilt[], float ytilt[], float ztilt[], float bx[], float by[], float bz[],
+			int n) {
+		if (_labX.length < n) {
+			_labX = new float[n];
+			_labY = new float[n];
+			_labZ = new float[n];
+		}
+
+		float v[] = _v;
+		for (int i = 0; i < n; i++) {
+			tiltedToLab(sector, xtilt[i], ytilt[i], ztilt[i], v);
+			_labX[i] = v[0];
+			_labY[i] = v[1];
+			_labZ[i] = v[2];
+		}
+
+		//all the component probes, in the lab system
+		super.field(_labX, _labY, _labZ, bx, by, bz, n);
+
+		for (int i = 0; i < n; i++) {
+			labToTilted(sector, bx[i], by[i], bz[i], v);
+			bx[i] = v[0];
+			by[i] = v[1];
+			bz[i] = v[2];
+		}
+	}
+
+	//convert tilted sector coordinates to lab coordinates
+	//see the comments at the top of this file for more details
+	private void tiltedToLab(int sector, float xtilt, float ytilt, float ztilt, float lab[]) {
+		lab[2] = -m12 * xtilt + m11 * ztilt;
 
 		switch (sector) {
 		case 1:
-			x = m11 * xtilt + m12 * ztilt;
-			y = ytilt;
+			lab[0] = m11 * xtilt + m12 * ztilt;
+			lab[1] = ytilt;
 			break;
 
 		case 2:
-			x = m21 * xtilt - m22 * ytilt + m23 * ztilt;
-			y = m31 * xtilt + m32 * ytilt + m33 * ztilt;
+			lab[0] = m21 * xtilt - m22 * ytilt + m23 * ztilt;
+			lab[1] = m31 * xtilt + m32 * ytilt + m33 * ztilt;
 			break;
 
 		case 3:
-			x = -m21 * xtilt - m22 * ytilt - m23 * ztilt;
-			y = m31 * xtilt - m32 * ytilt + m33 * ztilt;
+			lab[0] = -m21 * xtilt - m22 * ytilt - m23 * ztilt;
+			lab[1] = m31 * xtilt - m32 * ytilt + m33 * ztilt;
 			break;
 
 		case 4:
-			x = -m11 * xtilt - m12 * ztilt;
-			y = -ytilt;
+			lab[0] = -m11 * xtilt - m12 * ztilt;
+			lab[1] = -ytilt;
 			break;
 
 		case 5:
-			x = -m21 * xtilt + m22 * ytilt - m23 * ztilt;
-			y = -m31 * xtilt - m32 * ytilt - m33 * ztilt;
+			lab[0] = -m21 * xtilt + m22 * ytilt - m23 * ztilt;
+			lab[1] = -m31 * xtilt - m32 * ytilt - m33 * ztilt;
 			break;
 
 		case 6:
-			x = m21 * xtilt + m22 * ytilt + m23 * ztilt;
-			y = -m31 * xtilt + m32 * ytilt - m33 * ztilt;
+			lab[0] = m21 * xtilt + m22 * ytilt + m23 * ztilt;
+			lab[1] = -m31 * xtilt + m32 * ytilt - m33 * ztilt;
 			break;
 
 		default:
-			x = Float.NaN;
-			y = Float.NaN;
+			lab[0] = Float.NaN;
+			lab[1] = Float.NaN;
 			System.err.println("Bad sector in RotatedCompositeProbe, sector = " + sector);
 			break;
 		}
+	}
 
-		//get the field using the lab cordinates
-		for (IField probe : probes) {
-			probe.field(x, y, z, result);
-			bxl += result[0];
-			byl += result[1];
-			bzl += result[2];
-		}
-
-		//reverse transform the B components back to tilted
+	//convert the lab components of B to the tilted sector system
+	private void labToTilted(int sector, float bxl, float byl, float bzl, float result[]) {
 		switch (sector) {
 		case 1:
 			result[0] = m11 * bxl - m12 * bzl;
@@ -150,7 +210,6 @@ public class RotatedCompositeProbe extends CompositeProbe {
 		default:
 			break;
 		}
-
 	}
 
 	/**
@@ -176,6 +235,18 @@ public class RotatedCompositeProbe extends CompositeProbe {
 		field(1, xs, ys, zs, result); // assume sector 1
 	}
 
+	/**
+	 * Not valid for the rotated composite field, which must be given the sector.
+	 */
+	@Override
+	public void field(float x[], float y[], float z[], float bx[], float by[], float bz[], int n) {
+		System.err.println(
+				"SHOULD NOT HAPPEN. In rotated composite field probe, should not call field without the sector argument.");
+
+		(new Throwable()).printStackTrace();
+		System.exit(1);
+	}
+
 	/**
 	 * Obtain an approximation for the magnetic field gradient at a given location
 	 * expressed in Cartesian coordinates. The field is returned as a Cartesian
@@ -67,6 +67,38 @@ public class StandardSolenoidProbe extends SolenoidProbe {
 		fieldCylindrical(_cell, phi, rho, z, result);
 	}
 
+	/**
+	 * Store phi, rho and z for the batch field method, and find the cell used
+	 * for the interpolation.
+	 */
+	@Override
+	protected int gridCell(float x, float y, float z, double q[], int offset) {
+
+		// note that the contains functions handles the shifts
+		if (!contains(x, y, z)) {
+			return -1;
+		}
+
+		// apply the shifts
+		x -= _solenoid.getShiftX();
+		y -= _solenoid.getShiftY();
+		z -= _solenoid.getShiftZ();
+
+		double rho = FastMath.sqrt(x * x + y * y);
+		q[offset] = FastMath.atan2Deg(y, x);
+		q[offset + 1] = rho;
+		q[offset + 2] = z;
+
+		int n2 = q2Coordinate.getIndex(rho);
+		int n3 = q3Coordinate.getIndex(z);
+		return ((n2 < 0) || (n3 < 0)) ? 0 : n2 * q3Coordinate.getNumPoints() + n3;
+	}
+
+	@Override
+	protected void gridField(double q[], int offset, float result[]) {
+		fieldCylindrical(_cell, q[offset], q[offset + 1], q[offset + 2], result);
+	}
+
 	/**
 	 * Get the field by bilinear interpolation.
 	 * 
@@ -100,6 +100,41 @@ public class TorusProbe extends FieldProbe {
 		fieldCylindrical(_cell, phi, rho, z, result);
 	}
 
+	/**
+	 * Store phi, rho and z for the batch field method, and find the cell used
+	 * for the interpolation, allowing for the 12-fold symmetry.
+	 */
+	@Override
+	protected int gridCell(float x, float y, float z, double q[], int offset) {
+
+		// note that the contains functions handles the shifts
+		if (!contains(x, y, z)) {
+			return -1;
+		}
+
+		// apply the shifts
+		x -= _torus.getShiftX();
+		y -= _torus.getShiftY();
+		z -= _torus.getShiftZ();
+
+		double rho = FastMath.sqrt(x * x + y * y);
+		double phi = FastMath.atan2Deg(y, x);
+		q[offset] = phi;
+		q[offset + 1] = rho;
+		q[offset + 2] = z;
+
+		double q1 = _fullMap ? ((phi < 0) ? phi + 360 : phi) : Math.abs(relativePhi(phi));
+		int n1 = q1Coordinate.getIndex(q1);
+		int n2 = q2Coordinate.getIndex(rho);
+		int n3 = q3Coordinate.getIndex(z);
+		return ((n1 < 0) || (n2 < 0) || (n3 < 0)) ? 0 : getCompositeIndex(n1, n2, n3);
+	}
+
+	@Override
+	protected void gridField(double q[], int offset, float result[]) {
+		fieldCylindrical(_cell, q[offset], q[offset + 1], q[offset + 2], result);
+	}
+
 	/**
 	 * Get the field by trilinear interpolation. Assumes all shifting from
 	 * misalignment is done.
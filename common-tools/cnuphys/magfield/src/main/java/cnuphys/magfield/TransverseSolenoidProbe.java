@@ -53,12 +53,48 @@ public class TransverseSolenoidProbe extends SolenoidProbe {
 		y -= _transverseSolenoid.getShiftY();
 		z -= _transverseSolenoid.getShiftZ();
 
+		fieldShifted(x, y, z, result);
+	}
+
+	/**
+	 * Store the shifted coordinates for the batch field method, and find the
+	 * cell used for the interpolation.
+	 */
+	@Override
+	protected int gridCell(float x, float y, float z, double q[], int offset) {
+
+		// note that the contains functions handles the shifts
+		if (!contains(x, y, z)) {
+			return -1;
+		}
+
+		// apply the shifts
+		x -= _transverseSolenoid.getShiftX();
+		y -= _transverseSolenoid.getShiftY();
+		z -= _transverseSolenoid.getShiftZ();
+
+		q[offset] = x;
+		q[offset + 1] = y;
+		q[offset + 2] = z;
+
+		int n1 = q1Coordinate.getIndex(x);
+		int n2 = q2Coordinate.getIndex(y);
+		int n3 = q3Coordinate.getIndex(z);
+		return ((n1 < 0) || (n2 < 0) || (n3 < 0)) ? 0 : getCompositeIndex(n1, n2, n3);
+	}
+
+	@Override
+	protected void gridField(double q[], int offset, float result[]) {
+		fieldShifted(q[offset], q[offset + 1], q[offset + 2], result);
+	}
+
+	// the field at coordinates that have already been shifted
+	private void fieldShifted(double x, double y, double z, float[] result) {
 		_cell.calculate(x, y, z, result);
 		double sf = _transverseSolenoid._scaleFactor;
 		result[X] *= sf;
 		result[Y] *= sf;
 		result[Z] *= sf;
-
 	}
 
 }
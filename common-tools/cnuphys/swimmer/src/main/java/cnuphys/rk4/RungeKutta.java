@@ -25,6 +25,9 @@ public class RungeKutta {
 	// e.g., [x, y, z, px/p, py/p, pz/p].
 	private static int MAXDIM = 6; // we'll know if this fails!
 
+	// scratch arrays of the last integration on each thread
+	private static final ThreadLocal<Workspace> _workspace = new ThreadLocal<>();
+
 	/**
 	 * Create a RungeKutta object that can be used for integration
 	 */
@@ -152,8 +155,12 @@ public class RungeKutta {
 			IStopper stopper,
 			IRkListener listener) {
 
-		UniformAdvance advancer = new UniformAdvance();
-		return driver(yo, to, tf, h, deriv, stopper, listener, advancer);
+		Workspace ws = Workspace.acquire(yo.length);
+		try {
+			return driver(yo, to, tf, h, deriv, stopper, listener, ws.uniform, ws);
+		} finally {
+			ws.release();
+		}
 	}
 
 	/**
@@ -195,8 +202,12 @@ public class RungeKutta {
 			IRkListener listener,
 			ButcherTableau tableau) {
 
-		ButcherTableauAdvance advancer = new ButcherTableauAdvance(tableau);
-		return driver(yo, to, tf, h, deriv, stopper, listener, advancer);
+		Workspace ws = Workspace.acquire(yo.length);
+		try {
+			return driver(yo, to, tf, h, deriv, stopper, listener, ws.tableau(tableau), ws);
+		} finally {
+			ws.release();
+		}
 	}
 
 
@@ -322,8 +333,12 @@ public class RungeKutta {
 
 		// ButcherTableauAdvance advancer = new ButcherTableauAdvance(tableau);
 		// use a simple half-step advance
-		IAdvance advancer = new HalfStepAdvance();
-		return driver(yo, to, tf, h, deriv, stopper, listener, advancer, relTolerance, hdata);
+		Workspace ws = Workspace.acquire(yo.length);
+		try {
+			return driver(yo, to, tf, h, deriv, stopper, listener, ws.halfStep, relTolerance, hdata, ws);
+		} finally {
+			ws.release();
+		}
 	}
 
 	/**
@@ -372,10 +387,12 @@ public class RungeKutta {
 		// ButcherTableauAdvance advancer = new ButcherTableauAdvance(tableau);
 		// use a simple half-step advance
 
-		HalfStepAdvance advancer = new HalfStepAdvance();
-
-		int n = driver(yo, yf, to, tf, h, maxH, deriv, stopper, advancer, relTolerance, hdata);
-		return n;
+		Workspace ws = Workspace.acquire(yo.length);
+		try {
+			return driver(yo, yf, to, tf, h, maxH, deriv, stopper, ws.halfStep, relTolerance, hdata, ws);
+		} finally {
+			ws.release();
+		}
 	}
 
 
@@ -505,8 +522,12 @@ public class RungeKutta {
 
 		// ButcherTableauAdvance advancer = new ButcherTableauAdvance(tableau);
 		// use a simple half-step advance
-		IAdvance advancer = new HalfStepAdvance();
-		return driver(yo, to, tf, h, deriv, stopper, listener, advancer, eps, yscale, hdata);
+		Workspace ws = Workspace.acquire(yo.length);
+		try {
+			return driver(yo, to, tf, h, deriv, stopper, listener, ws.halfStep, eps, yscale, hdata, ws);
+		} finally {
+			ws.release();
+		}
 	}
 
 	// copy a vector
@@ -553,7 +574,8 @@ public class RungeKutta {
 			IDerivative deriv,
 			IStopper stopper,
 			IRkListener listener,
-			IAdvance advancer) {
+			IAdvance advancer,
+			Workspace ws) {
 		int nstep = (int) (1 + (tf - to) / h); // the number of steps to store
 
 		// the dimensionality of the problem. E.., 6 if (x, y, z, vx, vy, vz)
@@ -561,8 +583,8 @@ public class RungeKutta {
 
 		// yt is the current value of the state vector,
 		// typically [x, y, z, vx, vy, vz] and derivative
-		double yt[] = new double[nDim];
-		double dydt[] = new double[nDim];
+		double yt[] = ws.yt;
+		double dydt[] = ws.dydt;
 
 		double t = to;
 		for (int i = 0; i < nDim; i++) {
@@ -644,7 +666,8 @@ public class RungeKutta {
 			IRkListener listener,
 			IAdvance advancer,
 			double relTolerance[],
-			double hdata[]) throws RungeKuttaException {
+			double hdata[],
+			Workspace ws) throws RungeKuttaException {
 
 		// if our advancer does not compute error we can't use adaptive stepsize
 		if (!advancer.computesError()) {
@@ -663,12 +686,12 @@ public class RungeKutta {
 
 		// yt is the current value of the state vector,
 		// typically [x, y, z, vx, vy, vz] and derivative
-		double yt[] = new double[nDim];
-		double yt2[] = new double[nDim];
-		double dydt[] = new double[nDim];
+		double yt[] = ws.yt;
+		double yt2[] = ws.yt2;
+		double dydt[] = ws.dydt;
 
 		// do we compute error?
-		double error[] = new double[nDim];
+		double error[] = ws.error;
 
 		double t = to;
 		for (int i = 0; i < nDim; i++) {
@@ -798,7 +821,8 @@ public class RungeKutta {
 			IStopper stopper,
 			IAdvance advancer,
 			double relTolerance[],
-			double hdata[]) throws RungeKuttaException {
+			double hdata[],
+			Workspace ws) throws RungeKuttaException {
 
 		// the dimensionality of the problem. E.., 6 if (x, y, z, vx, vy, vz)
 		int nDim = uo.length;
@@ -821,13 +845,13 @@ public class RungeKutta {
 		// typically [x, y, z, vx, vy, vz] and derivative
 		
 
-		double yt[] = new double[nDim];
-		double yt2[] = new double[nDim];
-		double dydt[] = new double[nDim];
+		double yt[] = ws.yt;
+		double yt2[] = ws.yt2;
+		double dydt[] = ws.dydt;
 		System.arraycopy(uo, 0, yt, 0, nDim);
 
 		// do we compute error?
-		double error[] = new double[nDim];
+		double error[] = ws.error;
 
 		double t = to;
 
@@ -954,7 +978,8 @@ public class RungeKutta {
 			IAdvance advancer,
 			double eps,
 			double yscale[],
-			double hdata[]) throws RungeKuttaException {
+			double hdata[],
+			Workspace ws) throws RungeKuttaException {
 
 		// if our advancer does not compute error we can't use adaptive stepsize
 		if (!advancer.computesError()) {
@@ -979,12 +1004,12 @@ public class RungeKutta {
 
 		// yt is the current value of the state vector,
 		// typically [x, y, z, vx, vy, vz] and derivative
-		double yt[] = new double[nDim];
-		double yt2[] = new double[nDim];
-		double dydt[] = new double[nDim];
+		double yt[] = ws.yt;
+		double yt2[] = ws.yt2;
+		double dydt[] = ws.dydt;
 
 		// do we compute error?
-		double error[] = new double[nDim];
+		double error[] = ws.error;
 
 		double t = to;
 		for (int i = 0; i < nDim; i++) {
@@ -1060,7 +1085,19 @@ public class RungeKutta {
 
 
 	// A uniform step size advancer
-	class UniformAdvance implements IAdvance {
+	static class UniformAdvance implements IAdvance {
+
+		private final double k2[];
+		private final double k3[];
+		private final double k4[];
+		private final double ytemp[];
+
+		public UniformAdvance(int nDim) {
+			k2 = new double[nDim];
+			k3 = new double[nDim];
+			k4 = new double[nDim];
+			ytemp = new double[nDim];
+		}
 
 		@Override
 		public void advance(double t,
@@ -1074,12 +1111,6 @@ public class RungeKutta {
 
 			// note that dydt (input) is k1
 			double k1[] = dydt; // the current dreivatives
-			// we need some arrays from the pool
-
-			double k2[] = new double[nDim];
-			double k3[] = new double[nDim];
-			double k4[] = new double[nDim];
-			double ytemp[] = new double[nDim];
 
 			double hh = h * 0.5; // half step
 			double h6 = h / 6.0;
@@ -1120,13 +1151,16 @@ public class RungeKutta {
 	}
 
 	// simple half stepper for adaptive
-	class HalfStepAdvance implements IAdvance {
+	static class HalfStepAdvance implements IAdvance {
 
 		private UniformAdvance uniAdvance;
 
-		public HalfStepAdvance() {
+		private final double yfull[];
+
+		public HalfStepAdvance(int nDim) {
 			// get a uniform advancer
-			uniAdvance = new UniformAdvance();
+			uniAdvance = new UniformAdvance(nDim);
+			yfull = new double[nDim];
 		}
 
 		@Override
@@ -1141,7 +1175,6 @@ public class RungeKutta {
 			// System.err.println("HALF STEP ADVANCE");
 			// advance the full step
 			int ndim = y.length;
-			double yfull[] = new double[ndim];
 			uniAdvance.advance(t, y, dydt, h, deriv, yfull, null);
 
 			// advance two half steps
@@ -1171,12 +1204,20 @@ public class RungeKutta {
 	}
 
 	// a Butcher Tableau advancer
-	class ButcherTableauAdvance implements IAdvance {
+	static class ButcherTableauAdvance implements IAdvance {
 
 		private ButcherTableau tableau;
 
-		public ButcherTableauAdvance(ButcherTableau tableau) {
+		private final double ytemp[];
+		private final double k[][];
+
+		public ButcherTableauAdvance(ButcherTableau tableau, int nDim) {
 			this.tableau = tableau;
+			ytemp = new double[nDim];
+			k = new double[tableau.getNumStage() + 1][];
+			for (int s = 1; s < k.length; s++) {
+				k[s] = new double[nDim];
+			}
 		}
 
 		@Override
@@ -1192,20 +1233,13 @@ public class RungeKutta {
 			int nDim = y.length;
 			int numStage = tableau.getNumStage();
 
-			double ytemp[] = new double[nDim];
-			double k[][] = new double[numStage + 1][];
-			k[0] = null; // not used
-
 			// k1 is just h*dydt
-			k[1] = new double[nDim];
 			for (int i = 0; i < nDim; i++) {
 				k[1][i] = h * dydt[i];
 			}
 
 			// fill the numStage k vectors
 			for (int s = 2; s <= numStage; s++) {
-				k[s] =new double[nDim];
-
 				double ts = t + tableau.c(s);
 				for (int i = 0; i < nDim; i++) {
 					ytemp[i] = y[i];
@@ -1266,6 +1300,70 @@ public class RungeKutta {
 
 	}
 
+	/**
+	 * The scratch arrays and advancers for one integration. Each thread keeps
+	 * the workspace of its last integration, so that repeated swims allocate
+	 * nothing while stepping. A nested integration on the same thread, e.g.
+	 * from a stopper, gets a private workspace.
+	 */
+	static class Workspace {
+
+		final int nDim;
+
+		final double yt[];
+		final double yt2[];
+		final double dydt[];
+		final double error[];
+
+		final UniformAdvance uniform;
+		final HalfStepAdvance halfStep;
+		private ButcherTableauAdvance tableauAdvance;
+
+		private boolean inUse;
+
+		Workspace(int nDim) {
+			this.nDim = nDim;
+			yt = new double[nDim];
+			yt2 = new double[nDim];
+			dydt = new double[nDim];
+			error = new double[nDim];
+			uniform = new UniformAdvance(nDim);
+			halfStep = new HalfStepAdvance(nDim);
+		}
+
+		/**
+		 * Get the workspace of this thread, or a new one if that is busy or
+		 * has a different dimension.
+		 * 
+		 * @param nDim
+		 *            the dimension of the state vector
+		 * @return a workspace, to be released at the end of the integration
+		 */
+		static Workspace acquire(int nDim) {
+			Workspace ws = _workspace.get();
+			if (ws == null || ws.inUse || ws.nDim != nDim) {
+				Workspace fresh = new Workspace(nDim);
+				if (ws == null || !ws.inUse) {
+					_workspace.set(fresh);
+				}
+				ws = fresh;
+			}
+			ws.inUse = true;
+			return ws;
+		}
+
+		void release() {
+			inUse = false;
+		}
+
+		ButcherTableauAdvance tableau(ButcherTableau tableau) {
+			if (tableauAdvance == null || tableauAdvance.tableau != tableau) {
+				tableauAdvance = new ButcherTableauAdvance(tableau, nDim);
+			}
+			return tableauAdvance;
+		}
+	}
+
 	/**
 	 * Set the maximum step size
 	 * 
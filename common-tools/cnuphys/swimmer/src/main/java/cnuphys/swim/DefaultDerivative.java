@@ -58,8 +58,6 @@ public class DefaultDerivative implements IDerivative {
 
 		if (_probe != null) {
 
-			float b[] = new float[3];
-
 			// convert to cm
 			double xx = u[0] * 100;
 			double yy = u[1] * 100;
@@ -75,8 +75,6 @@ public class SectorDerivative implements IDerivative {
 
 		if (_rcProbe != null) {
 
-			float b[] = new float[3];
-
 			// convert to cm
 			double xx = Q[0] * 100;
 			double yy = Q[1] * 100;
@@ -2,7 +2,12 @@ package cnuphys.swim;
 
 import java.io.PrintStream;
 import java.io.Serializable;
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
 
 import cnuphys.adaptiveSwim.AdaptiveSwimUtilities;
 import cnuphys.lund.GeneratedParticleRecord;
@@ -16,12 +21,19 @@ import cnuphys.magfield.RotatedCompositeProbe;
  * is a collection of state vectors. A state vector is the six component vector:
  * <BR>
  * Q = [x, y, z, px/p, py/p, pz/p] <BR>
+ * optionally followed by the path length and, once computed, the integral
+ * |B x dL|. <BR>
+ * The state vectors are stored column-wise in primitive arrays. The
+ * trajectory is still a list of state vectors, but {@link #get(int)} returns
+ * a new array holding a copy of the state vector. Use
+ * {@link #get(int, int)}, {@link #getState(int, double[])} or {@link #states()}
+ * to read the trajectory without materializing every state vector.
  * 
  * @author heddle
  * 
  */
 
-public class SwimTrajectory extends ArrayList<double[]>  implements Serializable {
+public class SwimTrajectory extends AbstractList<double[]> implements RandomAccess, Serializable {
 
 	/**
 	 * 
@@ -61,9 +73,22 @@ public class SwimTrajectory extends ArrayList<double[]>  implements Serializable
 	/** index for the accumulated integral |B x dL| component (kG-m) */
 	public static final int BXDL_IDX = 7;
 
+	/** the number of stored components: the state vector, path length and bdl */
+	public static final int MAXDIM = 8;
+
 	/** user object */
 	public Object userObject;
 
+	// the state vectors, one array per component (allocated when first
+	// used), and the dimension of each
+	private double[][] _columns = new double[MAXDIM][];
+	private byte[] _dims;
+	private int _size;
+
+	// if positive, intermediate points closer than this (m) to the
+	// previously saved point are not kept
+	private double _saveDistance = 0;
+
 	/** The source of the trajectory e.g. hbtracking */
 	private String _source = "???";
 
@@ -71,7 +96,7 @@ public class SwimTrajectory extends ArrayList<double[]>  implements Serializable
 	 * Create a swim trajectory with no initial content
 	 */
 	public SwimTrajectory() {
-		super();
+		allocate(10);
 	}
 	
 	/**
@@ -79,7 +104,8 @@ public class SwimTrajectory extends ArrayList<double[]>  implements Serializable
 	 */
 	@Override
 	public void clear() {
-		super.clear();
+		_size = 0;
+		modCount++;
 		_computedBDL = false;
 	}
 	
@@ -137,7 +163,7 @@ public class SwimTrajectory extends ArrayList<double[]>  implements Serializable
 	 * @param initialCapacity the initial capacity of the trajectory list
 	 */
 	public SwimTrajectory(GeneratedParticleRecord genPartRec, int initialCapacity) {
-		super(initialCapacity);
+		allocate(initialCapacity);
 		
 		if (genPartRec == null) {
 			System.err.println("NULL GEN PART REC (A)");
@@ -146,6 +172,41 @@ public class SwimTrajectory extends ArrayList<double[]>  implements Serializable
 		_genPartRec = genPartRec;
 	}
 
+	private void allocate(int capacity) {
+		_dims = new byte[Math.max(2, capacity)];
+	}
+
+	// the array for a component, allocating it if needed
+	private double[] column(int component) {
+		if (_columns[component] == null) {
+			_columns[component] = new double[_dims.length];
+		}
+		return _columns[component];
+	}
+
+	/**
+	 * Only keep points that are at least the given distance from the previously
+	 * kept point. The first and the most recently added points are always
+	 * kept, so the end state of the trajectory is not affected. By default all
+	 * points are kept.
+	 * 
+	 * @param distance the minimum distance between saved points in m, or 0 to
+	 *                 keep every point
+	 */
+	public void setSaveDistance(double distance) {
+		_saveDistance = distance;
+	}
+
+	/**
+	 * Get the minimum distance between saved points
+	 * 
+	 * @return the minimum distance between saved points in m, 0 if every point
+	 *         is kept
+	 */
+	public double getSaveDistance() {
+		return _saveDistance;
+	}
+
 	/**
 	 * Set the generated particle record
 	 * @param genPart the generated particle record
@@ -213,46 +274,252 @@ public class SwimTrajectory extends ArrayList<double[]>  implements Serializable
 	 * @return the r coordinate
 	 */
 	public double getR(int index) {
-		if ((index < 0) || (index > size())) {
-			return Double.NaN;
-		}
-
-		double v[] = get(index);
-		if (v == null) {
+		if ((index < 0) || (index >= size())) {
 			return Double.NaN;
 		}
 
-		double x = v[0];
-		double y = v[1];
-		double z = v[2];
+		double x = _columns[X_IDX][index];
+		double y = _columns[Y_IDX][index];
+		double z = _columns[Z_IDX][index];
 
 		// convert to cm
 		return Math.sqrt(x * x + y * y + z * z) * 100.;
 	}
 
+	@Override
+	public int size() {
+		return _size;
+	}
+
+	/**
+	 * Get a copy of a state vector
+	 * 
+	 * @param index the index
+	 * @return a new array holding the state vector at the index
+	 */
+	@Override
+	public double[] get(int index) {
+		checkIndex(index, _size);
+		double u[] = new double[_dims[index]];
+		getState(index, u);
+		return u;
+	}
+
+	/**
+	 * Get one component of a state vector
+	 * 
+	 * @param index     the index
+	 * @param component the component, e.g. {@link #X_IDX}
+	 * @return the component value
+	 */
+	public double get(int index, int component) {
+		checkIndex(index, _size);
+		checkIndex(component, _dims[index]);
+		return _columns[component][index];
+	}
+
+	/**
+	 * Copy a state vector into the given array, without allocating
+	 * 
+	 * @param index the index
+	 * @param u     filled with up to u.length components of the state vector,
+	 *              e.g. an array of length {@link #MAXDIM} reused by the caller
+	 * @return the dimension of the state vector
+	 */
+	public int getState(int index, double u[]) {
+		checkIndex(index, _size);
+		int dim = Math.min(u.length, _dims[index]);
+		for (int i = 0; i < dim; i++) {
+			u[i] = _columns[i][index];
+		}
+		return _dims[index];
+	}
+
+	/**
+	 * Get the dimension of a state vector
+	 * 
+	 * @param index the index
+	 * @return the dimension, e.g. 6 for [x, y, z, px/p, py/p, pz/p]
+	 */
+	public int getDimension(int index) {
+		checkIndex(index, _size);
+		return _dims[index];
+	}
+
+	/**
+	 * Iterate over the state vectors without materializing them. The same
+	 * array, of length {@link #MAXDIM}, is returned at every step and is
+	 * overwritten by the next one, so it must be copied if kept.
+	 * 
+	 * @return the state vectors, as a reused array
+	 */
+	public Iterable<double[]> states() {
+		return () -> new Iterator<double[]>() {
+			private final double u[] = new double[MAXDIM];
+			private int index = 0;
+
+			@Override
+			public boolean hasNext() {
+				return index < _size;
+			}
+
+			@Override
+			public double[] next() {
+				if (index >= _size) {
+					throw new NoSuchElementException();
+				}
+				getState(index++, u);
+				return u;
+			}
+		};
+	}
+
+	@Override
+	public double[] set(int index, double u[]) {
+		double old[] = get(index);
+		store(index, u, u.length);
+		return old;
+	}
+
 	@Override
 	public boolean add(double u[]) {
 		if (u == null) {
 			return false;
 		}
-		
-		int dim = u.length;
-		double ucopy[] = new double[dim];
-		System.arraycopy(u, 0, ucopy, 0, dim);
-		return super.add(ucopy);
+		append(u, u.length, Double.NaN);
+		return true;
 	}
-	
-	
+
+	/**
+	 * Append a state vector followed by the path length, stored in the
+	 * component after the last one of u, e.g. {@link #PATHLEN_IDX} for
+	 * [x, y, z, px/p, py/p, pz/p].
+	 * 
+	 * @param u the state vector
+	 * @param s the path length in m, not stored if NaN
+	 * @return <code>true</code> if the state vector was added
+	 */
 	public boolean add(double u[], double s) {
 		if (u == null) {
 			return false;
 		}
-		
-		int dim = u.length;
-		double ucopy[] = new double[dim+1];
-		System.arraycopy(u, 0, ucopy, 0, dim);
-		ucopy[dim] = s;
-		return super.add(ucopy);
+		append(u, u.length, s);
+		return true;
+	}
+
+	/**
+	 * Append all the state vectors of a collection. Another trajectory is
+	 * copied column by column.
+	 * 
+	 * @param c the state vectors to add
+	 * @return <code>true</code> if the trajectory changed
+	 */
+	@Override
+	public boolean addAll(Collection<? extends double[]> c) {
+		if (!(c instanceof SwimTrajectory) || (_saveDistance > 0)) {
+			boolean changed = false;
+			for (double u[] : c) {
+				changed |= add(u);
+			}
+			return changed;
+		}
+
+		SwimTrajectory other = (SwimTrajectory) c;
+		int n = other._size;
+		if (n == 0) {
+			return false;
+		}
+		ensureCapacity(_size + n);
+		for (int i = 0; i < MAXDIM; i++) {
+			if (other._columns[i] != null) {
+				System.arraycopy(other._columns[i], 0, column(i), _size, n);
+			}
+		}
+		System.arraycopy(other._dims, 0, _dims, _size, n);
+		_size += n;
+		modCount++;
+		return true;
+	}
+
+	@Override
+	public void add(int index, double u[]) {
+		checkIndex(index, _size + 1);
+		ensureCapacity(_size + 1);
+		for (double[] column : _columns) {
+			if (column != null) {
+				System.arraycopy(column, index, column, index + 1, _size - index);
+			}
+		}
+		System.arraycopy(_dims, index, _dims, index + 1, _size - index);
+		_size++;
+		modCount++;
+		store(index, u, u.length);
+	}
+
+	@Override
+	public double[] remove(int index) {
+		double old[] = get(index);
+		for (double[] column : _columns) {
+			if (column != null) {
+				System.arraycopy(column, index + 1, column, index, _size - index - 1);
+			}
+		}
+		System.arraycopy(_dims, index + 1, _dims, index, _size - index - 1);
+		_size--;
+		modCount++;
+		return old;
+	}
+
+	// append u, followed by s if it is not NaN, replacing the last point if
+	// it is too close to the one before
+	private void append(double u[], int dim, double s) {
+		int index = _size;
+		if ((_saveDistance > 0) && (_size > 1)) {
+			double dx = _columns[X_IDX][_size - 1] - _columns[X_IDX][_size - 2];
+			double dy = _columns[Y_IDX][_size - 1] - _columns[Y_IDX][_size - 2];
+			double dz = _columns[Z_IDX][_size - 1] - _columns[Z_IDX][_size - 2];
+			if (dx * dx + dy * dy + dz * dz < _saveDistance * _saveDistance) {
+				index = _size - 1;
+			}
+		}
+		if (index == _size) {
+			ensureCapacity(_size + 1);
+			_size++;
+			modCount++;
+		}
+		store(index, u, dim);
+		if (!Double.isNaN(s)) {
+			column(dim)[index] = s;
+			_dims[index] = (byte) (dim + 1);
+		}
+	}
+
+	private void store(int index, double u[], int dim) {
+		if (dim > MAXDIM) {
+			throw new IllegalArgumentException("State vector dimension " + dim + " > " + MAXDIM);
+		}
+		for (int i = 0; i < dim; i++) {
+			column(i)[index] = u[i];
+		}
+		_dims[index] = (byte) dim;
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity > _dims.length) {
+			int newCapacity = Math.max(capacity, _dims.length + (_dims.length >> 1));
+			for (int i = 0; i < MAXDIM; i++) {
+				if (_columns[i] != null) {
+					_columns[i] = Arrays.copyOf(_columns[i], newCapacity);
+				}
+			}
+			_dims = Arrays.copyOf(_dims, newCapacity);
+		}
+	}
+
+	private static void checkIndex(int index, int size) {
+		if ((index < 0) || (index >= size)) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
 	}
 
 	
@@ -272,14 +539,7 @@ public class SwimTrajectory extends ArrayList<double[]>  implements Serializable
 		double rho = Math.sin(thetRad);
 		double px = rho * Math.cos(phiRad);
 		double py = rho * Math.sin(phiRad);
-		double v[] = new double[6];
-		v[0] = xo;
-		v[1] = yo;
-		v[2] = zo;
-		v[3] = px;
-		v[4] = py;
-		v[5] = pz;
-		add(v);
+		add(new double[] { xo, yo, zo, px, py, pz });
 	}
 
 	/**
@@ -298,9 +558,8 @@ public class SwimTrajectory extends ArrayList<double[]>  implements Serializable
 
 		int step = 1;
 		for (int i = step; i < size(); i += step) {
-			double pos[] = get(i);
-			double x = pos[X_IDX];
-			double y = pos[Y_IDX];
+			double x = _columns[X_IDX][i];
+			double y = _columns[Y_IDX][i];
 			double tp = FastMath.atan2Deg(y, x);
 
 			phi += tp;
@@ -322,6 +581,20 @@ public class SwimTrajectory extends ArrayList<double[]>  implements Serializable
 		return get(size() - 1);
 	}
 
+	/**
+	 * Copy the last element into the given array, without allocating
+	 * 
+	 * @param u filled with up to u.length components of the last state vector
+	 * @return u, or null if the trajectory is empty
+	 */
+	public double[] lastElement(double u[]) {
+		if (isEmpty()) {
+			return null;
+		}
+		getState(size() - 1, u);
+		return u;
+	}
+
 	/**
 	 * Get the final radial coordinate
 	 * 
@@ -349,11 +622,8 @@ public class SwimTrajectory extends ArrayList<double[]>  implements Serializable
 			return null;
 		}
 		double[] pos = new double[3];
-		double lastQ[] = get(this.size() - 1);
-//		double lastQ[] = lastElement();
-
 		for (int i = 0; i < 3; i++) {
-			pos[i] = lastQ[i];
+			pos[i] = _columns[i][_size - 1];
 		}
 		return pos;
 	}
@@ -372,7 +642,7 @@ public class SwimTrajectory extends ArrayList<double[]>  implements Serializable
 			return 0;
 		}
 
-		return this.lastElement()[BXDL_IDX];
+		return _columns[BXDL_IDX][_size - 1];
 	}
 	
 	/**
@@ -399,16 +669,20 @@ public class SwimTrajectory extends ArrayList<double[]>  implements Serializable
 
 		Bxdl previous = new Bxdl();
 		Bxdl current = new Bxdl();
-		double[] p0 = this.get(0);
-		augment(p0, 0, 0, 0);
+		double[] p0 = new double[3];
+		double[] p1 = new double[3];
+		getState(0, p0);
+		augment(0, 0, 0);
 
 		for (int i = 1; i < size(); i++) {
-			double[] p1 = get(i);
+			getState(i, p1);
 			Bxdl.accumulate(previous, current, p0, p1, probe);
 
-			augment(p1, current.getPathlength(), current.getIntegralBxdl(), i);
+			augment(i, current.getPathlength(), current.getIntegralBxdl());
 			previous.set(current);
+			double[] swap = p0;
 			p0 = p1;
+			p1 = swap;
 		}
 
 		_computedBDL = true;
@@ -430,31 +704,32 @@ public class SwimTrajectory extends ArrayList<double[]>  implements Serializable
 
 		Bxdl previous = new Bxdl();
 		Bxdl current = new Bxdl();
-		double[] p0 = get(0);
-		augment(p0, 0, 0, 0);
+		double[] p0 = new double[3];
+		double[] p1 = new double[3];
+		getState(0, p0);
+		augment(0, 0, 0);
 
 		for (int i = 1; i < size(); i++) {
-			double[] p1 = get(i);
+			getState(i, p1);
 			Bxdl.sectorAccumulate(sector, previous, current, p0, p1, probe);
 
-			augment(p1, current.getPathlength(), current.getIntegralBxdl(), i);
+			augment(i, current.getPathlength(), current.getIntegralBxdl());
 
 			previous.set(current);
+			double[] swap = p0;
 			p0 = p1;
+			p1 = swap;
 		}
 		_computedBDL = true;
 	}
 
-	// replace the 6D state vector <at the given index with
-	// and 8D vector that appends pathelength (m) and integral
+	// extend the 6D state vector at the given index to
+	// an 8D vector that appends pathelength (m) and integral
 	// b dot dl (kg-m)
-	private void augment(double p[], double pl, double bdl, int index) {
-		double newp[] = new double[8];
-		System.arraycopy(p, 0, newp, 0, 6);
-		newp[PATHLEN_IDX] = pl;
-		newp[BXDL_IDX] = bdl;
-
-		set(index, newp);
+	private void augment(int index, double pl, double bdl) {
+		column(PATHLEN_IDX)[index] = pl;
+		column(BXDL_IDX)[index] = bdl;
+		_dims[index] = 8;
 	}
 
 	/**
@@ -496,13 +771,7 @@ public class SwimTrajectory extends ArrayList<double[]>  implements Serializable
 			return null;
 		}
 
-		double array[] = new double[size];
-		int i = 0;
-		for (double s[] : this) {
-			array[i] = s[index];
-			i++;
-		}
-		return array;
+		return Arrays.copyOf(column(index), size);
 	}
 
 	public double[] getX() {
@@ -538,12 +807,10 @@ public class SwimTrajectory extends ArrayList<double[]>  implements Serializable
 	public void print(PrintStream ps) {
 		ps.println("Number of trajectory points: " + size());
 		
-		int i = 0;
-		for (double[] u : this) {
-			++i;
-			double x = u[0];
-			double y = u[1];
-			double z = u[2];
+		for (int i = 1; i <= size(); i++) {
+			double x = _columns[X_IDX][i - 1];
+			double y = _columns[Y_IDX][i - 1];
+			double z = _columns[Z_IDX][i - 1];
 			double rho = FastMath.hypot(x, y);
 			double phi = FastMath.atan2Deg(y, x);
 			String str = String.format("[%d]    x (m): %-8.4f  y (m): %-8.4f  z (m): %-8.4f  phi (deg):  %-7.3f,  rho (m): %-8.4f,   sector: %d", i,  x, y, z, phi, rho,  AdaptiveSwimUtilities.getSector(phi));
@@ -60,7 +60,7 @@ public class SwimTrajectory2D {
 			_sectorChange[0] = false;
 
 			int index = 0;
-			for (double v3d[] : trajectory) {
+			for (double v3d[] : trajectory.states()) {
 				_path[index] = new Point.Double();
 				_sector[index] = getSector(v3d[0], v3d[1]);
 
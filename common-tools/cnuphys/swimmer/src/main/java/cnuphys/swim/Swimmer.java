@@ -1,6 +1,5 @@
 package cnuphys.swim;
 
-import java.util.ArrayList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -839,17 +838,21 @@ public final class Swimmer {
 		double s[] = new double[ntotal];
 		double u[][] = new double[6][ntotal];
 
-		// create the trajectory container
-		SwimTrajectory trajectory = new SwimTrajectory(charge, xo, yo, zo, momentum, theta, phi, nsave);
+		// create the trajectory container, with room for the partial
+		// cycle and the final point
+		SwimTrajectory trajectory = new SwimTrajectory(charge, xo, yo, zo, momentum, theta, phi, nsave + 2);
 
 		// Integrate
 		DefaultDerivative deriv = new DefaultDerivative(charge, momentum, _probe);
 		ntotal = (new RungeKutta()).uniformStep(uo, 0, maxPathLength, u, s, deriv, stopper);
 
 		// now cycle through and get the save points
+		double v[] = new double[6];
 		for (int i = 0; i < ntotal; i++) {
 			if (((i % cycle) == 0) || (i == (ntotal - 1))) {
-				double v[] = makeVector(u[0][i], u[1][i], u[2][i], u[3][i], u[4][i], u[5][i]);
+				for (int j = 0; j < 6; j++) {
+					v[j] = u[j][i];
+				}
 				trajectory.add(v);
 			}
 		}
@@ -1033,7 +1036,7 @@ public final class Swimmer {
 		}
 
 		// are we there yet?
-		double lastY[] = trajectory.lastElement();
+		double lastY[] = trajectory.lastElement(new double[SwimTrajectory.MAXDIM]);
 		double zlast = lastY[2];
 		double del = Math.abs(zlast - fixedZ);
 		int maxtry = 10;
@@ -1047,7 +1050,7 @@ public final class Swimmer {
 			int lastIndex = trajectory.size() - 1;
 
 			trajectory.remove(lastIndex);
-			lastY = trajectory.lastElement();
+			lastY = trajectory.lastElement(lastY);
 			xo = lastY[0];
 			yo = lastY[1];
 			zo = lastY[2];
@@ -1066,7 +1069,7 @@ public final class Swimmer {
 			finalPathLength = stopper.getFinalT();
 			// merge the trajectories
 			trajectory.addAll(addTraj);
-			lastY = trajectory.lastElement();
+			lastY = trajectory.lastElement(lastY);
 			zlast = lastY[2];
 			del = Math.abs(zlast - fixedZ);
 			count++;
@@ -1299,7 +1302,7 @@ public final class Swimmer {
 
 		// SECTOR SWIM B
 		try {
-			traj = sectorSwimC(sector, charge, xo, yo, zo, momentum, theta, phi, stopper, 0, sMax, stepSize,
+			traj = sectorSwimC(null, sector, charge, xo, yo, zo, momentum, theta, phi, stopper, 0, sMax, stepSize,
 					relTolerance, hdata);
 			
 			if (traj == null) {
@@ -1333,7 +1336,7 @@ public final class Swimmer {
 		}
 
 		// are we there yet?
-		double lastY[] = traj.lastElement();
+		double lastY[] = traj.lastElement(new double[SwimTrajectory.MAXDIM]);
 		double zlast = lastY[2];
 		double del = Math.abs(zlast - fixedZ);
 		int maxtry = 10;
@@ -1359,7 +1362,7 @@ public final class Swimmer {
 			// last element had z beyond cutoff
 			int lastIndex = traj.size() - 1;
 			traj.remove(lastIndex);
-			lastY = traj.lastElement();
+			lastY = traj.lastElement(lastY);
 			xo = lastY[0];
 			yo = lastY[1];
 			zo = lastY[2];
@@ -1377,23 +1380,22 @@ public final class Swimmer {
 			theta = FastMath.acos2Deg(pz);
 			phi = FastMath.atan2Deg(py, px);
 
-			SwimTrajectory addTraj = sectorSwimC(sector, charge, xo, yo, zo, momentum, theta, phi, stopper, finalPathLength, sMax,
+			int oldSize = traj.size();
+			sectorSwimC(traj, sector, charge, xo, yo, zo, momentum, theta, phi, stopper, finalPathLength, sMax,
 					stepSize, relTolerance, hdata);
 
 			finalPathLength = stopper.getFinalT();
 			// System.err.println("** STOP PLEN (B) = " + finalPathLength);
 
 			hdata[0] = Math.min(oldHdata[0], hdata[0]);
-			hdata[1] = hdata[1] * addTraj.size();
+			hdata[1] = hdata[1] * (traj.size() - oldSize);
 			hdata[1] = oldHdata[1] + hdata[1];
 			hdata[2] = Math.max(oldHdata[2], hdata[2]);
 			oldHdata[0] = hdata[0];
 			oldHdata[1] = hdata[1];
 			oldHdata[2] = hdata[2];
 
-			// merge the trajectories
-			traj.addAll(addTraj);
-			lastY = traj.lastElement();
+			lastY = traj.lastElement(lastY);
 			zlast = lastY[2];
 			del = Math.abs(zlast - fixedZ);
 			count++;
@@ -1412,6 +1414,8 @@ public final class Swimmer {
 	 * steps along the path. Uses an adaptive stepsize algorithm. THIS IS ONLY
 	 * VALID IF THE FIELD IS A RotatedComnpositeField or RotatedCompositeProbe
 	 * 
+	 * @param trajectory
+	 *            if not null, the steps are appended to this trajectory
 	 * @param sector
 	 *            the sector [1..6]
 	 * @param charge
@@ -1452,7 +1456,7 @@ public final class Swimmer {
 	 * @return the trajectory of the particle
 	 * @throws RungeKuttaException
 	 */
-	private SwimTrajectory sectorSwimC(int sector, int charge, double xo, double yo, double zo, double momentum, double theta, double phi,
+	private SwimTrajectory sectorSwimC(SwimTrajectory trajectory, int sector, int charge, double xo, double yo, double zo, double momentum, double theta, double phi,
 			IStopper stopper, double s0, double sMax, double stepSize, double relTolerance[], double hdata[])
 			throws RungeKuttaException {
 		
@@ -1463,15 +1467,14 @@ public final class Swimmer {
 			return null;
 		}
 
-		// create the lists to hold the trajectory
-		ArrayList<Double> s = new ArrayList<Double>(100);
-		ArrayList<double[]> u = new ArrayList<double[]>(100);
-
 		// the the initial six vector
 		double uo[] = initialState(xo, yo, zo, theta, phi);
 
-		// create the trajectory container
-		SwimTrajectory trajectory = new SwimTrajectory(charge, xo, yo, zo, momentum, theta, phi, 100);
+		// create the trajectory container, unless we are extending one
+		if (trajectory == null) {
+			trajectory = new SwimTrajectory(charge, xo, yo, zo, momentum, theta, phi, 100);
+		}
+		trajectory.add(uo);
 
 		// the derivative
 		SectorDerivative deriv = new SectorDerivative(sector, charge, momentum, (RotatedCompositeProbe)_probe);
@@ -1479,8 +1482,8 @@ public final class Swimmer {
 		// integrate
 		// SECTOR SWIM C
 		try {
-			(new RungeKutta()).adaptiveStep(uo, s0, sMax, stepSize, s, u, deriv, stopper, _defaultTableau, relTolerance,
-					hdata);
+			(new RungeKutta()).adaptiveStep(uo, s0, sMax, stepSize, deriv, stopper, trajectoryListener(trajectory),
+					_defaultTableau, relTolerance, hdata);
 		} catch (RungeKuttaException e) {
 		//	System.err.println("SECTOR SWIM C RungeKutta Exception");
 		//	System.err.println("Tableau: " + _defaultTableau.getClass().getName());
@@ -1488,11 +1491,6 @@ public final class Swimmer {
 			trajectory = null;
 			throw(e);
 		}
-		
-		// now cycle through and get the save points
-		for (int i = 0; i < u.size(); i++) {
-			trajectory.add(u.get(i));
-		}
 
 		return trajectory;
 	}
@@ -1695,7 +1693,7 @@ public final class Swimmer {
 		}
 
 		// are we there yet?
-		double lastY[] = traj.lastElement();
+		double lastY[] = traj.lastElement(new double[SwimTrajectory.MAXDIM]);
 		
 		double del = plane.distanceToPlane(lastY[0], lastY[1], lastY[2]);
 		int maxtry = 20;
@@ -1722,7 +1720,7 @@ public final class Swimmer {
 			// last element had beyond plane cutoff
 			int lastIndex = traj.size() - 1;
 			traj.remove(lastIndex);
-			lastY = traj.lastElement();
+			lastY = traj.lastElement(lastY);
 			xo = lastY[0];
 			yo = lastY[1];
 			zo = lastY[2];
@@ -1743,23 +1741,22 @@ public final class Swimmer {
 			theta = FastMath.acos2Deg(pz);
 			phi = FastMath.atan2Deg(py, px);
 
-			SwimTrajectory addTraj = swim(charge, xo, yo, zo, momentum, theta, phi, stopper, finalPathLength, sMax,
+			int oldSize = traj.size();
+			swim(traj, charge, xo, yo, zo, momentum, theta, phi, stopper, finalPathLength, sMax,
 					stepSize, relTolerance, hdata);
 
 			finalPathLength = stopper.getFinalT();
 			// System.err.println("** STOP PLEN (B) = " + finalPathLength);
 
 			hdata[0] = Math.min(oldHdata[0], hdata[0]);
-			hdata[1] = hdata[1] * addTraj.size();
+			hdata[1] = hdata[1] * (traj.size() - oldSize);
 			hdata[1] = oldHdata[1] + hdata[1];
 			hdata[2] = Math.max(oldHdata[2], hdata[2]);
 			oldHdata[0] = hdata[0];
 			oldHdata[1] = hdata[1];
 			oldHdata[2] = hdata[2];
 
-			// merge the trajectories
-			traj.addAll(addTraj);
-			lastY = traj.lastElement();
+			lastY = traj.lastElement(lastY);
 			
 			del = plane.distanceToPlane(lastY[0], lastY[1], lastY[2]);
 			
@@ -1922,7 +1919,7 @@ public final class Swimmer {
 		}
 
 		// are we there yet?
-		double lastY[] = traj.lastElement();
+		double lastY[] = traj.lastElement(new double[SwimTrajectory.MAXDIM]);
 		double zlast = lastY[2];
 		double del = Math.abs(zlast - fixedZ);
 		int maxtry = 10;
@@ -1949,7 +1946,7 @@ public final class Swimmer {
 			// last element had z beyond cutoff
 			int lastIndex = traj.size() - 1;
 			traj.remove(lastIndex);
-			lastY = traj.lastElement();
+			lastY = traj.lastElement(lastY);
 			xo = lastY[0];
 			yo = lastY[1];
 			zo = lastY[2];
@@ -1967,23 +1964,22 @@ public final class Swimmer {
 			theta = FastMath.acos2Deg(pz);
 			phi = FastMath.atan2Deg(py, px);
 
-			SwimTrajectory addTraj = swim(charge, xo, yo, zo, momentum, theta, phi, stopper, finalPathLength, sMax,
+			int oldSize = traj.size();
+			swim(traj, charge, xo, yo, zo, momentum, theta, phi, stopper, finalPathLength, sMax,
 					stepSize, relTolerance, hdata);
 
 			finalPathLength = stopper.getFinalT();
 			// System.err.println("** STOP PLEN (B) = " + finalPathLength);
 
 			hdata[0] = Math.min(oldHdata[0], hdata[0]);
-			hdata[1] = hdata[1] * addTraj.size();
+			hdata[1] = hdata[1] * (traj.size() - oldSize);
 			hdata[1] = oldHdata[1] + hdata[1];
 			hdata[2] = Math.max(oldHdata[2], hdata[2]);
 			oldHdata[0] = hdata[0];
 			oldHdata[1] = hdata[1];
 			oldHdata[2] = hdata[2];
 
-			// merge the trajectories
-			traj.addAll(addTraj);
-			lastY = traj.lastElement();
+			lastY = traj.lastElement(lastY);
 			zlast = lastY[2];
 			del = Math.abs(zlast - fixedZ);
 			count++;
@@ -2087,27 +2083,29 @@ public final class Swimmer {
 	public SwimTrajectory swim(int charge, double xo, double yo, double zo, double momentum, double theta, double phi,
 			IStopper stopper, double s0, double sMax, double stepSize, double relTolerance[], double hdata[])
 			throws RungeKuttaException {
+		return swim(null, charge, xo, yo, zo, momentum, theta, phi, stopper, s0, sMax, stepSize, relTolerance, hdata);
+	}
 
-		// create the lists to hold the trajectory
-		ArrayList<Double> s = new ArrayList<Double>(100);
-		ArrayList<double[]> u = new ArrayList<double[]>(100);
+	// as above, but appends to the given trajectory if it is not null
+	private SwimTrajectory swim(SwimTrajectory trajectory, int charge, double xo, double yo, double zo,
+			double momentum, double theta, double phi, IStopper stopper, double s0, double sMax, double stepSize,
+			double relTolerance[], double hdata[]) throws RungeKuttaException {
 
 		// the the initial six vector
 		double uo[] = initialState(xo, yo, zo, theta, phi);
 
-		// create the trajectory container
-		SwimTrajectory trajectory = new SwimTrajectory(charge, xo, yo, zo, momentum, theta, phi, 100);
+		// create the trajectory container, unless we are extending one
+		if (trajectory == null) {
+			trajectory = new SwimTrajectory(charge, xo, yo, zo, momentum, theta, phi, 100);
+		}
+		trajectory.add(uo);
 
 		// the derivative
 		DefaultDerivative deriv = new DefaultDerivative(charge, momentum, _probe);
 
-		// integrate
-		(new RungeKutta()).adaptiveStep(uo, s0, sMax, stepSize, s, u, deriv, stopper, _defaultTableau, relTolerance,
-				hdata);
-		// now cycle through and get the save points
-		for (int i = 0; i < u.size(); i++) {
-			trajectory.add(u.get(i));
-		}
+		// integrate, saving each step in the trajectory
+		(new RungeKutta()).adaptiveStep(uo, s0, sMax, stepSize, deriv, stopper, trajectoryListener(trajectory),
+				_defaultTableau, relTolerance, hdata);
 
 		return trajectory;
 	}
@@ -2222,27 +2220,19 @@ public final class Swimmer {
 		// construct an appropriate yscale array for CLAS12
 		double yscale[] = { 1., 1., 1., 1., 1., 1., };
 
-		// create the lists to hold the trajectory
-		ArrayList<Double> t = new ArrayList<Double>(100);
-		ArrayList<double[]> y = new ArrayList<double[]>(100);
-
 		// the the initial six vector
 		double uo[] = initialState(xo, yo, zo, theta, phi);
 
 		// create the trajectory container
 		SwimTrajectory trajectory = new SwimTrajectory(charge, xo, yo, zo, momentum, theta, phi, 100);
+		trajectory.add(uo);
 
 		// Integrate
 		DefaultDerivative deriv = new DefaultDerivative(charge, momentum, _probe);
 
-		// integrate
-		(new RungeKutta()).adaptiveStep(uo, 0, maxPathLength, stepSize, t, y, deriv, stopper, _defaultTableau,
-				tolerance, yscale, hdata);
-		// now cycle through and get the save points
-
-		for (int i = 0; i < y.size(); i++) {
-			trajectory.add(y.get(i));
-		}
+		// integrate, saving each step in the trajectory
+		(new RungeKutta()).adaptiveStep(uo, 0, maxPathLength, stepSize, deriv, stopper, trajectoryListener(trajectory),
+				_defaultTableau, tolerance, yscale, hdata);
 
 		return trajectory;
 	}
@@ -2556,6 +2546,11 @@ public final class Swimmer {
 		return Q;
 	}
 
+	// a listener that saves every accepted step in the trajectory
+	private static IRkListener trajectoryListener(final SwimTrajectory trajectory) {
+		return (t, y, h) -> trajectory.add(y);
+	}
+
 	// convenience method to make a vector
 	private double[] makeVector(double x, double y, double z, double vx, double vy, double vz) {
 		double v[] = new double[6];
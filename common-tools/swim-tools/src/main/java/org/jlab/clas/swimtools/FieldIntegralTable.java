@@ -0,0 +1,372 @@
+package org.jlab.clas.swimtools;
+
+import cnuphys.magfield.MagneticField;
+import cnuphys.magfield.MagneticFields;
+import cnuphys.magfield.Solenoid;
+import cnuphys.magfield.Torus;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+/**
+ * Precomputed propagation between planes of constant z in the tilted sector
+ * system, for track seeding where a swim per candidate is more precise than
+ * needed.
+ *
+ * For each end plane the table holds the position, direction and integral
+ * B x dl in the xz plane reached by
+ * {@link Swim#SwimToPlaneTiltSecSysBdlXZPlane(int, double)}, on a grid of
+ * q/p and of the slopes tx, ty of lines pointing to the origin from the
+ * start plane.  A state at the start plane is looked up by its q/p and the
+ * slopes of the line from the origin to its position, with trilinear
+ * interpolation, and its deviation from that line is carried to the end
+ * plane as a straight line.  Tables are built once for a field configuration,
+ * one sector if the field is sector symmetric else six, and cached on disk
+ * keyed by the map checksums, scales and shifts, see {@link #getCacheDir()}.
+ * Reconstruction uses {@link #getIfReady(double, double...)}, which builds
+ * the table in the background and lets the caller swim until it is ready.
+ *
+ * Tables are immutable and shared by all threads.
+ */
+public class FieldIntegralTable {
+
+    public static final Logger LOGGER = Logger.getLogger(FieldIntegralTable.class.getName());
+
+    // grid in q/p (c/GeV), even so that straight lines fall between nodes:
+    static final int    NQP   = 40;
+    static final double QPMAX = 2.0;
+    // grid in the slopes of lines from the origin at the start plane, finer
+    // in x where the track bends:
+    static final int    NTX   = 49;
+    static final double TXMAX = 0.6;
+    static final int    NTY   = 25;
+    static final double TYMAX = 0.3;
+    // x, y, tx, ty, integral Bdl (T*cm) per node:
+    static final int    NVAL  = 5;
+
+    static final int MAGIC   = 0xF1D1AB1E;
+    static final int VERSION = 1;
+
+    private static volatile FieldIntegralTable latest = null;
+
+    // the configuration being built in the background, guarded by the class:
+    private static String pending = null;
+
+    // held while reading or building, which can take minutes:
+    private static final Object LOAD_LOCK = new Object();
+
+    private static final ExecutorService BUILDER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "FieldIntegralTable-builder");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final String key;
+    private final double z0;
+    private final double[] zEnd;
+    private final int nSectors;
+    private final float[] values;
+
+    private FieldIntegralTable(String key, double z0, double[] zEnd, int nSectors, float[] values) {
+        this.key = key;
+        this.z0 = z0;
+        this.zEnd = zEnd;
+        this.nSectors = nSectors;
+        this.values = values;
+    }
+
+    /**
+     * Get the table for the current field configuration, reading it from the
+     * cache directory or building and caching it if needed.  Building swims
+     * every grid point, about ten cpu seconds per end plane and sector.
+     *
+     * @param z0   z of the start plane in the tilted sector system (cm)
+     * @param zEnd z of the end planes in the tilted sector system (cm)
+     * @return the table
+     */
+    public static FieldIntegralTable getInstance(double z0, double... zEnd) {
+        FieldIntegralTable table;
+        do {
+            table = getInstance(key(z0, zEnd), z0, zEnd);
+        } while (table == null);
+        return table;
+    }
+
+    /**
+     * Get the table for the current field configuration if it is available,
+     * else start reading or building it in the background.  A build that
+     * fails is not retried for the same configuration.
+     *
+     * @param z0   z of the start plane in the tilted sector system (cm)
+     * @param zEnd z of the end planes in the tilted sector system (cm)
+     * @return the table, or null if it is not ready yet, in which case the
+     *         caller should swim instead
+     */
+    public static FieldIntegralTable getIfReady(double z0, double... zEnd) {
+        String key = key(z0, zEnd);
+        FieldIntegralTable table = latest;
+        if (table != null && table.key.equals(key)) {
+            return table;
+        }
+        synchronized (FieldIntegralTable.class) {
+            if (!key.equals(pending)) {
+                pending = key;
+                double[] ends = zEnd.clone();
+                BUILDER.execute(() -> {
+                    try {
+                        getInstance(key, z0, ends);
+                        synchronized (FieldIntegralTable.class) {
+                            if (key.equals(pending)) pending = null;
+                        }
+                    }
+                    catch (RuntimeException e) {
+                        LOGGER.log(Level.WARNING, "cannot build field integral table", e);
+                    }
+                });
+            }
+        }
+        return null;
+    }
+
+    // null if the field configuration changed while building
+    private static FieldIntegralTable getInstance(String key, double z0, double[] zEnd) {
+        FieldIntegralTable table = latest;
+        if (table != null && table.key.equals(key)) {
+            return table;
+        }
+        synchronized (LOAD_LOCK) {
+            table = latest;
+            if (table == null || !table.key.equals(key)) {
+                table = load(key, z0, zEnd);
+                if (table != null) latest = table;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Propagate a state from the start plane to one of the end planes.
+     *
+     * @param sector the sector [1..6]
+     * @param x      x at the start plane (cm)
+     * @param y      y at the start plane (cm)
+     * @param tx     dx/dz at the start plane
+     * @param ty     dy/dz at the start plane
+     * @param qOverP charge over momentum (c/GeV)
+     * @param end    index of the end plane
+     * @param result filled with x, y, tx, ty and the integral Bdl in the xz
+     *               plane (T*cm) at the end plane
+     * @return false if the state is outside the table, in which case the
+     *         caller should swim instead
+     */
+    public boolean propagate(int sector, double x, double y, double tx, double ty, double qOverP,
+            int end, double[] result) {
+        if (sector < 1 || sector > 6) return false;
+        double t0x = x / z0;
+        double t0y = y / z0;
+
+        double fq = (qOverP + QPMAX) / (2 * QPMAX) * (NQP - 1);
+        double fx = (t0x + TXMAX) / (2 * TXMAX) * (NTX - 1);
+        double fy = (t0y + TYMAX) / (2 * TYMAX) * (NTY - 1);
+        if (!(fq >= 0 && fq < NQP - 1 && fx >= 0 && fx < NTX - 1 && fy >= 0 && fy < NTY - 1)) {
+            return false;
+        }
+        int iq = (int) fq;
+        int ix = (int) fx;
+        int iy = (int) fy;
+        fq -= iq;
+        fx -= ix;
+        fy -= iy;
+
+        int s = nSectors == 1 ? 0 : sector - 1;
+        for (int v = 0; v < NVAL; v++) {
+            double sum = 0;
+            for (int i = 0; i < 8; i++) {
+                int dq = i >> 2, dx = (i >> 1) & 1, dy = i & 1;
+                double w = (dq == 0 ? 1 - fq : fq) * (dx == 0 ? 1 - fx : fx) * (dy == 0 ? 1 - fy : fy);
+                sum += w * values[index(s, end, iq + dq, ix + dx, iy + dy) + v];
+            }
+            if (Double.isNaN(sum)) return false;
+            result[v] = sum;
+        }
+
+        // the deviation from the line through the origin goes straight:
+        double dz = zEnd[end] - z0;
+        result[0] += (tx - t0x) * dz;
+        result[1] += (ty - t0y) * dz;
+        result[2] += tx - t0x;
+        result[3] += ty - t0y;
+        return true;
+    }
+
+    /**
+     * @return the number of end planes
+     */
+    public int getNumEnds() {
+        return zEnd.length;
+    }
+
+    /**
+     * @return the number of sectors tabulated, 1 if the field is sector symmetric
+     */
+    public int getNumSectors() {
+        return nSectors;
+    }
+
+    /**
+     * The cache directory is from $COAT_MAGFIELD_TABLEDIR, else the
+     * swimtools.tabledir system property, else clas12-magfield-tables in the
+     * temporary directory.
+     *
+     * @return the directory for cached tables
+     */
+    public static File getCacheDir() {
+        String dir = System.getenv("COAT_MAGFIELD_TABLEDIR");
+        if (dir == null) dir = System.getProperty("swimtools.tabledir");
+        if (dir == null) dir = new File(System.getProperty("java.io.tmpdir"), "clas12-magfield-tables").getPath();
+        return new File(dir);
+    }
+
+    private int index(int s, int end, int iq, int ix, int iy) {
+        return ((((s * zEnd.length + end) * NQP + iq) * NTX + ix) * NTY + iy) * NVAL;
+    }
+
+    private static boolean isSectorSymmetric() {
+        Torus torus = MagneticFields.getInstance().getTorus();
+        Solenoid solenoid = MagneticFields.getInstance().getSolenoid();
+        if (torus != null && (torus.isFullMap() || torus.getShiftX() != 0 || torus.getShiftY() != 0)) {
+            return false;
+        }
+        return solenoid == null || (solenoid.getShiftX() == 0 && solenoid.getShiftY() == 0);
+    }
+
+    private static String describe(String name, MagneticField field) {
+        if (field == null) return name + "=none";
+        return String.format("%s=%s:%016x:scale=%s:shift=%s,%s,%s", name, field.getBaseFileName(),
+                field.getChecksum(), field.getScaleFactor(), field.getShiftX(), field.getShiftY(), field.getShiftZ());
+    }
+
+    private static String key(double z0, double[] zEnd) {
+        return String.format("v%d;%s;%s;symmetric=%b;grid=%d,%s,%d,%s,%d,%s;z0=%s;z=%s", VERSION,
+                describe("torus", MagneticFields.getInstance().getTorus()),
+                describe("solenoid", MagneticFields.getInstance().getSolenoid()),
+                isSectorSymmetric(), NQP, QPMAX, NTX, TXMAX, NTY, TYMAX, z0, Arrays.toString(zEnd));
+    }
+
+    private static File cacheFile(String key) {
+        return new File(getCacheDir(), String.format("dc-field-integrals-%08x.dat", key.hashCode()));
+    }
+
+    private static FieldIntegralTable load(String key, double z0, double[] zEnd) {
+        File file = cacheFile(key);
+        if (file.isFile()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                if (in.readInt() == MAGIC && in.readUTF().equals(key)) {
+                    int nSectors = in.readInt();
+                    float[] values = new float[in.readInt()];
+                    for (int i = 0; i < values.length; i++) values[i] = in.readFloat();
+                    LOGGER.log(Level.INFO, String.format("read field integral table %s", file.getPath()));
+                    return new FieldIntegralTable(key, z0, zEnd.clone(), nSectors, values);
+                }
+                LOGGER.log(Level.WARNING, String.format("ignoring field integral table %s for a different configuration", file.getPath()));
+            }
+            catch (IOException e) {
+                LOGGER.log(Level.WARNING, String.format("cannot read field integral table %s: %s", file.getPath(), e.getMessage()));
+            }
+        }
+
+        FieldIntegralTable table = build(key, z0, zEnd.clone());
+        if (!key.equals(key(z0, zEnd))) {
+            LOGGER.log(Level.WARNING, "field configuration changed while building the field integral table, discarding it");
+            return null;
+        }
+        try {
+            table.write(file);
+            LOGGER.log(Level.INFO, String.format("wrote field integral table %s", file.getPath()));
+        }
+        catch (IOException e) {
+            LOGGER.log(Level.WARNING, String.format("cannot write field integral table %s: %s", file.getPath(), e.getMessage()));
+        }
+        return table;
+    }
+
+    private static FieldIntegralTable build(String key, double z0, double[] zEnd) {
+        long start = System.currentTimeMillis();
+        int nSectors = isSectorSymmetric() ? 1 : 6;
+        float[] values = new float[nSectors * zEnd.length * NQP * NTX * NTY * NVAL];
+        FieldIntegralTable table = new FieldIntegralTable(key, z0, zEnd, nSectors, values);
+
+        // one task per sector, end plane and q/p, each with its own probes
+        // rather than leased from the pool, so that the reconstruction
+        // threads swimming meanwhile never wait for the build:
+        IntStream.range(0, nSectors * zEnd.length * NQP).parallel().forEach(task -> {
+            int iq = task % NQP;
+            int end = (task / NQP) % zEnd.length;
+            int s = task / NQP / zEnd.length;
+            double qOverP = -QPMAX + 2 * QPMAX * iq / (NQP - 1);
+            double p = 1 / Math.abs(qOverP);
+            int q = qOverP > 0 ? 1 : -1;
+            try (Swim swim = Swim.withProbes(new ProbeCollection())) {
+                for (int ix = 0; ix < NTX; ix++) {
+                    for (int iy = 0; iy < NTY; iy++) {
+                        double tx = -TXMAX + 2 * TXMAX * ix / (NTX - 1);
+                        double ty = -TYMAX + 2 * TYMAX * iy / (NTY - 1);
+                        double pz = p / Math.sqrt(1 + tx * tx + ty * ty);
+                        swim.SetSwimParameters(tx * z0, ty * z0, z0, tx * pz, ty * pz, pz, q);
+                        double[] R = swim.SwimToPlaneTiltSecSysBdlXZPlane(s + 1, zEnd[end]);
+                        int i = table.index(s, end, iq, ix, iy);
+                        if (R == null || R[5] <= 0) {
+                            Arrays.fill(values, i, i + NVAL, Float.NaN);
+                        }
+                        else {
+                            values[i]     = (float) R[0];
+                            values[i + 1] = (float) R[1];
+                            values[i + 2] = (float) (R[3] / R[5]);
+                            values[i + 3] = (float) (R[4] / R[5]);
+                            values[i + 4] = (float) R[7];
+                        }
+                    }
+                }
+            }
+        });
+        LOGGER.log(Level.INFO, String.format("built field integral table for %d sector(s), %d plane(s) in %d ms",
+                nSectors, zEnd.length, System.currentTimeMillis() - start));
+        return table;
+    }
+
+    // write to a temporary file and rename, so that concurrent jobs never
+    // see a partial table
+    private void write(File file) throws IOException {
+        File dir = file.getParentFile();
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("cannot create directory " + dir.getPath());
+        }
+        File tmp = File.createTempFile(file.getName(), ".tmp", dir);
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeUTF(key);
+                out.writeInt(nSectors);
+                out.writeInt(values.length);
+                for (float v : values) out.writeFloat(v);
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        finally {
+            tmp.delete();
+        }
+    }
+}
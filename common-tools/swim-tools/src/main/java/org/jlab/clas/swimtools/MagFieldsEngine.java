@@ -1,5 +1,6 @@
 package org.jlab.clas.swimtools;
 
+import cnuphys.magfield.MagneticField;
 import cnuphys.magfield.MagneticFields;
 import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -65,6 +66,11 @@ public class MagFieldsEngine extends ReconstructionEngine {
             return false;
         }
 
+        final String mmap = this.chooseEnvOrYaml("COAT_MAGFIELD_MMAP","magfieldMemoryMap");
+        if (mmap != null) {
+            MagneticField.setMemoryMapped(Boolean.parseBoolean(mmap));
+        }
+
         try {
             MagneticFields.getInstance().initializeMagneticFields(mapDir, torusMap, solenoidMap);
         }
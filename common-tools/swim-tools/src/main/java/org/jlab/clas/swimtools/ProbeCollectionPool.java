@@ -0,0 +1,74 @@
+package org.jlab.clas.swimtools;
+
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded pool of {@link ProbeCollection}s, so that the number of field probe
+ * caches doesn't grow with the number of (possibly short-lived) threads.
+ * A collection is leased for the duration of a swim and then released for
+ * reuse by any other thread, the most recently released first since its
+ * probes are the most likely to be still in cache.  At most capacity
+ * collections are ever created, and lease() blocks while all of them are
+ * in use.
+ */
+public class ProbeCollectionPool {
+
+    private final ConcurrentLinkedDeque<ProbeCollection> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger created = new AtomicInteger();
+    private final Semaphore permits;
+    private final int capacity;
+
+    /**
+     * @param capacity maximum number of probe collections
+     */
+    public ProbeCollectionPool(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be positive: "+capacity);
+        this.capacity = capacity;
+        this.permits = new Semaphore(capacity);
+    }
+
+    /**
+     * Get exclusive use of a probe collection, creating one if none is idle
+     * and the capacity isn't reached yet, else waiting for one to be released.
+     * @return the probe collection, to be passed back to {@link #release}
+     */
+    public ProbeCollection lease() {
+        permits.acquireUninterruptibly();
+        ProbeCollection pc = idle.poll();
+        if (pc == null) {
+            pc = new ProbeCollection();
+            created.incrementAndGet();
+        }
+        return pc;
+    }
+
+    /**
+     * Return a probe collection obtained from {@link #lease}.
+     * @param pc the probe collection
+     */
+    public void release(ProbeCollection pc) {
+        if (pc == null) return;
+        idle.push(pc);
+        permits.release();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return number of probe collections created so far
+     */
+    public int getCreated() {
+        return created.get();
+    }
+
+    /**
+     * @return number of probe collections currently leased
+     */
+    public int getLeased() {
+        return capacity - permits.availablePermits();
+    }
+}
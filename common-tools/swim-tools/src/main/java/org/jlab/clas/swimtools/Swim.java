@@ -13,6 +13,7 @@ import cnuphys.swim.util.Plane;
 import cnuphys.swimZ.SwimZException;
 import cnuphys.swimZ.SwimZResult;
 import cnuphys.swimZ.SwimZStateVector;
+import java.util.function.Supplier;
 import org.apache.commons.math3.util.FastMath;
 import org.jlab.geom.prim.Vector3D;
 import org.jlab.geom.prim.Point3D;
@@ -27,7 +28,7 @@ import cnuphys.adaptiveSwim.geometry.Vector;
  * @author ziegler
  */
 
-public class Swim {
+public class Swim implements AutoCloseable {
 
     private double _x0;
     private double _y0;
@@ -47,15 +48,86 @@ public class Swim {
     double stepSize = 5.00 * 1.e-4; // 500 microns
 
     private ProbeCollection PC;
+    // whether PC is held for the lifetime of the swimmer, and if it comes from the pool:
+    private final boolean leased;
+    private final boolean pooled;
+    private int calls = 0;
     
     /**
-     * Class for swimming to various surfaces.  The input and output units are cm and GeV/c
+     * Class for swimming to various surfaces.  The input and output units are cm and GeV/c.
+     * The field probes are leased from the shared pool, see {@link Swimmer#getProbePool()},
+     * for the duration of each swim or field lookup, so that the number of probe
+     * collections is bounded whatever the number of threads.  An instance holds the
+     * swim parameters and must only be used from one thread at a time.
      */
     public Swim() {
-        PC = Swimmer.getProbeCollection(Thread.currentThread());
-        if (PC == null) {
-            PC = new ProbeCollection();
-            Swimmer.put(Thread.currentThread(), PC);
+        PC = null;
+        leased = false;
+        pooled = true;
+    }
+
+    private Swim(ProbeCollection pc, boolean pooled) {
+        PC = pc;
+        leased = true;
+        this.pooled = pooled;
+    }
+
+    /**
+     * Creates a swimmer holding one probe collection from the shared pool,
+     * see {@link Swimmer#getProbePool()}, until {@link #close()}, instead of
+     * leasing one per call, e.g.
+     * <pre>
+     *   try (Swim swim = Swim.leased()) { ... }
+     * </pre>
+     * @return the swimmer
+     */
+    public static Swim leased() {
+        return new Swim(Swimmer.getProbePool().lease(), true);
+    }
+
+    /**
+     * Creates a swimmer with its own probe collection, outside of the shared
+     * pool, for batch work which must not hold probes needed by other threads.
+     * @param pc the probe collection, used by this swimmer only
+     * @return the swimmer
+     */
+    static Swim withProbes(ProbeCollection pc) {
+        return new Swim(pc, false);
+    }
+
+    /**
+     * Return leased field probes to the pool, after which this swimmer must
+     * not be used anymore.  No-op for swimmers created with {@link #Swim()}
+     * or with their own probes.
+     */
+    @Override
+    public void close() {
+        if (leased && pooled && PC != null) {
+            Swimmer.getProbePool().release(PC);
+            PC = null;
+        }
+    }
+
+    // lease the probes for the outermost call of a per-call swimmer:
+    private void acquire() {
+        if (!leased && calls++ == 0) PC = Swimmer.getProbePool().lease();
+    }
+
+    private void release() {
+        if (!leased && --calls == 0) {
+            Swimmer.getProbePool().release(PC);
+            PC = null;
+        }
+    }
+
+    // run a swim or field lookup with the probes leased:
+    private <T> T leasing(Supplier<T> call) {
+        this.acquire();
+        try {
+            return call.get();
+        }
+        finally {
+            this.release();
         }
     }
 
@@ -200,6 +272,10 @@ public class Swim {
     }
 
     public double[] SwimToPlaneTiltSecSys(int sector, double z_cm) {
+        return this.leasing(() -> this.swimToPlaneTiltSecSys(sector, z_cm));
+    }
+
+    private double[] swimToPlaneTiltSecSys(int sector, double z_cm) {
         double z = z_cm / 100; // the magfield method uses meters
         double[] value = new double[8];
 
@@ -280,7 +356,11 @@ public class Swim {
 
     }
     
-        public double[] SwimToPlaneTiltSecSysBdlXZPlane(int sector, double z_cm) {
+    public double[] SwimToPlaneTiltSecSysBdlXZPlane(int sector, double z_cm) {
+        return this.leasing(() -> this.swimToPlaneTiltSecSysBdlXZPlane(sector, z_cm));
+    }
+
+    private double[] swimToPlaneTiltSecSysBdlXZPlane(int sector, double z_cm) {
         double z = z_cm / 100; // the magfield method uses meters
         double[] value = new double[8];
 
@@ -367,6 +447,10 @@ public class Swim {
      * @return state  x,y,z,px,py,pz, pathlength, iBdl at the plane surface
      */
     public double[] SwimToPlaneLab(double z_cm) {
+        return this.leasing(() -> this.swimToPlaneLab(z_cm));
+    }
+
+    private double[] swimToPlaneLab(double z_cm) {
         double z = z_cm / 100; // the magfield method uses meters
         double[] value = new double[8];
 
@@ -530,6 +614,10 @@ public class Swim {
      * @return state  x,y,z,px,py,pz, pathlength, iBdl at the surface 
      */
     public double[] SwimToCylinder(double Rad) {
+        return this.leasing(() -> this.swimToCylinder(Rad));
+    }
+
+    private double[] swimToCylinder(double Rad) {
         
         double[] value = new double[8];
         if(this.SwimUnPhys)
@@ -574,7 +662,11 @@ public class Swim {
      * @param accuracy in cm 
      * @return state  x,y,z,px,py,pz, pathlength, iBdl at the surface 
      */
-    public double[] SwimRho(double radius, double accuracy)  {
+    public double[] SwimRho(double radius, double accuracy) {
+        return this.leasing(() -> this.swimRho(radius, accuracy));
+    }
+
+    private double[] swimRho(double radius, double accuracy)  {
 
         double[] value = null;
 
@@ -627,7 +719,11 @@ public class Swim {
      * @param accuracy in cm
      * @return swam trajectory to the cylinder
      */
-    public double[] SwimGenCylinder(Point3D axisPoint1, Point3D axisPoint2, double radius, double accuracy)  {
+    public double[] SwimGenCylinder(Point3D axisPoint1, Point3D axisPoint2, double radius, double accuracy) {
+        return this.leasing(() -> this.swimGenCylinder(axisPoint1, axisPoint2, radius, accuracy));
+    }
+
+    private double[] swimGenCylinder(Point3D axisPoint1, Point3D axisPoint2, double radius, double accuracy)  {
 
         double[] value = null;
         double[] p1 = new double[3];
@@ -671,7 +767,11 @@ public class Swim {
 
     }
 
-    public double[] SwimPlane(Vector3D n, Point3D p, double accuracy)  {
+    public double[] SwimPlane(Vector3D n, Point3D p, double accuracy) {
+        return this.leasing(() -> this.swimPlane(n, p, accuracy));
+    }
+
+    private double[] swimPlane(Vector3D n, Point3D p, double accuracy)  {
 
         double[] value = null;
         
@@ -764,6 +864,10 @@ public class Swim {
      * @return state  x,y,z,px,py,pz, pathlength, iBdl at the surface 
      */
     public double[] SwimToSphere(double Rad) {
+        return this.leasing(() -> this.swimToSphere(Rad));
+    }
+
+    private double[] swimToSphere(double Rad) {
 
         double[] value = new double[8];
         // using adaptive stepsize
@@ -856,6 +960,10 @@ public class Swim {
      * @return return state  x,y,z,px,py,pz, pathlength, iBdl at the plane surface in the lab frame
      */
     public double[] SwimToPlaneBoundary(double d_cm, Vector3D n, int dir) {
+        return this.leasing(() -> this.swimToPlaneBoundary(d_cm, n, dir));
+    }
+
+    private double[] swimToPlaneBoundary(double d_cm, Vector3D n, int dir) {
 
         double[] value = new double[8];
         if(this.SwimUnPhys)
@@ -952,6 +1060,10 @@ public class Swim {
     }
     
     public double[] SwimToBeamLine(double xB, double yB) {
+        return this.leasing(() -> this.swimToBeamLine(xB, yB));
+    }
+
+    private double[] swimToBeamLine(double xB, double yB) {
 
         double[] value = new double[8];
         
@@ -1000,6 +1112,16 @@ public class Swim {
      * @param result B field components in T in the tilted sector system
      */
     public void Bfield(int sector, double x_cm, double y_cm, double z_cm, float[] result) {
+        this.acquire();
+        try {
+            this.bfield(sector, x_cm, y_cm, z_cm, result);
+        }
+        finally {
+            this.release();
+        }
+    }
+
+    private void bfield(int sector, double x_cm, double y_cm, double z_cm, float[] result) {
 
         PC.RCP.field(sector, (float) x_cm, (float) y_cm, (float) z_cm, result);
         // rcompositeField.field((float) x_cm, (float) y_cm, (float) z_cm,
@@ -1017,6 +1139,16 @@ public class Swim {
      * @param result B field components in T in the lab frame
      */
     public void BfieldLab(double x_cm, double y_cm, double z_cm, float[] result) {
+        this.acquire();
+        try {
+            this.bfieldLab(x_cm, y_cm, z_cm, result);
+        }
+        finally {
+            this.release();
+        }
+    }
+
+    private void bfieldLab(double x_cm, double y_cm, double z_cm, float[] result) {
 
         PC.CP.field((float) x_cm, (float) y_cm, (float) z_cm, result);
         result[0] = result[0] / 10;
@@ -1027,7 +1159,11 @@ public class Swim {
 
     
     
-    public double[] AdaptiveSwimPlane(double px, double py, double pz, double nx, double ny, double nz, double accuracy)  {
+    public double[] AdaptiveSwimPlane(double px, double py, double pz, double nx, double ny, double nz, double accuracy) {
+        return this.leasing(() -> this.adaptiveSwimPlane(px, py, pz, nx, ny, nz, accuracy));
+    }
+
+    private double[] adaptiveSwimPlane(double px, double py, double pz, double nx, double ny, double nz, double accuracy)  {
 //        System.out.println("Don't use yet");
 
         double[] value = new double[8];
@@ -1071,7 +1207,11 @@ public class Swim {
     }
     
     
-    public double[] AdaptiveSwimCylinder(double a1x, double a1y, double a1z, double a2x, double a2y, double a2z, double radius, double accuracy)  {
+    public double[] AdaptiveSwimCylinder(double a1x, double a1y, double a1z, double a2x, double a2y, double a2z, double radius, double accuracy) {
+        return this.leasing(() -> this.adaptiveSwimCylinder(a1x, a1y, a1z, a2x, a2y, a2z, radius, accuracy));
+    }
+
+    private double[] adaptiveSwimCylinder(double a1x, double a1y, double a1z, double a2x, double a2y, double a2z, double radius, double accuracy)  {
     //    System.out.println("Don't use yet");
         double[] value = new double[8];
         
@@ -1115,7 +1255,11 @@ public class Swim {
 
     }
 
-    public double[] AdaptiveSwimRho(double radius, double accuracy)  {
+    public double[] AdaptiveSwimRho(double radius, double accuracy) {
+        return this.leasing(() -> this.adaptiveSwimRho(radius, accuracy));
+    }
+
+    private double[] adaptiveSwimRho(double radius, double accuracy)  {
         System.out.println("Don't use yet");
 
         double[] value = new double[8];
@@ -1,7 +1,9 @@
 package org.jlab.clas.swimtools;
 import cnuphys.magfield.MagneticFields;
 
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -15,7 +17,8 @@ public class Swimmer {
 
     public static Logger LOGGER = Logger.getLogger(Swimmer.class.getName());
     
-    private static HashMap<Thread, ProbeCollection> swimmers = new HashMap<>();
+    // weak keys, so probe collections of finished threads can be collected:
+    private static final Map<Thread, ProbeCollection> swimmers = Collections.synchronizedMap(new WeakHashMap<>());
     
     public static ProbeCollection getProbeCollection(Thread thr){
         return swimmers.get(thr);
@@ -23,6 +26,35 @@ public class Swimmer {
     public static void put(Thread thr, ProbeCollection PC) {
         swimmers.put(thr, PC);
     }
+
+    private static volatile ProbeCollectionPool probePool = null;
+    private static int probePoolCapacity = Integer.getInteger("swimtools.probes",
+            Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Set the maximum number of probe collections used by all {@link Swim} instances.
+     * Only effective before the pool is first used.
+     * @param capacity maximum number of probe collections
+     */
+    public static synchronized void setProbePoolCapacity(int capacity) {
+        if (probePool != null) {
+            LOGGER.log(Level.WARNING, "Probe pool already in use with capacity {0}, ignoring new capacity.",
+                    probePool.getCapacity());
+            return;
+        }
+        probePoolCapacity = capacity;
+    }
+
+    public static ProbeCollectionPool getProbePool() {
+        ProbeCollectionPool pool = probePool;
+        if (pool == null) {
+            synchronized (Swimmer.class) {
+                if (probePool == null) probePool = new ProbeCollectionPool(probePoolCapacity);
+                pool = probePool;
+            }
+        }
+        return pool;
+    }
     private static float szShift = 0;
     public static synchronized void set_zShift(float shift){ //solenoid z shift
         szShift = shift;
@@ -0,0 +1,75 @@
+package org.jlab.clas.swimtools;
+
+import cnuphys.magfield.MagneticFields;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import org.jlab.utils.CLASResources;
+
+/**
+ * Compares the tabulated propagation between the DC region midplanes with
+ * swimming the same states.
+ */
+public class FieldIntegralTableTest {
+
+    // approximate region midplanes in the tilted sector system (cm)
+    static final double Z1 = 229.0;
+    static final double Z2 = 352.0;
+    static final double Z3 = 489.0;
+
+    @Test
+    public void testTableAgainstSwim() throws Exception {
+
+        System.setProperty("CLAS12DIR", "../../");
+
+        String mapDir = CLASResources.getResourcePath("etc")+"/data/magfield";
+        MagneticFields.getInstance().initializeMagneticFields(mapDir,
+                "Symm_torus_r2501_phi16_z251_24Apr2018.dat","Symm_solenoid_r601_phi1_z1201_13June2018.dat");
+
+        File dir = Files.createTempDirectory("field-integrals").toFile();
+        System.setProperty("swimtools.tabledir", dir.getPath());
+
+        FieldIntegralTable table = FieldIntegralTable.getInstance(Z1, Z2, Z3);
+        assertEquals(2, table.getNumEnds());
+
+        Random rnd = new Random(12345);
+        Swim swim = new Swim();
+        double[] result = new double[5];
+        int n = 0;
+        double sumDx = 0, sumDy = 0, sumBdl = 0;
+        for (int i = 0; i < 200; i++) {
+            int q = rnd.nextBoolean() ? 1 : -1;
+            double p = 0.6 + 7.4 * rnd.nextDouble();
+            double x = Z1 * 0.6 * (rnd.nextDouble() - 0.5);
+            double y = Z1 * 0.3 * (rnd.nextDouble() - 0.5);
+            double tx = x / Z1 + 0.05 * (rnd.nextDouble() - 0.5);
+            double ty = y / Z1 + 0.05 * (rnd.nextDouble() - 0.5);
+            int end = i % 2;
+
+            if (!table.propagate(1, x, y, tx, ty, q / p, end, result)) continue;
+
+            double pz = p / Math.sqrt(1 + tx * tx + ty * ty);
+            swim.SetSwimParameters(x, y, Z1, tx * pz, ty * pz, pz, q);
+            double[] R = swim.SwimToPlaneTiltSecSysBdlXZPlane(1, end == 0 ? Z2 : Z3);
+            if (R == null || R[5] <= 0) continue;
+
+            double dx = Math.abs(result[0] - R[0]);
+            double dy = Math.abs(result[1] - R[1]);
+            assertTrue("x differs by " + dx + " cm", dx < 10);
+            assertTrue("y differs by " + dy + " cm", dy < 10);
+            assertEquals(R[3] / R[5], result[2], 0.05);
+            assertEquals(R[4] / R[5], result[3], 0.05);
+            sumDx += dx;
+            sumDy += dy;
+            sumBdl += Math.abs(result[4] - R[7]) / Math.max(Math.abs(R[7]), 1);
+            n++;
+        }
+        assertTrue(n > 100);
+        assertTrue("mean x difference " + sumDx / n + " cm", sumDx / n < 2);
+        assertTrue("mean y difference " + sumDy / n + " cm", sumDy / n < 2);
+        assertTrue("mean relative Bdl difference " + sumBdl / n, sumBdl / n < 0.05);
+    }
+}
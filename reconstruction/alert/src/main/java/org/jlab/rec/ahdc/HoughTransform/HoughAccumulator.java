@@ -0,0 +1,190 @@
+package org.jlab.rec.ahdc.HoughTransform;
+
+import org.jlab.rec.ahdc.Cluster.Cluster;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Hough accumulator in (theta, rho) of the clusters' conformal coordinates
+ * (u, v), with the binning of {@link HoughTransform}.
+ *
+ * Each occupied (u, v) cell votes once, when its first cluster is added, and
+ * its votes are removed when its last cluster is removed.  The maximum is
+ * found with a priority queue of the non-empty bins, updated lazily.
+ */
+public class HoughAccumulator {
+
+    public static final int MATRIX_SIZE = 300;
+    public static final int NBINS       = MATRIX_SIZE + 1;
+
+    // theta values of HoughTransform, with their bin, sine and cosine
+    private static final int[]    THETA_BIN;
+    private static final double[] COS_THETA;
+    private static final double[] SIN_THETA;
+    static {
+        ArrayList<Double> theta_ = new ArrayList<>();
+        for(double number = 0.1; number <= Math.PI + 0.1; number += (Math.PI)/1500){
+            theta_.add(number);
+        }
+        THETA_BIN = new int[theta_.size()];
+        COS_THETA = new double[theta_.size()];
+        SIN_THETA = new double[theta_.size()];
+        for(int t = 0; t < theta_.size(); t++){
+            double theta = theta_.get(t);
+            double new_theta = (theta - 0.1) / Math.PI;
+            THETA_BIN[t] = (int)(new_theta * MATRIX_SIZE);
+            COS_THETA[t] = Math.cos(theta);
+            SIN_THETA[t] = Math.sin(theta);
+        }
+    }
+
+    private static class Cell {
+        int   multiplicity = 0;
+        int[] bins;   // accumulator bins voted for, run-length encoded with
+        int[] counts; // the number of consecutive theta values in each bin
+    }
+
+    private final int[]              accumulator = new int[NBINS * NBINS];
+    private final boolean[]          masked      = new boolean[NBINS * NBINS];
+    private final Map<Integer, Cell> cells       = new HashMap<>();
+    private final PriorityQueue<Long> peaks;
+
+    /**
+     * @param clusters the clusters to vote
+     */
+    public HoughAccumulator(List<Cluster> clusters) {
+        for(Cluster cluster : clusters) {
+            this.add(cluster);
+        }
+        ArrayList<Long> keys = new ArrayList<>();
+        for(int bin = 0; bin < accumulator.length; bin++) {
+            if(accumulator[bin] > 0) keys.add(key(bin, accumulator[bin]));
+        }
+        peaks = new PriorityQueue<>(keys);
+    }
+
+    /**
+     * @param cluster a cluster
+     * @return the index of the cluster's (u, v) cell, or -1 if it is outside the accumulator
+     */
+    public static int get_cell(Cluster cluster) {
+        double new_u = (cluster.get_U() + 0.06) / 0.12;
+        double new_v = (cluster.get_V() + 0.06) / 0.12;
+        int u = (int) (new_u * MATRIX_SIZE);
+        int v = (int) (new_v * MATRIX_SIZE);
+        if(u < 0 || u >= NBINS || v < 0 || v >= NBINS) return -1;
+        return u * NBINS + v;
+    }
+
+    /**
+     * Orders the bins by decreasing content, then by increasing theta and
+     * rho bin, as the row-major search of {@link HoughTransform}, with
+     * PriorityQueue's smallest element first.
+     */
+    private static long key(int bin, int content) {
+        return -(((long) content << 20) | (0xFFFFF - bin));
+    }
+
+    private void vote(Cell cell, int sign) {
+        for(int k = 0; k < cell.bins.length; k++) {
+            accumulator[cell.bins[k]] += sign * cell.counts[k];
+        }
+    }
+
+    private void add(Cluster cluster) {
+        int index = get_cell(cluster);
+        if(index < 0) return;
+        Cell cell = cells.get(index);
+        if(cell == null) {
+            cell = new Cell();
+            cells.put(index, cell);
+        }
+        if(cell.multiplicity++ > 0) return;
+        if(cell.bins == null) {
+            int u = index / NBINS;
+            int v = index % NBINS;
+            int[] bins   = new int[THETA_BIN.length];
+            int[] counts = new int[THETA_BIN.length];
+            int n = 0;
+            for(int t = 0; t < THETA_BIN.length; t++) {
+                double rho = (((double) u) / MATRIX_SIZE * 0.06 - 0.03) * COS_THETA[t] + (((double) v) / MATRIX_SIZE * 0.06 - 0.03) * SIN_THETA[t];
+                double new_rho = (rho + 0.06) / 0.12;
+                int bin = THETA_BIN[t] * NBINS + (int)(new_rho * MATRIX_SIZE);
+                if(n > 0 && bins[n-1] == bin) {
+                    counts[n-1]++;
+                }
+                else {
+                    bins[n]   = bin;
+                    counts[n] = 1;
+                    n++;
+                }
+            }
+            cell.bins   = Arrays.copyOf(bins, n);
+            cell.counts = Arrays.copyOf(counts, n);
+        }
+        this.vote(cell, +1);
+    }
+
+    /**
+     * Removes a cluster, and the votes of its cell if it was the last one.
+     *
+     * @param cluster a cluster added before
+     */
+    public void remove(Cluster cluster) {
+        int index = get_cell(cluster);
+        if(index < 0) return;
+        Cell cell = cells.get(index);
+        if(cell == null || cell.multiplicity == 0) return;
+        if(--cell.multiplicity > 0) return;
+        this.vote(cell, -1);
+        int last = -1;
+        for(int k = 0; k < cell.bins.length; k++) {
+            int bin = cell.bins[k];
+            if(bin != last && accumulator[bin] > 0) peaks.add(key(bin, accumulator[bin]));
+            last = bin;
+        }
+    }
+
+    /**
+     * Excludes a bin and its neighbours from the peak search.
+     *
+     * @param i the theta bin
+     * @param j the rho bin
+     */
+    public void mask(int i, int j) {
+        for(int ii = -1; ii < 2; ii++) {
+            for(int jj = -1; jj < 2; jj++) {
+                if(i + ii < 0 || i + ii >= NBINS || j + jj < 0 || j + jj >= NBINS) continue;
+                masked[(i + ii) * NBINS + j + jj] = true;
+            }
+        }
+    }
+
+    /**
+     * @return the bin with the largest content, the first one in theta and
+     * rho order if several, or -1 if all bins are empty or masked
+     */
+    public int get_peak() {
+        while(!peaks.isEmpty()) {
+            long key = -peaks.peek();
+            int bin = 0xFFFFF - (int) (key & 0xFFFFF);
+            int content = (int) (key >> 20);
+            if(!masked[bin] && accumulator[bin] == content) return bin;
+            peaks.poll();
+        }
+        return -1;
+    }
+
+    /**
+     * @param bin a bin
+     * @return the content of the bin, 0 if it is masked
+     */
+    public int get_content(int bin) {
+        return masked[bin] ? 0 : accumulator[bin];
+    }
+}
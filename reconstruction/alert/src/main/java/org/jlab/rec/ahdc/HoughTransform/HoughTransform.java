@@ -52,7 +52,10 @@ public class HoughTransform {
                 for(int i = 0; i<delete_i_max.size(); i++){
                     for(int ii = -1; ii<2; ii++ ){
                         for(int jj = -1; jj<2; jj++){
-                            C.set(delete_i_max.get(i) + ii, delete_j_max.get(i) + jj, 0);
+                            int i_delete = delete_i_max.get(i) + ii;
+                            int j_delete = delete_j_max.get(i) + jj;
+                            if(i_delete < 0 || i_delete > matrix_size || j_delete < 0 || j_delete > matrix_size){continue;}
+                            C.set(i_delete, j_delete, 0);
                         }
                     }
                 }
@@ -75,78 +78,88 @@ public class HoughTransform {
 
             if(max_Element < 6){break;}
 
-            double theta = ((double) i_max) / matrix_size * Math.PI + 0.1;
-            double rho = ((double) j_max) / matrix_size *  0.12 - 0.06;
+            ArrayList<Cluster> cluster_track = find_track_clusters(AHDC_Clusters, i_max, j_max, matrix_size);
 
+            if(cluster_track.size() > 2){
+                Track track = new Track(cluster_track);
+                _AHDCTracks.add(track);
+                for(Cluster cluster : cluster_track){AHDC_Clusters.remove(cluster);}
+            }
+            else{
+                delete = true;
+                delete_i_max.add(i_max);
+                delete_j_max.add(j_max);
+            }
+        }
+    }
 
-            if(rho == 0.0){rho = 0.0000001;}
-
-            double r = Math.abs(1/(2*rho));
-            double a = Math.cos(theta)/(2*rho);
-            double b = Math.sin(theta)/(2*rho);
-
-            ArrayList<Cluster> possible_cluster_of_track = new ArrayList<>();
-            for(Cluster cluster : AHDC_Clusters){
-                double distance = Math.abs(Math.sqrt(Math.pow((cluster.get_X() - a),2)  + Math.pow((cluster.get_Y() - b),2)) - r);
-                if(distance < 4){
-                    possible_cluster_of_track.add(cluster);
-                }
+    /**
+     * Selects the clusters of the track candidate at a peak of the accumulator,
+     * at most one cluster per radius.
+     *
+     * @param AHDC_Clusters the clusters not yet assigned to a track
+     * @param i_max the theta bin of the peak
+     * @param j_max the rho bin of the peak
+     * @param matrix_size the number of bins of the accumulator, minus one
+     * @return the clusters of the track candidate, possibly empty
+     */
+    ArrayList<Cluster> find_track_clusters(List<Cluster> AHDC_Clusters, int i_max, int j_max, int matrix_size){
+        double theta = ((double) i_max) / matrix_size * Math.PI + 0.1;
+        double rho = ((double) j_max) / matrix_size *  0.12 - 0.06;
+
+
+        if(rho == 0.0){rho = 0.0000001;}
+
+        double r = Math.abs(1/(2*rho));
+        double a = Math.cos(theta)/(2*rho);
+        double b = Math.sin(theta)/(2*rho);
+
+        ArrayList<Cluster> possible_cluster_of_track = new ArrayList<>();
+        for(Cluster cluster : AHDC_Clusters){
+            double distance = Math.abs(Math.sqrt(Math.pow((cluster.get_X() - a),2)  + Math.pow((cluster.get_Y() - b),2)) - r);
+            if(distance < 4){
+                possible_cluster_of_track.add(cluster);
             }
+        }
 
-            if(possible_cluster_of_track.size() > 0){
-                double x_0 = possible_cluster_of_track.get(0).get_X();
-                double y_0 = possible_cluster_of_track.get(0).get_Y();
+        ArrayList<Cluster> cluster_track = new ArrayList<>();
+        if(possible_cluster_of_track.size() > 0){
+            double x_0 = possible_cluster_of_track.get(0).get_X();
+            double y_0 = possible_cluster_of_track.get(0).get_Y();
 
-                ArrayList<Cluster> cluster_track = new ArrayList<>();
-                ArrayList<Cluster> cluster_to_remove = new ArrayList<>();
+            ArrayList<Cluster> cluster_to_remove = new ArrayList<>();
 
-                for(Cluster other_cluster : possible_cluster_of_track){
-                    double distance = Math.sqrt( (other_cluster.get_X() - x_0)*(other_cluster.get_X() - x_0)
-                            + (other_cluster.get_Y() - y_0)*(other_cluster.get_Y() - y_0) );
-                    if(distance < 50){
-                        cluster_track.add(other_cluster);
-                    }
-                }
-
-                for(int i = 0; i < cluster_track.size()-1; i++){
-                    if(cluster_track.get(i).get_Radius() == cluster_track.get(i+1).get_Radius()){
-                        double distance_1 = Math.abs(Math.sqrt( (cluster_track.get(i).get_X() - a)*(cluster_track.get(i).get_X() - a)
-                                + (cluster_track.get(i).get_Y() - b)*(cluster_track.get(i).get_Y() - b)) - r);
-                        double distance_2 = Math.abs(Math.sqrt( (cluster_track.get(i+1).get_X() - a)*(cluster_track.get(i+1).get_X() - a)
-                                + (cluster_track.get(i+1).get_Y() - b)*(cluster_track.get(i+1).get_Y() - b)) - r);
-                        if(distance_1<distance_2){cluster_to_remove.add(cluster_track.get(i+1));}
-                        else{cluster_to_remove.add(cluster_track.get(i));}
-                    }
-                }
-
-                ArrayList<Cluster> cluster_to_remove_without_double = new ArrayList<>();
-                for(Cluster cluster : cluster_to_remove){
-                    if(!containsCluster(cluster_to_remove_without_double, cluster.get_Phi(), cluster.get_Radius())){
-                        cluster_to_remove_without_double.add(cluster);
-                    }
+            for(Cluster other_cluster : possible_cluster_of_track){
+                double distance = Math.sqrt( (other_cluster.get_X() - x_0)*(other_cluster.get_X() - x_0)
+                        + (other_cluster.get_Y() - y_0)*(other_cluster.get_Y() - y_0) );
+                if(distance < 50){
+                    cluster_track.add(other_cluster);
                 }
+            }
 
-                for(Cluster cluster : cluster_to_remove_without_double){
-                    cluster_track.remove(cluster);
+            for(int i = 0; i < cluster_track.size()-1; i++){
+                if(cluster_track.get(i).get_Radius() == cluster_track.get(i+1).get_Radius()){
+                    double distance_1 = Math.abs(Math.sqrt( (cluster_track.get(i).get_X() - a)*(cluster_track.get(i).get_X() - a)
+                            + (cluster_track.get(i).get_Y() - b)*(cluster_track.get(i).get_Y() - b)) - r);
+                    double distance_2 = Math.abs(Math.sqrt( (cluster_track.get(i+1).get_X() - a)*(cluster_track.get(i+1).get_X() - a)
+                            + (cluster_track.get(i+1).get_Y() - b)*(cluster_track.get(i+1).get_Y() - b)) - r);
+                    if(distance_1<distance_2){cluster_to_remove.add(cluster_track.get(i+1));}
+                    else{cluster_to_remove.add(cluster_track.get(i));}
                 }
+            }
 
-                if(cluster_track.size() > 2){
-                    Track track = new Track(cluster_track);
-                    _AHDCTracks.add(track);
-                    for(Cluster cluster : cluster_track){AHDC_Clusters.remove(cluster);}
-                }
-                else{
-                    delete = true;
-                    delete_i_max.add(i_max);
-                    delete_j_max.add(j_max);
+            ArrayList<Cluster> cluster_to_remove_without_double = new ArrayList<>();
+            for(Cluster cluster : cluster_to_remove){
+                if(!containsCluster(cluster_to_remove_without_double, cluster.get_Phi(), cluster.get_Radius())){
+                    cluster_to_remove_without_double.add(cluster);
                 }
             }
-            if(possible_cluster_of_track.size() == 0){
-                delete = true;
-                delete_i_max.add(i_max);
-                delete_j_max.add(j_max);
+
+            for(Cluster cluster : cluster_to_remove_without_double){
+                cluster_track.remove(cluster);
             }
         }
+        return cluster_track;
     }
 
     public boolean containsCluster(final List<Cluster> list, double phi, double radius){
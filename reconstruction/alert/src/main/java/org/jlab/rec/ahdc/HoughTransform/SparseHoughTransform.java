@@ -0,0 +1,41 @@
+package org.jlab.rec.ahdc.HoughTransform;
+
+import org.jlab.rec.ahdc.Cluster.Cluster;
+import org.jlab.rec.ahdc.Track.Track;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Same track finding as {@link HoughTransform}, with the accumulator filled
+ * once per event and updated as clusters are assigned to tracks, instead of
+ * being rebuilt for every track.  See {@link HoughAccumulator}.
+ */
+public class SparseHoughTransform extends HoughTransform {
+
+    @Override
+    public void find_tracks(List<Cluster> AHDC_Clusters){
+        HoughAccumulator accumulator = new HoughAccumulator(AHDC_Clusters);
+
+        while(true){
+            int peak = accumulator.get_peak();
+            if(peak < 0 || accumulator.get_content(peak) < 6){break;}
+
+            int i_max = peak / HoughAccumulator.NBINS;
+            int j_max = peak % HoughAccumulator.NBINS;
+
+            ArrayList<Cluster> cluster_track = find_track_clusters(AHDC_Clusters, i_max, j_max, HoughAccumulator.MATRIX_SIZE);
+
+            if(cluster_track.size() > 2){
+                Track track = new Track(cluster_track);
+                get_AHDCTracks().add(track);
+                for(Cluster cluster : cluster_track){
+                    if(AHDC_Clusters.remove(cluster)){accumulator.remove(cluster);}
+                }
+            }
+            else{
+                accumulator.mask(i_max, j_max);
+            }
+        }
+    }
+}
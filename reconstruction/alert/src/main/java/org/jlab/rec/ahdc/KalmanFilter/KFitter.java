@@ -103,10 +103,12 @@ public class KFitter {
 		// Inn = z(k) - h(xHat(k)-)
 		RealVector innovation = z.subtract(h);
 
-		double chi2inc = innovation.dotProduct(MatrixUtils.inverse(S).operate(innovation));
+		RealMatrix SInverse = MatrixUtils.inverse(S);
+
+		double chi2inc = innovation.dotProduct(SInverse.operate(innovation));
 		chi2 += chi2inc;
 
-		RealMatrix kalmanGain = errorCovariance.multiply(measurementMatrixT).multiply(MatrixUtils.inverse(S));
+		RealMatrix kalmanGain = errorCovariance.multiply(measurementMatrixT).multiply(SInverse);
 
 		// update estimate with measurement z(k) xHat(k) = xHat(k)- + K * Inn
 		stateEstimation = stateEstimation.add(kalmanGain.operate(innovation));
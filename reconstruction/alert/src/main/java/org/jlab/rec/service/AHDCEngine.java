@@ -15,6 +15,7 @@ import org.jlab.rec.ahdc.Hit.Hit;
 import org.jlab.rec.ahdc.Hit.HitReader;
 import org.jlab.rec.ahdc.Hit.TrueHit;
 import org.jlab.rec.ahdc.HoughTransform.HoughTransform;
+import org.jlab.rec.ahdc.HoughTransform.SparseHoughTransform;
 import org.jlab.rec.ahdc.KalmanFilter.KalmanFilter;
 import org.jlab.rec.ahdc.KalmanFilter.MaterialMap;
 import org.jlab.rec.ahdc.PreCluster.PreCluster;
@@ -97,7 +98,7 @@ public class AHDCEngine extends ReconstructionEngine {
 				AHDC_Tracks = distance.get_AHDCTracks();
 			} else if (findingMethod.equals("hough")) {
 				// IV) b) Hough Transform method
-				HoughTransform houghtransform = new HoughTransform();
+				HoughTransform houghtransform = new SparseHoughTransform();
 				houghtransform.find_tracks(AHDC_Clusters);
 				AHDC_Tracks = houghtransform.get_AHDCTracks();
 			}
@@ -1,15 +1,24 @@
 package org.jlab.service.bg;
 
 import java.io.File;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.jlab.analysis.eventmerger.EventMerger;
 import org.jlab.clas.reco.ReconstructionEngine;
 import org.jlab.io.base.DataEvent;
-import org.jlab.io.hipo.HipoDataSource;
 
 /**
+ * Merges pairs of background events into the signal events.
+ *
+ * The pair merged with a signal event is chosen by its RUN::config event
+ * number, see {@link BackgroundEventPool}, so that it does not depend on
+ * the number of threads.  With reuseEvents=false, two signal events whose
+ * numbers map to the same pair are an error.  The background events are
+ * read ahead in the order of the event numbers, so sparse event numbers,
+ * e.g. from skims, defeat the read-ahead and each event waits for its pair
+ * to be read.
  *
  * @author baltzell
  */
@@ -21,14 +30,14 @@ public class BackgroundEngine extends ReconstructionEngine {
     public static final String CONF_SUPPRESS_DOUBLES = "suppressDoubles";
     public static final String CONF_PRESERVE_ORDER = "preserveOrder";
     public static final String CONF_REUSE_EVENTS = "reuseEvents";
+    public static final String CONF_POOL_SIZE = "poolSize";
 
     static final Logger logger = Logger.getLogger(BackgroundEngine.class.getName());
 
-    int filesUsed = 0;
     boolean reuseEvents = true;
     EventMerger bgmerger = null;
-    HipoDataSource bgreader = null;
-    LinkedList<String> bgfilenames = new LinkedList<>();
+    BackgroundEventPool bgpool = null;
+    List<String> bgfilenames = new ArrayList<>();
 
     public BackgroundEngine() {
         super("BG", "baltzell", "1.0");
@@ -47,7 +56,8 @@ public class BackgroundEngine extends ReconstructionEngine {
         String orders = getEngineConfigString(CONF_ORDERS,"NOMINAL");
         boolean suppressDoubles = Boolean.valueOf(getEngineConfigString(CONF_SUPPRESS_DOUBLES,"true"));
         boolean preserveOrder = Boolean.valueOf(getEngineConfigString(CONF_PRESERVE_ORDER,"true"));
-        boolean reuseEvents = Boolean.valueOf(getEngineConfigString(CONF_REUSE_EVENTS,"false"));
+        reuseEvents = Boolean.valueOf(getEngineConfigString(CONF_REUSE_EVENTS,"true"));
+        int poolSize = Integer.parseInt(getEngineConfigString(CONF_POOL_SIZE,"64"));
         for (String filename : filenames) {
             File f = new File(filename);
             if (!f.exists() || !f.isFile() || !f.canRead()) {
@@ -58,35 +68,25 @@ public class BackgroundEngine extends ReconstructionEngine {
             bgfilenames.add(filename);
         }
         bgmerger = new EventMerger(detectors.split(","), orders.split(","), suppressDoubles, preserveOrder);
-        openNextFile();
+        if (bgpool != null) bgpool.close();
+        bgpool = new BackgroundEventPool(new ArrayList<>(bgfilenames), reuseEvents, bgmerger, poolSize);
         return true;
     }
 
-    private void openNextFile() {
-        if (filesUsed>0 && filesUsed%bgfilenames.size()==0) {
-            if (reuseEvents) logger.info("BackgroundEngine::  Reopening previously used file.");
-            else throw new RuntimeException("BackgroundEngine::  Ran out of events.");
-        }
-        String filename = bgfilenames.remove();
-        bgfilenames.add(filename);
-        bgreader = new HipoDataSource();
-        bgreader.open(filename);
-        filesUsed++;
-    }
-
-    synchronized public DataEvent getBackgroundEvent() {
-        if (!bgreader.hasEvent()) openNextFile();
-        return bgreader.getNextEvent();
-    }
-
     @Override
     public boolean processDataEvent(DataEvent event) {
-        if (!bgfilenames.isEmpty()) {
-            DataEvent a = getBackgroundEvent();
-            DataEvent b = getBackgroundEvent();
-            bgmerger.mergeEvents(event, a, b);
+        if (bgpool != null) {
+            if (event.hasBank("RUN::config"))
+                bgmerger.mergeEvents(event, bgpool.take(event.getBank("RUN::config").getInt("event", 0)));
+            else
+                bgmerger.mergeEvents(event, bgpool.take());
         }
         return true;
     }
 
+    @Override
+    public void destroy() {
+        if (bgpool != null) bgpool.close();
+    }
+
 }
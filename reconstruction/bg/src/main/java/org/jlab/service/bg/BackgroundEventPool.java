@@ -0,0 +1,228 @@
+package org.jlab.service.bg;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.jlab.analysis.eventmerger.ADCTDCMerger;
+import org.jlab.analysis.eventmerger.EventMerger;
+import org.jlab.io.base.DataEvent;
+import org.jlab.io.hipo.HipoDataSource;
+
+/**
+ * Pairs of background events, read from the list of files and with their
+ * hits parsed ahead of time by a dedicated thread.
+ *
+ * Pair k is made of events 2k and 2k+1 of the files taken in order, and
+ * each signal event gets the pair numbered by its event number modulo the
+ * number of pairs, so the background merged with an event does not depend
+ * on the number of worker threads or on the order in which they process
+ * events.  If events are not reused, a pair is handed out only once, and
+ * a signal event whose pair was already taken is an error.  Signal events
+ * without an event number get the next pair instead, the lowest one not
+ * taken yet if events are not reused.  The reader serves the pairs
+ * requested first, then reads ahead the following ones, up to the pool
+ * size, so sparse event numbers (e.g. skims) defeat the read-ahead.
+ */
+public class BackgroundEventPool {
+
+    static final Logger logger = Logger.getLogger(BackgroundEventPool.class.getName());
+
+    private final List<String> filenames;
+    private final boolean reuseEvents;
+    private final EventMerger bgmerger;
+    private final int size;
+    private final Thread reader;
+
+    // first event of each file in the sequence of all events, and their total:
+    private final long[] offsets;
+    private final long pairs;
+
+    // guarded by this:
+    private final TreeMap<Long,ADCTDCMerger> ready = new TreeMap<>();
+    // number of takers waiting for each pair:
+    private final TreeMap<Long,Integer> wanted = new TreeMap<>();
+    // pairs handed out, if events are not reused:
+    private final BitSet used = new BitSet();
+    private long unnumbered = 0;
+    private long next = 0;
+    private RuntimeException failure = null;
+
+    /**
+     * @param filenames background files
+     * @param reuseEvents whether to hand out a pair more than once
+     * @param bgmerger merger used to parse the hits
+     * @param size the number of pairs read ahead
+     */
+    public BackgroundEventPool(List<String> filenames, boolean reuseEvents, EventMerger bgmerger, int size) {
+        this.filenames = filenames;
+        this.reuseEvents = reuseEvents;
+        this.bgmerger = bgmerger;
+        this.size = Math.max(1, size);
+        this.offsets = new long[filenames.size()+1];
+        for (int i=0; i<filenames.size(); i++) {
+            HipoDataSource source = new HipoDataSource();
+            source.open(filenames.get(i));
+            offsets[i+1] = offsets[i] + source.getSize();
+            source.close();
+        }
+        this.pairs = offsets[filenames.size()] / 2;
+        if (pairs == 0) {
+            failure = new RuntimeException("BackgroundEngine::  No events in background files.");
+        }
+        this.reader = new Thread(this::read, "BackgroundEventPool-reader");
+        this.reader.setDaemon(true);
+        if (pairs > 0) this.reader.start();
+    }
+
+    /**
+     * @return the number of pairs of events in the files
+     */
+    public long getPairCount() {
+        return this.pairs;
+    }
+
+    /**
+     * Waits for the pair of a signal event.
+     * @param eventNumber the event number of the signal event
+     * @return the background hits of the pair, null if one of its events
+     * has no RUN::config bank
+     * @throws RuntimeException if the pair was already taken and events are
+     * not reused
+     */
+    public ADCTDCMerger take(long eventNumber) {
+        synchronized (this) {
+            if (failure != null) throw failure;
+            final long k = Math.floorMod(eventNumber, pairs);
+            if (!reuseEvents) {
+                if (used.get((int) k)) {
+                    throw new RuntimeException("BackgroundEngine::  Ran out of events, pair "+k+" for event "+eventNumber+" already used.");
+                }
+                used.set((int) k);
+            }
+            return this.await(k);
+        }
+    }
+
+    /**
+     * Waits for a pair for a signal event without an event number.
+     * @return the background hits of the pair, null if one of its events
+     * has no RUN::config bank
+     * @throws RuntimeException if all pairs were taken and events are not
+     * reused
+     */
+    public ADCTDCMerger take() {
+        synchronized (this) {
+            if (failure != null) throw failure;
+            final long k;
+            if (reuseEvents) {
+                k = Math.floorMod(unnumbered++, pairs);
+            }
+            else {
+                k = used.nextClearBit(0);
+                if (k >= pairs) throw new RuntimeException("BackgroundEngine::  Ran out of events.");
+                used.set((int) k);
+            }
+            return this.await(k);
+        }
+    }
+
+    private synchronized ADCTDCMerger await(long k) {
+        wanted.merge(k, 1, Integer::sum);
+        notifyAll();
+        try {
+            while (!ready.containsKey(k)) {
+                if (failure != null) throw failure;
+                wait();
+            }
+            return ready.remove(k);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("BackgroundEngine::  Interrupted waiting for background events.");
+        }
+        finally {
+            wanted.computeIfPresent(k, (key, n) -> n > 1 ? n-1 : null);
+            notifyAll();
+        }
+    }
+
+    /**
+     * Stops reading ahead.
+     */
+    public void close() {
+        reader.interrupt();
+    }
+
+    // the next pair to read: the first one requested and not ready, else
+    // the next one ahead if there is room, skipping pairs already used
+    private synchronized long nextPair() throws InterruptedException {
+        while (true) {
+            for (long k : wanted.keySet()) {
+                if (!ready.containsKey(k)) return k;
+            }
+            if (ready.size() < Math.min(size, pairs)) {
+                for (long n = 0; n < pairs; n++, next++) {
+                    long k = next % pairs;
+                    if (!ready.containsKey(k) && (reuseEvents || !used.get((int) k))) return k;
+                }
+            }
+            wait();
+        }
+    }
+
+    private synchronized void put(long k, ADCTDCMerger merger) {
+        ready.put(k, merger);
+        next = k+1;
+        // pairs left behind by gaps in the event numbers:
+        Iterator<Long> it = ready.keySet().iterator();
+        while (ready.size() > size && it.hasNext()) {
+            long old = it.next();
+            if (old != k && !wanted.containsKey(old)) it.remove();
+        }
+        notifyAll();
+    }
+
+    private void read() {
+        Map<Integer,HipoDataSource> sources = new HashMap<>();
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                final long k = nextPair();
+                List<DataEvent> events = new ArrayList<>(2);
+                for (long index = 2*k; index <= 2*k+1; index++) {
+                    int file = 0;
+                    while (offsets[file+1] <= index) file++;
+                    final int f = file;
+                    HipoDataSource source = sources.computeIfAbsent(f, x -> {
+                        HipoDataSource s = new HipoDataSource();
+                        s.open(filenames.get(x));
+                        return s;
+                    });
+                    events.add(source.gotoEvent((int) (index - offsets[f])));
+                }
+                put(k, bgmerger.readBackground(events.get(0), events.get(1)));
+            }
+        }
+        catch (InterruptedException e) {
+            // closed
+        }
+        catch (RuntimeException e) {
+            logger.log(Level.WARNING, e.getMessage());
+            synchronized (this) {
+                failure = e;
+            }
+        }
+        finally {
+            for (HipoDataSource source : sources.values()) source.close();
+            synchronized (this) {
+                if (failure == null) failure = new RuntimeException("BackgroundEngine::  Background reading stopped.");
+                notifyAll();
+            }
+        }
+    }
+}
@@ -526,6 +526,9 @@ public class Constants {
             case "EJML":
                 KFMatrixLibrary = Libr.EJML;    
                 break;
+            case "KF5":
+                KFMatrixLibrary = Libr.KF5;
+                break;
             default:
                 KFMatrixLibrary = Libr.EJML;
         } 
@@ -90,17 +90,147 @@ public class MakerCA {
         return true;
     }
 
+    /**
+     * Region of the cross, ordered from the inside out: 1-3 for SVT, 4-9
+     * for BMT.
+     */
+    private static int getRegion(Cross c) {
+        int reg = c.getRegion();
+        if (c.getDetector() == DetectorType.BMT) {
+            reg = 3 + Geometry.getInstance().getBMT().getLayer(reg, c.getType());
+        }
+        return reg;
+    }
+
+    /**
+     * Crosses by region and, in the XY plane, by azimuth, to find the
+     * crosses that may form a cell with a given one without testing all
+     * pairs. Candidates are a superset of the crosses passing the region
+     * and angle cuts of createCells, which are still all applied.
+     */
+    private class CrossIndex {
+
+        private static final int MAXDREG = 4;   // max region difference of a cell
+        private static final int NPHI = 72;
+        private static final double PHIBIN = 2 * Math.PI / NPHI;
+
+        private final int[] regions;
+        private final double[] phis;
+        private final double[] radii;
+        private final Map<Integer, List<Integer>> byRegion = new HashMap<>();
+        // in XY, per region: crosses by azimuthal bin, and those without azimuth (e.g. BMT C)
+        private final Map<Integer, List<List<Integer>>> byPhi = new HashMap<>();
+        private final Map<Integer, List<Integer>> noPhi = new HashMap<>();
+        private final Map<Integer, double[]> radiusRange = new HashMap<>();
+        private final boolean usePhi;
+
+        CrossIndex(List<Cross> crs) {
+            regions = new int[crs.size()];
+            phis = new double[crs.size()];
+            radii = new double[crs.size()];
+            usePhi = _plane.equalsIgnoreCase("XY");
+            for (int i = 0; i < crs.size(); i++) {
+                Cross c = crs.get(i);
+                regions[i] = MakerCA.getRegion(c);
+                phis[i] = Math.atan2(c.getPoint().y(), c.getPoint().x());
+                radii[i] = c.getRadius();
+                byRegion.computeIfAbsent(regions[i], k -> new ArrayList<>()).add(i);
+                if (!usePhi) {
+                    continue;
+                }
+                if (hasPhi(i)) {
+                    List<List<Integer>> bins = byPhi.computeIfAbsent(regions[i], k -> newBins());
+                    bins.get(getPhiBin(phis[i])).add(i);
+                    double[] range = radiusRange.computeIfAbsent(regions[i], k -> new double[]{Double.MAX_VALUE, -Double.MAX_VALUE});
+                    range[0] = Math.min(range[0], radii[i]);
+                    range[1] = Math.max(range[1], radii[i]);
+                } else {
+                    noPhi.computeIfAbsent(regions[i], k -> new ArrayList<>()).add(i);
+                }
+            }
+        }
+
+        private List<List<Integer>> newBins() {
+            List<List<Integer>> bins = new ArrayList<>();
+            for (int i = 0; i < NPHI; i++) {
+                bins.add(new ArrayList<>());
+            }
+            return bins;
+        }
+
+        private int getPhiBin(double phi) {
+            int bin = (int) Math.floor((phi + Math.PI) / PHIBIN);
+            return ((bin % NPHI) + NPHI) % NPHI;
+        }
+
+        int getRegion(int i) {
+            return regions[i];
+        }
+
+        // the angle cut is not applied to crosses at the origin or without position in XY
+        private boolean hasPhi(int i) {
+            return Double.isFinite(radii[i]) && radii[i] > 0;
+        }
+
+        /**
+         * @param ic the index of the inner cross
+         * @return the indices of the crosses after it that may form a cell
+         * with it, in increasing order
+         */
+        List<Integer> getCandidates(int ic) {
+            List<Integer> candidates = new ArrayList<>();
+            for (int reg = regions[ic] + 1; reg <= regions[ic] + MAXDREG; reg++) {
+                if (!byRegion.containsKey(reg)) {
+                    continue;
+                }
+                if (!usePhi || !hasPhi(ic)) {
+                    candidates.addAll(byRegion.get(reg));
+                    continue;
+                }
+                if (noPhi.containsKey(reg)) {
+                    candidates.addAll(noPhi.get(reg));
+                }
+                if (!byPhi.containsKey(reg)) {
+                    continue;
+                }
+                // the maximum angle between the crosses, see checkAngles:
+                double[] range = radiusRange.get(reg);
+                double angle = Math.toRadians(Math.max(Constants.CAANGLE1 * (range[0] - radii[ic]),
+                                                       Constants.CAANGLE1 * (range[1] - radii[ic])) + Constants.CAANGLE2);
+                int bin0 = (int) Math.floor((phis[ic] - angle + Math.PI) / PHIBIN) - 1;
+                int bin1 = (int) Math.floor((phis[ic] + angle + Math.PI) / PHIBIN) + 1;
+                if (bin1 - bin0 + 1 >= NPHI) {
+                    bin0 = 0;
+                    bin1 = NPHI - 1;
+                }
+                for (int bin = bin0; bin <= bin1; bin++) {
+                    candidates.addAll(byPhi.get(reg).get(((bin % NPHI) + NPHI) % NPHI));
+                }
+            }
+            candidates.removeIf(jc -> jc <= ic);
+            Collections.sort(candidates);
+            return candidates;
+        }
+    }
+
     public void createCells(List<Cross> crs) {
+        this.createCells(crs, false);
+    }
+
+    /**
+     * @param crs the crosses
+     * @param allPairs true to test all the pairs of crosses instead of the
+     * candidates from the index, for checking the index
+     */
+    void createCells(List<Cross> crs, boolean allPairs) {
         // this function loops over the crosses and looks for pairs that pass the cuts
         //
         Collections.sort(crs);
         nodes = new ArrayList<>();
+        CrossIndex index = new CrossIndex(crs);
         for (int ic = 0; ic < crs.size(); ic++) {
             Cross a = crs.get(ic);
-            int aReg = a.getRegion();
-            if (a.getDetector() == DetectorType.BMT) {
-                aReg = 3 + Geometry.getInstance().getBMT().getLayer(aReg, a.getType());
-            }
+            int aReg = index.getRegion(ic);
 
             if (this._debug) {
                 System.out.println("\n cross a " + a.getId() + " " + a.getDetector().getName() + a.getType().getName() + " sect:" + a.getSector() + " reg:"
@@ -108,15 +238,21 @@ public class MakerCA {
                         + Geometry.getInstance().getBMT().getSector(1, a.getPoint().toVector3D().phi()));
             }
 
-//      	  for(int jc=0;jc<crs.size();jc++){
-            for (int jc = ic + 1; jc < crs.size(); jc++) {
+            List<Integer> candidates;
+            if (allPairs) {
+                // all the following crosses, as before the index:
+                candidates = new ArrayList<>();
+                for (int jc = ic + 1; jc < crs.size(); jc++) {
+                    candidates.add(jc);
+                }
+            } else {
+                candidates = index.getCandidates(ic);
+            }
+            for (int jc : candidates) {
                 Cross b = crs.get(jc);
 
                 // we skip same region crosses
-                int bReg = b.getRegion();
-                if (b.getDetector() == DetectorType.BMT) {
-                    bReg = 3 + Geometry.getInstance().getBMT().getLayer(bReg, b.getType());
-                }
+                int bReg = index.getRegion(jc);
 
                 if (this._debug) {
                     System.out.println(" cross b " + b.getId() + " " + b.getDetector().getName() + b.getType().getName() + " sect:" + b.getSector() + " reg:"
@@ -214,9 +350,21 @@ public class MakerCA {
         if (nodes == null) {
             return;
         }
+        // cells by the id of their first cross, in increasing order:
+        Map<Integer, List<Integer>> cellsByC1 = new HashMap<>();
+        for (int ic = 0; ic < nodes.size(); ic++) {
+            cellsByC1.computeIfAbsent(nodes.get(ic).getC1().getId(), k -> new ArrayList<>()).add(ic);
+        }
         for (int ic = 0; ic < nodes.size(); ic++) {
             Cell c = nodes.get(ic);
-            for (int jc = ic + 1; jc < nodes.size(); jc++) {
+            List<Integer> candidates = cellsByC1.get(c.getC2().getId());
+            if (candidates == null) {
+                continue;
+            }
+            for (int jc : candidates) {
+                if (jc <= ic) {
+                    continue;
+                }
                 Cell n = nodes.get(jc);
                 if (c.getNeighbors().contains(n)) {
                     continue;
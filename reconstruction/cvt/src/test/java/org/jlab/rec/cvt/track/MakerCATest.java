@@ -0,0 +1,107 @@
+package org.jlab.rec.cvt.track;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.jlab.detector.base.DetectorType;
+import org.jlab.geom.prim.Point3D;
+import org.jlab.rec.cvt.bmt.BMTType;
+import org.jlab.rec.cvt.cross.Cross;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the cells found from the candidates of the cross index are
+ * the same as those found by testing all the pairs of crosses.
+ */
+public class MakerCATest {
+
+    static final double[] RADII = {6.5, 9.3, 12.2}; // SVT regions
+
+    /**
+     * SVT crosses, on tracks from the beamline and random background, with
+     * some tracks crossing phi = +-pi.
+     */
+    private static List<Cross> createCrosses(Random random, int ntracks, int nbackground) {
+        List<Cross> crosses = new ArrayList<>();
+        int id = 1;
+        for (int i = 0; i < ntracks + nbackground; i++) {
+            boolean background = i >= ntracks;
+            double phi0 = i%4 == 0 ? Math.PI - 0.05*random.nextDouble() : Math.PI*(2*random.nextDouble()-1);
+            double curvature = 0.02*(random.nextDouble()-0.5);
+            double tanL = 2*(random.nextDouble()-0.5);
+            for (int region = 1; region <= 3; region++) {
+                if (background && random.nextBoolean()) continue;
+                double r = RADII[region-1] + 0.1*random.nextGaussian();
+                double phi = background ? Math.PI*(2*random.nextDouble()-1) : phi0 + curvature*r;
+                Cross cross = new Cross(DetectorType.BST, BMTType.UNDEFINED, 1, region, id++);
+                cross.setOrderedRegion(region);
+                cross.setPoint0(new Point3D(r*Math.cos(phi), r*Math.sin(phi), tanL*r));
+                cross.setPoint(cross.getPoint0());
+                crosses.add(cross);
+            }
+        }
+        return crosses;
+    }
+
+    private static MakerCA createMaker(String plane, boolean loose) {
+        MakerCA maker = new MakerCA(false);
+        maker.setPlane(plane);
+        if (loose) {
+            maker.setcosBtwCells(0.95);
+            maker.setabCrs(20);
+            maker.setaCvsR(45);
+        }
+        return maker;
+    }
+
+    private static void assertSameCells(List<Cell> expected, List<Cell> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getC1().getId(), actual.get(i).getC1().getId());
+            assertEquals(expected.get(i).getC2().getId(), actual.get(i).getC2().getId());
+            List<Cell> n1 = expected.get(i).getNeighbors();
+            List<Cell> n2 = actual.get(i).getNeighbors();
+            assertEquals(n1.size(), n2.size());
+            for (int j = 0; j < n1.size(); j++) {
+                assertEquals(n1.get(j).getC1().getId(), n2.get(j).getC1().getId());
+                assertEquals(n1.get(j).getC2().getId(), n2.get(j).getC2().getId());
+            }
+        }
+    }
+
+    private static void testEvents(String plane, boolean loose) {
+        Random random = new Random(12345);
+        int ncells = 0;
+        for (int event = 0; event < 200; event++) {
+            List<Cross> crosses = createCrosses(random, 1 + random.nextInt(20), random.nextInt(60));
+
+            MakerCA reference = createMaker(plane, loose);
+            reference.createCells(new ArrayList<>(crosses), true);
+            reference.findNeigbors();
+
+            MakerCA indexed = createMaker(plane, loose);
+            indexed.createCells(new ArrayList<>(crosses));
+            indexed.findNeigbors();
+
+            assertSameCells(reference.getNodes(), indexed.getNodes());
+            ncells += reference.getNodes().size();
+        }
+        assertTrue(ncells > 0);
+    }
+
+    @Test
+    public void testXY() {
+        testEvents("XY", false);
+    }
+
+    @Test
+    public void testXYLoose() {
+        testEvents("XY", true);
+    }
+
+    @Test
+    public void testZR() {
+        testEvents("ZR", false);
+    }
+}
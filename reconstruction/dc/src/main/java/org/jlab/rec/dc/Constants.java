@@ -14,6 +14,7 @@ import org.jlab.detector.geant4.v2.FTOFGeant4Factory;
 import org.jlab.detector.geom.RICH.RICHGeoFactory;
 import org.jlab.geom.base.ConstantProvider;
 import org.jlab.detector.calib.utils.ConstantsManager;
+import org.jlab.clas.tracking.utilities.MatrixOps.Libr;
 import org.jlab.geom.base.Detector;
 import org.jlab.rec.dc.trajectory.TrajectorySurfaces;
 import org.jlab.utils.groups.IndexedTable;
@@ -100,6 +101,7 @@ public class Constants {
     private boolean USEDOUBLETS = false;
     private boolean DCRBJITTER = false;
     private boolean SWAPDCRBBITS = false;
+    private Libr    KFMATRIXLIBRARY = Libr.JNP;
     
     // DATABASE TABLES
     public static final String TT             = "/daq/tt/dc";
@@ -366,6 +368,25 @@ public class Constants {
     public void setSWAPDCRBBITS(boolean SWAPDCRBBITS) {
         this.SWAPDCRBBITS = SWAPDCRBBITS;
     }
+
+    public Libr getKFMATRIXLIBRARY() {
+        return KFMATRIXLIBRARY;
+    }
+
+    /**
+     * @param matLib the matrix library of the Kalman filters, JNP (default) or KF5
+     */
+    public void setKFMATRIXLIBRARY(String matLib) {
+        if (matLib.equalsIgnoreCase("KF5")) {
+            this.KFMATRIXLIBRARY = Libr.KF5;
+        }
+        else {
+            if (!matLib.equalsIgnoreCase("JNP")) {
+                LOGGER.log(Level.WARNING, "unsupported DC matrix library " + matLib + ", using JNP");
+            }
+            this.KFMATRIXLIBRARY = Libr.JNP;
+        }
+    }
    
 
     public synchronized void initialize(String engine,
@@ -9,6 +9,7 @@ import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.jlab.clas.clas.math.FastMath;
+import org.jlab.clas.swimtools.FieldIntegralTable;
 import org.jlab.clas.swimtools.Swim;
 import org.jlab.detector.geant4.v2.DCGeant4Factory;
 import org.jlab.geom.prim.Line3D;
@@ -31,7 +32,6 @@ import org.jlab.clas.tracking.kalmanfilter.Surface;
 import org.jlab.clas.tracking.kalmanfilter.zReference.KFitter;
 import org.jlab.clas.tracking.kalmanfilter.zReference.KFitterStraight;
 import org.jlab.clas.tracking.kalmanfilter.zReference.StateVecs;
-import org.jlab.clas.tracking.utilities.MatrixOps.Libr;
 import org.jlab.clas.tracking.utilities.RungeKuttaDoca;
 
 /**
@@ -47,6 +47,11 @@ public class TrackCandListFinder {
 
     long startTime, startTime2 = 0;
 
+    /**
+     * use tabulated propagation between regions for the seed chi2 cut
+     */
+    private static boolean useSeedTable = false;
+
     /**
      * the tracking status = HitBased or TimeBased
      */
@@ -59,6 +64,28 @@ public class TrackCandListFinder {
         trking = stat;
     }
 
+    /**
+     * @param use if true, the initial fit of curved track candidates uses a
+     * {@link FieldIntegralTable} between the region midplanes, swimming only
+     * the states outside the table
+     */
+    public static void setUseSeedTable(boolean use) {
+        useSeedTable = use;
+    }
+
+    /**
+     * @param DcDetector the DC geometry
+     * @return the table between the region midplanes for the current field,
+     * or null if it is not used or still being built in the background
+     */
+    public static FieldIntegralTable getSeedTable(DCGeant4Factory DcDetector) {
+        if (!useSeedTable) {
+            return null;
+        }
+        return FieldIntegralTable.getIfReady(DcDetector.getRegionMidpoint(0).z,
+                DcDetector.getRegionMidpoint(1).z, DcDetector.getRegionMidpoint(2).z);
+    }
+
     /**
      * @param crossesInTrk the list of crosses on track
      * @return the number of superlayers used in the fit
@@ -142,7 +169,7 @@ public class TrackCandListFinder {
             double x2, double y2, double z2, double x3, double y3, double z3,
             double ux, double uy, double uz, double thX, double thY,
             double theta1, double theta3, double a,
-            double iBdl, double TORSCALE, Swim dcSwim) {
+            double iBdl, double TORSCALE, Swim dcSwim, FieldIntegralTable table) {
         if (theta1 < -998 || theta3 < -998) {
             return new double[]{Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY};
         }
@@ -158,6 +185,20 @@ public class TrackCandListFinder {
 
         int q = calcInitTrkQ(a, TORSCALE);
 
+        // the table is from region 1 to regions 2 and 3, with the Bdl integrated from region 1
+        if (table != null) {
+            double[] R2 = new double[5];
+            double[] R3 = new double[5];
+            if (table.propagate(sector, x1, y1, thX, thY, q / p, 0, R2)
+                    && table.propagate(sector, x1, y1, thX, thY, q / p, 1, R3)) {
+                chi2 += (R2[0] - x2) * (R2[0] - x2) + (R2[1] - y2) * (R2[1] - y2);
+                chi2 += (R3[0] - x3) * (R3[0] - x3) + (R3[1] - y3) * (R3[1] - y3);
+                pars[0] = chi2;
+                pars[1] = R3[4];
+                return pars;
+            }
+        }
+
         dcSwim.SetSwimParameters(x1, y1, z1, p_x, p_y, p_z, q);
         double[] R = dcSwim.SwimToPlaneTiltSecSysBdlXZPlane(sector, z2);
         if (R == null) {
@@ -894,7 +935,7 @@ public class TrackCandListFinder {
 
                     LOGGER.log(Level.FINE, "Kalman fitter - 2 = " + (System.currentTimeMillis() - startTime));
 
-                    KFitterStraight kFZRef = new KFitterStraight(true, 1, 1, dcSwim, Constants.getInstance().Z, Libr.JNP);
+                    KFitterStraight kFZRef = new KFitterStraight(true, 1, 1, dcSwim, Constants.getInstance().Z, Constants.getInstance().getKFMATRIXLIBRARY());
                     List<Surface> measSurfaces = getMeasSurfaces(cand, DcDetector);
                     StateVecs svs = new StateVecs();
                     org.jlab.clas.tracking.kalmanfilter.AStateVecs.StateVec initSV = svs.new StateVec(0);
@@ -951,6 +992,7 @@ public class TrackCandListFinder {
         if (crossList.isEmpty()) {
             return cands;
         }
+        FieldIntegralTable table = getSeedTable(DcDetector);
         for (List<Cross> aCrossList : crossList) {
             aCrossList.sort(Comparator.comparing(Cross::get_Sector).thenComparing(Cross::get_Region));
             if (aCrossList.size() < 3) {
@@ -1014,7 +1056,7 @@ public class TrackCandListFinder {
                     double[] pars = getTrackInitFit(cand.get(0).get_Sector(), x1, y1, z1, x2, y2, z2, x3, y3, z3,
                             ux, uy, uz, thX, thY,
                             theta1, theta3, traj.getA(), 
-                            traj.getIntegralBdl(), TORSCALE, dcSwim);
+                            traj.getIntegralBdl(), TORSCALE, dcSwim, table);
                     
                     double chi2 = pars[0];
                     double iBdl = pars[1];  
@@ -1063,7 +1105,7 @@ public class TrackCandListFinder {
 
                         LOGGER.log(Level.FINE, "Kalman fitter - 2 = " + (System.currentTimeMillis() - startTime));
 
-                        KFitter kFZRef = new KFitter(true, 10, 1, dcSwim, Constants.getInstance().Z, Libr.JNP);
+                        KFitter kFZRef = new KFitter(true, 10, 1, dcSwim, Constants.getInstance().Z, Constants.getInstance().getKFMATRIXLIBRARY());
                         List<Surface> measSurfaces = getMeasSurfaces(cand, DcDetector);
                         StateVecs svs = new StateVecs();
                         org.jlab.clas.tracking.kalmanfilter.AStateVecs.StateVec initSV = svs.new StateVec(0);
@@ -10,6 +10,7 @@ import org.jlab.io.base.DataBank;
 import org.jlab.io.base.DataEvent;
 import org.jlab.rec.dc.Constants;
 import org.jlab.rec.dc.banks.Banks;
+import org.jlab.rec.dc.track.TrackCandListFinder;
 import org.jlab.clas.tracking.kalmanfilter.zReference.KFitter;
 import org.jlab.clas.tracking.kalmanfilter.zReference.DAFilter;
 
@@ -123,6 +124,13 @@ public class DCEngine extends ReconstructionEngine {
             DAFilter.setDafChi2Cut(Double.valueOf(dafChi2Cut));
         }
         
+        //Kalman filter matrix library, JNP or KF5
+        if(this.getEngineConfigString("dcMatLib")!=null)
+            Constants.getInstance().setKFMATRIXLIBRARY(this.getEngineConfigString("dcMatLib"));
+        
+        if(this.getEngineConfigString("dcSeedTable")!=null)
+            TrackCandListFinder.setUseSeedTable(Boolean.valueOf(this.getEngineConfigString("dcSeedTable")));
+        
         if(this.getEngineConfigString("dafAnnealingFactorsTB")!=null){ 
             dafAnnealingFactorsTB=this.getEngineConfigString("dafAnnealingFactorsTB");
             KFitter.setDafAnnealingFactorsTB(dafAnnealingFactorsTB);
@@ -194,6 +202,8 @@ public class DCEngine extends ReconstructionEngine {
         this.LoadTables();
         this.initBanks();
         this.setDropBanks();
+        // start building the seed table, events swim until it is ready
+        TrackCandListFinder.getSeedTable(Constants.getInstance().dcDetector);
         return true;
     }
 
@@ -41,7 +41,6 @@ import org.jlab.clas.tracking.kalmanfilter.Surface;
 import org.jlab.clas.tracking.kalmanfilter.zReference.KFitter;
 import org.jlab.clas.tracking.kalmanfilter.zReference.KFitterStraight;
 import org.jlab.clas.tracking.kalmanfilter.zReference.StateVecs;
-import org.jlab.clas.tracking.utilities.MatrixOps.Libr;
 import org.jlab.clas.tracking.utilities.RungeKuttaDoca;
 
 public class DCTBEngine extends DCEngine {
@@ -228,7 +227,7 @@ public class DCTBEngine extends DCEngine {
             }
             crosses.addAll(TrackArray1);
             if(Math.abs(Swimmer.getTorScale()) < 0.001){
-                KFitterStraight kFZRef = new KFitterStraight(true, 30, 1, dcSwim, Constants.getInstance().Z, Libr.JNP);
+                KFitterStraight kFZRef = new KFitterStraight(true, 30, 1, dcSwim, Constants.getInstance().Z, Constants.getInstance().getKFMATRIXLIBRARY());
                 List<Surface> measSurfaces = getMeasSurfaces(TrackArray1, Constants.getInstance().dcDetector);
                 StateVecs svs = new StateVecs();
                 org.jlab.clas.tracking.kalmanfilter.AStateVecs.StateVec initSV = svs.new StateVec(0);
@@ -269,7 +268,7 @@ public class DCTBEngine extends DCEngine {
                 }                
             }
             else{           
-                KFitter kFZRef = new KFitter(true, 30, 1, dcSwim, Constants.getInstance().Z, Libr.JNP);
+                KFitter kFZRef = new KFitter(true, 30, 1, dcSwim, Constants.getInstance().Z, Constants.getInstance().getKFMATRIXLIBRARY());
                 List<Surface> measSurfaces = getMeasSurfaces(TrackArray1, Constants.getInstance().dcDetector);
                 StateVecs svs = new StateVecs();
                 org.jlab.clas.tracking.kalmanfilter.AStateVecs.StateVec initSV = svs.new StateVec(0);
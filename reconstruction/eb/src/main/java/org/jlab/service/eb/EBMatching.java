@@ -10,6 +10,7 @@ import org.jlab.clas.detector.DetectorEvent;
 import org.jlab.rec.eb.EBCCDBEnum;
 import org.jlab.clas.detector.DetectorResponseComparators;
 import org.jlab.clas.detector.matching.MatchCND;
+import org.jlab.clas.detector.matching.ResponseIndex;
 
 /*
  *
@@ -35,9 +36,8 @@ public class EBMatching {
      */
     public void addResponsesFTOF(List <DetectorParticle> parts) {
 
-        List<DetectorResponse> respFTOF1A = eventBuilder.getUnmatchedResponses(null, DetectorType.FTOF, 1);
-        List<DetectorResponse> respFTOF1B = eventBuilder.getUnmatchedResponses(null, DetectorType.FTOF, 2);
-        List<DetectorResponse>  respFTOF2 = eventBuilder.getUnmatchedResponses(null, DetectorType.FTOF, 3);
+        // the responses already matched are skipped, since neutrals don't share hits:
+        ResponseIndex responses = eventBuilder.getResponseIndex();
 
         for (int ii=0; ii<parts.size(); ii++) {
             
@@ -46,25 +46,25 @@ public class EBMatching {
             int pindex_offset = this.eventBuilder.getPindexMap().get(0)
                                 + this.eventBuilder.getPindexMap().get(1);
 
-            int index1A = part.getDetectorHit(respFTOF1A, DetectorType.FTOF, 1, 
+            int index1A = part.getDetectorHit(responses, DetectorType.FTOF, 1, 
                     eventBuilder.ccdb.getDouble(EBCCDBEnum.FTOF_MATCHING_1A));
             if (index1A >= 0) {
-                part.addResponse(respFTOF1A.get(index1A), true);
-                respFTOF1A.get(index1A).setAssociation(ii + pindex_offset);
+                part.addResponse(responses.getResponses().get(index1A), true);
+                responses.getResponses().get(index1A).setAssociation(ii + pindex_offset);
             }
-            int index1B = part.getDetectorHit(respFTOF1B, DetectorType.FTOF, 2,
+            int index1B = part.getDetectorHit(responses, DetectorType.FTOF, 2,
                     eventBuilder.ccdb.getDouble(EBCCDBEnum.FTOF_MATCHING_1B));
             if (index1B >= 0) {
-                part.addResponse(respFTOF1B.get(index1B), true);
-                respFTOF1B.get(index1B).setAssociation(ii + pindex_offset);
+                part.addResponse(responses.getResponses().get(index1B), true);
+                responses.getResponses().get(index1B).setAssociation(ii + pindex_offset);
             }
             // only try to match with FTOF2 if not matched with 1A/1B:
             if (index1A<0 && index1B<0) {
-                int index2 = part.getDetectorHit(respFTOF2, DetectorType.FTOF, 3,
+                int index2 = part.getDetectorHit(responses, DetectorType.FTOF, 3,
                         eventBuilder.ccdb.getDouble(EBCCDBEnum.FTOF_MATCHING_2));
                 if (index2>=0) {
-                    part.addResponse(respFTOF2.get(index2), true);
-                    respFTOF2.get(index2).setAssociation(ii + pindex_offset);
+                    part.addResponse(responses.getResponses().get(index2), true);
+                    responses.getResponses().get(index2).setAssociation(ii + pindex_offset);
                 }
             }
         }
@@ -101,14 +101,15 @@ public class EBMatching {
                         throw new RuntimeException("Invalid ECAL Layer:  "+layer);
                 }
 
-                List<DetectorResponse> respECAL = eventBuilder.getUnmatchedResponses(null, DetectorType.ECAL, layer);
+                // the responses already matched are skipped, since neutrals don't share hits:
+                ResponseIndex responses = eventBuilder.getResponseIndex();
 
-                int index = part.getDetectorHit(respECAL, DetectorType.ECAL, layer, matching);
+                int index = part.getDetectorHit(responses, DetectorType.ECAL, layer, matching);
                 if (index>=0) {
                     int pindex_offset = this.eventBuilder.getPindexMap().get(0)
                                       + this.eventBuilder.getPindexMap().get(1); //After FD/CD Charged Particles
-                    part.addResponse(respECAL.get(index), true); 
-                    respECAL.get(index).setAssociation(ii + pindex_offset);
+                    part.addResponse(responses.getResponses().get(index), true); 
+                    responses.getResponses().get(index).setAssociation(ii + pindex_offset);
                 }
             }
         }
@@ -22,6 +22,7 @@ import org.jlab.clas.detector.CherenkovResponse;
 import org.jlab.clas.detector.DetectorResponseFactory;
 import org.jlab.clas.detector.matching.IMatch;
 import org.jlab.clas.detector.matching.MatchCND;
+import org.jlab.clas.detector.matching.ResponseIndex;
 import org.jlab.clas.physics.Vector3;
 
 import org.jlab.rec.eb.EBCCDBConstants;
@@ -40,6 +41,7 @@ public class EventBuilder {
     private final List<DetectorResponse>  detectorResponses = new ArrayList<>();
     private final List<Map<DetectorType,Integer>> ftIndices = new ArrayList<>();
     private final HashMap<Integer,Integer> pindex_map = new HashMap<>();
+    private ResponseIndex                 responseIndex = null;
     
     private final IMatch cndMatcher;
 
@@ -69,6 +71,16 @@ public class EventBuilder {
     }
     public void addDetectorResponses(List<DetectorResponse> responses){
         detectorResponses.addAll(responses);
+        responseIndex = null;
+    }
+
+    /**
+     * @return the index of all detector responses by type, layer, sector and
+     * azimuth, built on first use after the last addDetectorResponses
+     */
+    public ResponseIndex getResponseIndex() {
+        if (responseIndex == null) responseIndex = new ResponseIndex(detectorResponses);
+        return responseIndex;
     }
 
     public void addFTIndices(List<Map<DetectorType, Integer>> ftindex) {
@@ -112,6 +124,8 @@ public class EventBuilder {
      */
     public void processHitMatching(){
         
+        ResponseIndex responses = this.getResponseIndex();
+
         int np = detectorEvent.getParticles().size();
         for(int n = 0; n < np; n++){
             DetectorParticle  p = this.detectorEvent.getParticle(n);
@@ -124,14 +138,14 @@ public class EventBuilder {
             if (p.getTrackDetectorID()==DetectorType.DC.getDetectorId()) {
 
                 // FTOF:
-                findMatchingHit(n,p,detectorResponses,DetectorType.FTOF, 1, ccdb.getDouble(EBCCDBEnum.FTOF_MATCHING_1A));
-                findMatchingHit(n,p,detectorResponses,DetectorType.FTOF, 2, ccdb.getDouble(EBCCDBEnum.FTOF_MATCHING_1B));
-                findMatchingHit(n,p,detectorResponses,DetectorType.FTOF, 3, ccdb.getDouble(EBCCDBEnum.FTOF_MATCHING_2));
+                findMatchingHit(n,p,responses,DetectorType.FTOF, 1, ccdb.getDouble(EBCCDBEnum.FTOF_MATCHING_1A));
+                findMatchingHit(n,p,responses,DetectorType.FTOF, 2, ccdb.getDouble(EBCCDBEnum.FTOF_MATCHING_1B));
+                findMatchingHit(n,p,responses,DetectorType.FTOF, 3, ccdb.getDouble(EBCCDBEnum.FTOF_MATCHING_2));
                 
                 // ECAL:
-                findMatchingHit(n,p,detectorResponses,DetectorType.ECAL, 1, ccdb.getDouble(EBCCDBEnum.PCAL_MATCHING));
-                findMatchingHit(n,p,detectorResponses,DetectorType.ECAL, 4, ccdb.getDouble(EBCCDBEnum.ECIN_MATCHING));
-                findMatchingHit(n,p,detectorResponses,DetectorType.ECAL, 7, ccdb.getDouble(EBCCDBEnum.ECOUT_MATCHING));
+                findMatchingHit(n,p,responses,DetectorType.ECAL, 1, ccdb.getDouble(EBCCDBEnum.PCAL_MATCHING));
+                findMatchingHit(n,p,responses,DetectorType.ECAL, 4, ccdb.getDouble(EBCCDBEnum.ECIN_MATCHING));
+                findMatchingHit(n,p,responses,DetectorType.ECAL, 7, ccdb.getDouble(EBCCDBEnum.ECOUT_MATCHING));
 
                 // LTCC:
                 int index = p.getCherenkovSignal(this.detectorResponses,DetectorType.LTCC);
@@ -143,10 +157,10 @@ public class EventBuilder {
 
             // only match with CTOF/CND if it's a central track:
             else if (p.getTrackDetectorID()==DetectorType.CVT.getDetectorId()) {
-                findMatchingHit(n,p,detectorResponses,DetectorType.CTOF,1, ccdb.getDouble(EBCCDBEnum.CTOF_DZ));
-                findMatchingHit(n,p,detectorResponses,DetectorType.CND,1, this.cndMatcher );
-                findMatchingHit(n,p,detectorResponses,DetectorType.CND,2, this.cndMatcher );
-                findMatchingHit(n,p,detectorResponses,DetectorType.CND,3, this.cndMatcher );
+                findMatchingHit(n,p,responses,DetectorType.CTOF,1, ccdb.getDouble(EBCCDBEnum.CTOF_DZ));
+                findMatchingHit(n,p,responses,DetectorType.CND,1, this.cndMatcher );
+                findMatchingHit(n,p,responses,DetectorType.CND,2, this.cndMatcher );
+                findMatchingHit(n,p,responses,DetectorType.CND,3, this.cndMatcher );
             }
 
             // set dedx by combining trajectory information with hit energy:
@@ -196,28 +210,47 @@ public class EventBuilder {
             final int pindex, DetectorParticle particle, List<DetectorResponse> responses,
             DetectorType type, final int layer, final double distance) {
         int index = particle.getDetectorHit(responses,type,layer,distance);
-        if (index>=0) {
-            // if sharing hits between tracks, duplicate it:
-            if (responses.get(index).getAssociation() >= 0) {
-                //System.out.println(responses.get(index).getClass());
-                //DetectorResponse copy = new DetectorResponse();
-                //copy.copy(responses.get(index));
-                DetectorResponse copy = DetectorResponseFactory.create(responses.get(index));
-                copy.clearAssociations();
-                responses.add(copy);
-                index = responses.size()-1;
-            }
-            particle.addResponse(responses.get(index),true);
-            responses.get(index).addAssociation(pindex);
-            return true;
-        }
-        return false;
+        return associateHit(pindex, particle, responses, index);
+    }
+
+    /**
+     * Same as {@link #findMatchingHit(int, DetectorParticle, List, DetectorType, int, double)},
+     * but only considering the indexed candidates.
+     */
+    public boolean findMatchingHit(
+            final int pindex, DetectorParticle particle, ResponseIndex responses,
+            DetectorType type, final int layer, final double distance) {
+        int index = particle.getDetectorHit(responses,type,layer,distance);
+        return associateHit(pindex, particle, responses.getResponses(), index);
     }
     
     public boolean findMatchingHit(
             final int pindex, DetectorParticle particle, List<DetectorResponse> responses,
             DetectorType type, final int layer, IMatch matcher) {
         int index = matcher.bestMatch(particle, responses, type, layer);
+        return associateHit(pindex, particle, responses, index);
+    }
+
+    public boolean findMatchingHit(
+            final int pindex, DetectorParticle particle, ResponseIndex responses,
+            DetectorType type, final int layer, IMatch matcher) {
+        int index = matcher.bestMatch(particle, responses, type, layer);
+        return associateHit(pindex, particle, responses.getResponses(), index);
+    }
+
+    /**
+     * Associate the matched response with the particle.
+     *
+     * @param pindex the particle's index
+     * @param particle the particle
+     * @param responses all responses
+     * @param index the index of the matched response, else negative
+     *
+     * @return whether a match was found
+     */
+    private boolean associateHit(
+            final int pindex, DetectorParticle particle, List<DetectorResponse> responses,
+            int index) {
         if (index>=0) {
             // if sharing hits between tracks, duplicate it:
             if (responses.get(index).getAssociation() >= 0) {
@@ -59,9 +59,10 @@ public class ECDisplay extends JPanel implements IDataEventListener {
 
 
 
-        List<ECStrip>  ecStrips = ECCommon.initEC(de, detectorEngine.getConstantsManager());
+        ECCommon             ec = detectorEngine.getEventContext(de);
+        List<ECStrip>  ecStrips = ec.initEC(de, detectorEngine.getConstantsManager());
         List<ECPeak> ecPeaksALL = ECCommon.createPeaks(ecStrips);
-        List<ECPeak> ecPeaks    = ECCommon.processPeaks(ecPeaksALL);
+        List<ECPeak> ecPeaks    = ec.processPeaks(ecPeaksALL);
         
         DetectorShape2D shapeP = new DetectorShape2D(DetectorType.ECAL,0,0,0);
         
@@ -85,7 +86,7 @@ public class ECDisplay extends JPanel implements IDataEventListener {
             
         }
         System.out.println("*****************  CLUSTERS ");
-        List<ECCluster> cPCAL  = ECCommon.createClusters(ecPeaks,1);
+        List<ECCluster> cPCAL  = ec.createClusters(ecPeaks,1);
         for(ECCluster c : cPCAL){
             System.out.println(c);
         }
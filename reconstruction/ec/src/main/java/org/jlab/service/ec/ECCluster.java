@@ -36,9 +36,12 @@ public class ECCluster implements Comparable {
     public byte    sharedCluster = -1;
     private byte      sharedView =  0; //1=U, 2=V, 3=W, 4=UV, 5=UW, 6=VW
     public int            zone   = 0;
+    
+    private final ECConfig config;
        
     public ECCluster(ECPeak u, ECPeak v, ECPeak w){
         
+        config = u.getConfig();
         desc.setSectorLayerComponent(u.getDescriptor().getSector(), 
                                      u.getDescriptor().getLayer(), 0);
         clusterPeaks.add(u);
@@ -56,6 +59,10 @@ public class ECCluster implements Comparable {
         getClusterGeometry(); // calculates cluster position and size
     }
     
+    public ECConfig getConfig() {
+        return config;
+    }
+    
     public DetectorDescriptor getDescriptor(){
         return desc;
     }
@@ -121,7 +128,7 @@ public class ECCluster implements Comparable {
     }  
     
     public double getTime() {
-    	return ECCommon.useUnsharedTime ? getUnsharedRawADCTime():getRawADCTime();
+    	return config.useUnsharedTime ? getUnsharedRawADCTime():getRawADCTime();
     } 
  
     public double getTime(int view) {
@@ -0,0 +1,140 @@
+package org.jlab.service.ec;
+
+import org.jlab.detector.calib.utils.ConstantsManager;
+import org.jlab.geom.base.Detector;
+
+/**
+ * Reconstruction options and geometry for the EC engine.
+ *
+ * ECEngine keeps one instance of engine options, modified only by its
+ * setters, and derives from it one instance per run with the run dependent
+ * options resolved (e.g. Monte Carlo runs).  The per run instances are never
+ * modified and are shared by all events of the run on all threads.
+ *
+ * Strips, peaks and clusters keep a reference to the configuration they were
+ * created with.  The per run instances also hold the run's strip calibration,
+ * see {@link ECStripCalibration}.
+ */
+
+public class ECConfig {
+
+    Detector        ecDetector = null;
+
+    int[]       stripThreshold = new int[3];
+    int[]        peakThreshold = new int[3];
+    int[]     clusterThreshold = new int[3];
+    float[]        clusterSize = new float[3];
+
+    int                touchID = 1;
+    int            splitMethod = 0;
+    int[]          splitThresh = new int[3];
+
+    boolean               isMC = false;
+    boolean              debug = false;
+    boolean         debugSplit = false;
+    boolean   isSingleThreaded = false;
+    boolean        singleEvent = false;
+    boolean      useNewTimeCal = true;
+    boolean  useUnsharedEnergy = true;
+    boolean   useTWCorrections = true;
+    boolean   useDTCorrections = true;
+
+    boolean      usePass2Recon = false;
+    boolean     usePass2Timing = true;
+    boolean     usePass2Energy = true;
+    int      UnsharedEnergyCut = 6;
+    boolean    useUnsharedTime = true;
+    boolean        useFADCTime = false;
+    boolean          useFTpcal = true;
+    boolean        useCCDBGain = true;
+    double            logParam = 3.0;
+    String                name = "";
+    String           variation = "default";
+    String       geomVariation = "default";
+    int        pcTrackingPlane = -1;
+    int        ecTrackingPlane = -1;
+    float                 veff = 18.1f;
+
+    int                    run = -1;
+
+    private volatile ECStripCalibration calibration = null;
+
+    /**
+     * Default engine options.
+     */
+    public ECConfig() {}
+
+    /**
+     * Options for one run.
+     * @param options the engine options
+     * @param run the run number, runs up to 100 are Monte Carlo
+     */
+    public ECConfig(ECConfig options, int run) {
+        ecDetector        = options.ecDetector;
+        stripThreshold    = options.stripThreshold.clone();
+        peakThreshold     = options.peakThreshold.clone();
+        clusterThreshold  = options.clusterThreshold.clone();
+        clusterSize       = options.clusterSize.clone();
+        touchID           = options.touchID;
+        splitMethod       = options.splitMethod;
+        splitThresh       = options.splitThresh.clone();
+        debug             = options.debug;
+        debugSplit        = options.debugSplit;
+        isSingleThreaded  = options.isSingleThreaded;
+        singleEvent       = options.singleEvent;
+        useNewTimeCal     = options.useNewTimeCal;
+        useUnsharedEnergy = options.useUnsharedEnergy;
+        useTWCorrections  = options.useTWCorrections;
+        useDTCorrections  = options.useDTCorrections;
+        usePass2Recon     = options.usePass2Recon;
+        usePass2Timing    = options.usePass2Timing;
+        usePass2Energy    = options.usePass2Energy;
+        UnsharedEnergyCut = options.UnsharedEnergyCut;
+        useUnsharedTime   = options.useUnsharedTime;
+        useFADCTime       = options.useFADCTime;
+        useFTpcal         = options.useFTpcal;
+        useCCDBGain       = options.useCCDBGain;
+        logParam          = options.logParam;
+        name              = options.name;
+        variation         = options.variation;
+        geomVariation     = options.geomVariation;
+        pcTrackingPlane   = options.pcTrackingPlane;
+        ecTrackingPlane   = options.ecTrackingPlane;
+        veff              = options.veff;
+
+        this.run = run;
+        isMC = run<=100;
+
+        if(isMC) {usePass2Timing = false; useDTCorrections = false; useFTpcal = false;}
+    }
+
+    public int getRun() {
+        return run;
+    }
+
+    public boolean isMC() {
+        return isMC;
+    }
+
+    public Detector getDetector() {
+        return ecDetector;
+    }
+
+    /**
+     * Calibration constants and geometry of the strips for this run, read
+     * from the tables on first use.
+     * @param manager the constants manager, with the variation set
+     * @return the strip calibration
+     */
+    public ECStripCalibration getCalibration(ConstantsManager manager) {
+        ECStripCalibration calib = calibration;
+        if (calib == null) {
+            synchronized (this) {
+                calib = calibration;
+                if (calib == null) calibration = calib = new ECStripCalibration(this, run, manager);
+            }
+        }
+        return calib;
+    }
+
+}
@@ -2,7 +2,9 @@ package org.jlab.service.ec;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -11,6 +13,7 @@ import org.jlab.clas.reco.ReconstructionEngine;
 import org.jlab.detector.base.DetectorCollection;
 import org.jlab.detector.base.DetectorType;
 import org.jlab.detector.base.GeometryFactory;
+import org.jlab.detector.calib.utils.ConstantsManager;
 import org.jlab.groot.data.H1F;
 import org.jlab.groot.data.H2F;
 import org.jlab.io.base.DataBank;
@@ -25,20 +28,95 @@ public class ECEngine extends ReconstructionEngine {
 
     public static Logger LOGGER = Logger.getLogger(ECEngine.class.getName());
     
+    // options from the setters, and the read-only configuration derived from them for each run:
+    private final ECConfig                  options = new ECConfig();
+    private final RunConfigs             runConfigs = new RunConfigs();
+    
+    // single threaded monitoring only:
+    private final DetectorCollection<H1F>  H1_ecEng = new DetectorCollection<H1F>();
+    private final DetectorCollection<H2F>  H2_ecEng = new DetectorCollection<H2F>();
+    private final List<ECStrip>            myStrips = new ArrayList<ECStrip>();
+    private final List<ECPeak>              myPeaks = new ArrayList<ECPeak>();
+    private final List<ECCluster>        myClusters = new ArrayList<ECCluster>();
+    private int                         eventNumber = 0;
+    
     public ECEngine(){
         super("EC","gavalian","1.0");
     }
     
+    /**
+     * @param run run number
+     * @return the configuration for the run, shared by all its events
+     */
+    public ECConfig getConfig(int run) {
+        ECConfig config = runConfigs.last;
+        if (config != null && config.getRun() == run) return config;
+        return runConfigs.get(run, options);
+    }
+
+    /**
+     * The per run configurations, as many runs as the constants cache keeps
+     * (-Dconstants.maxruns, 0 by default for no limit) but at least
+     * {@link #MIN_RUNS}, evicting the least recently used first.
+     */
+    static class RunConfigs {
+
+        static final int MIN_RUNS = 4;
+
+        // 0 for no limit, as for the constants cache:
+        final int capacity = capacity(Integer.getInteger("constants.maxruns", ConstantsManager.DEFAULT_MAX_RUNS));
+
+        private final Map<Integer,ECConfig> configs = new LinkedHashMap<Integer,ECConfig>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer,ECConfig> eldest) {
+                return capacity > 0 && size() > capacity;
+            }
+        };
+
+        static int capacity(int maxRuns) {
+            return maxRuns <= 0 ? 0 : Math.max(MIN_RUNS, maxRuns);
+        }
+
+        // the last configuration requested, the usual case needs no lock:
+        volatile ECConfig last = null;
+
+        synchronized ECConfig get(int run, ECConfig options) {
+            ECConfig config = configs.computeIfAbsent(run, r -> new ECConfig(options, r));
+            last = config;
+            return config;
+        }
+
+        synchronized int size() {
+            return configs.size();
+        }
+
+        synchronized void clear() {
+            configs.clear();
+            last = null;
+        }
+    }
+    
+    /**
+     * @param de the event
+     * @return a new reconstruction context for the event
+     */
+    public ECCommon getEventContext(DataEvent de) {
+        ECConfig config = getConfig(ECCommon.getRunNumber(de));
+        return config.isSingleThreaded ? new ECCommon(config, H1_ecEng, H2_ecEng) : new ECCommon(config);
+    }
+    
     @Override
     public boolean processDataEvent(DataEvent de) {
+        
+        ECCommon ec = getEventContext(de);
                            
-        List<ECStrip>     ecStrips = ECCommon.initEC(de, this.getConstantsManager()); // thresholds, ADC/TDC match        
-        List<ECPeak>       ecPeaks = ECCommon.processPeaks(ECCommon.createPeaks(ecStrips)); // thresholds, split peaks -> update peak-lines          
+        List<ECStrip>     ecStrips = ec.initEC(de, this.getConstantsManager()); // thresholds, ADC/TDC match        
+        List<ECPeak>       ecPeaks = ec.processPeaks(ECCommon.createPeaks(ecStrips)); // thresholds, split peaks -> update peak-lines          
         List<ECCluster> ecClusters = new ArrayList<ECCluster>();  
         
-        List<ECCluster> tmpPCAL  = ECCommon.createClusters(ecPeaks,1);
-        List<ECCluster> tmpECIN  = ECCommon.createClusters(ecPeaks,4);
-        List<ECCluster> tmpECOUT = ECCommon.createClusters(ecPeaks,7);
+        List<ECCluster> tmpPCAL  = ec.createClusters(ecPeaks,1);
+        List<ECCluster> tmpECIN  = ec.createClusters(ecPeaks,4);
+        List<ECCluster> tmpECOUT = ec.createClusters(ecPeaks,7);
         
         // - Thsi is the part that identifies clusters with 2 views shared,
         // - and picks the one with best cluster size.
@@ -63,7 +141,7 @@ public class ECEngine extends ReconstructionEngine {
         ecClusters.addAll(tmpECIN); //ECinner 
         ecClusters.addAll(tmpECOUT); //ECouter
         
-        ECCommon.shareClustersEnergy(ecClusters);  // Repair 2 clusters which share the same peaks
+        ec.shareClustersEnergy(ecClusters);  // Repair 2 clusters which share the same peaks
         
         for (int iCl = 0; iCl < ecClusters.size(); iCl++) {
             // As clusters are already defined at this point, we can fill the clusterID of ECStrips belonging to the given cluster
@@ -83,10 +161,12 @@ public class ECEngine extends ReconstructionEngine {
 	    
         this.writeHipoBanks(de,ecStrips,ecPeaks,ecClusters);  
         
-        if (ECCommon.debug) printDebug(ecStrips,ecPeaks,ecClusters);  
+        if (ec.getConfig().debug) printDebug(ecStrips,ecPeaks,ecClusters);  
         
-        if (ECCommon.isSingleThreaded) {
-        	ECCommon.clearMyStructures();
+        if (ec.getConfig().isSingleThreaded) {
+        	getStrips().clear();
+        	getPeaks().clear();
+        	getClusters().clear();
         	getStrips().addAll(ecStrips);
         	getPeaks().addAll(ecPeaks);
         	getClusters().addAll(ecClusters);
@@ -113,15 +193,15 @@ public class ECEngine extends ReconstructionEngine {
     }
         
     public List<ECStrip> getStrips() {
-	    return ECCommon.getMyStrips();    		
+	    return myStrips;    		
     }
     
     public List<ECPeak> getPeaks() {
-	    return ECCommon.getMyPeaks();    
+	    return myPeaks;    
     }
     
     public List<ECCluster> getClusters() {
-	    return ECCommon.getMyClusters();    
+	    return myClusters;    
     }    
         
     private void writeHipoBanks(DataEvent de, 
@@ -224,175 +304,206 @@ public class ECEngine extends ReconstructionEngine {
     }
     
     public void setEventNumber(int val) {
-    	ECCommon.eventNumber = val;
+    	eventNumber = val;
     } 
     
     public void setDebug(boolean val) {
-    	ECCommon.debug = val;
+    	options.debug = val;
+    	runConfigs.clear();
     }
     
     public void setDebugSplit(boolean val) {
-    	ECCommon.debugSplit = val;
+    	options.debugSplit = val;
+    	runConfigs.clear();
     }
     
     public void setIsSingleThreaded(boolean val) {
-    	ECCommon.isSingleThreaded = val;
+    	options.isSingleThreaded = val;
+    	runConfigs.clear();
     }
     
     public void setSingleEvent(boolean val) {
-    	ECCommon.setSingleEvent(val);
+    	options.singleEvent = val;
+    	runConfigs.clear();
     }
         
     public void setIsMC(boolean val) {
-    	ECCommon.isMC = val;
+    	options.isMC = val;
+    	runConfigs.clear();
     }
     
     public void setConfig(String val) {
     	LOGGER.log(Level.INFO,"ECEngine: Configuration = "+val);
-        ECCommon.config = val;    	
+        options.name = val;    	
+        runConfigs.clear();
     } 
     
     public void setVariation(String val) {
         LOGGER.log(Level.INFO,"ECEngine: Calibration Variation = "+val);
-        ECCommon.variation = val;
+        options.variation = val;
+        runConfigs.clear();
     } 
     
     public void setGeomVariation(String val) {
         LOGGER.log(Level.INFO,"ECEngine: Geometry Variation = "+val);
-        ECCommon.geomVariation = val;
+        options.geomVariation = val;
+        runConfigs.clear();
     }  
     
     public void setVeff(float val) {
         LOGGER.log(Level.INFO,"ECEngine: Veff = "+val+" CM/NS");
-        ECCommon.veff = val;
+        options.veff = val;
+        runConfigs.clear();
     }
     
     public void setPCTrackingPlane(int val) {
     	LOGGER.log(Level.INFO,"ECEngine: PC tracking plane = "+val);
-    	ECCommon.pcTrackingPlane = val;
+    	options.pcTrackingPlane = val;
+    	runConfigs.clear();
     }
     
     public void setECTrackingPlane(int val) {
     	LOGGER.log(Level.INFO,"ECEngine: EC tracking plane = "+val);
-    	ECCommon.ecTrackingPlane = val;
+    	options.ecTrackingPlane = val;
+    	runConfigs.clear();
     } 
     
     public void setNewTimeCal(boolean val) {
         LOGGER.log(Level.INFO,"ECEngine: useNewTimeCal = "+val);
-    	ECCommon.useNewTimeCal = val;
+    	options.useNewTimeCal = val;
+    	runConfigs.clear();
     }
     
     public void setUseUnsharedEnergy(boolean val) {
     	LOGGER.log(Level.INFO,"ECengine: UseUnsharedEnergy = "+val);   	
-    	ECCommon.useUnsharedEnergy = val;
+    	options.useUnsharedEnergy = val;
+    	runConfigs.clear();
     } 
     
     public void setUnsharedEnergyCut(int val) {
     	LOGGER.log(Level.INFO,"ECengine: UnsharedEnergyCut = "+val);   	
-    	ECCommon.UnsharedEnergyCut = val;
+    	options.UnsharedEnergyCut = val;
+    	runConfigs.clear();
     } 
     
     public void setUseUnsharedTime(boolean val) {
     	LOGGER.log(Level.INFO,"ECengine: useUnsharedTime = "+val);
-    	ECCommon.useUnsharedTime = val;
+    	options.useUnsharedTime = val;
+    	runConfigs.clear();
     } 
     
     public void setTWCorrections(boolean val) {
     	LOGGER.log(Level.INFO,"ECengine: useTWCorrections = "+val);
-    	ECCommon.useTWCorrections = val;
+    	options.useTWCorrections = val;
+    	runConfigs.clear();
     }
     
     public void setDTCorrections(boolean val) {
     	LOGGER.log(Level.INFO,"ECengine: useDTCorrections = "+val);
-    	ECCommon.useDTCorrections = val;
+    	options.useDTCorrections = val;
+    	runConfigs.clear();
     }
     
     public void setUsePass2Timing(boolean val) {
     	LOGGER.log(Level.INFO,"ECengine: usePass2Timing = "+val);
-    	ECCommon.usePass2Timing = val;
+    	options.usePass2Timing = val;
+    	runConfigs.clear();
     }
     
     public void setUsePass2Energy(boolean val) {
     	LOGGER.log(Level.INFO,"ECengine: usePass2Energy = "+val);
-    	ECCommon.usePass2Energy = val;
+    	options.usePass2Energy = val;
+    	runConfigs.clear();
     }
     
     public void setUsePass2Recon(boolean val) {
     	LOGGER.log(Level.INFO,"ECengine: usePass2Recon = "+val);
-    	ECCommon.usePass2Recon = val;
+    	options.usePass2Recon = val;
+    	runConfigs.clear();
     }
     
     public void setUseFADCTime(boolean val) {
     	LOGGER.log(Level.INFO,"ECengine: UseFADCTime = "+val);   	
-    	ECCommon.useFADCTime = val;
+    	options.useFADCTime = val;
+    	runConfigs.clear();
     } 
     
     public void setUseFTpcal(boolean val) {
     	LOGGER.log(Level.INFO,"ECengine: useFTpcal = "+val);   	
-    	ECCommon.useFTpcal = val;
+    	options.useFTpcal = val;
+    	runConfigs.clear();
     } 
     
     public void setCCDBGain(boolean val) {
         LOGGER.log(Level.INFO,"ECEngine: useCCDBGain = "+val);
-        ECCommon.useCCDBGain = val;    	
+        options.useCCDBGain = val;    	
+        runConfigs.clear();
     }  
     
     public void setLogParam(double val) {
         LOGGER.log(Level.INFO,"ECEngine: logParam = "+val);
-    	ECCommon.logParam = val;
+    	options.logParam = val;
+    	runConfigs.clear();
     }
     
     public void setSplitMethod(int val) {
     	LOGGER.log(Level.INFO,"ECEngine: splitMethod = "+val);
-        ECCommon.splitMethod = val;    	
+        options.splitMethod = val;    	
+        runConfigs.clear();
     }
     
     public void setSplitThresh(int thr0, int thr1, int thr2) {
     	LOGGER.log(Level.INFO,"ECEngine: Peak Split thresholds = "+thr0+" "+thr1+" "+thr2);
-        ECCommon.splitThresh[0] = thr0;
-        ECCommon.splitThresh[1] = thr1;
-        ECCommon.splitThresh[2] = thr2;   	
+        options.splitThresh[0] = thr0;
+        options.splitThresh[1] = thr1;
+        options.splitThresh[2] = thr2;   	
+        runConfigs.clear();
     }
     
     public void setTouchID(int val) {
     	LOGGER.log(Level.INFO,"ECEngine: touchID = "+val);
-        ECCommon.touchID = val;    	
+        options.touchID = val;    	
+        runConfigs.clear();
     } 
     
     public void setStripThresholds(int thr0, int thr1, int thr2) {
         LOGGER.log(Level.INFO,"ECEngine: Strip ADC thresholds = "+thr0+" "+thr1+" "+thr2+" MeV*10");
-        ECCommon.stripThreshold[0] = thr0;
-        ECCommon.stripThreshold[1] = thr1;
-        ECCommon.stripThreshold[2] = thr2;
+        options.stripThreshold[0] = thr0;
+        options.stripThreshold[1] = thr1;
+        options.stripThreshold[2] = thr2;
+        runConfigs.clear();
     }
     
     public void setPeakThresholds(int thr0, int thr1, int thr2) {
         LOGGER.log(Level.INFO,"ECEngine: Peak ADC thresholds = "+thr0+" "+thr1+" "+thr2+" MeV*10");
-        ECCommon.peakThreshold[0] = thr0;
-        ECCommon.peakThreshold[1] = thr1;
-        ECCommon.peakThreshold[2] = thr2;
+        options.peakThreshold[0] = thr0;
+        options.peakThreshold[1] = thr1;
+        options.peakThreshold[2] = thr2;
+        runConfigs.clear();
     }   
     
     public void setClusterCuts(float err0, float err1, float err2) {
         LOGGER.log(Level.INFO,"ECEngine: Cluster Size Cuts = "+err0+" "+err1+" "+err2+" CM");
-        ECCommon.clusterSize[0] = err0;
-        ECCommon.clusterSize[1] = err1;
-        ECCommon.clusterSize[2] = err2;
+        options.clusterSize[0] = err0;
+        options.clusterSize[1] = err1;
+        options.clusterSize[2] = err2;
+        runConfigs.clear();
     }
     
     public void setClusterThresholds(int thr0, int thr1, int thr2) {
         LOGGER.log(Level.INFO,"ECEngine: Cluster peak energy threshold scale factors = "+thr0+" "+thr1+" "+thr2);  
-        ECCommon.clusterThreshold[0] = thr0;
-        ECCommon.clusterThreshold[1] = thr1;
-        ECCommon.clusterThreshold[2] = thr2;    	
+        options.clusterThreshold[0] = thr0;
+        options.clusterThreshold[1] = thr1;
+        options.clusterThreshold[2] = thr2;    	
+        runConfigs.clear();
     }
     
     public DetectorCollection<H1F>  getHist() {
-        return ECCommon.H1_ecEng;
+        return H1_ecEng;
     }
     
     public DetectorCollection<H2F>  getHist2() {
-        return ECCommon.H2_ecEng;
+        return H2_ecEng;
     }
     
     @Override
@@ -424,15 +535,15 @@ public class ECEngine extends ReconstructionEngine {
         
         requireConstants(Arrays.asList(ecTables));
         
-        getConstantsManager().setVariation(ECCommon.variation);
+        getConstantsManager().setVariation(options.variation);
         String variationName = Optional.ofNullable(this.getEngineConfigString("variation")).orElse("default");
-        if(!(ECCommon.geomVariation.equals("default"))) variationName = ECCommon.geomVariation;
+        if(!(options.geomVariation.equals("default"))) variationName = options.geomVariation;
         LOGGER.log(Level.INFO,"GEOMETRY VARIATION IS "+variationName);
-        ECCommon.ecDetector =  GeometryFactory.getDetector(DetectorType.ECAL,11,variationName);
+        options.ecDetector =  GeometryFactory.getDetector(DetectorType.ECAL,11,variationName);
 
         setConfig("test");
         
-        if(ECCommon.usePass2Recon) {  //for testing pass2 recon peak splitting methods
+        if(options.usePass2Recon) {  //for testing pass2 recon peak splitting methods
         setStripThresholds(10,9,8);   //pass1 10,9,8
         setPeakThresholds(18,20,15);  //pass1 18,20,15
         setClusterThresholds(0,0,0);
@@ -442,15 +553,15 @@ public class ECEngine extends ReconstructionEngine {
         setTouchID(2);                //pass1 1
         }
         
-        if(!ECCommon.usePass2Recon) { //use pass1 recon but pass2 timing 
+        if(!options.usePass2Recon) { //use pass1 recon but pass2 timing 
         setStripThresholds(10,9,8);   //pass1 10,9,8
         setPeakThresholds(18,20,15);  //pass1 18,20,15
         setClusterThresholds(0,0,0);
         setClusterCuts(7,15,20);      //pass1 7,15,20
-        setDTCorrections(ECCommon.useDTCorrections); //replace missing TDC time with FADC time
-        setUsePass2Energy(ECCommon.usePass2Energy);  //use pass2 CCDB tables for attenuation  
-        setUsePass2Timing(ECCommon.usePass2Timing);  //use pass2 CCDB tables for FADC/TDC calibrations        
-        setUseFTpcal(ECCommon.useFTpcal);            //use FADC time for all PCAL channels
+        setDTCorrections(options.useDTCorrections); //replace missing TDC time with FADC time
+        setUsePass2Energy(options.usePass2Energy);  //use pass2 CCDB tables for attenuation  
+        setUsePass2Timing(options.usePass2Timing);  //use pass2 CCDB tables for FADC/TDC calibrations        
+        setUseFTpcal(options.useFTpcal);            //use FADC time for all PCAL channels
         setSplitMethod(0);            //pass1 0=gagik method
         setSplitThresh(3,3,3);        //pass1 3,3,3
         setTouchID(1);                //pass1 1
@@ -462,7 +573,7 @@ public class ECEngine extends ReconstructionEngine {
         this.registerOutputBank("ECAL::calib");
         this.registerOutputBank("ECAL::moments"); 
 
-        if (ECCommon.isSingleThreaded) ECCommon.initHistos();
+        if (options.isSingleThreaded) ECCommon.initHistos(H1_ecEng, H2_ecEng);
         
         return true;
     }
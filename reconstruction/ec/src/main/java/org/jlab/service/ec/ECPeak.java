@@ -34,10 +34,12 @@ public class ECPeak implements Comparable {
     private int                 splitStrip       = 0;
     private int                 splitEnergy      = 0;
     private Map<Integer,Integer>      imap       = new HashMap<>();
+    private final ECConfig      config;
     //private int                 peakID        = -1;
     static int ind[]  = {0,0,0,1,1,1,2,2,2}; 
     
     public ECPeak(ECStrip strip){
+        config = strip.getConfig();
         desc.setSectorLayerComponent(strip.getDescriptor().getSector(), 
                                      strip.getDescriptor().getLayer(), 0);
         peakStrips.add(strip);
@@ -47,6 +49,7 @@ public class ECPeak implements Comparable {
         indexMaxStrip = 0;
     }
     
+    public ECConfig getConfig()           {return config;}
     public void setOrder(int order)       {peakOrder = order;}
     public void setStatus(int val)        {peakStatus+=val;}
     public void setSplitRatio(double val) {splitRatio = val;}
@@ -177,13 +180,13 @@ public class ECPeak implements Comparable {
         peakMoment3      = 0.0;
         
         double logSumm = 0.0;       
-        double peakEnergy = (ECCommon.logParam==1.0)?1.0:getEnergy()*1000; 
+        double peakEnergy = (config.logParam==1.0)?1.0:getEnergy()*1000; 
         
         for(int i = 0; i < peakStrips.size(); i++){
             Line3D line = peakStrips.get(i).getLine();
 
             double energyMev = peakStrips.get(i).getEnergy()*1000.0; //raw strip energy, no attenuation correction           
-            double le = Math.max(0.,ECCommon.logParam + Math.log(energyMev/peakEnergy)); //logParam==0 used in pass1
+            double le = Math.max(0.,config.logParam + Math.log(energyMev/peakEnergy)); //logParam==0 used in pass1
             //NaN for energyMeV<=1 MeV le=0 !!!
             peakDistanceEdge += peakStrips.get(i).getDistanceEdge()*le; //used for lu, lv, lw fiducials
             
@@ -292,12 +295,12 @@ public class ECPeak implements Comparable {
         int     split = -1;
         double  ratio = 0.0;
         
-        if(peakStrips.size()>ECCommon.splitThresh[ind[getDescriptor().getLayer()-1]]){
+        if(peakStrips.size()>config.splitThresh[ind[getDescriptor().getLayer()-1]]){
             for(int i = 1; i < peakStrips.size()-1; i++){
                 double left  = integral(i, false);
                 double right = integral(i, true);
                 double lf_ratio = left/right;
-                if(ECCommon.debugSplit) {
+                if(config.debugSplit) {
                 	int  s = peakStrips.get(i).getDescriptor().getSector();
                 	int il = peakStrips.get(i).getDescriptor().getLayer(); 
                     double oleft  = integral_old(i, false);
@@ -318,12 +321,12 @@ public class ECPeak implements Comparable {
         double  ratio_lo = 0.05, ratio_hi = 1e7;
         int splitStripLast=-100, splitEnergyLast=0;
         
-        if(!peakSplit && peakStrips.size()>ECCommon.splitThresh[ind[getDescriptor().getLayer()-1]]){
+        if(!peakSplit && peakStrips.size()>config.splitThresh[ind[getDescriptor().getLayer()-1]]){
             for(int i = 1; i < peakStrips.size()-1; i++){
                 double right = integral_old(i, false);
                 double  left = integral_old(i, true);
                 double rl_ratio = right/left;
-                if(ECCommon.debugSplit) {
+                if(config.debugSplit) {
                 	int  s = peakStrips.get(i).getDescriptor().getSector();
                 	int il = peakStrips.get(i).getDescriptor().getLayer(); 
                 	int ip = peakStrips.get(i).getDescriptor().getComponent();
@@ -350,9 +353,8 @@ public class ECPeak implements Comparable {
     
     int new_getSplitIndex() { //split2: lcsmith method sorts striplist by energy + dipfinder.  Peaklist split only once.
     	int split = -1;   	
-        if(!peakSplit && peakStrips.size()>ECCommon.splitThresh[ind[getDescriptor().getLayer()-1]]){
-        	ECCommon.stripSortMethod=ECCommon.splitMethod; 
-         	List<ECStrip> sortStrips = new ArrayList<ECStrip>(); sortStrips.addAll(peakStrips); Collections.sort(sortStrips);          	
+        if(!peakSplit && peakStrips.size()>config.splitThresh[ind[getDescriptor().getLayer()-1]]){
+         	List<ECStrip> sortStrips = new ArrayList<ECStrip>(); sortStrips.addAll(peakStrips); Collections.sort(sortStrips, ECStrip.BY_ENERGY);          	
         	return setSplitStrip(getDipIndex(sortpair(sortStrips,0,1)));
         }    	
     	return split;
@@ -418,14 +420,14 @@ public class ECPeak implements Comparable {
         List<Integer> mns = new ArrayList<Integer>();
         List<ECStrip>  sl = new ArrayList<ECStrip>(); sl.addAll(peakStrips);  
         
-        if(!peakSplit && peakStrips.size()>ECCommon.splitThresh[ind[getDescriptor().getLayer()-1]]){
+        if(!peakSplit && peakStrips.size()>config.splitThresh[ind[getDescriptor().getLayer()-1]]){
         	
         	for (int i = 0; i < sl.size(); i++) if (isMax(sl, sl.size(), sl.get(i).getEnergy(), i-1, i+1)) mxs.add(sl.get(i)); 
         	for (int i = 0; i < sl.size(); i++) if (isMin(sl, sl.size(), sl.get(i).getEnergy(), i-1, i+1)) mns.add(i); 
         	      
-        	ECCommon.stripSortMethod=ECCommon.splitMethod; Collections.sort(mxs); 
+        	Collections.sort(mxs, ECStrip.BY_ENERGY); 
         	
-        	if(ECCommon.debugSplit) {        	
+        	if(config.debugSplit) {        	
         		System.out.println(" ");
         		for (ECStrip s : mxs) System.out.println("Max1: "+peakStrips.get(s.getStripID()).toString());
         		for (Integer i : mns) System.out.println("Min1: "+peakStrips.get(i).toString());
@@ -452,7 +454,7 @@ public class ECPeak implements Comparable {
         List<Integer> MaxInd = new ArrayList<Integer>();
         List<Integer> MinInd = new ArrayList<Integer>();  	
         List<ECStrip> s = new ArrayList<ECStrip>(); s.addAll(peakStrips);
-        if(!peakSplit && peakStrips.size()>ECCommon.splitThresh[ind[getDescriptor().getLayer()-1]]){
+        if(!peakSplit && peakStrips.size()>config.splitThresh[ind[getDescriptor().getLayer()-1]]){
             boolean directionUp = peakStrips.get(0).getEnergy() <= peakStrips.get(1).getEnergy(); 
             
         	for (int i = 0; i < s.size()-1; i++) {
@@ -512,7 +514,7 @@ public class ECPeak implements Comparable {
         
         double norm = ((double) intg) - ((double) splitEnergy)*count; 
         
-        if(ECCommon.debugSplit) System.out.println(right+" "+count+" "+intg+" "+splitEnergy+" "+norm);
+        if(config.debugSplit) System.out.println(right+" "+count+" "+intg+" "+splitEnergy+" "+norm);
 
         return norm;
     }
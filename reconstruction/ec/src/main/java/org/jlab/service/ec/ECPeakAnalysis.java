@@ -28,7 +28,7 @@ public class ECPeakAnalysis {
     public static int[] getPeakSplitIndex(List<ECPeak> peaks){ 
     	int [] split = {-1,-1,-1}; int[] zero = {-1,-1,-1}; 
         for(int i = 0; i < peaks.size(); i++){
-            split[0] = peaks.get(i).getSplitIndex(ECCommon.splitMethod); //index of strip used to split peak
+            split[0] = peaks.get(i).getSplitIndex(peaks.get(i).getConfig().splitMethod); //index of strip used to split peak
             split[1] = peaks.get(i).getSplitStrip(); //strip used to split peak
             split[2] = i;
             if(split[0]>=0) return split; //index of peak tagged to be split
@@ -37,10 +37,11 @@ public class ECPeakAnalysis {
     }
     
     public static void splitPeaks(List<ECPeak> peaks){
+        boolean debugSplit = !peaks.isEmpty() && peaks.get(0).getConfig().debugSplit;
         while(true){ //repeat processing all peaks until no split found
-        	if(ECCommon.debugSplit) System.out.println(" ");
+        	if(debugSplit) System.out.println(" ");
             int[] split = getPeakSplitIndex(peaks);
-        	if(ECCommon.debugSplit) System.out.println("New Iteration "+split[0]+" "+split[1]);
+        	if(debugSplit) System.out.println("New Iteration "+split[0]+" "+split[1]);
             if(split[2]<0){
                 return; // no split was found in any peak.  Exit.
             } else {
@@ -60,7 +61,7 @@ public class ECPeakAnalysis {
      */
     public static int[] getPeakSplitIndex(ECPeak peak, List<ECPeak> allPeaks){
         int [] split = {-1,-1,-1};
-        split[0] = peak.getSplitIndex(ECCommon.splitMethod);
+        split[0] = peak.getSplitIndex(peak.getConfig().splitMethod);
         split[1] = peak.getSplitStrip(); //strip used to split peak
         split[2] = 0;
         if(split[0]>=0) {
@@ -71,8 +72,8 @@ public class ECPeakAnalysis {
             List<ECPeak>  others = ECPeakAnalysis.getMatchingPeaks(peak, allPeaks);
             if(others.size()!=2) return split;
 
-            int splitIndexOne = others.get(0).getSplitIndex(ECCommon.splitMethod);
-            int splitIndexTwo = others.get(1).getSplitIndex(ECCommon.splitMethod);
+            int splitIndexOne = others.get(0).getSplitIndex(peak.getConfig().splitMethod);
+            int splitIndexTwo = others.get(1).getSplitIndex(peak.getConfig().splitMethod);
             //System.out.printf("\t >>> inside the loop where matching others were found, so one = %d, two = %d\n",
             //        splitIndexOne, splitIndexTwo);
             if(splitIndexOne>=0||splitIndexTwo>=0) return split;
@@ -1,5 +1,6 @@
 package org.jlab.service.ec;
 
+import java.util.Comparator;
 import org.jlab.detector.base.DetectorDescriptor;
 import org.jlab.detector.base.DetectorType;
 import org.jlab.geom.prim.Line3D;
@@ -65,12 +66,20 @@ public class ECStrip implements Comparable {
     private EnergyCorrection          ecc = null;
     private TimeCorrection     tc,ftc,dtc = null; 
     
-    public ECStrip(int sector, int layer, int component){
+    private final ECConfig         config;
+    
+    /**
+     * Orders strips by decreasing energy, used by the peak splitting methods.
+     */
+    public static final Comparator<ECStrip> BY_ENERGY = Comparator.<ECStrip>comparingDouble(ECStrip::getEnergy).reversed();
+    
+    public ECStrip(int sector, int layer, int component, ECConfig config){
+        this.config = config;
         desc.setSectorLayerComponent(sector, layer, component);
         ecc = new corrEnergy(); 
-        ftc = ECCommon.usePass2Timing ? new ExtendedTWCFTime() : new ExtendedTWCTime(); //FADC timing pass2:pass1
-        dtc = ECCommon.usePass2Timing ? new ExtendedTWCDTime() : new ExtendedTWCTime(); //TDC  timing pass2:pass1
-        tc  = ECCommon.useFADCTime ? ftc : dtc; //user selected for FADC:TDC timing calibration 
+        ftc = config.usePass2Timing ? new ExtendedTWCFTime() : new ExtendedTWCTime(); //FADC timing pass2:pass1
+        dtc = config.usePass2Timing ? new ExtendedTWCDTime() : new ExtendedTWCTime(); //TDC  timing pass2:pass1
+        tc  = config.useFADCTime ? ftc : dtc; //user selected for FADC:TDC timing calibration 
     }
     
     abstract class EnergyCorrection {
@@ -227,7 +236,7 @@ public class ECStrip implements Comparable {
     }
 
     public int getTDC(){
-        return ECCommon.useFADCTime ? (int) (iTADC/iTimA1) : iTDC;
+        return config.useFADCTime ? (int) (iTADC/iTimA1) : iTDC;
     }
     
     public double getRawTime(){
@@ -247,9 +256,9 @@ public class ECStrip implements Comparable {
     }
     
     public boolean useFT() {
-    	boolean test1 = ECCommon.useFADCTime;
-    	boolean test2 = ECCommon.useFTpcal && desc.getLayer()==1;
-    	boolean test3 = ECCommon.useDTCorrections && getDTime()<=0;
+    	boolean test1 = config.useFADCTime;
+    	boolean test2 = config.useFTpcal && desc.getLayer()==1;
+    	boolean test3 = config.useDTCorrections && getDTime()<=0;
     	return test1 || test2 || test3;
     }
     
@@ -342,7 +351,7 @@ public class ECStrip implements Comparable {
     } 
     
     public double getVeff() {
-        return (useFT() ? fveff : (ECCommon.usePass2Timing ? dveff:veff));
+        return (useFT() ? fveff : (config.usePass2Timing ? dveff:veff));
     }
            
     public void setGain(double val){
@@ -468,7 +477,7 @@ public class ECStrip implements Comparable {
     public boolean isNeighbour(ECStrip strip){
         if(strip.getDescriptor().getSector() == desc.getSector() &&
            strip.getDescriptor().getLayer()  == desc.getLayer()){
-           if(Math.abs(strip.getDescriptor().getComponent()-desc.getComponent())<=ECCommon.touchID) return true;
+           if(Math.abs(strip.getDescriptor().getComponent()-desc.getComponent())<=config.touchID) return true;
         }
         return false;
     }
@@ -478,19 +487,18 @@ public class ECStrip implements Comparable {
         return false;
     } 
     
+    public ECConfig getConfig() {
+        return config;
+    }
+    
     public int compareTo(Object o) {
         ECStrip ob = (ECStrip) o;
-        if (ECCommon.stripSortMethod==0) {
-            if(ob.getDescriptor().getSector()     < desc.getSector())    return  1;
-            if(ob.getDescriptor().getSector()     > desc.getSector())    return -1;
-            if(ob.getDescriptor().getLayer()      < desc.getLayer())     return  1;
-            if(ob.getDescriptor().getLayer()      > desc.getLayer())     return -1;
-            if(ob.getDescriptor().getComponent() <  desc.getComponent()) return  1;
-            if(ob.getDescriptor().getComponent() == desc.getComponent()) return  0;
-        } else {
-        	if(ob.getEnergy()                       > getEnergy())            return  1;
-        	if(ob.getEnergy()                       < getEnergy())            return -1;
-        }
+        if(ob.getDescriptor().getSector()     < desc.getSector())    return  1;
+        if(ob.getDescriptor().getSector()     > desc.getSector())    return -1;
+        if(ob.getDescriptor().getLayer()      < desc.getLayer())     return  1;
+        if(ob.getDescriptor().getLayer()      > desc.getLayer())     return -1;
+        if(ob.getDescriptor().getComponent() <  desc.getComponent()) return  1;
+        if(ob.getDescriptor().getComponent() == desc.getComponent()) return  0;
         return -1;
     }
     
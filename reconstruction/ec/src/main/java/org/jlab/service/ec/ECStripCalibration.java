@@ -0,0 +1,273 @@
+package org.jlab.service.ec;
+
+import org.jlab.detector.base.DetectorLayer;
+import org.jlab.detector.calib.utils.ConstantsManager;
+import org.jlab.geom.base.Layer;
+import org.jlab.geom.component.ScintillatorPaddle;
+import org.jlab.geom.prim.Line3D;
+import org.jlab.utils.groups.IndexedTable;
+
+/**
+ * Calibration constants and geometry of all PCAL/EC strips for one run,
+ * read once from the calibration tables and stored in arrays indexed by
+ * sector, layer and strip, with the options of the run's {@link ECConfig}
+ * (pass1/pass2 attenuation, gain source, time walk corrections, tracking
+ * planes) already applied.
+ *
+ * Read only after construction and shared by all events of the run.
+ */
+
+public class ECStripCalibration {
+
+    static final int NSECTORS = 6;
+    static final int NLAYERS  = 9;
+
+    private final int run;
+    private final int nstrips;
+
+    // per sector and layer:
+    private final double[] gtw;
+    private final float[]  fadcOffset;
+
+    // per strip:
+    private final int[]    status;
+    private final float[]  tmfOffset;
+    private final Line3D[] line;
+    private final double[] distanceEdge;
+    private final double[] atten;
+    private final double[] gain;
+    private final double[] veff, dveff, fveff;
+    private final double[] itime, dtime, ftime;
+
+    // global:
+    private final double dtimeGlobalOffset;
+    private final double ftimeGlobalOffset;
+    private final double period;
+    private final int    phase;
+    private final int    cycles;
+    private final float  ftOffset;
+    private final float  tmfCut;
+
+    public ECStripCalibration(ECConfig config, int run, ConstantsManager manager) {
+
+        this.run = run;
+
+        IndexedTable   atten1 = manager.getConstants(run, "/calibration/ec/attenuation");
+        IndexedTable   atten2 = manager.getConstants(run, "/calibration/ec/atten");              //pass2
+        IndexedTable   gainT  = manager.getConstants(run, "/calibration/ec/gain");
+        IndexedTable   itimeT = manager.getConstants(run, "/calibration/ec/timing");
+        IndexedTable   ftimeT = manager.getConstants(run, "/calibration/ec/ftime");              //pass2
+        IndexedTable   dtimeT = manager.getConstants(run, "/calibration/ec/dtime");              //pass2
+        IndexedTable    veffT = manager.getConstants(run, "/calibration/ec/effective_velocity");
+        IndexedTable      fev = manager.getConstants(run, "/calibration/ec/fveff");              //pass2
+        IndexedTable      dev = manager.getConstants(run, "/calibration/ec/dveff");              //pass2
+        IndexedTable      fdj = manager.getConstants(run, "/calibration/ec/fdjitter");           //pass2
+        IndexedTable      ggs = manager.getConstants(run, "/calibration/ec/global_gain_shift");
+        IndexedTable     gtwT = manager.getConstants(run, "/calibration/ec/global_time_walk");
+        IndexedTable      tgo = manager.getConstants(run, "/calibration/ec/tdc_global_offset");
+        IndexedTable   r2gain = manager.getConstants(2,   "/calibration/ec/gain");
+        IndexedTable   jitter = manager.getConstants(run, "/calibration/ec/time_jitter");
+        IndexedTable       fo = manager.getConstants(run, "/calibration/ec/fadc_offset");        // TDC-FADC offset (sector, layer)
+        IndexedTable      tmf = manager.getConstants(run, "/calibration/ec/tmf_offset");         // TDC-FADC offset (sector, layer, PMT)
+        IndexedTable      fgo = manager.getConstants(run, "/calibration/ec/fadc_global_offset"); // TDC-FADC global offset (trigger)
+        IndexedTable   tmfcut = manager.getConstants(run, "/calibration/ec/tmf_window");         // TDC-FADC cut
+        IndexedTable  statusT = manager.getConstants(run, "/calibration/ec/status");
+
+        period   = jitter.getDoubleValue("period",0,0,0);
+        phase    = jitter.getIntValue("phase",0,0,0);
+        cycles   = jitter.getIntValue("cycles",0,0,0);
+        ftOffset = (float) fgo.getDoubleValue("global_offset",0,0,0); //global shift of trigger time
+        tmfCut   = (float) tmfcut.getDoubleValue("window", 0,0,0); //acceptance window for TDC-FADC cut
+
+        dtimeGlobalOffset = tgo.getDoubleValue("offset",0,0,0); //global shift of TDC acceptance window
+        ftimeGlobalOffset = tgo.getDoubleValue("offset",0,0,0)+  //global shift of TDC acceptance window
+                   (double) fdj.getDoubleValue("offset",0,0,0); //jitter correction (usually +/- 2ns)
+
+        int pcalz = config.pcTrackingPlane!=-1 ? config.pcTrackingPlane:DetectorLayer.PCAL_Z;
+        int ecinz = config.ecTrackingPlane!=-1 ? config.ecTrackingPlane:DetectorLayer.EC_INNER_Z;
+        int ecouz = config.ecTrackingPlane!=-1 ? config.ecTrackingPlane:DetectorLayer.EC_OUTER_Z;
+
+        int max = 0;
+        for (int layer = 1; layer <= NLAYERS; layer++) {
+            max = Math.max(max, getLayer(config, 1, layer, pcalz, ecinz, ecouz).getNumComponents());
+        }
+        nstrips = max;
+
+        int n = NSECTORS*NLAYERS*nstrips;
+        gtw          = new double[NSECTORS*NLAYERS];
+        fadcOffset   = new float[NSECTORS*NLAYERS];
+        status       = new int[n];
+        tmfOffset    = new float[n];
+        line         = new Line3D[n];
+        distanceEdge = new double[n];
+        atten        = new double[5*n];
+        gain         = new double[n];
+        veff         = new double[n];
+        dveff        = new double[n];
+        fveff        = new double[n];
+        itime        = new double[5*n];
+        dtime        = new double[9*n];
+        ftime        = new double[7*n];
+
+        for (int sector = 1; sector <= NSECTORS; sector++) {
+            for (int layer = 1; layer <= NLAYERS; layer++) {
+
+                int sl = (sector-1)*NLAYERS + layer-1;
+                gtw[sl]        = gtwT.getDoubleValue("time_walk",sector,layer,0);
+                fadcOffset[sl] = (float) fo.getDoubleValue("offset",sector,layer,0);
+
+                Layer detLayer = getLayer(config, sector, layer, pcalz, ecinz, ecouz);
+                ScintillatorPaddle firstPaddle = (ScintillatorPaddle) detLayer.getComponent(0);
+                ScintillatorPaddle  lastPaddle = (ScintillatorPaddle) detLayer.getComponent(detLayer.getNumComponents()-1);
+
+                for (int component = 1; component <= detLayer.getNumComponents(); component++) {
+
+                    int i = sl*nstrips + component-1;
+
+                    status[i]    = statusT.getIntValue("status",sector,layer,component);
+                    tmfOffset[i] = (float) tmf.getDoubleValue("offset",sector,layer,component);
+
+                    ScintillatorPaddle paddle = (ScintillatorPaddle) detLayer.getComponent(component-1);
+                    line[i] = paddle.getLine();
+                    distanceEdge[i] = paddle.getLine().origin().distance(firstPaddle.getLine().origin());
+                    // Modified on May 1st 2019. This is to account for
+                    // the fact that the distance from the edge on PCAL
+                    // for layers V and W are calculated from the wider
+                    // strips edge.
+                    if(layer==2||layer==3){
+                        double distance = paddle.getLine().origin().distance(lastPaddle.getLine().origin());
+                        double hL = 394.2*0.5;
+                        double hyp = Math.sqrt(hL*hL + 385.2*385.2);
+                        double theta = Math.acos(hL/hyp);
+                        double proj  = 4.5*Math.cos(theta);
+                        distanceEdge[i] = distance + proj;
+                    }
+                    // End of the edit.
+
+                    if(!config.usePass2Energy) {
+                        set(atten, 5*i, atten1.getDoubleValue("A", sector,layer,component),
+                                        atten1.getDoubleValue("B", sector,layer,component),
+                                        atten1.getDoubleValue("C", sector,layer,component),
+                                        0,
+                                        100);
+                    }
+                    else {
+                        set(atten, 5*i, atten2.getDoubleValue("A", sector,layer,component),
+                                        atten2.getDoubleValue("B", sector,layer,component),
+                                        atten2.getDoubleValue("C", sector,layer,component),
+                                        atten2.getDoubleValue("D", sector,layer,component),
+                                        atten2.getDoubleValue("E", sector,layer,component));
+                    }
+
+                    double ccdbGain =  gainT.getDoubleValue("gain", sector,layer,component)*ggs.getDoubleValue("gain_shift",sector,layer,0);
+                    double run2Gain = r2gain.getDoubleValue("gain", sector,layer,component);
+                    gain[i] = config.useCCDBGain ? ccdbGain : run2Gain;
+
+                    veff[i]  = veffT.getDoubleValue("veff",sector,layer,component);
+                    dveff[i] = dev.getDoubleValue("veff",sector,layer,component);
+                    fveff[i] = fev.getDoubleValue("veff",sector,layer,component);
+
+                    if(!config.useTWCorrections) { //For TWC calibration must start from scratch as corrections cannot be iterated
+                        set(itime, 5*i, itimeT.getDoubleValue("a0", sector, layer, component),
+                                        itimeT.getDoubleValue("a1", sector, layer, component),
+                                        0, 0, 0);
+                        set(dtime, 9*i, dtimeT.getDoubleValue("a0", sector, layer, component),
+                                        dtimeT.getDoubleValue("a1", sector, layer, component),
+                                        0, 0, 0, 0, 0, 0, 0);
+                        set(ftime, 7*i, ftimeT.getDoubleValue("a0", sector, layer, component),
+                                        1, 0, 0, 0, 0, 0);
+                    }
+                    else {
+                        for (int k = 0; k < 5; k++) itime[5*i+k] = itimeT.getDoubleValue("a"+k, sector, layer, component);
+                        for (int k = 0; k < 9; k++) dtime[9*i+k] = dtimeT.getDoubleValue("a"+k, sector, layer, component);
+                        for (int k = 0; k < 7; k++) ftime[7*i+k] = k==1 ? 1 : ftimeT.getDoubleValue("a"+k, sector, layer, component);
+                    }
+                }
+            }
+        }
+    }
+
+    private static Layer getLayer(ECConfig config, int sector, int layer, int pcalz, int ecinz, int ecouz) {
+        int superlayer = (int) ((layer-1)/3);                 //0=PCAL 1=ECIN 2=ECOU
+        int localLayer = (layer-1)%3;                         //0=U 1=V 2=W
+        int off = superlayer==0 ? pcalz : (superlayer==1 ? ecinz : ecouz);
+        return config.ecDetector.getSector(sector-1).getSuperlayer(superlayer).getLayer(localLayer+off); //localLayer+off=9,10,11 for U,V,W planes
+    }
+
+    private static void set(double[] array, int offset, double... values) {
+        System.arraycopy(values, 0, array, offset, values.length);
+    }
+
+    /**
+     * @return the index of the strip, or -1 if it does not exist
+     */
+    int index(int sector, int layer, int component) {
+        if (sector<1 || sector>NSECTORS || layer<1 || layer>NLAYERS || component<1 || component>nstrips) return -1;
+        int i = ((sector-1)*NLAYERS + layer-1)*nstrips + component-1;
+        return line[i]==null ? -1 : i;
+    }
+
+    public int getRun() {
+        return run;
+    }
+
+    public int getStatus(int sector, int layer, int component) {
+        int i = index(sector, layer, component);
+        return i<0 ? 0 : status[i];
+    }
+
+    /**
+     * @return the TDC-FADC offset for the strip's PMT, 0 if unknown
+     */
+    public float getTMFOffset(int sector, int layer, int component) {
+        int i = index(sector, layer, component);
+        return i<0 ? 0 : tmfOffset[i];
+    }
+
+    /**
+     * @return the TDC-FADC offset for the sector and layer, 0 if unknown
+     */
+    public float getFADCOffset(int sector, int layer) {
+        if (sector<1 || sector>NSECTORS || layer<1 || layer>NLAYERS) return 0;
+        return fadcOffset[(sector-1)*NLAYERS + layer-1];
+    }
+
+    public double getTimeWalk(int sector, int layer) {
+        if (sector<1 || sector>NSECTORS || layer<1 || layer>NLAYERS) return 0;
+        return gtw[(sector-1)*NLAYERS + layer-1];
+    }
+
+    public double getPeriod()   {return period;}
+    public int    getPhase()    {return phase;}
+    public int    getCycles()   {return cycles;}
+    public float  getFTOffset() {return ftOffset;}
+    public float  getTMFCut()   {return tmfCut;}
+
+    /**
+     * Sets the geometry and calibration constants of a strip.
+     * @param strip the strip
+     */
+    public void apply(ECStrip strip) {
+        int sector    = strip.getDescriptor().getSector();
+        int layer     = strip.getDescriptor().getLayer();
+        int component = strip.getDescriptor().getComponent();
+        int i = index(sector, layer, component);
+        if (i < 0) throw new IllegalArgumentException(String.format("no EC strip %d/%d/%d", sector, layer, component));
+
+        strip.getLine().copy(line[i]);
+        strip.setDistanceEdge(distanceEdge[i]);
+        strip.setAttenuation(atten[5*i], atten[5*i+1], atten[5*i+2], atten[5*i+3], atten[5*i+4]);
+        strip.setGain(gain[i]);
+        strip.setDtimeGlobalTimeWalk(getTimeWalk(sector, layer));
+        strip.setVeff(veff[i]);
+        strip.setDVeff(dveff[i]);
+        strip.setFVeff(fveff[i]);
+        strip.setITime(itime[5*i], itime[5*i+1], itime[5*i+2], itime[5*i+3], itime[5*i+4]);
+        strip.setDTime(dtime[9*i], dtime[9*i+1], dtime[9*i+2], dtime[9*i+3], dtime[9*i+4],
+                       dtime[9*i+5], dtime[9*i+6], dtime[9*i+7], dtime[9*i+8]);
+        strip.setFTime(ftime[7*i], ftime[7*i+1], ftime[7*i+2], ftime[7*i+3], ftime[7*i+4], ftime[7*i+5], ftime[7*i+6]);
+        strip.setDtimeGlobalTimingOffset(dtimeGlobalOffset);
+        strip.setFtimeGlobalTimingOffset(ftimeGlobalOffset);
+    }
+
+}
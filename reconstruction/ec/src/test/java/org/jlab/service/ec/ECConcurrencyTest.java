@@ -0,0 +1,114 @@
+package org.jlab.service.ec;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import org.jlab.io.base.DataBank;
+import org.jlab.io.base.DataEvent;
+
+import org.jlab.analysis.physics.TestEvent;
+import org.jlab.io.hipo.HipoDataEvent;
+import org.jlab.jnp.hipo4.data.Bank;
+import org.jlab.jnp.hipo4.data.Event;
+import org.jlab.jnp.hipo4.data.SchemaFactory;
+import org.jlab.utils.system.ClasUtilsFile;
+
+/**
+ * Runs one ECEngine on many threads at once and compares the output
+ * banks of each event with those of processing it serially.
+ */
+public class ECConcurrencyTest {
+
+  static final int NTHREADS = 8;
+  static final int NEVENTS  = 200;
+
+  // bank, byte columns, short columns, float columns:
+  static final String[][][] BANKS = {
+    {{"ECAL::hits"},     {"sector","layer","strip","peakid"}, {"id","clusterId"}, {"energy","time"}},
+    {{"ECAL::peaks"},    {"sector","layer"}, {"status"}, {"energy","time","xo","yo","zo","xe","ye","ze"}},
+    {{"ECAL::clusters"}, {"sector","layer","idU","idV","idW"}, {"status"}, {"energy","time","x","y","z","widthU","widthV","widthW"}},
+    {{"ECAL::calib"},    {"sector","layer"}, {"dbstU","dbstV","dbstW"}, {"size","rawEU","rawEV","rawEW","recEU","recEV","recEW","recDTU","recDTV","recDTW","recFTU","recFTV","recFTW"}},
+    {{"ECAL::moments"},  {}, {}, {"distU","distV","distW","m1u","m1v","m1w","m2u","m2v","m2w","m3u","m3v","m3w"}}
+  };
+
+  // the test photon moved to another sector and with its ADCs scaled, so
+  // that every event is different:
+  private static DataEvent getEvent(SchemaFactory schemaFactory, int i) {
+    HipoDataEvent event = TestEvent.getECSector1PhotonEvent(schemaFactory);
+    Event hipo = event.getHipoEvent();
+    byte sector = (byte) (1 + i % 6);
+    double scale = 1 - 0.4 * i / NEVENTS;
+    for (String name : new String[]{"ECAL::adc", "ECAL::tdc"}) {
+      Bank bank = new Bank(schemaFactory.getSchema(name));
+      hipo.read(bank);
+      for (int row = 0; row < bank.getRows(); row++) {
+        bank.putByte("sector", row, sector);
+        if (name.equals("ECAL::adc")) bank.putInt("ADC", row, (int) (bank.getInt("ADC", row) * scale));
+      }
+      hipo.remove(bank.getSchema());
+      hipo.write(bank);
+    }
+    return event;
+  }
+
+  private static String dump(DataEvent event) {
+    StringBuilder str = new StringBuilder();
+    for (String[][] columns : BANKS) {
+      DataBank bank = event.getBank(columns[0][0]);
+      str.append(columns[0][0]).append(" ").append(bank.rows()).append("\n");
+      for (int row = 0; row < bank.rows(); row++) {
+        for (String c : columns[1]) str.append(c).append("=").append(bank.getByte(c, row)).append(" ");
+        for (String c : columns[2]) str.append(c).append("=").append(bank.getShort(c, row)).append(" ");
+        for (String c : columns[3]) str.append(c).append("=").append(bank.getFloat(c, row)).append(" ");
+        str.append("\n");
+      }
+    }
+    return str.toString();
+  }
+
+  @Test
+  public void testConcurrentEvents() throws Exception {
+
+    System.setProperty("CLAS12DIR", "../../");
+
+    String dir = ClasUtilsFile.getResourceDir("CLAS12DIR", "etc/bankdefs/hipo4");
+    SchemaFactory schemaFactory = new SchemaFactory();
+    schemaFactory.initFromDirectory(dir);
+
+    ECEngine engineEC = new ECEngine();
+    engineEC.init();
+
+    List<String> expected = new ArrayList<>();
+    for (int i = 0; i < NEVENTS; i++) {
+      DataEvent serial = getEvent(schemaFactory, i);
+      engineEC.processDataEvent(serial);
+      expected.add(dump(serial));
+      if (i == 0) assertEquals(serial.getBank("ECAL::clusters").rows(), 3);
+    }
+
+    List<DataEvent> events = new ArrayList<>();
+    for (int i = 0; i < NEVENTS; i++) events.add(getEvent(schemaFactory, i));
+
+    ExecutorService executor = Executors.newFixedThreadPool(NTHREADS);
+    try {
+      List<Future<String>> results = new ArrayList<>();
+      for (DataEvent event : events) {
+        results.add(executor.submit(() -> {
+          engineEC.processDataEvent(event);
+          return dump(event);
+        }));
+      }
+      for (int i = 0; i < NEVENTS; i++) assertEquals("event " + i, expected.get(i), results.get(i).get());
+    }
+    finally {
+      executor.shutdown();
+    }
+  }
+
+}
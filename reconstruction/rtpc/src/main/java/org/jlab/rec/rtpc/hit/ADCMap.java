@@ -5,81 +5,261 @@
  */
 package org.jlab.rec.rtpc.hit;
 
-import java.util.HashMap;
+import java.util.Arrays;
 
 /**
+ * Integrated pad signals of an event, stored sparsely: for each fired pad,
+ * only the occupied time bins, in increasing order, and their amplitudes.
+ *
+ * Pads are numbered in the order they are first filled, which is the order
+ * of the pad list built by {@link SignalSimulation}.  The samples can also
+ * be read by increasing time, and by pad number within a time bin.
  *
  * @author davidpayette
  */
 public class ADCMap {
-    
-    private HashMap<Integer,double[]> _ADCMap;
-    private HashMap<Integer,double[]> _intADCMap;
 
     final private int TrigWindSize = 10000;
     final private int SignalStepSize = 10;
-    
+
+    // pads by number, and the open addressing table of pad number + 1
+    private int[] _pads = new int[64];
+    private int[] _table = new int[128];
+    private int _npads = 0;
+
+    // by pad number, the occupied time bins in increasing order and their integrated signal
+    private int[][] _times = new int[64][];
+    private float[][] _adcs = new float[64][];
+    private int[] _nsamples = new int[64];
+
+    // by pad number, the simulated signal every SignalStepSize before integration
+    private double[][] _signals = new double[64][];
+
+    // samples by increasing time, built on demand
+    private boolean _indexed = false;
+    private int[] _timeBins = new int[0];
+    private int[] _timeStart = new int[1];
+    private int[] _samplePads = new int[0];
+    private float[] _sampleADCs = new float[0];
+
     public ADCMap(){
-        _ADCMap = new HashMap<>();
-        _intADCMap = new HashMap<>();
 
     }
-    
+
     public void simulateSignal(int Pad, double time, double Edep){
-        if(!_ADCMap.containsKey(Pad)){
-            _ADCMap.put(Pad, new double[TrigWindSize]);
+        int n = addPad(Pad);
+        if(_signals[n] == null){
+            _signals[n] = new double[TrigWindSize/SignalStepSize];
         }
-        for(int tbin=0;tbin<TrigWindSize;tbin+=SignalStepSize){   
-            _ADCMap.get(Pad)[tbin] += getSignalAtBin(time,tbin,Edep);
+        for(int tbin=0;tbin<TrigWindSize;tbin+=SignalStepSize){
+            _signals[n][tbin/SignalStepSize] += getSignalAtBin(time,tbin,Edep);
         }
     }
-    
+
     public void integrateSignal(int pad){
+        int n = addPad(pad);
         double integral = 0;
         int BinSize = 40;
         int NBinKept = 3;
-        for(int tbin = 0; tbin < TrigWindSize; tbin += SignalStepSize){  
+        for(int tbin = 0; tbin < TrigWindSize; tbin += SignalStepSize){
             if(tbin>0){
-                integral+=0.5*(getSignal(pad,tbin-SignalStepSize)+getSignal(pad,tbin))*SignalStepSize;
-            }	         		         	
+                integral+=0.5*(getSignal(n,tbin-SignalStepSize)+getSignal(n,tbin))*SignalStepSize;
+            }
             if(tbin%BinSize==0 && tbin>0){ // integration over BinSize
                 if(tbin%(BinSize*NBinKept)==0){ // one BinSize over NBinKept is read out
-                    if(!_intADCMap.containsKey(pad)){
-                        _intADCMap.put(pad, new double[TrigWindSize]);
-                    }
-                    _intADCMap.get(pad)[tbin] = integral;
-                }	             
+                    setADC(n, tbin, integral);
+                }
                 integral=0;
             }
         }
     }
-    
+
+    /**
+     * @param Pad the pad
+     * @param Time the time bin
+     * @return the integrated signal, 0 if the time bin is empty
+     */
     public double getADC(int Pad, int Time){
-        return _intADCMap.get(Pad)[Time];
+        int n = getPadNumber(Pad);
+        if(n < 0) return 0;
+        int i = Arrays.binarySearch(_times[n], 0, _nsamples[n], Time);
+        return i < 0 ? 0 : _adcs[n][i];
     }
-    
-    public HashMap<Integer,double[]> getADCMap(){
-        return _intADCMap;
-    }
-    
-    private double getSignal(int pad, int time){
-        return _ADCMap.get(pad)[time];
+
+    private double getSignal(int n, int time){
+        return _signals[n] == null ? 0 : _signals[n][time/SignalStepSize];
     }
-    
+
     public void addSignal(int pad, int time, double edep){
-        if(!_intADCMap.containsKey(pad)){
-            _intADCMap.put(pad, new double[TrigWindSize]);
+        setADC(addPad(pad), time, edep);
+    }
+
+    /**
+     * @return the number of fired pads
+     */
+    public int getNumberOfPads(){
+        return _npads;
+    }
+
+    /**
+     * @param n the pad number, in the order pads were first filled
+     * @return the pad
+     */
+    public int getPad(int n){
+        return _pads[n];
+    }
+
+    /**
+     * @return the number of occupied time bins, over all pads
+     */
+    public int getNumberOfTimeBins(){
+        buildTimeIndex();
+        return _timeBins.length;
+    }
+
+    /**
+     * @param index the time bin index, in increasing time
+     * @return the time of the bin
+     */
+    public int getTimeBin(int index){
+        buildTimeIndex();
+        return _timeBins[index];
+    }
+
+    /**
+     * The samples of time bin index are numbered from getFirstSample(index)
+     * to getFirstSample(index+1) excluded, by increasing pad number.
+     *
+     * @param index the time bin index, up to getNumberOfTimeBins() included
+     * @return the first sample of the time bin
+     */
+    public int getFirstSample(int index){
+        buildTimeIndex();
+        return _timeStart[index];
+    }
+
+    /**
+     * @param sample the sample, in increasing time
+     * @return the pad of the sample
+     */
+    public int getSamplePad(int sample){
+        buildTimeIndex();
+        return _samplePads[sample];
+    }
+
+    /**
+     * @param sample the sample, in increasing time
+     * @return the integrated signal of the sample
+     */
+    public double getSampleADC(int sample){
+        buildTimeIndex();
+        return _sampleADCs[sample];
+    }
+
+    private int getPadNumber(int pad){
+        int mask = _table.length - 1;
+        for(int slot = hash(pad) & mask; _table[slot] != 0; slot = (slot + 1) & mask){
+            if(_pads[_table[slot] - 1] == pad) return _table[slot] - 1;
+        }
+        return -1;
+    }
+
+    private int addPad(int pad){
+        int n = getPadNumber(pad);
+        if(n >= 0) return n;
+        if(_npads == _pads.length){
+            int size = 2*_pads.length;
+            _pads = Arrays.copyOf(_pads, size);
+            _times = Arrays.copyOf(_times, size);
+            _adcs = Arrays.copyOf(_adcs, size);
+            _nsamples = Arrays.copyOf(_nsamples, size);
+            _signals = Arrays.copyOf(_signals, size);
+        }
+        if(2*(_npads + 1) > _table.length){
+            _table = new int[2*_table.length];
+            for(int k = 0; k < _npads; k++) insert(k);
+        }
+        n = _npads++;
+        _pads[n] = pad;
+        _times[n] = new int[8];
+        _adcs[n] = new float[8];
+        insert(n);
+        _indexed = false;
+        return n;
+    }
+
+    private void insert(int n){
+        int mask = _table.length - 1;
+        int slot = hash(_pads[n]) & mask;
+        while(_table[slot] != 0) slot = (slot + 1) & mask;
+        _table[slot] = n + 1;
+    }
+
+    private static int hash(int pad){
+        int h = pad * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private void setADC(int n, int time, double adc){
+        int i = Arrays.binarySearch(_times[n], 0, _nsamples[n], time);
+        if(i < 0){
+            i = -i - 1;
+            if(_nsamples[n] == _times[n].length){
+                _times[n] = Arrays.copyOf(_times[n], 2*_times[n].length);
+                _adcs[n] = Arrays.copyOf(_adcs[n], 2*_adcs[n].length);
+            }
+            System.arraycopy(_times[n], i, _times[n], i + 1, _nsamples[n] - i);
+            System.arraycopy(_adcs[n], i, _adcs[n], i + 1, _nsamples[n] - i);
+            _times[n][i] = time;
+            _nsamples[n]++;
         }
-        _intADCMap.get(pad)[time] = edep;
+        _adcs[n][i] = (float) adc;
+        _indexed = false;
     }
-    
+
+    private void buildTimeIndex(){
+        if(_indexed) return;
+        int nsamples = 0;
+        for(int n = 0; n < _npads; n++) nsamples += _nsamples[n];
+        int[] times = new int[nsamples];
+        int k = 0;
+        for(int n = 0; n < _npads; n++){
+            System.arraycopy(_times[n], 0, times, k, _nsamples[n]);
+            k += _nsamples[n];
+        }
+        Arrays.sort(times);
+        int nbins = 0;
+        for(int i = 0; i < nsamples; i++){
+            if(i == 0 || times[i] != times[i-1]) times[nbins++] = times[i];
+        }
+        _timeBins = Arrays.copyOf(times, nbins);
+        _timeStart = new int[nbins + 1];
+        for(int n = 0; n < _npads; n++){
+            for(int i = 0; i < _nsamples[n]; i++){
+                _timeStart[Arrays.binarySearch(_timeBins, _times[n][i]) + 1]++;
+            }
+        }
+        for(int b = 0; b < nbins; b++) _timeStart[b+1] += _timeStart[b];
+        int[] next = Arrays.copyOf(_timeStart, nbins);
+        _samplePads = new int[nsamples];
+        _sampleADCs = new float[nsamples];
+        for(int n = 0; n < _npads; n++){
+            for(int i = 0; i < _nsamples[n]; i++){
+                int s = next[Arrays.binarySearch(_timeBins, _times[n][i])]++;
+                _samplePads[s] = _pads[n];
+                _sampleADCs[s] = _adcs[n][i];
+            }
+        }
+        _indexed = true;
+    }
+
     private double getSignalAtBin(double tsignal, double t, double edep){
 
         double signal_height;
         //t = noise_elec(t);    // change t to simulate the electronics noise, also modifies the amplitude
-        double p0 = 0.0;     
-        double p2 = 178.158;    
-        double p3 = 165.637;     
+        double p0 = 0.0;
+        double p2 = 178.158;
+        double p3 = 165.637;
         double p4 = 165.165;
 
         if(t<tsignal){
@@ -89,11 +269,11 @@ public class ADCMap {
         }
         return signal_height;
     }
-    
+
     /*private double noise_elec(double time){
         Random noise = new Random();
         double sigTelec = 5; // 5 ns uncertainty on the signal
         return noise.nextGaussian()*sigTelec + tim;
     }*/
-    
+
 }
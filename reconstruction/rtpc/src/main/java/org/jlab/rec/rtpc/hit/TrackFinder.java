@@ -22,11 +22,9 @@ public class TrackFinder {
     private List<Integer> TIDList;
     private Track track;
     private ADCMap ADCMap;
-    private List<Integer> PadList;
     private int TrigWindSize;
     private int StepSize = 120;//Bin Size of Dream Electronics Output
     private double adcthresh = 0; 
-    private int padloopsize;// = PadList.size();
     private boolean padSorted = false; 
     private List<Integer> padTIDlist = new ArrayList<>();
     private List<Integer> padlist; 
@@ -56,25 +54,25 @@ public class TrackFinder {
         zthreshgap = params.get_zthreshTFgap();
         phithreshgap = params.get_phithreshTFgap();
         ADCMap = params.get_ADCMap();
-        PadList = params.get_PadList();
         TFtotaltracktimeflag = params.get_TFtotaltracktimeflag();
         TFtotalpadtimeflag = params.get_TFtotalpadtimeflag();
         
         TrigWindSize = params.get_TrigWindSize();
-        padloopsize = PadList.size();
         
         /*
          * Main Algorithm
          */
-        TIMELOOP: //Loop over all times
-        for(int time = 0; time < TrigWindSize; time += StepSize) { //Steps of 120 up to TrigWindSize = 10000
+        TIMELOOP: //Loop over occupied times
+        for(int timeindex = 0; timeindex < ADCMap.getNumberOfTimeBins(); timeindex++) {
+            int time = ADCMap.getTimeBin(timeindex);
+            if(time < 0 || time >= TrigWindSize || time % StepSize != 0) continue; //Steps of 120 up to TrigWindSize = 10000
 
-            PADLOOP: //Loop over all pads
-            for(int padindex = 0; padindex < padloopsize; padindex++) {
+            PADLOOP: //Loop over the pads with a signal at this time, in pad list order
+            for(int sample = ADCMap.getFirstSample(timeindex); sample < ADCMap.getFirstSample(timeindex + 1); sample++) {
                 padSorted = false;  //Flag to be set when the pad is assigned to a track
                 padTIDlist.clear(); //List of all TIDs assigned to the pad starts empty
-                pad = PadList.get(padindex);	
-                adc = ADCMap.getADC(pad,time);
+                pad = ADCMap.getSamplePad(sample);
+                adc = ADCMap.getSampleADC(sample);
                 
                 
 
@@ -21,6 +21,10 @@ tar -zxvf twoTrackEvents_809_raw.evio.tar.gz
 $COAT/bin/decoder -t -0.5 -s 0.0 -i ./twoTrackEvents_809_raw.evio -o ./twoTrackEvents_809.hipo -c 2
 [ $? -ne 0 ] && echo "decoder failure" && exit 3
 
+# run decoder with multiple threads, for comparison with the serial mode
+$COAT/bin/decoder -t -0.5 -s 0.0 -j 4 -i ./twoTrackEvents_809_raw.evio -o ./twoTrackEvents_809_j4.hipo -c 2
+[ $? -ne 0 ] && echo "multi-threaded decoder failure" && exit 7
+
 # run clara
 $COAT/bin/run-clara -y $COAT/etc/services/kpp.yaml ./twoTrackEvents_809.hipo
 [ $? -ne 0 ] && echo "reconstruction with clara failure" && exit 4
@@ -34,3 +38,11 @@ java -DCLAS12DIR="$COAT" -Xmx1536m -Xms1024m -cp $classPath org.junit.runner.JUn
 [ $? -ne 0 ] && echo "KppTracking unit test failure" && exit 6
 
 echo "KppTracking passed unit tests"
+
+# compile and run the decoder comparison test
+javac -cp $classPath src/decoder/DecoderThreadsTest.java
+[ $? -ne 0 ] && echo "DecoderThreadsTest compilation failure" && exit 8
+java -DCLAS12DIR="$COAT" -Xmx1536m -Xms1024m -cp $classPath org.junit.runner.JUnitCore decoder.DecoderThreadsTest
+[ $? -ne 0 ] && echo "DecoderThreads unit test failure" && exit 9
+
+echo "DecoderThreads passed unit tests"
@@ -0,0 +1,79 @@
+package decoder;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import org.jlab.jnp.hipo4.data.Bank;
+import org.jlab.jnp.hipo4.data.Event;
+import org.jlab.jnp.hipo4.data.Schema;
+import org.jlab.jnp.hipo4.io.HipoReader;
+
+/**
+ * Compares the output of the decoder in the serial mode and with -j N,
+ * which must be the same, event by event and bank by bank.
+ */
+public class DecoderThreadsTest {
+
+    @Test
+    public void testDecoderThreads() {
+
+        HipoReader readerA = new HipoReader();
+        HipoReader readerB = new HipoReader();
+        readerA.open("twoTrackEvents_809.hipo");
+        readerB.open("twoTrackEvents_809_j4.hipo");
+
+        Event eventA = new Event();
+        Event eventB = new Event();
+        int nevents = 0;
+        while (readerA.hasNext()) {
+            assertTrue("missing events with -j 4", readerB.hasNext());
+            readerA.nextEvent(eventA);
+            readerB.nextEvent(eventB);
+            assertEquals(eventA.getEventTag(), eventB.getEventTag());
+            for (Schema schema : readerA.getSchemaFactory().getSchemaList()) {
+                this.compareBanks(nevents, schema, eventA, eventB);
+            }
+            nevents++;
+        }
+        assertFalse("extra events with -j 4", readerB.hasNext());
+        System.out.println("\nCompared " + nevents + " events");
+        assertTrue(nevents > 0);
+    }
+
+    private void compareBanks(int nevent, Schema schema, Event eventA, Event eventB) {
+        Bank bankA = new Bank(schema);
+        Bank bankB = new Bank(schema);
+        eventA.read(bankA);
+        eventB.read(bankB);
+        String where = "event " + nevent + " bank " + schema.getName();
+        assertEquals(where, bankA.getRows(), bankB.getRows());
+        for (int i = 0; i < bankA.getRows(); i++) {
+            for (int j = 0; j < schema.getElements(); j++) {
+                String name = schema.getElementName(j);
+                String what = where + " row " + i + " " + name;
+                switch (schema.getType(j)) {
+                    case 1:
+                        assertEquals(what, bankA.getByte(name, i), bankB.getByte(name, i));
+                        break;
+                    case 2:
+                        assertEquals(what, bankA.getShort(name, i), bankB.getShort(name, i));
+                        break;
+                    case 3:
+                        assertEquals(what, bankA.getInt(name, i), bankB.getInt(name, i));
+                        break;
+                    case 4:
+                        assertEquals(what, Float.floatToIntBits(bankA.getFloat(name, i)),
+                                           Float.floatToIntBits(bankB.getFloat(name, i)));
+                        break;
+                    case 5:
+                        assertEquals(what, Double.doubleToLongBits(bankA.getDouble(name, i)),
+                                           Double.doubleToLongBits(bankB.getDouble(name, i)));
+                        break;
+                    case 8:
+                        assertEquals(what, bankA.getLong(name, i), bankB.getLong(name, i));
+                        break;
+                }
+            }
+        }
+    }
+}